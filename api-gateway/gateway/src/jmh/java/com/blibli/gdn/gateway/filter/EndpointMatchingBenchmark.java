@@ -0,0 +1,70 @@
+package com.blibli.gdn.gateway.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for per-request lookups done before any downstream call:
+ * public/optional-auth endpoint matching and rate-limit key construction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointMatchingBenchmark {
+
+    @Param({"/api/v1/auth/login", "/api/v1/products/P-001", "/api/v1/members/me", "/webjars/swagger-ui/index.css"})
+    public String path;
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private RateLimitFilter rateLimitFilter;
+    private MockHttpServletRequest userRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setUp() {
+        jwtAuthenticationFilter = GatewayFilterFixtures.jwtAuthenticationFilter(
+                GatewayFilterFixtures.jwtUtil(), GatewayFilterFixtures.objectMapper());
+        rateLimitFilter = GatewayFilterFixtures.rateLimitFilter(GatewayFilterFixtures.objectMapper());
+
+        userRequest = new MockHttpServletRequest("GET", path);
+        userRequest.setAttribute("X-User-Id", "6f1c1c52-8a55-4d63-9f0e-1c2d3e4f5a6b");
+
+        anonymousRequest = new MockHttpServletRequest("GET", path);
+        anonymousRequest.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+    }
+
+    @Benchmark
+    public boolean isPublicEndpoint() {
+        return jwtAuthenticationFilter.isPublicEndpoint(path);
+    }
+
+    @Benchmark
+    public boolean isOptionalAuthEndpoint() {
+        return jwtAuthenticationFilter.isOptionalAuthEndpoint(path);
+    }
+
+    @Benchmark
+    public String rateLimitKeyForUser() {
+        return rateLimitFilter.getRateLimitKey(userRequest);
+    }
+
+    @Benchmark
+    public String rateLimitKeyForClientIp() {
+        return rateLimitFilter.getRateLimitKey(anonymousRequest);
+    }
+}
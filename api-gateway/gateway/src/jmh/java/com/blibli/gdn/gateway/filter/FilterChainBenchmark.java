@@ -0,0 +1,99 @@
+package com.blibli.gdn.gateway.filter;
+
+import com.blibli.gdn.gateway.domain.Role;
+import com.blibli.gdn.gateway.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.GenericServlet;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the servlet filter chain in registration order
+ * (SecurityHeaders -> RequestLogging -> JwtAuthentication -> RateLimit) against mock requests.
+ * The terminal servlet does nothing, so the numbers are pure gateway overhead per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private Filter[] filters;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = GatewayFilterFixtures.objectMapper();
+        JwtUtil jwtUtil = GatewayFilterFixtures.jwtUtil();
+
+        filters = new Filter[]{
+                GatewayFilterFixtures.securityHeadersFilter(),
+                new RequestLoggingFilter(),
+                GatewayFilterFixtures.jwtAuthenticationFilter(jwtUtil, objectMapper),
+                GatewayFilterFixtures.rateLimitFilter(objectMapper)
+        };
+        bearerToken = "Bearer " + jwtUtil.generateAccessToken(UUID.randomUUID(), "bench@example.com", Role.USER);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicEndpoint() throws ServletException, IOException {
+        return run(new MockHttpServletRequest("GET", "/api/v1/products/P-001"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedEndpoint() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/members/me");
+        request.addHeader("Authorization", bearerToken);
+        return run(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse optionalAuthGuest() throws ServletException, IOException {
+        return run(new MockHttpServletRequest("GET", "/api/v1/cart"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse optionalAuthWithToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/cart");
+        request.addHeader("Authorization", bearerToken);
+        return run(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse missingToken() throws ServletException, IOException {
+        return run(new MockHttpServletRequest("GET", "/api/v1/members/me"));
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new NoOpServlet(), filters).doFilter(request, response);
+        return response;
+    }
+
+    private static class NoOpServlet extends GenericServlet {
+        @Override
+        public void service(ServletRequest request, ServletResponse response) {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.blibli.gdn.gateway.filter;
+
+import com.blibli.gdn.gateway.config.JacksonConfig;
+import com.blibli.gdn.gateway.config.PublicEndpointsConfig;
+import com.blibli.gdn.gateway.service.TokenDenylistService;
+import com.blibli.gdn.gateway.util.JwtUtil;
+import com.blibli.gdn.gateway.util.JwtUtilBenchmark;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds gateway filters wired the same way as application.yml, without Spring or Redis
+ */
+final class GatewayFilterFixtures {
+
+    static final List<String> PUBLIC_ENDPOINTS = List.of(
+            "/api/v1/auth/login",
+            "/api/v1/auth/register",
+            "/api/v1/auth/refresh",
+            "/api/v1/auth/forgot-password",
+            "/api/v1/auth/reset-password",
+            "/api/v1/products/**",
+            "/api/v1/internal/products/sku/**",
+            "/api/v1/cart/**",
+            "/health",
+            "/actuator/**",
+            "/swagger-ui.html",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/member/v3/api-docs/**",
+            "/product/v3/api-docs/**",
+            "/cart/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/webjars/**");
+
+    static final List<String> OPTIONAL_AUTH_ENDPOINTS = List.of("/api/v1/cart/**");
+
+    private GatewayFilterFixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return new JacksonConfig().objectMapper();
+    }
+
+    static JwtUtil jwtUtil() {
+        return new JwtUtil(JwtUtilBenchmark.jwtConfig());
+    }
+
+    static PublicEndpointsConfig publicEndpointsConfig() {
+        PublicEndpointsConfig config = new PublicEndpointsConfig();
+        config.setPublicEndpoints(PUBLIC_ENDPOINTS);
+        config.setOptionalAuthEndpoints(OPTIONAL_AUTH_ENDPOINTS);
+        return config;
+    }
+
+    static JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtil jwtUtil, ObjectMapper objectMapper) {
+        // Denylist lookups are a Redis round trip in production; keep them out of the CPU profile
+        TokenDenylistService denylist = new TokenDenylistService(null, jwtUtil) {
+            @Override
+            public boolean isTokenDenied(String token) {
+                return false;
+            }
+        };
+        return new JwtAuthenticationFilter(jwtUtil, objectMapper, publicEndpointsConfig(), denylist);
+    }
+
+    static RateLimitFilter rateLimitFilter(ObjectMapper objectMapper) {
+        RateLimitFilter filter = new RateLimitFilter(new InMemoryRedisTemplate(), objectMapper);
+        ReflectionTestUtils.setField(filter, "rateLimitEnabled", true);
+        ReflectionTestUtils.setField(filter, "defaultLimit", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(filter, "perUser", true);
+        ReflectionTestUtils.setField(filter, "perIp", false);
+        return filter;
+    }
+
+    static SecurityHeadersFilter securityHeadersFilter() {
+        SecurityHeadersFilter filter = new SecurityHeadersFilter();
+        ReflectionTestUtils.setField(filter, "securityHeadersEnabled", true);
+        ReflectionTestUtils.setField(filter, "contentSecurityPolicy", "default-src 'self'");
+        ReflectionTestUtils.setField(filter, "maxBodySize", 10485760L);
+        return filter;
+    }
+
+    /**
+     * RedisTemplate whose counters live in a local map, so rate limiting can run without a server
+     */
+    static class InMemoryRedisTemplate extends RedisTemplate<String, String> {
+
+        private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private final ValueOperations<String, String> valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(),
+                new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> {
+                    if ("increment".equals(method.getName()) && args.length == 1) {
+                        return counters.computeIfAbsent((String) args[0], k -> new AtomicLong()).incrementAndGet();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return Boolean.TRUE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.blibli.gdn.gateway.model;
+
+import com.blibli.gdn.gateway.config.JacksonConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for building and serializing the gateway error envelope
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayErrorResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GatewayErrorResponse prebuilt;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        prebuilt = GatewayErrorResponse.of(401, "Unauthorized", "Missing or invalid token",
+                "/api/v1/members/me", "trace-id");
+    }
+
+    @Benchmark
+    public String serializeUnauthorized() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(prebuilt);
+    }
+
+    @Benchmark
+    public String buildAndSerializeUnauthorized() throws JsonProcessingException {
+        GatewayErrorResponse errorResponse = GatewayErrorResponse.of(401, "Unauthorized",
+                "Missing or invalid token", "/api/v1/members/me", "trace-id");
+        return objectMapper.writeValueAsString(errorResponse);
+    }
+
+    @Benchmark
+    public String buildAndSerializeRateLimited() throws JsonProcessingException {
+        Map<String, Object> details = new HashMap<>();
+        details.put("limit", "1000/min");
+        GatewayErrorResponse errorResponse = GatewayErrorResponse.of(429, "Too Many Requests",
+                "Rate limit exceeded", "/api/v1/products", "trace-id", details);
+        return objectMapper.writeValueAsString(errorResponse);
+    }
+}
@@ -0,0 +1,66 @@
+package com.blibli.gdn.gateway.util;
+
+import com.blibli.gdn.gateway.config.JwtConfig;
+import com.blibli.gdn.gateway.domain.Role;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for token signing and verification in JwtUtil
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    static final String SECRET = "benchmark-secret-key-for-jwt-token-validation-must-be-256-bits-long";
+
+    private JwtUtil jwtUtil;
+    private UUID memberId;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(jwtConfig());
+        memberId = UUID.randomUUID();
+        accessToken = jwtUtil.generateAccessToken(memberId, "bench@example.com", Role.USER);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(accessToken);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken(memberId, "bench@example.com", Role.USER);
+    }
+
+    @Benchmark
+    public boolean validateAccessToken() {
+        return jwtUtil.validateAccessToken(accessToken);
+    }
+
+    public static JwtConfig jwtConfig() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setAccessTokenExpiration(900000L);
+        config.setRefreshTokenExpiration(2592000000L);
+        return config;
+    }
+}
@@ -7,8 +7,10 @@ import com.blibli.gdn.gateway.config.PublicEndpointsConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableConfigurationProperties({JwtConfig.class, CorsConfig.class, PublicEndpointsConfig.class})
 public class GatewayApplication {
 
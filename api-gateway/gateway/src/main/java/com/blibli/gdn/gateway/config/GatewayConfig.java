@@ -1,12 +1,22 @@
 package com.blibli.gdn.gateway.config;
 
+import com.blibli.gdn.gateway.filter.DeadlinePropagationFilter;
+import com.blibli.gdn.gateway.service.ApiDocsCacheService;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.servlet.function.RouterFunction;
@@ -14,6 +24,9 @@ import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
 
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
 
 import static org.springframework.cloud.gateway.server.mvc.filter.FilterFunctions.addRequestHeader;
 import static org.springframework.cloud.gateway.server.mvc.handler.GatewayRouterFunctions.route;
@@ -24,6 +37,10 @@ import static org.springframework.cloud.gateway.server.mvc.predicate.GatewayRequ
 @Slf4j
 public class GatewayConfig {
 
+    private static final String MEMBER_SERVICE = "memberService";
+    private static final String PRODUCT_SERVICE = "productService";
+    private static final String CART_SERVICE = "cartService";
+
     @Value("${services.member.url}")
     private String memberServiceUrl;
 
@@ -33,13 +50,38 @@ public class GatewayConfig {
     @Value("${services.cart.url}")
     private String cartServiceUrl;
 
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    public GatewayConfig(TimeLimiterRegistry timeLimiterRegistry) {
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
     @Bean
     public RestClient restClient() {
         return RestClient.builder().build();
     }
 
+    /**
+     * Used by the route proxy: a call to a downstream service gives up reading once its route budget is spent
+     */
+    @Bean
+    public ClientHttpRequestFactory gatewayClientHttpRequestFactory() {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        Map<String, ClientHttpRequestFactory> byServiceUrl = Map.of(
+                memberServiceUrl, requestFactory(httpClient, routeTimeout(MEMBER_SERVICE)),
+                productServiceUrl, requestFactory(httpClient, routeTimeout(PRODUCT_SERVICE)),
+                cartServiceUrl, requestFactory(httpClient, routeTimeout(CART_SERVICE)));
+        ClientHttpRequestFactory fallback = new JdkClientHttpRequestFactory(httpClient);
+        return (uri, method) -> byServiceUrl.entrySet().stream()
+                .filter(service -> uri.toString().startsWith(service.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(fallback)
+                .createRequest(uri, method);
+    }
+
     @Bean
-    public RouterFunction<ServerResponse> gatewayRouterFunctions() {
+    public RouterFunction<ServerResponse> gatewayRouterFunctions(DeadlinePropagationFilter deadlinePropagationFilter) {
         log.info("Configuring gateway routes...");
         log.info("Member Service URL: {}", memberServiceUrl);
         log.info("Product Service URL: {}", productServiceUrl);
@@ -54,15 +96,19 @@ public class GatewayConfig {
                     return next.handle(request);
                 })
                 .filter(addRequestHeader("X-Gateway", "API-Gateway"))
+                .filter(deadlinePropagationFilter.forRoute("member_service_members", routeTimeout(MEMBER_SERVICE)))
                 .build()
+                // Stock reservations are service-to-service only and never reachable through the gateway
                 .and(route("product_service_internal")
-                        .route(path("/api/v1/internal/products/**"), http())
+                        .route(path("/api/v1/internal/products/**")
+                                .and(path("/api/v1/internal/products/stock/**").negate()), http())
                         .filter((request, next) -> {
                             URI uri = URI.create(productServiceUrl + request.uri().getPath());
                             request.attributes().put(MvcUtils.GATEWAY_REQUEST_URL_ATTR, uri);
                             return next.handle(request);
                         })
                         .filter(addRequestHeader("X-Gateway", "API-Gateway"))
+                        .filter(deadlinePropagationFilter.forRoute("product_service_internal", routeTimeout(PRODUCT_SERVICE)))
                         .build())
                 .and(route("product_service")
                         .route(path("/api/v1/products/**"), http())
@@ -72,6 +118,7 @@ public class GatewayConfig {
                             return next.handle(request);
                         })
                         .filter(addRequestHeader("X-Gateway", "API-Gateway"))
+                        .filter(deadlinePropagationFilter.forRoute("product_service", routeTimeout(PRODUCT_SERVICE)))
                         .build())
                 .and(route("cart_service")
                         .route(path("/api/v1/cart/**"), http())
@@ -100,109 +147,67 @@ public class GatewayConfig {
 
                             return next.handle(modifiedRequest);
                         })
+                        .filter(deadlinePropagationFilter.forRoute("cart_service", routeTimeout(CART_SERVICE)))
                         .build());
     }
+
+    /**
+     * A route's budget is its service's resilience4j time limit, so it is configured in one place
+     */
+    private Duration routeTimeout(String service) {
+        return timeLimiterRegistry.timeLimiter(service).getTimeLimiterConfig().getTimeoutDuration();
+    }
+
+    private static ClientHttpRequestFactory requestFactory(HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
 }
 
 @RestController
 @Slf4j
 class ApiDocsProxyController {
 
-    private final RestClient restClient;
-
-    @Value("${services.member.url}")
-    private String memberServiceUrl;
+    private final ApiDocsCacheService apiDocsCacheService;
 
-    @Value("${services.product.url}")
-    private String productServiceUrl;
-
-    @Value("${services.cart.url}")
-    private String cartServiceUrl;
-
-    @Value("${server.port}")
-    private String gatewayPort;
-
-    public ApiDocsProxyController(RestClient restClient) {
-        this.restClient = restClient;
+    public ApiDocsProxyController(ApiDocsCacheService apiDocsCacheService) {
+        this.apiDocsCacheService = apiDocsCacheService;
     }
 
     @GetMapping("/member/v3/api-docs")
-    public ResponseEntity<String> getMemberApiDocs() {
-        log.debug("Proxying request to Member service API docs: {}/v3/api-docs", memberServiceUrl);
-        try {
-            String response = restClient.get()
-                    .uri(memberServiceUrl + "/v3/api-docs")
-                    .retrieve()
-                    .body(String.class);
-
-            String modifiedResponse = rewriteServerUrls(response, memberServiceUrl);
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/json")
-                    .body(modifiedResponse);
-        } catch (Exception e) {
-            log.error("Error proxying to Member service: {}", e.getMessage());
-            throw e;
-        }
+    public ResponseEntity<byte[]> getMemberApiDocs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serveApiDocs("member", ifNoneMatch);
     }
 
     @GetMapping("/product/v3/api-docs")
-    public ResponseEntity<String> getProductApiDocs() {
-        log.debug("Proxying request to Product service API docs: {}/v3/api-docs", productServiceUrl);
-        try {
-            String response = restClient.get()
-                    .uri(productServiceUrl + "/v3/api-docs")
-                    .retrieve()
-                    .body(String.class);
-
-            String modifiedResponse = rewriteServerUrls(response, productServiceUrl);
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/json")
-                    .body(modifiedResponse);
-        } catch (Exception e) {
-            log.error("Error proxying to Product service: {}", e.getMessage());
-            throw e;
-        }
+    public ResponseEntity<byte[]> getProductApiDocs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serveApiDocs("product", ifNoneMatch);
     }
 
     @GetMapping("/cart/v3/api-docs")
-    public ResponseEntity<String> getCartApiDocs() {
-        log.debug("Proxying request to Cart service API docs: {}/v3/api-docs", cartServiceUrl);
-        try {
-            String response = restClient.get()
-                    .uri(cartServiceUrl + "/v3/api-docs")
-                    .retrieve()
-                    .body(String.class);
-
-            String modifiedResponse = rewriteServerUrls(response, cartServiceUrl);
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/json")
-                    .body(modifiedResponse);
-        } catch (Exception e) {
-            log.error("Error proxying to Cart service: {}", e.getMessage());
-            throw e;
-        }
+    public ResponseEntity<byte[]> getCartApiDocs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serveApiDocs("cart", ifNoneMatch);
     }
 
 
-    private String rewriteServerUrls(String apiDocsJson, String originalServiceUrl) {
-        try {
-            String gatewayUrl = "http://localhost:" + gatewayPort;
+    private ResponseEntity<byte[]> serveApiDocs(String service, String ifNoneMatch) {
+        ApiDocsCacheService.CachedApiDocs docs = apiDocsCacheService.getDocs(service);
 
-            String modified = apiDocsJson.replace(originalServiceUrl, gatewayUrl);
-
-            modified = modified.replaceAll(
-                    "\"url\"\\s*:\\s*\"" + originalServiceUrl.replace(":", "\\:") + "\"",
-                    "\"url\":\"" + gatewayUrl + "\""
-            );
-
-            log.debug("Rewrote server URL from {} to {}", originalServiceUrl, gatewayUrl);
-            return modified;
-        } catch (Exception e) {
-            log.error("Error rewriting server URLs: {}", e.getMessage());
-            return apiDocsJson;
+        if (docs.matches(ifNoneMatch)) {
+            log.debug("{} API docs not modified (etag {})", service, docs.getEtag());
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(docs.getEtag())
+                    .build();
         }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(docs.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(docs.getBody());
     }
 }
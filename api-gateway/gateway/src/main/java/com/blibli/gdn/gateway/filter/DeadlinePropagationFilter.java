@@ -0,0 +1,81 @@
+package com.blibli.gdn.gateway.filter;
+
+import com.blibli.gdn.gateway.model.GatewayErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.Duration;
+
+
+/**
+ * Stamps the remaining request budget on proxied requests so downstream services can stop
+ * working on requests the gateway has already given up on.
+ * The budget is the route timeout minus time already spent in the gateway, capped by any
+ * budget the client sent itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlinePropagationFilter {
+
+    public static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+
+    public static final String REQUEST_START_ATTRIBUTE = "requestStartNanos";
+
+    private final MeterRegistry meterRegistry;
+
+
+    public HandlerFilterFunction<ServerResponse, ServerResponse> forRoute(String routeId, Duration routeTimeout) {
+        Counter expired = Counter.builder("gateway.deadline.expired")
+                .description("Requests rejected at the gateway because their deadline passed before proxying")
+                .tag("route", routeId)
+                .register(meterRegistry);
+
+        return (request, next) -> {
+            long remainingMs = remainingBudgetMs(request, routeTimeout);
+
+            if (remainingMs <= 0) {
+                expired.increment();
+                log.warn("Deadline expired before proxying {} on route {}", request.path(), routeId);
+                String traceId = (String) request.servletRequest().getAttribute("traceId");
+                return ServerResponse.status(HttpStatus.GATEWAY_TIMEOUT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(GatewayErrorResponse.of(HttpStatus.GATEWAY_TIMEOUT.value(), "Gateway Timeout",
+                                "Request deadline exceeded", request.path(), traceId));
+            }
+
+            ServerRequest stamped = ServerRequest.from(request)
+                    .headers(headers -> headers.set(DEADLINE_HEADER, String.valueOf(remainingMs)))
+                    .build();
+            return next.handle(stamped);
+        };
+    }
+
+
+    long remainingBudgetMs(ServerRequest request, Duration routeTimeout) {
+        long budgetMs = routeTimeout.toMillis();
+
+        String clientBudget = request.headers().firstHeader(DEADLINE_HEADER);
+        if (clientBudget != null) {
+            try {
+                budgetMs = Math.min(budgetMs, Long.parseLong(clientBudget.trim()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", DEADLINE_HEADER, clientBudget);
+            }
+        }
+
+        Object startNanos = request.servletRequest().getAttribute(REQUEST_START_ATTRIBUTE);
+        if (startNanos instanceof Long start) {
+            budgetMs -= Duration.ofNanos(System.nanoTime() - start).toMillis();
+        }
+        return budgetMs;
+    }
+}
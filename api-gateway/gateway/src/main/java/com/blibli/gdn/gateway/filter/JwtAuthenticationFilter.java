@@ -184,7 +184,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
-    private boolean isPublicEndpoint(String path) {
+    boolean isPublicEndpoint(String path) {
         return publicEndpointsConfig.getPublicEndpoints().stream()
                 .anyMatch(endpoint -> {
                     if (endpoint.endsWith("/**")) {
@@ -196,7 +196,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
-    private boolean isOptionalAuthEndpoint(String path) {
+    boolean isOptionalAuthEndpoint(String path) {
         return publicEndpointsConfig.getOptionalAuthEndpoints().stream()
                 .anyMatch(endpoint -> {
                     if (endpoint.endsWith("/**")) {
@@ -0,0 +1,115 @@
+package com.blibli.gdn.gateway.filter;
+
+import com.blibli.gdn.gateway.model.GatewayErrorResponse;
+import com.blibli.gdn.gateway.model.RequestPriority;
+import com.blibli.gdn.gateway.service.AdmissionControlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Sheds low-priority traffic first when the gateway is saturated.
+ * Runs after authentication so the caller's role is known.
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+@Slf4j
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.load-shedding.enabled:true}")
+    private boolean loadSheddingEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!loadSheddingEnabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestPriority priority = classify(request);
+        if (!admissionControlService.tryAcquire(priority)) {
+            log.warn("Shedding {} {} (priority: {}, shed level: {})", request.getMethod(), request.getRequestURI(),
+                    priority, admissionControlService.getShedLevel());
+            sendOverloadedResponse(request, response, priority);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionControlService.release(priority);
+        }
+    }
+
+
+    RequestPriority classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        boolean isRead = "GET".equalsIgnoreCase(request.getMethod()) || "HEAD".equalsIgnoreCase(request.getMethod());
+
+        if (path.equals("/health") || path.startsWith("/actuator/")) {
+            return RequestPriority.CRITICAL;
+        }
+        if (path.contains("/v3/api-docs") || path.startsWith("/swagger-ui") || path.startsWith("/swagger-resources")
+                || path.startsWith("/webjars/")) {
+            return RequestPriority.BACKGROUND;
+        }
+        // Checkout path: adding to / changing the cart, logging in to check out
+        if (path.startsWith("/api/v1/cart") && !isRead) {
+            return RequestPriority.HIGH;
+        }
+        if (path.equals("/api/v1/auth/login") || path.equals("/api/v1/auth/refresh")) {
+            return RequestPriority.HIGH;
+        }
+        // Back-office users keep working even while catalog browsing is being shed
+        if ("ADMIN".equals(request.getAttribute("X-User-Role"))) {
+            return RequestPriority.NORMAL;
+        }
+        if (path.startsWith("/api/v1/products") && isRead) {
+            return RequestPriority.LOW;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+
+    private void sendOverloadedResponse(HttpServletRequest request, HttpServletResponse response, RequestPriority priority)
+            throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("priority", priority.tag());
+
+        GatewayErrorResponse errorResponse = GatewayErrorResponse.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Gateway is overloaded, please retry shortly",
+                request.getRequestURI(),
+                (String) request.getAttribute("traceId"),
+                details
+        );
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+}
@@ -82,7 +82,7 @@ public class RateLimitFilter extends OncePerRequestFilter {
     }
 
 
-    private String getRateLimitKey(HttpServletRequest request) {
+    String getRateLimitKey(HttpServletRequest request) {
         StringBuilder key = new StringBuilder("rate_limit:");
 
         if (perUser) {
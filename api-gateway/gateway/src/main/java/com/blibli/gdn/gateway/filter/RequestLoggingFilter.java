@@ -22,6 +22,7 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         long startTime = System.currentTimeMillis();
+        request.setAttribute(DeadlinePropagationFilter.REQUEST_START_ATTRIBUTE, System.nanoTime());
         String method = request.getMethod();
         String path = request.getRequestURI();
         String queryString = request.getQueryString();
@@ -0,0 +1,18 @@
+package com.blibli.gdn.gateway.model;
+
+
+/**
+ * Admission priority of a gateway request, highest first.
+ * Under overload the lowest priorities are shed first; CRITICAL is never queued or shed.
+ */
+public enum RequestPriority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    LOW,
+    BACKGROUND;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -2,10 +2,12 @@ package com.blibli.gdn.gateway.repository;
 
 import com.blibli.gdn.gateway.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 
 @Repository
@@ -16,5 +18,8 @@ public interface MemberRepository extends JpaRepository<Member, UUID> {
     boolean existsByEmail(String email);
 
     Optional<Member> findByResetToken(String resetToken);
+
+    @Query("select m.email from Member m")
+    Stream<String> streamAllEmails();
 }
 
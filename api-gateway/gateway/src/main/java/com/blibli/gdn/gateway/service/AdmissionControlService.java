@@ -0,0 +1,228 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.model.RequestPriority;
+import com.blibli.gdn.gateway.util.PriorityPermits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Priority-aware admission for proxied requests, driven by a CoDel-style queue delay controller.
+ * Requests wait for one of a fixed number of in-flight slots; freed slots go to the highest priority waiting.
+ * When the time spent waiting stays above the target for a whole interval, the shed level rises and the lowest
+ * remaining priority is rejected on arrival; once waits drop below the target again, or no request has waited
+ * above it for an interval, priorities are re-admitted one interval at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionControlService {
+
+    // Lowest priorities are shed first; HIGH and CRITICAL are never shed by the controller
+    static final int MAX_SHED_LEVEL = RequestPriority.values().length - RequestPriority.HIGH.ordinal() - 1;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.load-shedding.max-concurrent:200}")
+    private int maxConcurrent;
+
+    @Value("${gateway.load-shedding.target-delay:50ms}")
+    private Duration targetDelay;
+
+    @Value("${gateway.load-shedding.interval:500ms}")
+    private Duration interval;
+
+    @Value("${gateway.load-shedding.max-queue-wait:1s}")
+    private Duration maxQueueWait;
+
+    private PriorityPermits permits;
+
+    private final AtomicInteger shedLevel = new AtomicInteger();
+
+    private final Map<RequestPriority, Counter> admitted = new EnumMap<>(RequestPriority.class);
+
+    private final Map<RequestPriority, Counter> shedByController = new EnumMap<>(RequestPriority.class);
+
+    private final Map<RequestPriority, Counter> shedOnTimeout = new EnumMap<>(RequestPriority.class);
+
+    private final Map<RequestPriority, Timer> queueDelay = new EnumMap<>(RequestPriority.class);
+
+    // CoDel state, written under this
+    private long firstAboveTargetNanos;
+
+    // Read without the lock on every arrival, to decay the shed level when nothing is being measured
+    private volatile long lastAboveTargetNanos;
+
+    private volatile long lastLevelChangeNanos;
+
+    private int escalations;
+
+    @PostConstruct
+    void init() {
+        permits = new PriorityPermits(maxConcurrent, RequestPriority.values().length);
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            admitted.put(priority, Counter.builder("gateway.admission.admitted")
+                    .description("Requests admitted by the load shedder")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry));
+            shedByController.put(priority, shedCounter(priority, "codel"));
+            shedOnTimeout.put(priority, shedCounter(priority, "queue-timeout"));
+            queueDelay.put(priority, Timer.builder("gateway.admission.queue.delay")
+                    .description("Time requests waited for an in-flight slot")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry));
+        }
+
+        Gauge.builder("gateway.admission.shed.level", shedLevel, AtomicInteger::get)
+                .description("Number of lowest priorities currently being shed")
+                .register(meterRegistry);
+        Gauge.builder("gateway.admission.in.flight", this, service -> service.maxConcurrent - service.permits.availablePermits())
+                .description("Requests currently holding an in-flight slot")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Waits for an in-flight slot unless the priority is currently shed.
+     * Every successful call must be paired with {@link #release(RequestPriority)}.
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        if (priority == RequestPriority.CRITICAL) {
+            admitted.get(priority).increment();
+            return true;
+        }
+
+        if (isShed(priority)) {
+            shedByController.get(priority).increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(priority.ordinal(), maxQueueWait.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        long now = System.nanoTime();
+        long sojournNanos = now - start;
+
+        queueDelay.get(priority).record(sojournNanos, TimeUnit.NANOSECONDS);
+        onQueueDelay(sojournNanos, now);
+
+        if (!acquired) {
+            shedOnTimeout.get(priority).increment();
+            return false;
+        }
+        admitted.get(priority).increment();
+        return true;
+    }
+
+
+    public void release(RequestPriority priority) {
+        if (priority != RequestPriority.CRITICAL) {
+            permits.release();
+        }
+    }
+
+
+    public boolean isShed(RequestPriority priority) {
+        if (shedLevel.get() > 0) {
+            decay(System.nanoTime());
+        }
+        return priority.ordinal() >= RequestPriority.values().length - shedLevel.get();
+    }
+
+
+    public int getShedLevel() {
+        return shedLevel.get();
+    }
+
+
+    synchronized void onQueueDelay(long sojournNanos, long nowNanos) {
+        long intervalNanos = interval.toNanos();
+        int level = shedLevel.get();
+
+        if (sojournNanos >= targetDelay.toNanos()) {
+            lastAboveTargetNanos = nowNanos;
+        }
+
+        if (sojournNanos < targetDelay.toNanos()) {
+            firstAboveTargetNanos = 0;
+            if (level > 0 && nowNanos - lastLevelChangeNanos >= intervalNanos) {
+                shedLevel.set(level - 1);
+                lastLevelChangeNanos = nowNanos;
+                if (level == 1) {
+                    escalations = 0;
+                }
+                log.info("Queue delay back under target, lowering shed level to {}", level - 1);
+            }
+            return;
+        }
+
+        if (firstAboveTargetNanos == 0) {
+            firstAboveTargetNanos = nowNanos + intervalNanos;
+            return;
+        }
+
+        if (nowNanos >= firstAboveTargetNanos && level < MAX_SHED_LEVEL) {
+            shedLevel.set(level + 1);
+            lastLevelChangeNanos = nowNanos;
+            escalations++;
+            // CoDel control law: if delay stays high, escalate again sooner each time
+            firstAboveTargetNanos = nowNanos + (long) (intervalNanos / Math.sqrt(escalations));
+            log.warn("Queue delay {}ms above target {}ms for a full interval, raising shed level to {}",
+                    TimeUnit.NANOSECONDS.toMillis(sojournNanos), targetDelay.toMillis(), level + 1);
+        }
+    }
+
+
+    /**
+     * Shed requests are never queued, so once only shed priorities arrive there are no samples to lower the
+     * level; it then drops one level per interval without a wait above the target.
+     */
+    void decay(long nowNanos) {
+        long intervalNanos = interval.toNanos();
+        if (nowNanos - lastAboveTargetNanos < intervalNanos || nowNanos - lastLevelChangeNanos < intervalNanos) {
+            return;
+        }
+        synchronized (this) {
+            int level = shedLevel.get();
+            if (level == 0 || nowNanos - lastAboveTargetNanos < intervalNanos
+                    || nowNanos - lastLevelChangeNanos < intervalNanos) {
+                return;
+            }
+            shedLevel.set(level - 1);
+            lastLevelChangeNanos = nowNanos;
+            firstAboveTargetNanos = 0;
+            if (level == 1) {
+                escalations = 0;
+            }
+            log.info("No queue delay above target for {}ms, lowering shed level to {}", interval.toMillis(), level - 1);
+        }
+    }
+
+
+    private Counter shedCounter(RequestPriority priority, String reason) {
+        return Counter.builder("gateway.admission.shed")
+                .description("Requests rejected by the load shedder")
+                .tag("priority", priority.tag())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,230 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps downstream OpenAPI documents cached with their server URLs already rewritten to the gateway.
+ * Docs requests are served from memory, stale if the last refresh failed, and never wait for an upstream:
+ * before the first successful fetch they get a 503 and a background refresh is started.
+ */
+@Service
+@Slf4j
+public class ApiDocsCacheService {
+
+    private final RestClient restClient;
+
+    private final Executor refreshExecutor;
+
+    @Value("${services.member.url}")
+    private String memberServiceUrl;
+
+    @Value("${services.product.url}")
+    private String productServiceUrl;
+
+    @Value("${services.cart.url}")
+    private String cartServiceUrl;
+
+    @Value("${server.port}")
+    private String gatewayPort;
+
+    private final Map<String, String> serviceUrls = new LinkedHashMap<>();
+
+    private final Map<String, CachedApiDocs> cache = new ConcurrentHashMap<>();
+
+    // Services whose last refresh failed (e.g. down or restarting); retried on the short interval
+    private final Set<String> staleServices = ConcurrentHashMap.newKeySet();
+
+    // Services with a fetch in progress; a second refresh of the same service is skipped rather than queued
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Services with a background refresh waiting for the executor, so cold misses don't pile up fetches
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ApiDocsCacheService(RestClient restClient) {
+        this(restClient, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-docs-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    ApiDocsCacheService(RestClient restClient, Executor refreshExecutor) {
+        this.restClient = restClient;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        serviceUrls.put("member", memberServiceUrl);
+        serviceUrls.put("product", productServiceUrl);
+        serviceUrls.put("cart", cartServiceUrl);
+        staleServices.addAll(serviceUrls.keySet());
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+
+    public CachedApiDocs getDocs(String service) {
+        if (!serviceUrls.containsKey(service)) {
+            throw new IllegalArgumentException("Unknown service: " + service);
+        }
+        CachedApiDocs docs = cache.get(service);
+        if (docs != null) {
+            return docs;
+        }
+        // Cold cache: fetch in the background instead of holding the request on a slow or down upstream
+        refreshInBackground(service);
+        throw new ServiceUnavailableException(service + "-service", "API docs are not available for " + service);
+    }
+
+
+    @Scheduled(fixedDelayString = "${gateway.api-docs.refresh-interval-ms:300000}",
+            initialDelayString = "${gateway.api-docs.refresh-interval-ms:300000}")
+    public void refreshAll() {
+        log.debug("Refreshing cached API docs for all services");
+        serviceUrls.keySet().forEach(this::refresh);
+    }
+
+
+    @Scheduled(fixedDelayString = "${gateway.api-docs.retry-interval-ms:15000}", initialDelay = 0)
+    public void refreshStale() {
+        if (staleServices.isEmpty()) {
+            return;
+        }
+        log.debug("Retrying API docs refresh for services: {}", staleServices);
+        Set.copyOf(staleServices).forEach(this::refresh);
+    }
+
+
+    CachedApiDocs refresh(String service) {
+        String serviceUrl = serviceUrls.get(service);
+        if (serviceUrl == null) {
+            throw new IllegalArgumentException("Unknown service: " + service);
+        }
+        if (!refreshing.add(service)) {
+            return cache.get(service);
+        }
+
+        try {
+            String response = restClient.get()
+                    .uri(serviceUrl + "/v3/api-docs")
+                    .retrieve()
+                    .body(String.class);
+            if (response == null) {
+                throw new IllegalStateException("Empty API docs response");
+            }
+
+            byte[] body = rewriteServerUrls(response, serviceUrl).getBytes(StandardCharsets.UTF_8);
+            String etag = computeEtag(body);
+
+            CachedApiDocs previous = cache.get(service);
+            if (previous != null && previous.getEtag().equals(etag)) {
+                staleServices.remove(service);
+                return previous;
+            }
+
+            CachedApiDocs docs = new CachedApiDocs(body, etag, System.currentTimeMillis());
+            cache.put(service, docs);
+            staleServices.remove(service);
+            log.info("Cached API docs for {} service ({} bytes, etag {})", service, body.length, etag);
+            return docs;
+        } catch (Exception e) {
+            staleServices.add(service);
+            log.warn("Error refreshing API docs for {} service, keeping previous copy: {}", service, e.getMessage());
+            return cache.get(service);
+        } finally {
+            refreshing.remove(service);
+        }
+    }
+
+
+    private void refreshInBackground(String service) {
+        if (refreshing.contains(service) || !queued.add(service)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                queued.remove(service);
+                refresh(service);
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(service);
+            log.debug("API docs refresh for {} service not started: {}", service, e.getMessage());
+        }
+    }
+
+
+    private String rewriteServerUrls(String apiDocsJson, String originalServiceUrl) {
+        String gatewayUrl = "http://localhost:" + gatewayPort;
+        log.debug("Rewrote server URL from {} to {}", originalServiceUrl, gatewayUrl);
+        return apiDocsJson.replace(originalServiceUrl, gatewayUrl);
+    }
+
+
+    private String computeEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            return "\"" + Integer.toHexString(java.util.Arrays.hashCode(body)) + "\"";
+        }
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedApiDocs {
+
+        private final byte[] body;
+
+        private final String etag;
+
+        private final long fetchedAt;
+
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -9,29 +9,39 @@ import com.blibli.gdn.gateway.util.JwtUtil;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthenticationService {
 
+    private static final String EMAIL_CONSTRAINT = "idx_email";
+
+    private static final Pattern EMAIL_COLUMN = Pattern.compile("\\(email\\b", Pattern.CASE_INSENSITIVE);
+
     private final MemberRepository memberRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final TokenDenylistService tokenDenylistService;
+    private final EmailBloomFilterService emailBloomFilterService;
 
 
     @Transactional
     public MemberResponse register(RegisterRequest request) {
         log.info("Registering new member: email={}", request.getEmail());
 
-        if (memberRepository.existsByEmail(request.getEmail())) {
+        // Only emails the filter has (probably) seen need the existence query
+        if (emailBloomFilterService.mightExist(request.getEmail())
+                && memberRepository.existsByEmail(request.getEmail())) {
             log.warn("Registration failed: email already exists: {}", request.getEmail());
             throw new MemberAlreadyExistsException("Email already registered");
         }
@@ -43,7 +53,18 @@ public class AuthenticationService {
                 .role(Role.USER)
                 .build();
 
-        member = memberRepository.save(member);
+        try {
+            member = memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateEmail(e)) {
+                throw e;
+            }
+            // Registered after the filter was last rebuilt (e.g. through another gateway instance)
+            log.warn("Registration failed: email already exists: {}", request.getEmail());
+            emailBloomFilterService.recordStaleMiss(request.getEmail());
+            throw new MemberAlreadyExistsException("Email already registered");
+        }
+        emailBloomFilterService.add(member.getEmail());
 
         log.info("Member registered successfully: memberId={}, email={}",
                 member.getMemberId(), member.getEmail());
@@ -188,6 +209,23 @@ public class AuthenticationService {
     }
 
 
+    // The transaction is already aborted here, so the constraint is read from the error instead of re-queried.
+    // Matches idx_email by name, or any unique violation on the email column (Hibernate-named or H2 constraints).
+    private boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                if (violation.getKind() != ConstraintViolationException.ConstraintKind.UNIQUE) {
+                    return false;
+                }
+                String message = violation.getSQLException() == null ? null : violation.getSQLException().getMessage();
+                return EMAIL_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())
+                        || (message != null && EMAIL_COLUMN.matcher(message).find());
+            }
+        }
+        return false;
+    }
+
+
     private MemberResponse mapToResponse(Member member) {
         return MemberResponse.builder()
                 .memberId(member.getMemberId())
@@ -0,0 +1,132 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.repository.MemberRepository;
+import com.blibli.gdn.gateway.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+
+/**
+ * In-memory Bloom filter of registered emails, rebuilt from the members table on a schedule.
+ * A negative answer means the email is almost certainly new, so registration can skip the existence query.
+ * Emails registered on another instance since the last rebuild are not in the filter; the unique index
+ * on members.email still rejects those.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailBloomFilterService {
+
+    private final MemberRepository memberRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.registration.email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.registration.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${gateway.registration.email-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    // null until the first rebuild completes; every email "might exist" until then
+    private volatile BloomFilter filter;
+
+    private Counter definitelyNew;
+
+    private Counter mightExist;
+
+    private Counter staleMisses;
+
+    @PostConstruct
+    void init() {
+        definitelyNew = Counter.builder("gateway.registration.email.filter.checks")
+                .description("Registration email checks answered by the Bloom filter")
+                .tag("result", "definitely-new")
+                .register(meterRegistry);
+        mightExist = Counter.builder("gateway.registration.email.filter.checks")
+                .description("Registration email checks answered by the Bloom filter")
+                .tag("result", "might-exist")
+                .register(meterRegistry);
+        staleMisses = Counter.builder("gateway.registration.email.filter.stale.misses")
+                .description("Duplicate emails the filter reported as new, caught by the unique index")
+                .register(meterRegistry);
+
+        Gauge.builder("gateway.registration.email.filter.size.bytes", this,
+                        service -> service.filter == null ? 0 : service.filter.getNumBits() / 8.0)
+                .description("Memory used by the email Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("gateway.registration.email.filter.elements", this,
+                        service -> service.filter == null ? 0 : service.filter.getInsertions())
+                .description("Emails added to the Bloom filter since the last rebuild")
+                .register(meterRegistry);
+        Gauge.builder("gateway.registration.email.filter.false.positive.rate", this,
+                        service -> service.filter == null ? 1.0 : service.filter.expectedFalsePositiveRate())
+                .description("False-positive rate implied by the current filter fill")
+                .register(meterRegistry);
+    }
+
+
+    public boolean mightExist(String email) {
+        BloomFilter current = filter;
+        if (!enabled || current == null) {
+            return true;
+        }
+        boolean result = current.mightContain(normalize(email));
+        (result ? mightExist : definitelyNew).increment();
+        return result;
+    }
+
+
+    public void add(String email) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalize(email));
+        }
+    }
+
+
+    public void recordStaleMiss(String email) {
+        staleMisses.increment();
+        add(email);
+    }
+
+
+    // Sized at twice the current member count so the filter stays under the target rate until the next rebuild
+    @Scheduled(fixedDelayString = "${gateway.registration.email-filter.rebuild-interval-ms:3600000}", initialDelay = 0)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long memberCount = memberRepository.count();
+            BloomFilter next = new BloomFilter(Math.max(minCapacity, memberCount * 2), falsePositiveRate);
+            try (Stream<String> emails = memberRepository.streamAllEmails()) {
+                emails.forEach(email -> next.put(normalize(email)));
+            }
+            filter = next;
+            log.info("Rebuilt registration email filter: {} emails, {} KB, {} hashes, expected false-positive rate {}",
+                    next.getInsertions(), next.getNumBits() / 8 / 1024, next.getNumHashes(),
+                    String.format("%.4f", next.expectedFalsePositiveRate()));
+        } catch (Exception e) {
+            log.error("Failed to rebuild registration email filter, keeping previous one: {}", e.getMessage());
+        }
+    }
+
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
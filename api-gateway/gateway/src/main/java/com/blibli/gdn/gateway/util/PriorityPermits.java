@@ -0,0 +1,102 @@
+package com.blibli.gdn.gateway.util;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Counting semaphore whose waiters are served by priority (0 is the highest), and in arrival order within a
+ * priority. A new arrival only takes a free permit if nobody of the same or a higher priority is waiting.
+ */
+public class PriorityPermits {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition[] queues;
+
+    private final int[] waiting;
+
+    private int available;
+
+    public PriorityPermits(int permits, int priorities) {
+        if (permits < 0 || priorities <= 0) {
+            throw new IllegalArgumentException("permits must not be negative and priorities must be positive");
+        }
+        this.available = permits;
+        this.queues = new Condition[priorities];
+        this.waiting = new int[priorities];
+        for (int i = 0; i < priorities; i++) {
+            queues[i] = lock.newCondition();
+        }
+    }
+
+    public boolean tryAcquire(int priority, long timeoutNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (available > 0 && !hasWaiters(priority)) {
+                available--;
+                return true;
+            }
+            waiting[priority]++;
+            try {
+                long remaining = timeoutNanos;
+                while (remaining > 0) {
+                    remaining = queues[priority].awaitNanos(remaining);
+                    if (available > 0 && !hasWaiters(priority - 1)) {
+                        available--;
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                waiting[priority]--;
+                // A permit this waiter was woken for, but did not take, goes to the next one
+                if (available > 0) {
+                    signalNext();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            available++;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether anyone of this priority or a higher one is waiting
+     */
+    private boolean hasWaiters(int priority) {
+        for (int i = 0; i <= priority; i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void signalNext() {
+        for (int i = 0; i < waiting.length; i++) {
+            if (waiting[i] > 0) {
+                queues[i].signal();
+                return;
+            }
+        }
+    }
+}
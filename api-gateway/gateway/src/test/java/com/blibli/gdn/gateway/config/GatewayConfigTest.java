@@ -0,0 +1,81 @@
+package com.blibli.gdn.gateway.config;
+
+import com.blibli.gdn.gateway.filter.DeadlinePropagationFilter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the gateway routes
+ */
+class GatewayConfigTest {
+
+    private GatewayConfig gatewayConfig;
+
+    private RouterFunction<ServerResponse> routes;
+
+    @BeforeEach
+    void setUp() {
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+        timeLimiterRegistry.timeLimiter("memberService", timeout(Duration.ofSeconds(5)));
+        timeLimiterRegistry.timeLimiter("productService", timeout(Duration.ofSeconds(3)));
+        timeLimiterRegistry.timeLimiter("cartService", timeout(Duration.ofSeconds(2)));
+        gatewayConfig = new GatewayConfig(timeLimiterRegistry);
+        ReflectionTestUtils.setField(gatewayConfig, "memberServiceUrl", "http://member");
+        ReflectionTestUtils.setField(gatewayConfig, "productServiceUrl", "http://product");
+        ReflectionTestUtils.setField(gatewayConfig, "cartServiceUrl", "http://cart");
+        routes = gatewayConfig.gatewayRouterFunctions(new DeadlinePropagationFilter(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testInternalLookups_Routed() {
+        // When & Then
+        assertTrue(routes.route(request("GET", "/api/v1/internal/products/sku/P001-BLACK-001")).isPresent());
+        assertTrue(routes.route(request("POST", "/api/v1/internal/products/batch/skus")).isPresent());
+    }
+
+    @Test
+    void testInternalStockEndpoints_NotRouted() {
+        // When & Then
+        assertFalse(routes.route(request("POST", "/api/v1/internal/products/stock/P001-BLACK-001/reserve")).isPresent());
+        assertFalse(routes.route(request("POST", "/api/v1/internal/products/stock/reservations/r-1/release")).isPresent());
+    }
+
+    @Test
+    void testProxyReadTimeout_IsTheRouteBudgetOfEachService() throws Exception {
+        // Given
+        ClientHttpRequestFactory requestFactory = gatewayConfig.gatewayClientHttpRequestFactory();
+
+        // When & Then
+        assertEquals(Duration.ofSeconds(5), readTimeout(requestFactory, "http://member/api/v1/members/me"));
+        assertEquals(Duration.ofSeconds(3), readTimeout(requestFactory, "http://product/api/v1/products"));
+        assertEquals(Duration.ofSeconds(2), readTimeout(requestFactory, "http://cart/api/v1/cart"));
+    }
+
+    private Duration readTimeout(ClientHttpRequestFactory requestFactory, String uri) throws Exception {
+        return (Duration) ReflectionTestUtils.getField(requestFactory.createRequest(URI.create(uri), HttpMethod.GET), "timeout");
+    }
+
+    private TimeLimiterConfig timeout(Duration timeout) {
+        return TimeLimiterConfig.custom().timeoutDuration(timeout).build();
+    }
+
+    private ServerRequest request(String method, String path) {
+        return ServerRequest.create(new MockHttpServletRequest(method, path), List.of());
+    }
+}
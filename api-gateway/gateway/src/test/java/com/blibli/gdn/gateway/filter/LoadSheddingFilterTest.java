@@ -0,0 +1,86 @@
+package com.blibli.gdn.gateway.filter;
+
+import com.blibli.gdn.gateway.model.RequestPriority;
+import com.blibli.gdn.gateway.service.AdmissionControlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadSheddingFilterTest {
+
+    @Mock
+    private AdmissionControlService admissionControlService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private LoadSheddingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "loadSheddingEnabled", true);
+    }
+
+    @Test
+    void testClassify_ByRouteMethodAndRole() {
+        assertEquals(RequestPriority.CRITICAL, filter.classify(new MockHttpServletRequest("GET", "/actuator/health")));
+        assertEquals(RequestPriority.HIGH, filter.classify(new MockHttpServletRequest("POST", "/api/v1/cart/items")));
+        assertEquals(RequestPriority.NORMAL, filter.classify(new MockHttpServletRequest("GET", "/api/v1/cart")));
+        assertEquals(RequestPriority.LOW, filter.classify(new MockHttpServletRequest("GET", "/api/v1/products/search")));
+        assertEquals(RequestPriority.BACKGROUND, filter.classify(new MockHttpServletRequest("GET", "/product/v3/api-docs")));
+
+        MockHttpServletRequest adminRequest = new MockHttpServletRequest("GET", "/api/v1/products/search");
+        adminRequest.setAttribute("X-User-Role", "ADMIN");
+        assertEquals(RequestPriority.NORMAL, filter.classify(adminRequest));
+    }
+
+    @Test
+    void testAdmitted_ShouldPassThroughAndRelease() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/cart/items");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(admissionControlService.tryAcquire(RequestPriority.HIGH)).thenReturn(true);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(admissionControlService).release(RequestPriority.HIGH);
+    }
+
+    @Test
+    void testShed_ShouldReturn503() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/search");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(admissionControlService.tryAcquire(RequestPriority.LOW)).thenReturn(false);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(filterChain, never()).doFilter(any(), any());
+        verify(admissionControlService, never()).release(any());
+    }
+}
@@ -0,0 +1,132 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.model.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdmissionControlService
+ */
+class AdmissionControlServiceTest {
+
+    private static final long TARGET_NANOS = Duration.ofMillis(50).toNanos();
+    private static final long INTERVAL_NANOS = Duration.ofMillis(500).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlService admissionControlService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionControlService = new AdmissionControlService(meterRegistry);
+        ReflectionTestUtils.setField(admissionControlService, "maxConcurrent", 2);
+        ReflectionTestUtils.setField(admissionControlService, "targetDelay", Duration.ofNanos(TARGET_NANOS));
+        ReflectionTestUtils.setField(admissionControlService, "interval", Duration.ofNanos(INTERVAL_NANOS));
+        ReflectionTestUtils.setField(admissionControlService, "maxQueueWait", Duration.ofMillis(10));
+        admissionControlService.init();
+    }
+
+    @Test
+    void testQueueDelayAboveTargetForInterval_ShedsLowestPriority() {
+        // Given
+        long now = System.nanoTime();
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now);
+
+        // When
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now + INTERVAL_NANOS);
+
+        // Then
+        assertEquals(1, admissionControlService.getShedLevel());
+        assertFalse(admissionControlService.tryAcquire(RequestPriority.BACKGROUND));
+        assertTrue(admissionControlService.tryAcquire(RequestPriority.LOW));
+        assertEquals(1.0, meterRegistry.get("gateway.admission.shed")
+                .tags("priority", "background", "reason", "codel").counter().count());
+    }
+
+    @Test
+    void testShortDelaySpike_DoesNotShed() {
+        // Given
+        long now = System.nanoTime();
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now);
+
+        // When
+        admissionControlService.onQueueDelay(TARGET_NANOS / 2, now + INTERVAL_NANOS / 2);
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now + INTERVAL_NANOS);
+
+        // Then
+        assertEquals(0, admissionControlService.getShedLevel());
+    }
+
+    @Test
+    void testSustainedOverload_NeverShedsCheckoutOrHealth() {
+        // Given
+        long now = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            admissionControlService.onQueueDelay(TARGET_NANOS * 10, now + i * INTERVAL_NANOS);
+        }
+
+        // Then
+        assertEquals(AdmissionControlService.MAX_SHED_LEVEL, admissionControlService.getShedLevel());
+        assertTrue(admissionControlService.isShed(RequestPriority.NORMAL));
+        assertFalse(admissionControlService.isShed(RequestPriority.HIGH));
+        assertFalse(admissionControlService.isShed(RequestPriority.CRITICAL));
+    }
+
+    @Test
+    void testDelayBackUnderTarget_RecoversOneLevelPerInterval() {
+        // Given
+        long now = System.nanoTime();
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now);
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now + INTERVAL_NANOS);
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, now + 2 * INTERVAL_NANOS);
+        assertEquals(2, admissionControlService.getShedLevel());
+
+        // When
+        admissionControlService.onQueueDelay(0, now + 3 * INTERVAL_NANOS);
+        admissionControlService.onQueueDelay(0, now + 3 * INTERVAL_NANOS + 1);
+
+        // Then
+        assertEquals(1, admissionControlService.getShedLevel());
+    }
+
+    @Test
+    void testOnlyShedTrafficArriving_LevelDecaysAfterIntervalWithoutDelay() {
+        // Given
+        long past = System.nanoTime() - 10 * INTERVAL_NANOS;
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, past);
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, past + INTERVAL_NANOS);
+        admissionControlService.onQueueDelay(TARGET_NANOS * 2, past + 2 * INTERVAL_NANOS);
+        assertEquals(2, admissionControlService.getShedLevel());
+
+        // When
+        boolean shed = admissionControlService.isShed(RequestPriority.LOW);
+
+        // Then: one level per interval
+        assertFalse(shed);
+        assertEquals(1, admissionControlService.getShedLevel());
+        assertTrue(admissionControlService.isShed(RequestPriority.BACKGROUND));
+        assertEquals(1, admissionControlService.getShedLevel());
+    }
+
+    @Test
+    void testNoFreeSlot_RejectsAfterMaxQueueWait() {
+        // Given
+        assertTrue(admissionControlService.tryAcquire(RequestPriority.HIGH));
+        assertTrue(admissionControlService.tryAcquire(RequestPriority.HIGH));
+
+        // When
+        boolean admitted = admissionControlService.tryAcquire(RequestPriority.HIGH);
+
+        // Then
+        assertFalse(admitted);
+        assertTrue(admissionControlService.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(1.0, meterRegistry.get("gateway.admission.shed")
+                .tags("priority", "high", "reason", "queue-timeout").counter().count());
+    }
+}
@@ -0,0 +1,116 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ApiDocsCacheService
+ */
+class ApiDocsCacheServiceTest {
+
+    private static final String PRODUCT_URL = "http://localhost:8082";
+    private static final String PRODUCT_DOCS = "{\"servers\":[{\"url\":\"" + PRODUCT_URL + "\"}]}";
+
+    private RestClient restClient;
+    private List<Runnable> backgroundRefreshes;
+    private ApiDocsCacheService apiDocsCacheService;
+
+    @BeforeEach
+    void setUp() {
+        restClient = mock(RestClient.class, RETURNS_DEEP_STUBS);
+        backgroundRefreshes = new ArrayList<>();
+        apiDocsCacheService = new ApiDocsCacheService(restClient, backgroundRefreshes::add);
+        ReflectionTestUtils.setField(apiDocsCacheService, "memberServiceUrl", "http://localhost:8081");
+        ReflectionTestUtils.setField(apiDocsCacheService, "productServiceUrl", PRODUCT_URL);
+        ReflectionTestUtils.setField(apiDocsCacheService, "cartServiceUrl", "http://localhost:8083");
+        ReflectionTestUtils.setField(apiDocsCacheService, "gatewayPort", "8089");
+        apiDocsCacheService.init();
+    }
+
+    @Test
+    void testGetDocs_RewritesServerUrlAndCaches() {
+        // Given
+        when(restClient.get().uri(anyString()).retrieve().body(String.class)).thenReturn(PRODUCT_DOCS);
+        apiDocsCacheService.refresh("product");
+
+        // When
+        ApiDocsCacheService.CachedApiDocs first = apiDocsCacheService.getDocs("product");
+        ApiDocsCacheService.CachedApiDocs second = apiDocsCacheService.getDocs("product");
+
+        // Then
+        String body = new String(first.getBody(), StandardCharsets.UTF_8);
+        assertEquals("{\"servers\":[{\"url\":\"http://localhost:8089\"}]}", body);
+        assertNotNull(first.getEtag());
+        assertSame(first, second);
+        verify(restClient.get().uri(anyString()).retrieve(), times(1)).body(String.class);
+    }
+
+    @Test
+    void testRefresh_KeepsPreviousCopyWhenUpstreamFails() {
+        // Given
+        when(restClient.get().uri(anyString()).retrieve().body(String.class))
+                .thenReturn(PRODUCT_DOCS)
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        apiDocsCacheService.refresh("product");
+        ApiDocsCacheService.CachedApiDocs cached = apiDocsCacheService.getDocs("product");
+
+        // When
+        apiDocsCacheService.refreshAll();
+
+        // Then
+        assertSame(cached, apiDocsCacheService.getDocs("product"));
+    }
+
+    @Test
+    void testGetDocs_UnavailableWhenNeverFetched() {
+        // Given
+        when(restClient.get().uri(anyString()).retrieve().body(String.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When & Then
+        assertThrows(ServiceUnavailableException.class, () -> apiDocsCacheService.getDocs("cart"));
+        backgroundRefreshes.forEach(Runnable::run);
+        assertThrows(ServiceUnavailableException.class, () -> apiDocsCacheService.getDocs("cart"));
+    }
+
+    @Test
+    void testGetDocs_ColdCacheRefreshesInBackgroundWithoutWaiting() {
+        // Given
+        when(restClient.get().uri(anyString()).retrieve().body(String.class)).thenReturn(PRODUCT_DOCS);
+
+        // When
+        assertThrows(ServiceUnavailableException.class, () -> apiDocsCacheService.getDocs("product"));
+        assertThrows(ServiceUnavailableException.class, () -> apiDocsCacheService.getDocs("product"));
+
+        // Then
+        verify(restClient.get().uri(anyString()).retrieve(), never()).body(String.class);
+        assertEquals(1, backgroundRefreshes.size());
+        backgroundRefreshes.get(0).run();
+        assertNotNull(apiDocsCacheService.getDocs("product"));
+        verify(restClient.get().uri(anyString()).retrieve(), times(1)).body(String.class);
+    }
+
+    @Test
+    void testCachedApiDocs_MatchesEtag() {
+        // Given
+        ApiDocsCacheService.CachedApiDocs docs = new ApiDocsCacheService.CachedApiDocs(new byte[0], "\"abc\"", 0L);
+
+        // Then
+        assertTrue(docs.matches("\"abc\""));
+        assertTrue(docs.matches("W/\"abc\", \"def\""));
+        assertFalse(docs.matches("\"def\""));
+        assertFalse(docs.matches(null));
+    }
+}
@@ -0,0 +1,156 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.domain.Member;
+import com.blibli.gdn.gateway.domain.Role;
+import com.blibli.gdn.gateway.dto.MemberResponse;
+import com.blibli.gdn.gateway.dto.RegisterRequest;
+import com.blibli.gdn.gateway.exception.MemberAlreadyExistsException;
+import com.blibli.gdn.gateway.repository.MemberRepository;
+import com.blibli.gdn.gateway.util.JwtUtil;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthenticationService registration
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceTest {
+
+    private static final String EMAIL = "new.member@example.com";
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenDenylistService tokenDenylistService;
+
+    @Mock
+    private EmailBloomFilterService emailBloomFilterService;
+
+    @InjectMocks
+    private AuthenticationService authenticationService;
+
+    private RegisterRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = RegisterRequest.builder()
+                .email(EMAIL)
+                .password("Secret123!")
+                .name("New Member")
+                .build();
+    }
+
+    @Test
+    void testRegister_NewEmail_SkipsExistenceQueryAndAddsToFilter() {
+        // Given
+        UUID memberId = UUID.randomUUID();
+        when(emailBloomFilterService.mightExist(EMAIL)).thenReturn(false);
+        when(passwordEncoder.encode("Secret123!")).thenReturn("hashed");
+        when(memberRepository.saveAndFlush(any(Member.class))).thenAnswer(invocation -> {
+            Member saved = invocation.getArgument(0);
+            saved.setMemberId(memberId);
+            return saved;
+        });
+
+        // When
+        MemberResponse response = authenticationService.register(request);
+
+        // Then
+        assertEquals(memberId, response.getMemberId());
+        assertEquals(EMAIL, response.getEmail());
+        assertEquals(Role.USER, response.getRole());
+        ArgumentCaptor<Member> saved = ArgumentCaptor.forClass(Member.class);
+        verify(memberRepository).saveAndFlush(saved.capture());
+        assertEquals("hashed", saved.getValue().getPasswordHash());
+        verify(memberRepository, never()).existsByEmail(anyString());
+        verify(emailBloomFilterService).add(EMAIL);
+        verify(emailBloomFilterService, never()).recordStaleMiss(anyString());
+    }
+
+    @Test
+    void testRegister_FilterSaysNewButDatabaseHasEmail_Conflict() {
+        // Given
+        when(emailBloomFilterService.mightExist(EMAIL)).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        when(memberRepository.saveAndFlush(any(Member.class))).thenThrow(violation(
+                "duplicate key value violates unique constraint \"idx_email\"",
+                ConstraintViolationException.ConstraintKind.UNIQUE, "idx_email"));
+
+        // When & Then
+        assertThrows(MemberAlreadyExistsException.class, () -> authenticationService.register(request));
+        verify(emailBloomFilterService).recordStaleMiss(EMAIL);
+        verify(emailBloomFilterService, never()).add(anyString());
+    }
+
+    @Test
+    void testRegister_UniqueViolationOnGeneratedEmailConstraint_Conflict() {
+        // Given
+        when(emailBloomFilterService.mightExist(EMAIL)).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        when(memberRepository.saveAndFlush(any(Member.class))).thenThrow(violation(
+                "duplicate key value violates unique constraint \"uk6jeoandhxw7vp8g4ffkpjmu1u\" Detail: Key (email)=(" + EMAIL + ") already exists.",
+                ConstraintViolationException.ConstraintKind.UNIQUE, "uk6jeoandhxw7vp8g4ffkpjmu1u"));
+
+        // When & Then
+        assertThrows(MemberAlreadyExistsException.class, () -> authenticationService.register(request));
+        verify(emailBloomFilterService).recordStaleMiss(EMAIL);
+    }
+
+    @Test
+    void testRegister_OtherIntegrityViolation_RethrownWithoutStaleMiss() {
+        // Given
+        when(emailBloomFilterService.mightExist(EMAIL)).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        DataIntegrityViolationException notNull = violation(
+                "null value in column \"name\" violates not-null constraint Detail: Failing row contains (" + EMAIL + ")",
+                ConstraintViolationException.ConstraintKind.NOT_NULL, "name");
+        when(memberRepository.saveAndFlush(any(Member.class))).thenThrow(notNull);
+
+        // When & Then
+        DataIntegrityViolationException thrown =
+                assertThrows(DataIntegrityViolationException.class, () -> authenticationService.register(request));
+        assertSame(notNull, thrown);
+        verify(emailBloomFilterService, never()).recordStaleMiss(anyString());
+        verify(emailBloomFilterService, never()).add(anyString());
+    }
+
+    @Test
+    void testRegister_FilterMatchAndEmailExists_ConflictWithoutSaving() {
+        // Given
+        when(emailBloomFilterService.mightExist(EMAIL)).thenReturn(true);
+        when(memberRepository.existsByEmail(EMAIL)).thenReturn(true);
+
+        // When & Then
+        assertThrows(MemberAlreadyExistsException.class, () -> authenticationService.register(request));
+        verify(memberRepository, never()).saveAndFlush(any(Member.class));
+        verify(emailBloomFilterService, never()).recordStaleMiss(anyString());
+    }
+
+    private DataIntegrityViolationException violation(String message, ConstraintViolationException.ConstraintKind kind,
+                                                      String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException(message, new SQLException(message), kind, constraintName));
+    }
+}
@@ -0,0 +1,151 @@
+package com.blibli.gdn.gateway.service;
+
+import com.blibli.gdn.gateway.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EmailBloomFilterService
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailBloomFilterServiceTest {
+
+    private static final String EXISTING_EMAIL = "existing.member@example.com";
+
+    private static final String NEW_EMAIL = "brand.new@example.com";
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailBloomFilterService emailBloomFilterService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        emailBloomFilterService = new EmailBloomFilterService(memberRepository, meterRegistry);
+        ReflectionTestUtils.setField(emailBloomFilterService, "enabled", true);
+        ReflectionTestUtils.setField(emailBloomFilterService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(emailBloomFilterService, "minCapacity", 1000L);
+        emailBloomFilterService.init();
+    }
+
+    @Test
+    void testMightExist_BeforeFirstRebuild_AlwaysTrue() {
+        // When & Then
+        assertTrue(emailBloomFilterService.mightExist(NEW_EMAIL));
+        assertEquals(0.0, checks("might-exist"));
+        assertEquals(1.0, gauge("gateway.registration.email.filter.false.positive.rate"));
+    }
+
+    @Test
+    void testRebuild_LoadsMemberEmailsNormalized() {
+        // Given
+        givenMembers(EXISTING_EMAIL, "Other.Member@Example.com");
+
+        // When
+        emailBloomFilterService.rebuild();
+
+        // Then
+        assertTrue(emailBloomFilterService.mightExist(" Existing.Member@EXAMPLE.com "));
+        assertTrue(emailBloomFilterService.mightExist("other.member@example.com"));
+        assertFalse(emailBloomFilterService.mightExist(NEW_EMAIL));
+        assertEquals(2.0, checks("might-exist"));
+        assertEquals(1.0, checks("definitely-new"));
+    }
+
+    @Test
+    void testRebuild_ReportsFilterGauges() {
+        // Given
+        givenMembers(EXISTING_EMAIL);
+
+        // When
+        emailBloomFilterService.rebuild();
+
+        // Then
+        assertEquals(1.0, gauge("gateway.registration.email.filter.elements"));
+        assertTrue(gauge("gateway.registration.email.filter.size.bytes") > 0);
+        assertTrue(gauge("gateway.registration.email.filter.false.positive.rate") < 0.01);
+    }
+
+    @Test
+    void testRebuild_RepositoryFails_KeepsPreviousFilter() {
+        // Given
+        givenMembers(EXISTING_EMAIL);
+        emailBloomFilterService.rebuild();
+        when(memberRepository.streamAllEmails()).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When
+        emailBloomFilterService.rebuild();
+
+        // Then
+        assertTrue(emailBloomFilterService.mightExist(EXISTING_EMAIL));
+        assertFalse(emailBloomFilterService.mightExist(NEW_EMAIL));
+    }
+
+    @Test
+    void testRebuild_Disabled_SkipsRepositoryAndAnswersMightExist() {
+        // Given
+        ReflectionTestUtils.setField(emailBloomFilterService, "enabled", false);
+
+        // When
+        emailBloomFilterService.rebuild();
+
+        // Then
+        verifyNoInteractions(memberRepository);
+        assertTrue(emailBloomFilterService.mightExist(NEW_EMAIL));
+    }
+
+    @Test
+    void testAdd_AfterRebuild_EmailMightExist() {
+        // Given
+        givenMembers(EXISTING_EMAIL);
+        emailBloomFilterService.rebuild();
+
+        // When
+        emailBloomFilterService.add(NEW_EMAIL);
+
+        // Then
+        assertTrue(emailBloomFilterService.mightExist(NEW_EMAIL));
+        assertEquals(2.0, gauge("gateway.registration.email.filter.elements"));
+    }
+
+    @Test
+    void testRecordStaleMiss_CountsAndAddsEmail() {
+        // Given
+        givenMembers(EXISTING_EMAIL);
+        emailBloomFilterService.rebuild();
+
+        // When
+        emailBloomFilterService.recordStaleMiss(NEW_EMAIL);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("gateway.registration.email.filter.stale.misses").counter().count());
+        assertTrue(emailBloomFilterService.mightExist(NEW_EMAIL));
+    }
+
+    private void givenMembers(String... emails) {
+        when(memberRepository.count()).thenReturn((long) emails.length);
+        when(memberRepository.streamAllEmails()).thenReturn(Stream.of(emails));
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("gateway.registration.email.filter.checks").tag("result", result).counter().count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,92 @@
+package com.blibli.gdn.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PriorityPermits
+ */
+class PriorityPermitsTest {
+
+    private static final long WAIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void testFreedPermit_GoesToHighestPriorityWaiter() throws Exception {
+        // Given
+        PriorityPermits permits = new PriorityPermits(1, 3);
+        assertTrue(permits.tryAcquire(0, WAIT_NANOS));
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread low = waiter(permits, 2, order);
+        awaitWaiting(low);
+        Thread high = waiter(permits, 1, order);
+        awaitWaiting(high);
+
+        // When
+        permits.release();
+        high.join(5000);
+        permits.release();
+        low.join(5000);
+
+        // Then
+        assertEquals(List.of(1, 2), order);
+    }
+
+    @Test
+    void testRelease_HandsPermitToWaiter() throws Exception {
+        // Given
+        PriorityPermits permits = new PriorityPermits(1, 3);
+        assertTrue(permits.tryAcquire(0, WAIT_NANOS));
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread waiting = waiter(permits, 1, order);
+        awaitWaiting(waiting);
+
+        // When
+        permits.release();
+        waiting.join(5000);
+
+        // Then
+        assertEquals(List.of(1), order);
+        assertFalse(permits.tryAcquire(1, 0));
+    }
+
+    @Test
+    void testTimeout_ReturnsFalseAndKeepsPermitsBalanced() throws Exception {
+        // Given
+        PriorityPermits permits = new PriorityPermits(1, 2);
+        assertTrue(permits.tryAcquire(0, WAIT_NANOS));
+
+        // When
+        boolean acquired = permits.tryAcquire(1, TimeUnit.MILLISECONDS.toNanos(10));
+        permits.release();
+
+        // Then
+        assertFalse(acquired);
+        assertEquals(1, permits.availablePermits());
+    }
+
+    private Thread waiter(PriorityPermits permits, int priority, List<Integer> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                if (permits.tryAcquire(priority, WAIT_NANOS)) {
+                    order.add(priority);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
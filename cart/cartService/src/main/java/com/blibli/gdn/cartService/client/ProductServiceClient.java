@@ -2,8 +2,10 @@ package com.blibli.gdn.cartService.client;
 
 import com.blibli.gdn.cartService.client.dto.ProductDTO;
 import com.blibli.gdn.cartService.client.dto.VariantDTO;
+import com.blibli.gdn.cartService.exception.DeadlineExceededException;
 import com.blibli.gdn.cartService.exception.ProductNotFoundException;
 import com.blibli.gdn.cartService.exception.ProductServiceUnavailableException;
+import com.blibli.gdn.cartService.util.RequestDeadline;
 import com.blibli.gdn.cartService.web.model.GdnResponseData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +22,7 @@ public class ProductServiceClient {
     @Cacheable(value = "products", key = "#sku")
     public ProductDTO getProductBySku(String sku) {
         log.info("Fetching product from Product Service for SKU: {}", sku);
+        RequestDeadline.checkRemaining("product-lookup");
         
         try {
             String productId = extractProductId(sku);
@@ -45,6 +48,11 @@ public class ProductServiceClient {
             log.error("Product not found for SKU: {}", sku);
             throw e;
         } catch (Exception e) {
+            if (RequestDeadline.isExpired()) {
+                log.warn("Product Service call for SKU {} cut short by request deadline", sku);
+                RequestDeadline.recordExpired("product-lookup");
+                throw new DeadlineExceededException("product-lookup");
+            }
             log.error("Error calling Product Service for SKU: {}", sku, e);
             throw new ProductServiceUnavailableException("Product Service is unavailable: " + e.getMessage());
         }
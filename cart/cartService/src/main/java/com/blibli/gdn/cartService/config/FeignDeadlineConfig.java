@@ -0,0 +1,43 @@
+package com.blibli.gdn.cartService.config;
+
+import com.blibli.gdn.cartService.util.RequestDeadline;
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagates the request deadline to Product Service and caps Feign connect/read timeouts
+ * at the remaining budget, so a lookup never outlives the request that needed it.
+ * Not a {@code @Configuration}: it only applies to the Feign clients that list it in their {@code configuration},
+ * instead of replacing the {@link Client} of every client in the application context.
+ */
+public class FeignDeadlineConfig {
+
+    @Bean
+    public RequestInterceptor deadlineRequestInterceptor() {
+        return template -> {
+            if (RequestDeadline.isActive()) {
+                template.header(RequestDeadline.HEADER, String.valueOf(Math.max(0, RequestDeadline.remainingMillis())));
+            }
+        };
+    }
+
+    @Bean
+    public Client feignClient() {
+        Client delegate = new Client.Default(null, null);
+        return (request, options) -> {
+            if (!RequestDeadline.isActive()) {
+                return delegate.execute(request, options);
+            }
+            long remaining = Math.max(1, RequestDeadline.remainingMillis());
+            Request.Options bounded = new Request.Options(
+                    Math.min(options.connectTimeoutUnit().toMillis(options.connectTimeout()), remaining), TimeUnit.MILLISECONDS,
+                    Math.min(options.readTimeoutUnit().toMillis(options.readTimeout()), remaining), TimeUnit.MILLISECONDS,
+                    options.isFollowRedirects());
+            return delegate.execute(request, bounded);
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.blibli.gdn.cartService.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class DeadlineExceededException extends CartException {
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded before " + stage, HttpStatus.GATEWAY_TIMEOUT);
+    }
+}
@@ -11,6 +11,7 @@ import com.blibli.gdn.cartService.model.Cart;
 import com.blibli.gdn.cartService.model.CartItem;
 import com.blibli.gdn.cartService.repository.CartRepository;
 import com.blibli.gdn.cartService.service.CartService;
+import com.blibli.gdn.cartService.util.RequestDeadline;
 import com.blibli.gdn.cartService.web.model.AddToCartRequest;
 import com.blibli.gdn.cartService.web.model.UpdateQuantityRequest;
 import lombok.RequiredArgsConstructor;
@@ -95,6 +96,9 @@ public class CartServiceImpl implements CartService {
         cart.setUpdatedAt(Instant.now());
         cart.setExpireAt(Instant.now().plus(CART_EXPIRY_DAYS, ChronoUnit.DAYS));
 
+        // Caller has already timed out and will retry; don't persist a write nobody will see
+        RequestDeadline.checkRemaining("cart-save");
+
         // Save cart
         Cart savedCart = cartRepository.save(cart);
 
@@ -117,6 +121,12 @@ public class CartServiceImpl implements CartService {
         if (cart.getItems() != null && !cart.getItems().isEmpty()) {
             boolean isUpdated = false;
             for (CartItem item : cart.getItems()) {
+                if (RequestDeadline.isExpired()) {
+                    // Out of budget: serve the stored prices instead of syncing the remaining items
+                    log.warn("Request deadline reached, skipping price sync for remaining items of member: {}", memberId);
+                    RequestDeadline.recordExpired("cart-sync");
+                    break;
+                }
                 try {
                     ProductDTO product = productServiceClient.getProductBySku(item.getSku());
                     VariantDTO variant = productServiceClient.getVariantBySku(product, item.getSku());
@@ -0,0 +1,60 @@
+package com.blibli.gdn.cartService.util;
+
+import com.blibli.gdn.cartService.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request deadline taken from the X-Request-Timeout-Ms header stamped by the gateway.
+ * When no header was sent there is no deadline and every check passes.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final String EXPIRED_METRIC = "request.deadline.expired";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(long budgetMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static boolean isActive() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    public static boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Throws if the deadline has passed, so the caller does not start work nobody is waiting for
+     */
+    public static void checkRemaining(String stage) {
+        if (isExpired()) {
+            recordExpired(stage);
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    public static void recordExpired(String stage) {
+        Metrics.counter(EXPIRED_METRIC, "stage", stage).increment();
+    }
+}
@@ -0,0 +1,70 @@
+package com.blibli.gdn.cartService.web.filter;
+
+import com.blibli.gdn.cartService.util.RequestDeadline;
+import com.blibli.gdn.cartService.web.model.GdnResponseData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String budget = request.getHeader(RequestDeadline.HEADER);
+        if (budget == null || budget.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long budgetMillis;
+        try {
+            budgetMillis = Long.parseLong(budget.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", RequestDeadline.HEADER, budget);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (budgetMillis <= 0) {
+            RequestDeadline.recordExpired("arrival");
+            log.warn("Rejecting {} {}: deadline already expired on arrival", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            GdnResponseData<Object> body = GdnResponseData.builder()
+                    .success(false)
+                    .message("Request deadline exceeded")
+                    .traceId(UUID.randomUUID().toString())
+                    .build();
+            response.getWriter().write(objectMapper.writeValueAsString(body));
+            return;
+        }
+
+        RequestDeadline.start(budgetMillis);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
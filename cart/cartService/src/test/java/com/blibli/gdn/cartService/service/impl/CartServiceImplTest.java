@@ -4,13 +4,16 @@ import com.blibli.gdn.cartService.client.ProductServiceClient;
 import com.blibli.gdn.cartService.client.dto.ProductDTO;
 import com.blibli.gdn.cartService.client.dto.VariantDTO;
 import com.blibli.gdn.cartService.exception.CartNotFoundException;
+import com.blibli.gdn.cartService.exception.DeadlineExceededException;
 import com.blibli.gdn.cartService.exception.InvalidQuantityException;
 import com.blibli.gdn.cartService.exception.ItemNotFoundInCartException;
 import com.blibli.gdn.cartService.model.Cart;
 import com.blibli.gdn.cartService.model.CartItem;
 import com.blibli.gdn.cartService.repository.CartRepository;
+import com.blibli.gdn.cartService.util.RequestDeadline;
 import com.blibli.gdn.cartService.web.model.AddToCartRequest;
 import com.blibli.gdn.cartService.web.model.UpdateQuantityRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -69,6 +72,11 @@ class CartServiceImplTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
     @Test
     void addToCart_NewItem_Success() {
         AddToCartRequest request = new AddToCartRequest();
@@ -205,4 +213,32 @@ class CartServiceImplTest {
         verify(cartRepository).deleteByMemberId(guestCartId);
         verify(cartRepository).save(cart);
     }
+
+    @Test
+    void addToCart_DeadlineExpired_DoesNotSave() {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setSku(SKU);
+        request.setQty(1);
+
+        when(productServiceClient.getProductBySku(SKU)).thenReturn(productDTO);
+        when(productServiceClient.getVariantBySku(productDTO, SKU)).thenReturn(variantDTO);
+        when(cartRepository.findByMemberId(MEMBER_ID)).thenReturn(Optional.of(cart));
+        RequestDeadline.start(0);
+
+        assertThrows(DeadlineExceededException.class, () ->
+                cartService.addToCart(MEMBER_ID, request));
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void getCart_DeadlineExpired_SkipsPriceSync() {
+        cart.getItems().add(CartItem.builder().sku(SKU).qty(1).price(new BigDecimal("100.00")).build());
+        when(cartRepository.findByMemberId(MEMBER_ID)).thenReturn(Optional.of(cart));
+        RequestDeadline.start(0);
+
+        Cart result = cartService.getCart(MEMBER_ID);
+
+        assertEquals(new BigDecimal("100.00"), result.getItems().get(0).getPrice());
+        verifyNoInteractions(productServiceClient);
+    }
 }
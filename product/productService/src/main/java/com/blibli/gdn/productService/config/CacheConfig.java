@@ -0,0 +1,53 @@
+package com.blibli.gdn.productService.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Product caches: productId -> ProductResponse, productId -> ProductVersion, productId -> serialized product JSON,
+ * SKU -> Variant and SKU -> Product.
+ * Kept coherent by ProductCacheInvalidationService; stats are recorded so hit rates show up as cache.gets metrics.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String VARIANTS = "variants";
+    public static final String PRODUCTS_BY_SKU = "productsBySku";
+    public static final String PRODUCT_VERSIONS = "productVersions";
+    public static final String PRODUCT_JSON = "productJson";
+
+    @Bean
+    public ProductCacheExpiry productCacheExpiry(
+            @Value("${product.cache.ttl:30m}") Duration ttl,
+            @Value("${product.cache.uncoordinated-ttl:5s}") Duration uncoordinatedTtl) {
+        return new ProductCacheExpiry(ttl, uncoordinatedTtl);
+    }
+
+    @Bean
+    public ProductKeyIndex productKeyIndex(@Value("${product.cache.key-index.max-size:200000}") long maxSize) {
+        return new ProductKeyIndex(maxSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(ProductCacheExpiry productCacheExpiry,
+                                     @Value("${product.cache.max-size:50000}") long maxSize) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(productCacheExpiry)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(PRODUCTS, VARIANTS, PRODUCTS_BY_SKU, PRODUCT_VERSIONS, PRODUCT_JSON));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,59 @@
+package com.blibli.gdn.productService.config;
+
+import com.blibli.gdn.productService.dto.response.CatalogGenerationSummary;
+import com.blibli.gdn.productService.service.CatalogGeneratorService;
+import com.blibli.gdn.productService.util.SyntheticCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Shape of the synthetic catalog (product.generator.*), shared by the startup seeder and the standalone generator.
+ * With product.generator.run=true the application generates product.generator.size products before it starts
+ * serving, then exits unless product.generator.exit=false:
+ * <pre>
+ * java -jar productService.jar --product.generator.run=true --product.generator.size=1000000 \
+ *     --spring.main.web-application-type=none
+ * </pre>
+ */
+@Configuration
+@Slf4j
+public class CatalogGeneratorConfig {
+
+    @Bean
+    public SyntheticCatalog.Spec catalogSpec(
+            @Value("${product.generator.seed:42}") long seed,
+            @Value("${product.generator.id-prefix:SHT-60001-}") String idPrefix,
+            @Value("${product.generator.variants.min:2}") int minVariants,
+            @Value("${product.generator.variants.max:3}") int maxVariants,
+            @Value("${product.generator.category-skew:1.0}") double categorySkew,
+            @Value("${product.generator.categories:Electronics,Fashion,Home,Beauty,Sports,Toys,Books,Grocery,Automotive,Health}")
+            String[] categories) {
+        return new SyntheticCatalog.Spec(seed, idPrefix, minVariants, maxVariants, categorySkew, List.of(categories));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.generator.run", havingValue = "true")
+    public ApplicationRunner catalogGeneratorRunner(
+            CatalogGeneratorService catalogGeneratorService,
+            SyntheticCatalog.Spec catalogSpec,
+            ConfigurableApplicationContext context,
+            @Value("${product.generator.start-index:0}") long startIndex,
+            @Value("${product.generator.size:1000000}") long size,
+            @Value("${product.generator.exit:true}") boolean exit) {
+        return args -> {
+            CatalogGenerationSummary summary = catalogGeneratorService.generate(catalogSpec, startIndex, size);
+            log.info("Generated catalog: {}", summary);
+            if (exit) {
+                System.exit(SpringApplication.exit(context));
+            }
+        };
+    }
+}
@@ -1,104 +1,51 @@
 package com.blibli.gdn.productService.config;
 
-import com.blibli.gdn.productService.model.Product;
-import com.blibli.gdn.productService.model.Variant;
 import com.blibli.gdn.productService.repository.ProductRepository;
-import com.blibli.gdn.productService.service.ProductIndexingService;
-import com.github.javafaker.Faker;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import com.blibli.gdn.productService.service.CatalogGeneratorService;
+import com.blibli.gdn.productService.util.SyntheticCatalog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
+/**
+ * Seeds an empty database with product.seed.size synthetic products in the background once the application is
+ * ready, so startup does not wait for it. Products are indexed batch by batch as they are inserted.
+ */
 @Component
-public class DataSeeder implements CommandLineRunner {
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "product.seed.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSeeder implements ApplicationListener<ApplicationReadyEvent> {
 
     private final ProductRepository productRepository;
-    
-    @Autowired(required = false)
-    private ProductIndexingService productIndexingService;
-
-    public DataSeeder(ProductRepository productRepository) {
-        this.productRepository = productRepository;
-    }
-
-    @Override
-    public void run(String... args) throws Exception {
-        if (productRepository.count() == 0) {
-            Faker faker = new Faker();
-            List<Product> batch = new ArrayList<>();
-            java.util.Set<String> usedProductIds = new java.util.HashSet<>();
-            for (int i = 0; i < 50000; i++) {
-                // Ensure unique productId by using sequential number + random suffix
-                String productId;
-                int attempts = 0;
-                do {
-                    // Use sequential number to ensure uniqueness
-                    String baseId = "SHT-60001-" + String.format("%06d", i);
-                    String randomSuffix = String.valueOf(faker.number().numberBetween(100, 999));
-                    productId = baseId + "-" + randomSuffix;
-                    attempts++;
-                    if (attempts > 10) {
-                        // Fallback: use timestamp + random if still duplicate
-                        productId = "SHT-60001-" + System.currentTimeMillis() + "-" + faker.number().numberBetween(1000, 9999);
-                        break;
-                    }
-                } while (usedProductIds.contains(productId));
-                usedProductIds.add(productId);
-                String productName = faker.commerce().productName();
-
-                int variantCount = faker.number().numberBetween(2, 4);
-                List<Variant> variants = new ArrayList<>();
-                for (int v = 0; v < variantCount; v++) {
-                    String sku = productId + "-" + String.format("%05d", v);
-                    variants.add(Variant.builder()
-                            .sku(sku)
-                            .size(faker.options().option("S", "M", "L", "XL"))
-                            .color(faker.color().name())
-                            .price(Double.parseDouble(faker.commerce().price().replace(",", ".")))
-                            .stock(faker.number().numberBetween(1, 100))
-                            .build());
-                }
+    private final CatalogGeneratorService catalogGeneratorService;
+    private final SyntheticCatalog.Spec catalogSpec;
 
-                Product product = Product.builder()
-                        .productId(productId)
-                        .name(productName)
-                        .description(faker.lorem().sentence())
-                        .category(faker.commerce().department())
-                        .brand(faker.company().name())
-                        .tags(Collections.singletonList(faker.commerce().material()))
-                        .variants(variants)
-                        .createdAt(Instant.now())
-                        .updatedAt(Instant.now())
-                        .build();
+    @Value("${product.seed.size:50000}")
+    private long size;
 
-                batch.add(product);
+    // The standalone generator has already filled the database
+    @Value("${product.generator.run:false}")
+    private boolean generatorRun;
 
-                if (i % 1000 == 0) {
-                    productRepository.saveAll(batch);
-                    batch.clear();
-                    System.out.println("Seeded " + i + " products...");
-                }
-            }
-            if (!batch.isEmpty()) {
-                productRepository.saveAll(batch);
-            }
-            System.out.println("Seeding Complete! 50,000 products added.");
-            if (productIndexingService != null) {
-                System.out.println("Starting Elasticsearch indexing...");
-                try {
-                    productIndexingService.reindexAllProducts();
-                    System.out.println("Elasticsearch indexing complete!");
-                } catch (Exception e) {
-                    System.out.println("Elasticsearch indexing failed (Elasticsearch may not be running): " + e.getMessage());
-                }
-            } else {
-                System.out.println("Elasticsearch indexing skipped (Elasticsearch not enabled)");
-            }
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (generatorRun || productRepository.count() > 0) {
+            return;
         }
+        Thread seeder = new Thread(() -> {
+            try {
+                catalogGeneratorService.generate(catalogSpec, 0, size);
+            } catch (Exception e) {
+                log.error("Seeding failed: {}", e.getMessage(), e);
+            }
+        }, "catalog-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+        log.info("Seeding {} products in the background", size);
     }
 }
@@ -1,22 +1,28 @@
 package com.blibli.gdn.productService.config;
 
+import com.blibli.gdn.productService.model.ProductDocument;
 import com.blibli.gdn.productService.repository.ProductDocumentRepository;
 import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.service.ProductIndexPipelineService;
 import com.blibli.gdn.productService.service.ProductIndexingService;
+import com.blibli.gdn.productService.service.ProductReconciliationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.util.Map;
+
 /**
  * Configuration for automatic Elasticsearch synchronization
- * - Checks sync status on startup
- * - Performs incremental sync if needed
- * - Scheduled sync as fallback
+ * - Checks sync status on startup, full reindex only for an empty index or an outdated mapping
+ * - Starts the change-stream indexing pipeline
+ * - Scheduled updatedAt watermark sync and checksum reconciliation
  */
 @Configuration
 @EnableScheduling
@@ -28,12 +34,17 @@ public class ElasticsearchSyncConfig implements ApplicationListener<ApplicationR
     private final ProductRepository productRepository;
     private final ProductDocumentRepository productDocumentRepository;
     private final ProductIndexingService productIndexingService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductIndexPipelineService productIndexPipelineService;
+    private final ProductReconciliationService productReconciliationService;
 
     /**
-     * Check and sync Elasticsearch on application startup
+     * Starts the change-stream pipeline, and runs a full reindex only when the index is empty or its mapping is
+     * outdated. Any other drift is repaired incrementally by the reconciliation jobs.
      */
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
+        productIndexPipelineService.start();
         log.info("Checking Elasticsearch sync status...");
         
         try {
@@ -47,13 +58,10 @@ public class ElasticsearchSyncConfig implements ApplicationListener<ApplicationR
                 return;
             }
             
-            // If counts differ significantly (more than 5%), trigger reindex
-            double difference = Math.abs(mongoCount - esCount);
-            double percentage = (difference / mongoCount) * 100;
-            
-            if (percentage > 5.0 || esCount == 0) {
-                log.warn("Elasticsearch is out of sync ({}% difference). Starting full reindex...", 
-                        String.format("%.2f", percentage));
+            boolean mappingOutdated = isMappingOutdated();
+            if (esCount == 0 || mappingOutdated) {
+                log.warn("Elasticsearch needs a full reindex (documents: {}, mapping outdated: {}). Starting full reindex...",
+                        esCount, mappingOutdated);
                 
                 // Run reindex asynchronously to not block startup
                 new Thread(() -> {
@@ -66,39 +74,54 @@ public class ElasticsearchSyncConfig implements ApplicationListener<ApplicationR
                     }
                 }).start();
             } else {
-                log.info("Elasticsearch is in sync (difference: {}%)", String.format("%.2f", percentage));
+                log.info("Elasticsearch index is present, differences are left to incremental reconciliation");
             }
         } catch (Exception e) {
             log.error("Error checking Elasticsearch sync status: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * The index was created before a field that needs a dedicated mapping (e.g. the completion field or the
+     * sync checksum fields) was added, or while mongoId was not searchable
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isMappingOutdated() {
+        Map<String, Object> mapping = elasticsearchOperations.indexOps(ProductDocument.class).getMapping();
+        if (!(mapping.get("properties") instanceof Map<?, ?> properties) || !properties.containsKey("suggest")
+                || !properties.containsKey("syncBucket")) {
+            return true;
+        }
+        Object mongoId = properties.get("mongoId");
+        return mongoId instanceof Map && "false".equals(String.valueOf(((Map<String, Object>) mongoId).get("index")));
+    }
+
+    /**
+     * Indexes products updated since the last run
+     */
+    @Scheduled(fixedDelayString = "${product.reconcile.watermark-interval-ms:60000}",
+            initialDelayString = "${product.reconcile.watermark-interval-ms:60000}")
+    public void watermarkSync() {
+        try {
+            productReconciliationService.syncSinceWatermark();
+        } catch (Exception e) {
+            log.error("Error during watermark sync: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Scheduled sync job - runs every hour as a fallback
-     * This ensures Elasticsearch stays in sync even if some events are missed
+     * Compares bucket checksums and repairs only the buckets that differ, including edits and deletes
+     * that the watermark sync and the change stream missed
      */
-    @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
+    @Scheduled(fixedDelayString = "${product.reconcile.checksum-interval-ms:3600000}",
+            initialDelayString = "${product.reconcile.checksum-initial-delay-ms:600000}")
     public void scheduledSync() {
-        log.info("Running scheduled Elasticsearch sync check...");
-        
+        log.info("Running scheduled Elasticsearch reconciliation...");
         try {
-            long mongoCount = productRepository.count();
-            long esCount = productDocumentRepository.count();
-            
-            double difference = Math.abs(mongoCount - esCount);
-            double percentage = (difference / mongoCount) * 100;
-            
-            if (percentage > 10.0) { // Only reindex if difference is more than 10%
-                log.warn("Scheduled sync detected {}% difference. Starting reindex...", 
-                        String.format("%.2f", percentage));
-                productIndexingService.reindexAllProducts();
-            } else {
-                log.debug("Scheduled sync check: Elasticsearch is in sync (difference: {}%)", 
-                        String.format("%.2f", percentage));
-            }
+            productReconciliationService.reconcile();
         } catch (Exception e) {
             log.error("Error during scheduled sync: {}", e.getMessage(), e);
         }
     }
 }
-
@@ -0,0 +1,24 @@
+package com.blibli.gdn.productService.config;
+
+import com.blibli.gdn.productService.service.LocalSearchIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Builds the in-memory search index once seeding has finished when Elasticsearch is disabled
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "false", matchIfMissing = true)
+public class LocalSearchIndexConfig implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final LocalSearchIndexService localSearchIndexService;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        localSearchIndexService.rebuild();
+    }
+}
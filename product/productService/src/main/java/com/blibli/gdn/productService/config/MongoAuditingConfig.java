@@ -0,0 +1,13 @@
+package com.blibli.gdn.productService.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+
+/**
+ * Kept off the application class so test slices without MongoDB (e.g. {@code @WebMvcTest}) don't need a
+ * mapping context for the auditing handler.
+ */
+@Configuration
+@EnableMongoAuditing
+public class MongoAuditingConfig {
+}
@@ -0,0 +1,59 @@
+package com.blibli.gdn.productService.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * Product cache entries live for the long TTL only while cross-instance invalidation is running.
+ * Entries written while it is down get the short TTL, so another instance's write is never served for long.
+ */
+public class ProductCacheExpiry implements Expiry<Object, Object> {
+
+    private final long coordinatedTtlNanos;
+    private final long uncoordinatedTtlNanos;
+
+    private volatile boolean coordinated;
+
+    // System.nanoTime() when coordination last started
+    private volatile long coordinatedSince;
+
+    public ProductCacheExpiry(Duration coordinatedTtl, Duration uncoordinatedTtl) {
+        this.coordinatedTtlNanos = coordinatedTtl.toNanos();
+        this.uncoordinatedTtlNanos = uncoordinatedTtl.toNanos();
+    }
+
+    public boolean isCoordinated() {
+        return coordinated;
+    }
+
+    public void setCoordinated(boolean coordinated) {
+        if (coordinated && !this.coordinated) {
+            coordinatedSince = System.nanoTime();
+        }
+        this.coordinated = coordinated;
+    }
+
+    /**
+     * Whether coordination has been running without a break since the given System.nanoTime(), so that
+     * state built from then on has seen every remote write
+     */
+    public boolean isCoordinatedSince(long nanoTime) {
+        return coordinated && nanoTime - coordinatedSince >= 0;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return coordinated ? coordinatedTtlNanos : uncoordinatedTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
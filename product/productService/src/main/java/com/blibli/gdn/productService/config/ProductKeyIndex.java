@@ -0,0 +1,57 @@
+package com.blibli.gdn.productService.config;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The productId and SKUs last seen per MongoDB id, recorded wherever a product is loaded into the caches or
+ * written. A change event without a pre-image only carries the id; this is how its old cache keys are found.
+ * Bounded, so an id can be unknown, and the caller has to assume any key.
+ */
+public class ProductKeyIndex {
+
+    public record Keys(String productId, Set<String> skus) {
+    }
+
+    private final Cache<String, Keys> keys;
+
+    public ProductKeyIndex(long maxSize) {
+        this.keys = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    public void record(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (product.getVariants() == null) {
+            record(product.getId(), product.getProductId());
+            return;
+        }
+        keys.put(product.getId(), new Keys(product.getProductId(), product.getVariants().stream()
+                .map(Variant::getSku)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet())));
+    }
+
+    /**
+     * A projection without variants: the SKUs already recorded are kept
+     */
+    public void record(String id, String productId) {
+        if (id == null || productId == null) {
+            return;
+        }
+        keys.asMap().compute(id, (key, known) -> known != null && productId.equals(known.productId())
+                ? known
+                : new Keys(productId, known != null ? known.skus() : Set.of()));
+    }
+
+    public Keys remove(String id) {
+        return keys.asMap().remove(id);
+    }
+}
@@ -0,0 +1,36 @@
+package com.blibli.gdn.productService.config;
+
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.ProductIntegrityService;
+import com.blibli.gdn.productService.service.ProductSuggestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Prepares productId / SKU lookups once seeding has finished:
+ * - Reports duplicates and creates the lookup indexes (unique when the data allows)
+ * - Builds the in-memory existence filters and the typeahead trie
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class ProductLookupConfig implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final ProductIntegrityService productIntegrityService;
+    private final ProductExistenceService productExistenceService;
+    private final ProductSuggestService productSuggestService;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            productIntegrityService.ensureLookupIndexes();
+        } catch (Exception e) {
+            log.error("Error preparing product lookup indexes: {}", e.getMessage(), e);
+        }
+        productExistenceService.rebuild();
+        productSuggestService.rebuild();
+    }
+}
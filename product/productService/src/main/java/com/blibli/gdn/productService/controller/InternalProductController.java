@@ -1,10 +1,21 @@
 package com.blibli.gdn.productService.controller;
 
 import com.blibli.gdn.productService.dto.GdnResponseData;
+import com.blibli.gdn.productService.dto.request.BatchLookupRequest;
+import com.blibli.gdn.productService.dto.request.StockReservationRequest;
+import com.blibli.gdn.productService.dto.response.BatchLookupResponse;
+import com.blibli.gdn.productService.dto.response.DuplicateReportResponse;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.SkuSummaryResponse;
+import com.blibli.gdn.productService.dto.response.StockReservationResponse;
 import com.blibli.gdn.productService.mapper.ProductMapper;
 import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.CatalogSnapshotService;
+import com.blibli.gdn.productService.service.ProductBatchLookupService;
+import com.blibli.gdn.productService.service.ProductIntegrityService;
+import com.blibli.gdn.productService.service.StockReservationService;
 import com.blibli.gdn.productService.service.VariantService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +29,10 @@ public class InternalProductController {
 
     private final VariantService variantService;
     private final ProductMapper productMapper;
+    private final ProductIntegrityService productIntegrityService;
+    private final ProductBatchLookupService productBatchLookupService;
+    private final StockReservationService stockReservationService;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     @GetMapping("/sku/{sku}")
     public ResponseEntity<GdnResponseData<ProductResponse>> getProductBySku(@PathVariable String sku) {
@@ -34,4 +49,105 @@ public class InternalProductController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * productId, name, price and stock of a SKU; answered from the mapped catalog snapshot while it is current
+     */
+    @GetMapping("/sku/{sku}/summary")
+    public ResponseEntity<GdnResponseData<SkuSummaryResponse>> getSkuSummary(@PathVariable String sku) {
+        log.debug("Internal API: SKU summary for {}", sku);
+        SkuSummaryResponse summary = catalogSnapshotService.getSkuSummary(sku);
+
+        GdnResponseData<SkuSummaryResponse> response = GdnResponseData.<SkuSummaryResponse>builder()
+                .data(summary)
+                .message("SKU found")
+                .status(200)
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Products and variants for up to {@value BatchLookupRequest#MAX_KEYS} SKUs in one call, e.g. a whole cart
+     */
+    @PostMapping("/batch/skus")
+    public ResponseEntity<GdnResponseData<BatchLookupResponse>> getProductsBySkus(
+            @Valid @RequestBody BatchLookupRequest request) {
+        log.info("Internal API: Batch lookup by {} SKUs", request.getKeys().size());
+        BatchLookupResponse lookup = productBatchLookupService.findBySkus(request.getKeys());
+        return ResponseEntity.ok(batchResponse(lookup));
+    }
+
+    @PostMapping("/batch/product-ids")
+    public ResponseEntity<GdnResponseData<BatchLookupResponse>> getProductsByProductIds(
+            @Valid @RequestBody BatchLookupRequest request) {
+        log.info("Internal API: Batch lookup by {} productIds", request.getKeys().size());
+        BatchLookupResponse lookup = productBatchLookupService.findByProductIds(request.getKeys());
+        return ResponseEntity.ok(batchResponse(lookup));
+    }
+
+    /**
+     * Atomically takes quantity units of the SKU; 409 when fewer are left, in which case nothing is taken.
+     * The returned reservationId is the only way to give the units back.
+     */
+    @PostMapping("/stock/{sku}/reserve")
+    public ResponseEntity<GdnResponseData<StockReservationResponse>> reserveStock(
+            @PathVariable String sku,
+            @Valid @RequestBody StockReservationRequest request) {
+        log.debug("Internal API: Reserving {} of SKU {}", request.getQuantity(), sku);
+        StockReservationResponse reservation = stockReservationService.reserve(sku, request.getQuantity());
+
+        GdnResponseData<StockReservationResponse> response = GdnResponseData.<StockReservationResponse>builder()
+                .data(reservation)
+                .message("Stock reserved")
+                .status(200)
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Gives back the units of a cancelled or expired reservation; 404 when it is unknown or already released
+     */
+    @PostMapping("/stock/reservations/{reservationId}/release")
+    public ResponseEntity<GdnResponseData<StockReservationResponse>> releaseStock(@PathVariable String reservationId) {
+        log.debug("Internal API: Releasing stock reservation {}", reservationId);
+        StockReservationResponse release = stockReservationService.release(reservationId);
+
+        GdnResponseData<StockReservationResponse> response = GdnResponseData.<StockReservationResponse>builder()
+                .data(release)
+                .message("Stock released")
+                .status(200)
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<GdnResponseData<DuplicateReportResponse>> getDuplicateReport() {
+        log.info("Internal API: Generating productId/SKU duplicate report");
+        DuplicateReportResponse report = productIntegrityService.findDuplicates();
+
+        GdnResponseData<DuplicateReportResponse> response = GdnResponseData.<DuplicateReportResponse>builder()
+                .data(report)
+                .message("Duplicate report generated")
+                .status(200)
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    // Partial results are a success; missing keys are listed in notFound
+    private GdnResponseData<BatchLookupResponse> batchResponse(BatchLookupResponse lookup) {
+        return GdnResponseData.<BatchLookupResponse>builder()
+                .data(lookup)
+                .message(lookup.getFound() + " of " + lookup.getItems().size() + " keys found")
+                .status(200)
+                .success(true)
+                .build();
+    }
 }
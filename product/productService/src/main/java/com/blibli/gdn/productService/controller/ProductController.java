@@ -2,9 +2,22 @@ package com.blibli.gdn.productService.controller;
 
 import com.blibli.gdn.productService.dto.GdnResponseData;
 import com.blibli.gdn.productService.dto.request.ProductRequest;
+import com.blibli.gdn.productService.dto.request.ProductSearchRequest;
+import com.blibli.gdn.productService.dto.request.ProductVariantsPatchRequest;
+import com.blibli.gdn.productService.dto.response.ProductImportSummary;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.ProductSearchResponse;
+import com.blibli.gdn.productService.mapper.ProductJsonWriter;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.blibli.gdn.productService.service.ProductImportService;
+import com.blibli.gdn.productService.service.ProductPatchService;
 import com.blibli.gdn.productService.service.ProductSearchService;
 import com.blibli.gdn.productService.service.ProductService;
+import com.blibli.gdn.productService.service.ProductSuggestService;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.fasterxml.jackson.core.io.SerializedString;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +25,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -23,6 +43,10 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductImportService productImportService;
+    private final ProductPatchService productPatchService;
+    private final ProductJsonWriter productJsonWriter;
     
     @Autowired(required = false)
     private ProductSearchService productSearchService;
@@ -51,19 +75,76 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Bulk create from NDJSON (one product per line). The response is NDJSON too: a result per line, written as
+     * each batch is stored, then a summary. The upload is never held in memory.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importProducts(
+            @RequestHeader(value = "X-User-Role", required = false) String role,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Bulk import request received");
+
+        if (role == null || !role.contains("ROLE_ADMIN")) {
+            log.warn("Forbidden: User does not have ROLE_ADMIN");
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ProductImportSummary summary = productImportService.importProducts(request.getInputStream(), response.getOutputStream());
+        log.info("Bulk import completed: {} created, {} failed", summary.getCreated(), summary.getFailed());
+    }
+
+    /**
+     * fields selects a sparse fieldset, e.g. fields=name,variants.sku,variants.price.
+     * Responses carry an ETag and Last-Modified from the product's version stamp; a matching If-None-Match or an
+     * If-Modified-Since not older than updatedAt gets 304 without the product being read.
+     * The full product is written from its cached JSON for the current version when there is one.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<GdnResponseData<ProductResponse>> getProduct(@PathVariable String id) {
+    public ResponseEntity<byte[]> getProduct(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         log.info("Get product request for ID: {}", id);
-        ProductResponse product = productService.getProduct(id);
+        ProductFields productFields = ProductFields.parse(fields);
+
+        ProductVersion version = productService.getProductVersion(id);
+        String eTag = version != null ? version.eTag(productFields) : null;
+        if (version != null && webRequest.checkNotModified(eTag, version.getUpdatedAt().toEpochMilli())) {
+            log.debug("Product {} not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(version.getUpdatedAt())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
 
-        GdnResponseData<ProductResponse> response = GdnResponseData.<ProductResponse>builder()
-                .data(product)
-                .message("Product retrieved successfully")
-                .status(HttpStatus.OK.value())
-                .success(true)
-                .build();
+        SerializedString product;
+        if (!productFields.isAll()) {
+            product = productJsonWriter.serialize(productService.getProduct(id, productFields));
+        } else if (version != null) {
+            product = productJsonWriter.product(id, version, () -> productService.getProduct(id));
+        } else {
+            product = productJsonWriter.serialize(productService.getProduct(id));
+        }
+        byte[] body = productJsonWriter.envelope(product, "Product retrieved successfully");
 
-        return ResponseEntity.ok(response);
+        if (version == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        // no-cache: clients may store the product but must revalidate it before reuse
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .lastModified(version.getUpdatedAt())
+                .cacheControl(CacheControl.noCache())
+                .body(body);
     }
 
     @PutMapping("/{id}")
@@ -90,6 +171,34 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Price/stock feed updates for some variants of a product (by productId). Only the given fields are written;
+     * the response carries just the variants' sku, price and stock.
+     */
+    @PatchMapping("/{id}/variants")
+    public ResponseEntity<GdnResponseData<ProductResponse>> patchVariants(
+            @PathVariable String id,
+            @jakarta.validation.Valid @RequestBody ProductVariantsPatchRequest patchRequest,
+            @RequestHeader(value = "X-User-Role", required = false) String role) {
+
+        log.info("Patch variants request for product: {}", id);
+
+        if (role == null || !role.contains("ROLE_ADMIN")) {
+            log.warn("Forbidden: User does not have ROLE_ADMIN");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        ProductResponse patched = productPatchService.patchVariants(id, patchRequest.getVariants());
+        GdnResponseData<ProductResponse> response = GdnResponseData.<ProductResponse>builder()
+                .data(patched)
+                .message("Variants updated successfully")
+                .status(HttpStatus.OK.value())
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<GdnResponseData<Void>> deleteProduct(
             @PathVariable String id,
@@ -113,15 +222,21 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Items are ProductResponse JSON either way. Full products are RawValue fragments of their cached JSON when it
+     * is of the same version; sparse fieldsets are ProductResponse objects serialized per request.
+     */
     @GetMapping
-    public ResponseEntity<GdnResponseData<Page<ProductResponse>>> searchProducts(
+    public ResponseEntity<GdnResponseData<Page<Object>>> searchProducts(
             @RequestParam(defaultValue = "") String name,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "name,asc") String sort) {
+            @RequestParam(defaultValue = "name,asc") String sort,
+            @RequestParam(required = false) String fields) {
 
         log.info("Search products request - name: {}, category: {}, page: {}, size: {}", name, category, page, size);
+        ProductFields productFields = ProductFields.parse(fields);
 
         // Check if search contains wildcards or if Elasticsearch is available
         boolean hasWildcard = (name != null && (name.contains("*") || name.contains("?")));
@@ -137,16 +252,20 @@ public class ProductController {
                     name != null ? name : "", 
                     category, 
                     pageable, 
-                    sort);
+                    sort,
+                    productFields);
         } else {
             String[] sortParams = sort.split(",");
             Sort.Direction direction = sortParams.length > 1 && sortParams[1].equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortParams[0]));
-            products = productService.searchProducts(name, category, pageable);
+            products = productService.searchProducts(name, category, pageable, productFields);
         }
 
-        GdnResponseData<Page<ProductResponse>> response = GdnResponseData.<Page<ProductResponse>>builder()
-                .data(products)
+        Page<Object> items = productFields.isAll()
+                ? products.map(productJsonWriter::fragment)
+                : products.map(product -> product);
+        GdnResponseData<Page<Object>> response = GdnResponseData.<Page<Object>>builder()
+                .data(items)
                 .message("Products retrieved successfully")
                 .status(HttpStatus.OK.value())
                 .success(true)
@@ -155,23 +274,51 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<GdnResponseData<List<String>>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("Suggest request - prefix: {}, limit: {}", prefix, limit);
+        List<String> suggestions = productSuggestService.suggest(prefix, limit);
+
+        GdnResponseData<List<String>> response = GdnResponseData.<List<String>>builder()
+                .data(suggestions)
+                .message("Suggestions retrieved successfully")
+                .status(HttpStatus.OK.value())
+                .success(true)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/search")
-    public ResponseEntity<GdnResponseData<Page<ProductResponse>>> searchProductsPost(
+    public ResponseEntity<GdnResponseData<ProductSearchResponse>> searchProductsPost(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minStock,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "price,asc") String sort) {
+            @RequestParam(defaultValue = "price,asc") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean facets,
+            @RequestParam(required = false) String fields) {
 
-        log.info("POST search products request - name: {}, category: {}, page: {}, size: {}, sort: {}", 
-                name, category, page, size, sort);
+        log.info("POST search products request - name: {}, category: {}, price: {}-{}, minStock: {}, page: {}, size: {}, sort: {}",
+                name, category, minPrice, maxPrice, minStock, page, size, sort);
+        ProductFields productFields = ProductFields.parse(fields);
 
         if (productSearchService == null) {
             log.warn("Elasticsearch search service is not available. Returning empty results.");
-            Pageable pageable = PageRequest.of(page, size);
-            Page<ProductResponse> emptyPage = Page.empty(pageable);
-            GdnResponseData<Page<ProductResponse>> response = GdnResponseData.<Page<ProductResponse>>builder()
-                    .data(emptyPage)
+            ProductSearchResponse emptyResult = ProductSearchResponse.builder()
+                    .content(List.of())
+                    .number(page)
+                    .size(size)
+                    .build();
+            GdnResponseData<ProductSearchResponse> response = GdnResponseData.<ProductSearchResponse>builder()
+                    .data(emptyResult)
                     .message("Elasticsearch is not available. Please enable it in application.properties")
                     .status(HttpStatus.SERVICE_UNAVAILABLE.value())
                     .success(false)
@@ -179,14 +326,21 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products = productSearchService.searchProducts(
-                name != null ? name : "", 
-                category, 
-                pageable, 
-                sort);
-
-        GdnResponseData<Page<ProductResponse>> response = GdnResponseData.<Page<ProductResponse>>builder()
+        ProductSearchResponse products = productSearchService.search(ProductSearchRequest.builder()
+                .name(name != null ? name : "")
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minStock(minStock)
+                .sort(sort)
+                .page(page)
+                .size(size)
+                .cursor(cursor)
+                .facets(facets)
+                .fields(productFields)
+                .build());
+
+        GdnResponseData<ProductSearchResponse> response = GdnResponseData.<ProductSearchResponse>builder()
                 .data(products)
                 .message("Products retrieved successfully")
                 .status(HttpStatus.OK.value())
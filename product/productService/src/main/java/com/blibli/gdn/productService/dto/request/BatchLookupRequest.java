@@ -0,0 +1,22 @@
+package com.blibli.gdn.productService.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupRequest {
+    public static final int MAX_KEYS = 200;
+
+    @NotEmpty(message = "At least one key is required")
+    @Size(max = MAX_KEYS, message = "At most " + MAX_KEYS + " keys per request")
+    private List<String> keys;
+}
@@ -0,0 +1,39 @@
+package com.blibli.gdn.productService.dto.request;
+
+import com.blibli.gdn.productService.util.ProductFields;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchRequest {
+
+    // Passed as cursor to start cursor paging from the first hit
+    public static final String START_CURSOR = "*";
+
+    private String name;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minStock;
+    private String sort;
+
+    @Builder.Default
+    private int page = 0;
+
+    @Builder.Default
+    private int size = 20;
+
+    // Compute facet counts; ignored on cursor pages after the first
+    private boolean facets;
+
+    // START_CURSOR or the opaque nextCursor of the previous page; when set, page is ignored
+    private String cursor;
+
+    // Sparse fieldset for the hits; null returns every field
+    private ProductFields fields;
+}
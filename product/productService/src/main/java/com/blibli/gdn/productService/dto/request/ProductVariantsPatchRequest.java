@@ -0,0 +1,23 @@
+package com.blibli.gdn.productService.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVariantsPatchRequest {
+    public static final int MAX_VARIANTS = 200;
+
+    @NotEmpty(message = "At least one variant is required")
+    @Size(max = MAX_VARIANTS, message = "At most " + MAX_VARIANTS + " variants per request")
+    private List<@Valid VariantPatchRequest> variants;
+}
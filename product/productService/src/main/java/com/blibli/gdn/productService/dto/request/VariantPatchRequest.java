@@ -0,0 +1,26 @@
+package com.blibli.gdn.productService.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * New price and/or stock of one variant; a null field is left unchanged
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantPatchRequest {
+    @NotBlank(message = "SKU is required")
+    private String sku;
+
+    @Min(value = 0, message = "Price must be non-negative")
+    private Double price;
+
+    @Min(value = 0, message = "Stock must be non-negative")
+    private Integer stock;
+}
@@ -0,0 +1,33 @@
+package com.blibli.gdn.productService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupResponse {
+    // One item per distinct requested key, in request order
+    private List<Item> items;
+    private int found;
+    private List<String> notFound;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private String key;
+        private boolean found;
+        private ProductResponse product;
+        // The variant with the requested SKU, for SKU lookups
+        private VariantResponse variant;
+    }
+}
@@ -0,0 +1,18 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogGenerationSummary {
+    private long requested;
+    private long inserted;
+    private long failed;
+    private long durationMs;
+    private long productsPerSecond;
+}
@@ -0,0 +1,28 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateReportResponse {
+    private List<DuplicateKey> productIds;
+    private List<DuplicateKey> skus;
+    private boolean productIdIndexUnique;
+    private boolean skuIndexUnique;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DuplicateKey {
+        private String key;
+        private int count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    private String key;
+
+    // Number of matching products (not variants) in the bucket
+    private long count;
+
+    // Only set on price buckets: [from, to)
+    private Double from;
+    private Double to;
+}
@@ -0,0 +1,30 @@
+package com.blibli.gdn.productService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of the bulk import response, for the input line with the same number
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportResult {
+    private long line;
+    private String productId;
+    private String id;
+    private Status status;
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+}
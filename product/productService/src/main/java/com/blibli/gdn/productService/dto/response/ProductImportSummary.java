@@ -0,0 +1,21 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last line of the bulk import response
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportSummary {
+    private boolean summary;
+    private long total;
+    private long created;
+    private long failed;
+    private long durationMs;
+}
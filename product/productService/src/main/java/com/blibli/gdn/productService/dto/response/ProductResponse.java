@@ -1,5 +1,6 @@
 package com.blibli.gdn.productService.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +13,8 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+// Fields left out of a sparse fieldset are null and omitted
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductResponse {
     private String id;
     private String productId;
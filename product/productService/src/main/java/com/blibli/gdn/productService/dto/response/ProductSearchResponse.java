@@ -0,0 +1,27 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductResponse> content;
+    private long totalElements;
+    private int totalPages;
+    private int number;
+    private int size;
+
+    // Pass back as "cursor" to fetch the next page; null on the last page
+    private String nextCursor;
+
+    // category, brand, tags, color, size and price buckets for the whole result set; only on the first page
+    private Map<String, List<FacetBucket>> facets;
+}
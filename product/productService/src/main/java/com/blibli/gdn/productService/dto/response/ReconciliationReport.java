@@ -0,0 +1,22 @@
+package com.blibli.gdn.productService.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+    private int bucketsCompared;
+    private int divergentBuckets;
+    private int reindexed;
+    private int deleted;
+    // Too many buckets diverged and a full reindex was run instead of repairing them
+    private boolean fullReindex;
+    // Another instance holds the reconciliation lease
+    private boolean skipped;
+    private long durationMs;
+}
@@ -0,0 +1,23 @@
+package com.blibli.gdn.productService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkuSummaryResponse {
+    private String sku;
+    private String productId;
+    private String name;
+    private Double price;
+    private Integer stock;
+    private Instant updatedAt;
+}
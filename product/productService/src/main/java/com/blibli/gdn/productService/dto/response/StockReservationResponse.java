@@ -0,0 +1,23 @@
+package com.blibli.gdn.productService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockReservationResponse {
+    // Releases this reservation through the release endpoint
+    private String reservationId;
+
+    private String sku;
+    private int quantity;
+
+    // Stock left in MongoDB after the write; absent when served from this instance's escrow
+    private Integer remainingStock;
+}
@@ -0,0 +1,7 @@
+package com.blibli.gdn.productService.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded before " + stage);
+    }
+}
@@ -0,0 +1,7 @@
+package com.blibli.gdn.productService.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
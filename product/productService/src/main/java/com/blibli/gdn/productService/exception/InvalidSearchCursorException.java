@@ -0,0 +1,7 @@
+package com.blibli.gdn.productService.exception;
+
+public class InvalidSearchCursorException extends RuntimeException {
+    public InvalidSearchCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.blibli.gdn.productService.exception;
+
+public class SearchUnavailableException extends RuntimeException {
+    public SearchUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.blibli.gdn.productService.exception;
+
+public class StockReservationNotFoundException extends RuntimeException {
+    public StockReservationNotFoundException(String message) {
+        super(message);
+    }
+}
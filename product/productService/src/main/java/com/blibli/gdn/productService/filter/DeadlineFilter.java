@@ -0,0 +1,76 @@
+package com.blibli.gdn.productService.filter;
+
+import com.blibli.gdn.productService.exception.ErrorResponse;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.UUID;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String budget = request.getHeader(RequestDeadline.HEADER);
+        if (budget == null || budget.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long budgetMillis;
+        try {
+            budgetMillis = Long.parseLong(budget.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", RequestDeadline.HEADER, budget);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (budgetMillis <= 0) {
+            RequestDeadline.recordExpired("arrival");
+            log.warn("Rejecting {} {}: deadline already expired on arrival", request.getMethod(), request.getRequestURI());
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                    .timestamp(Instant.now())
+                    .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                    .error("Gateway Timeout")
+                    .message("Request deadline exceeded")
+                    .details(new HashMap<>())
+                    .path(request.getRequestURI())
+                    .traceId(UUID.randomUUID().toString())
+                    .build();
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            return;
+        }
+
+        RequestDeadline.start(budgetMillis);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.blibli.gdn.productService.mapper;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of full product responses, cached per productId together with the updatedAt it was serialized
+ * from, so an entry is only reused for that exact version. Writes evict it with the other product caches.
+ * Cached fragments are UTF-8 encoded once and spliced into response envelopes as they are, so a hit neither maps
+ * nor serializes the product. Sparse fieldsets are never cached here.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductJsonWriter {
+
+    private static final byte[] DATA_PREFIX = "{\"data\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    // Absent in web slice tests; everything is then serialized per request
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    // The rest of a successful GdnResponseData after "data", per message
+    private final Map<String, byte[]> envelopeSuffixes = new ConcurrentHashMap<>();
+
+    /**
+     * JSON of a product whose current version is known; loader is only called on a miss
+     */
+    public SerializedString product(String productId, ProductVersion version, Supplier<ProductResponse> loader) {
+        Cache cache = cache();
+        ProductJson cached = cache != null ? cache.get(productId, ProductJson.class) : null;
+        if (cached != null && cached.updatedAt().equals(version.getUpdatedAt())) {
+            return cached.json();
+        }
+        ProductResponse product = loader.get();
+        SerializedString json = serialize(product);
+        // The loaded product can be older than the version if a write landed in between; it is not cached then
+        if (cache != null && version.getUpdatedAt().equals(product.getUpdatedAt())) {
+            cache.put(productId, new ProductJson(version.getUpdatedAt(), json));
+        }
+        return json;
+    }
+
+    /**
+     * A full product as a raw JSON value for a page of results: the cached JSON when it is of the same version,
+     * else serialized and cached unless a newer version is cached already. Products without a version are
+     * returned as they are.
+     */
+    public Object fragment(ProductResponse product) {
+        Cache cache = cache();
+        if (cache == null || product.getProductId() == null || product.getUpdatedAt() == null) {
+            return product;
+        }
+        ProductJson cached = cache.get(product.getProductId(), ProductJson.class);
+        if (cached != null && cached.updatedAt().equals(product.getUpdatedAt())) {
+            return new RawValue(cached.json());
+        }
+        SerializedString json = serialize(product);
+        // Search hits can lag behind MongoDB; an older hit must not replace a newer entry
+        if (cached == null || cached.updatedAt().isBefore(product.getUpdatedAt())) {
+            cache.put(product.getProductId(), new ProductJson(product.getUpdatedAt(), json));
+        }
+        return new RawValue(json);
+    }
+
+    public SerializedString serialize(ProductResponse product) {
+        try {
+            return new SerializedString(objectMapper.writeValueAsString(product));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The same bytes Jackson writes for a successful GdnResponseData with this data and message
+     */
+    public byte[] envelope(SerializedString data, String message) {
+        byte[] json = data.asUnquotedUTF8();
+        byte[] suffix = envelopeSuffixes.computeIfAbsent(message, this::envelopeSuffix);
+        byte[] body = new byte[DATA_PREFIX.length + json.length + suffix.length];
+        System.arraycopy(DATA_PREFIX, 0, body, 0, DATA_PREFIX.length);
+        System.arraycopy(json, 0, body, DATA_PREFIX.length, json.length);
+        System.arraycopy(suffix, 0, body, DATA_PREFIX.length + json.length, suffix.length);
+        return body;
+    }
+
+    private byte[] envelopeSuffix(String message) {
+        try {
+            return (",\"message\":" + objectMapper.writeValueAsString(message)
+                    + ",\"status\":" + HttpStatus.OK.value() + ",\"success\":true}").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager != null ? cacheManager.getCache(CacheConfig.PRODUCT_JSON) : null;
+    }
+
+    private record ProductJson(Instant updatedAt, SerializedString json) {
+        private ProductJson {
+            Objects.requireNonNull(updatedAt);
+        }
+    }
+}
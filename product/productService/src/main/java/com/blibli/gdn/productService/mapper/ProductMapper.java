@@ -5,7 +5,10 @@ import com.blibli.gdn.productService.dto.request.VariantRequest;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
 import com.blibli.gdn.productService.dto.response.VariantResponse;
 import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductDocument;
 import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.model.VariantDocument;
+import com.blibli.gdn.productService.util.ProductFields;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -48,6 +51,76 @@ public class ProductMapper {
                 .build();
     }
 
+    /**
+     * Only the requested fields are set; the rest stay null and are left out of the JSON
+     */
+    public ProductResponse toProductResponse(Product product, ProductFields fields) {
+        return select(toProductResponse(product), fields);
+    }
+
+    public ProductResponse toProductResponse(ProductDocument document) {
+        if (document == null) {
+            return null;
+        }
+        return ProductResponse.builder()
+                .id(document.getMongoId())
+                .productId(document.getProductId())
+                .name(document.getName())
+                .description(document.getDescription())
+                .category(document.getCategory())
+                .brand(document.getBrand())
+                .tags(document.getTags())
+                .variants(toVariantDocumentResponses(document.getVariants()))
+                .createdAt(document.getCreatedAt())
+                .updatedAt(document.getUpdatedAt())
+                .build();
+    }
+
+    public ProductResponse toProductResponse(ProductDocument document, ProductFields fields) {
+        return select(toProductResponse(document), fields);
+    }
+
+    /**
+     * Narrows a full response, mapped or served from the product cache, to the requested fields
+     */
+    public ProductResponse select(ProductResponse response, ProductFields fields) {
+        if (response == null || fields.isAll()) {
+            return response;
+        }
+        ProductResponse.ProductResponseBuilder builder = ProductResponse.builder()
+                .productId(response.getProductId());
+        if (fields.includes("id")) {
+            builder.id(response.getId());
+        }
+        if (fields.includes("name")) {
+            builder.name(response.getName());
+        }
+        if (fields.includes("description")) {
+            builder.description(response.getDescription());
+        }
+        if (fields.includes("category")) {
+            builder.category(response.getCategory());
+        }
+        if (fields.includes("brand")) {
+            builder.brand(response.getBrand());
+        }
+        if (fields.includes("tags")) {
+            builder.tags(response.getTags());
+        }
+        if (fields.includes("variants") && response.getVariants() != null) {
+            builder.variants(response.getVariants().stream()
+                    .map(variant -> selectVariant(variant, fields))
+                    .collect(Collectors.toList()));
+        }
+        if (fields.includes("createdAt")) {
+            builder.createdAt(response.getCreatedAt());
+        }
+        if (fields.includes("updatedAt")) {
+            builder.updatedAt(response.getUpdatedAt());
+        }
+        return builder.build();
+    }
+
     private List<Variant> toVariants(List<VariantRequest> variantRequests) {
         if (variantRequests == null) {
             return Collections.emptyList();
@@ -79,7 +152,7 @@ public class ProductMapper {
                 .collect(Collectors.toList());
     }
 
-    private VariantResponse toVariantResponse(Variant variant) {
+    public VariantResponse toVariantResponse(Variant variant) {
         if (variant == null) {
             return null;
         }
@@ -91,4 +164,29 @@ public class ProductMapper {
                 .stock(variant.getStock())
                 .build();
     }
+
+    private List<VariantResponse> toVariantDocumentResponses(List<VariantDocument> variants) {
+        if (variants == null) {
+            return Collections.emptyList();
+        }
+        return variants.stream()
+                .map(variant -> VariantResponse.builder()
+                        .sku(variant.getSku())
+                        .size(variant.getSize())
+                        .color(variant.getColor())
+                        .price(variant.getPrice())
+                        .stock(variant.getStock())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private VariantResponse selectVariant(VariantResponse variant, ProductFields fields) {
+        return VariantResponse.builder()
+                .sku(fields.includesVariant("sku") ? variant.getSku() : null)
+                .size(fields.includesVariant("size") ? variant.getSize() : null)
+                .color(fields.includesVariant("color") ? variant.getColor() : null)
+                .price(fields.includesVariant("price") ? variant.getPrice() : null)
+                .stock(fields.includesVariant("stock") ? variant.getStock() : null)
+                .build();
+    }
 }
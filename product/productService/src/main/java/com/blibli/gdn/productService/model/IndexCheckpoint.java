@@ -0,0 +1,37 @@
+package com.blibli.gdn.productService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of the change-stream indexing pipeline, shared by all instances.
+ * Only the lease owner consumes the stream; the resume token is the last event applied to Elasticsearch.
+ * The reconciliation job keeps its own checkpoint with the updatedAt watermark it has synced up to.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "index_checkpoints")
+public class IndexCheckpoint {
+    @Id
+    private String id;
+
+    // Change stream resume token as extended JSON
+    private String resumeToken;
+
+    // Products updated before this are in Elasticsearch
+    private Instant watermark;
+
+    private String owner;
+
+    private Instant leaseUntil;
+
+    private Instant updatedAt;
+}
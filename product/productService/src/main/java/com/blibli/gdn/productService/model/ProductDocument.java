@@ -5,10 +5,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -22,12 +26,20 @@ public class ProductDocument {
     
     @Field(type = FieldType.Keyword)
     private String productId;
+
+    // MongoDB _id: search results are served from _source, and change-stream deletes only carry the _id
+    @Field(type = FieldType.Keyword)
+    private String mongoId;
     
     @Field(type = FieldType.Text, analyzer = "standard", searchAnalyzer = "standard")
     private String name;
     
     @Field(type = FieldType.Text, analyzer = "standard", searchAnalyzer = "standard")
     private String description;
+
+    // Typeahead: the name and each word-start suffix of it ("iPhone 15 Pro" for "Apple iPhone 15 Pro")
+    @CompletionField(maxInputLength = 100)
+    private Completion suggest;
     
     @Field(type = FieldType.Keyword)
     private String category;
@@ -40,5 +52,18 @@ public class ProductDocument {
     
     @Field(type = FieldType.Nested)
     private List<VariantDocument> variants;
+
+    @Field(type = FieldType.Date, format = DateFormat.epoch_millis)
+    private Instant createdAt;
+
+    @Field(type = FieldType.Date, format = DateFormat.epoch_millis)
+    private Instant updatedAt;
+
+    // SyncChecksum bucket and version hash, aggregated to compare the index with MongoDB
+    @Field(type = FieldType.Integer)
+    private Integer syncBucket;
+
+    @Field(type = FieldType.Long)
+    private Long syncHash;
 }
 
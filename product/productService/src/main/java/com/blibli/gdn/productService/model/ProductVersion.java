@@ -0,0 +1,37 @@
+package com.blibli.gdn.productService.model;
+
+import com.blibli.gdn.productService.util.ProductFields;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Version stamp of a product: its MongoDB _id and updatedAt, which every write through this service advances.
+ * Enough to answer a conditional GET without reading the document.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVersion {
+    private String id;
+    private Instant updatedAt;
+
+    /**
+     * Weak, because the body is re-serialized on every response. A sparse fieldset is a different representation
+     * of the same version, so it gets its own tag.
+     */
+    public String eTag(ProductFields fields) {
+        StringBuilder tag = new StringBuilder("W/\"")
+                .append(id)
+                .append('-')
+                .append(Long.toString(updatedAt.toEpochMilli(), 36));
+        if (!fields.isAll()) {
+            tag.append('-').append(Integer.toHexString(fields.toString().hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.blibli.gdn.productService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Units taken by one reservation. Releasing removes the record first, so a reservation is given back at most once
+ * and never for more than was taken.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_reservations")
+public class StockReservation {
+    @Id
+    private String reservationId;
+
+    private String sku;
+
+    private int quantity;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,139 @@
+package com.blibli.gdn.productService.repository;
+
+import com.blibli.gdn.productService.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole products collection in _id order with keyset pagination ({@code _id > last}, limit n), so every
+ * batch is an index range scan no matter how deep into the collection it is. The _id space is split into ranges
+ * at sampled boundaries and the ranges are read concurrently.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductKeysetReader {
+
+    // Sampled ids per range; more samples give more even ranges
+    private static final int SAMPLES_PER_RANGE = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Hands every product to the consumer in batches of up to batchSize. With parallelism > 1 the consumer is
+     * called from several threads at once. Returns the number of products read.
+     */
+    public long readAll(int parallelism, int batchSize, Consumer<List<Product>> consumer) throws InterruptedException {
+        List<String> boundaries = splitPoints(parallelism, batchSize);
+        if (boundaries.isEmpty()) {
+            return readRange(null, null, batchSize, consumer);
+        }
+
+        List<String> lowerBounds = new ArrayList<>();
+        lowerBounds.add(null);
+        lowerBounds.addAll(boundaries);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(lowerBounds.size(), runnable -> {
+            Thread thread = new Thread(runnable, "product-reader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> ranges = new ArrayList<>();
+            for (int i = 0; i < lowerBounds.size(); i++) {
+                String from = lowerBounds.get(i);
+                String to = i + 1 < lowerBounds.size() ? lowerBounds.get(i + 1) : null;
+                ranges.add(readers.submit(() -> readRange(from, to, batchSize, consumer)));
+            }
+            long read = 0;
+            for (Future<Long> range : ranges) {
+                read += range.get();
+            }
+            return read;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads [from, to); null bounds are open
+     */
+    long readRange(String from, String to, int batchSize, Consumer<List<Product>> consumer) {
+        long read = 0;
+        String last = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Criteria criteria = Criteria.where("_id");
+            boolean bounded = false;
+            if (last != null) {
+                criteria = criteria.gt(last);
+                bounded = true;
+            } else if (from != null) {
+                criteria = criteria.gte(from);
+                bounded = true;
+            }
+            if (to != null) {
+                criteria = criteria.lt(to);
+                bounded = true;
+            }
+            Query query = (bounded ? new Query(criteria) : new Query())
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(batchSize);
+
+            List<Product> batch = mongoTemplate.find(query, Product.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            consumer.accept(batch);
+            read += batch.size();
+            last = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return read;
+    }
+
+    /**
+     * parallelism - 1 ascending _id boundaries taken from a random sample, or none when one range is enough
+     */
+    List<String> splitPoints(int parallelism, int batchSize) {
+        if (parallelism <= 1 || mongoTemplate.estimatedCount(Product.class) <= (long) parallelism * batchSize) {
+            return List.of();
+        }
+        Aggregation sample = Aggregation.newAggregation(
+                Aggregation.sample((long) parallelism * SAMPLES_PER_RANGE),
+                Aggregation.project("_id"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+        List<String> sampled = mongoTemplate.aggregate(sample, Product.class, Document.class).getMappedResults().stream()
+                .map(document -> String.valueOf(document.get("_id")))
+                .toList();
+
+        List<String> boundaries = new ArrayList<>();
+        for (int i = 1; i < parallelism && !sampled.isEmpty(); i++) {
+            String boundary = sampled.get(i * sampled.size() / parallelism);
+            if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                boundaries.add(boundary);
+            }
+        }
+        log.debug("Split products into {} _id ranges at {}", boundaries.size() + 1, boundaries);
+        return boundaries;
+    }
+}
@@ -0,0 +1,91 @@
+package com.blibli.gdn.productService.repository;
+
+import com.blibli.gdn.productService.exception.DeadlineExceededException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.mongodb.MongoExecutionTimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link ProductRepository} reads used by product endpoints, with a projection so MongoDB only returns the
+ * requested fields. Unprojected properties of the returned products are null.
+ * Each read is limited to the request's remaining deadline ({@code maxTimeMS}); one that runs out fails with
+ * {@link DeadlineExceededException}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductProjectionReader {
+
+    private static final String STAGE = "mongo-read";
+
+    private final MongoTemplate mongoTemplate;
+
+    public Optional<Product> findFirstByProductId(String productId, ProductFields fields) {
+        Query query = project(Query.query(Criteria.where("productId").is(productId)), fields);
+        return Optional.ofNullable(read(() -> mongoTemplate.findOne(query, Product.class)));
+    }
+
+    public List<Product> findByProductIdIn(Collection<String> productIds, ProductFields fields) {
+        Query query = project(Query.query(Criteria.where("productId").in(productIds)), fields);
+        return read(() -> mongoTemplate.find(query, Product.class));
+    }
+
+    public Optional<Product> findFirstByVariantsSku(String sku) {
+        Query query = project(Query.query(Criteria.where("variants.sku").is(sku)), ProductFields.ALL);
+        return Optional.ofNullable(read(() -> mongoTemplate.findOne(query, Product.class)));
+    }
+
+    public List<Product> findByVariantsSkuIn(Collection<String> skus) {
+        Query query = project(Query.query(Criteria.where("variants.sku").in(skus)), ProductFields.ALL);
+        return read(() -> mongoTemplate.find(query, Product.class));
+    }
+
+    /**
+     * Same matching as findByNameContainingIgnoreCase(AndCategory)
+     */
+    public Page<Product> findByName(String name, String category, Pageable pageable, ProductFields fields) {
+        Criteria criteria = Criteria.where("name").regex(Pattern.quote(name == null ? "" : name), "i");
+        if (category != null && !category.isEmpty()) {
+            criteria = criteria.and("category").is(category);
+        }
+        Query query = project(Query.query(criteria), fields).with(pageable);
+        List<Product> products = read(() -> mongoTemplate.find(query, Product.class));
+        return PageableExecutionUtils.getPage(products, pageable,
+                () -> read(() -> mongoTemplate.count(RequestDeadline.applyTo(Query.of(query).limit(-1).skip(-1)),
+                        Product.class)));
+    }
+
+    private Query project(Query query, ProductFields fields) {
+        if (!fields.isAll()) {
+            fields.mongoFields().forEach(query.fields()::include);
+        }
+        return RequestDeadline.applyTo(query);
+    }
+
+    private <T> T read(Supplier<T> read) {
+        try {
+            return read.get();
+        } catch (DataAccessException e) {
+            if (e.getCause() instanceof MongoExecutionTimeoutException) {
+                RequestDeadline.recordExpired(STAGE);
+                throw new DeadlineExceededException(STAGE);
+            }
+            throw e;
+        }
+    }
+}
@@ -14,19 +14,11 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     java.util.Optional<Product> findByVariantsSku(String sku);
     
     java.util.Optional<Product> findByProductId(String productId);
+
+    java.util.List<Product> findByProductIdIn(java.util.Collection<String> productIds);
+
+    java.util.List<Product> findByVariantsSkuIn(java.util.Collection<String> skus);
     
-    // Find first product by productId (handles duplicates)
-    // Uses a proper query instead of loading all products
-    default java.util.Optional<Product> findFirstByProductId(String productId) {
-        // Use the repository method which is more efficient
-        java.util.Optional<Product> result = findByProductId(productId);
-        if (result.isPresent()) {
-            return result;
-        }
-        // If not found and there might be duplicates, fallback to stream
-        // But this should rarely happen if data is clean
-        return findAll().stream()
-                .filter(p -> p.getProductId() != null && p.getProductId().equals(productId))
-                .findFirst();
-    }
+    // Indexed lookup that tolerates duplicate productIds (see ProductIntegrityService)
+    java.util.Optional<Product> findFirstByProductId(String productId);
 }
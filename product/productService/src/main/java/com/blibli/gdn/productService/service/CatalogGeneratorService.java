@@ -0,0 +1,14 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.CatalogGenerationSummary;
+import com.blibli.gdn.productService.util.SyntheticCatalog;
+
+public interface CatalogGeneratorService {
+
+    /**
+     * Generates products startIndex .. startIndex + size - 1 of the synthetic catalog in parallel, inserts them with
+     * unordered bulk writes and bulk-indexes each batch. Products whose productId already exists are counted as
+     * failed; the rest of their batch is still inserted.
+     */
+    CatalogGenerationSummary generate(SyntheticCatalog.Spec spec, long startIndex, long size);
+}
@@ -0,0 +1,43 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.SkuSummaryResponse;
+import com.blibli.gdn.productService.model.Product;
+
+import java.util.Collection;
+
+/**
+ * SKU summaries (productId, name, price, stock) from a memory-mapped catalog snapshot, so an instance answers
+ * SKU lookups without MongoDB from the moment it starts. Product change events keep it current between writes.
+ */
+public interface CatalogSnapshotService {
+
+    SkuSummaryResponse getSkuSummary(String sku);
+
+    /**
+     * A product change event: before is absent without pre-images, after is absent for deletes
+     */
+    void apply(Product before, Product after);
+
+    /**
+     * A delete event for a product whose SKUs are unknown: its SKUs in the snapshot are read from MongoDB until the
+     * next write
+     */
+    void delete(String id);
+
+    /**
+     * After a local write, until its change event arrives: these SKUs are read from MongoDB
+     */
+    void invalidate(Collection<String> skus);
+
+    /**
+     * Change events may have been missed; nothing is served from the snapshot until the next one is written
+     */
+    void invalidateAll();
+
+    /**
+     * Catches up a snapshot mapped at startup, and writes a new one when due
+     */
+    void refresh();
+
+    void write();
+}
@@ -0,0 +1,23 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+
+import java.util.List;
+
+/**
+ * The search-side work a MongoDB write does itself. Elasticsearch is only written from the write path while the
+ * change-stream pipeline is not running on this instance; otherwise the pipeline indexes the change.
+ */
+public interface DirectIndexingService {
+
+    /**
+     * True when Elasticsearch is enabled and the change-stream pipeline is not indexing writes
+     */
+    boolean isActive();
+
+    /**
+     * Registers bulk-inserted products with the lookup filters and the local search index, and indexes them with
+     * one Elasticsearch bulk request while isActive; a failed bulk request is left to reconciliation
+     */
+    void afterInsert(List<Product> created);
+}
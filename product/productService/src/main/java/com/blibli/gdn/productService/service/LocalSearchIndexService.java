@@ -0,0 +1,24 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Ranked product text search from an in-memory inverted index, used instead of Elasticsearch when it is disabled.
+ */
+public interface LocalSearchIndexService {
+
+    boolean isReady();
+
+    /**
+     * Matching productIds, ranked by relevance unless the pageable is sorted by name.
+     */
+    Page<String> search(String name, String category, Pageable pageable);
+
+    void index(Product product);
+
+    void remove(String productId);
+
+    void rebuild();
+}
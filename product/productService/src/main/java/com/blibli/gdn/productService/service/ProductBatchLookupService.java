@@ -0,0 +1,16 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.BatchLookupResponse;
+
+import java.util.List;
+
+/**
+ * Multi-key lookups for internal consumers: cache hits first, then one $in query for the misses.
+ * Keys that match nothing come back as not-found items instead of failing the request.
+ */
+public interface ProductBatchLookupService {
+
+    BatchLookupResponse findByProductIds(List<String> productIds);
+
+    BatchLookupResponse findBySkus(List<String> skus);
+}
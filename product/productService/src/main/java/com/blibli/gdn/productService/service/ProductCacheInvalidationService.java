@@ -0,0 +1,22 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+
+import java.util.Collection;
+
+/**
+ * Evicts every cache entry derived from a product (by productId and by each SKU), on this instance
+ * for local writes and on every instance through a MongoDB change stream.
+ */
+public interface ProductCacheInvalidationService {
+
+    void evict(Product product);
+
+    /**
+     * After a change to some variants only: the product, its version stamp and its by-SKU entries still change,
+     * but cached variants are only evicted for the changed SKUs
+     */
+    void evictVariants(Product product, Collection<String> changedSkus);
+
+    void evictAll();
+}
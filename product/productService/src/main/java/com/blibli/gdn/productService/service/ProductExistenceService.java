@@ -0,0 +1,21 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+
+/**
+ * Answers "might this productId / SKU exist?" from memory so lookups of unknown keys skip MongoDB.
+ */
+public interface ProductExistenceService {
+
+    boolean mightExistProductId(String productId);
+
+    boolean mightExistSku(String sku);
+
+    void recordMissingProductId(String productId);
+
+    void recordMissingSku(String sku);
+
+    void register(Product product);
+
+    void rebuild();
+}
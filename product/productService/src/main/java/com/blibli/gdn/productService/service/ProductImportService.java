@@ -0,0 +1,16 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.ProductImportSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ProductImportService {
+
+    /**
+     * Creates products from NDJSON, one ProductRequest per line. Writes one ProductImportResult line per input
+     * line as its batch completes, then a ProductImportSummary line.
+     */
+    ProductImportSummary importProducts(InputStream ndjson, OutputStream results) throws IOException;
+}
@@ -0,0 +1,16 @@
+package com.blibli.gdn.productService.service;
+
+public interface ProductIndexPipelineService {
+
+    /**
+     * Starts consuming the products change stream in the background; instances that don't hold the lease wait for it
+     */
+    void start();
+
+    void stop();
+
+    /**
+     * True while this instance is applying the change stream to Elasticsearch
+     */
+    boolean isActive();
+}
@@ -2,11 +2,26 @@ package com.blibli.gdn.productService.service;
 
 import com.blibli.gdn.productService.model.Product;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ProductIndexingService {
     void indexProduct(Product product);
     void deleteProduct(String productId);
     void deleteProductById(String mongoId); // Delete by MongoDB _id
     void updateProduct(Product product); // Update existing product in index
+
+    /**
+     * Partial update of an indexed product: only the price and stock of the changed SKUs, plus updatedAt.
+     * The product needs id, productId, updatedAt and the changed variants' sku, price and stock.
+     */
+    void updateVariants(Product product, Collection<String> changedSkus);
     void reindexAllProducts();
+
+    /**
+     * Synchronously writes one bulk batch: upserts the products and removes the documents of deleted products
+     * and the stale documents of products whose productId changed. Throws if any item fails.
+     */
+    void indexBatch(List<Product> products, Collection<String> deletedMongoIds);
 }
 
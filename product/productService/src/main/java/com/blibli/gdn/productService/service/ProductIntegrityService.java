@@ -0,0 +1,13 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.DuplicateReportResponse;
+
+public interface ProductIntegrityService {
+
+    /**
+     * Creates the productId and variants.sku lookup indexes, unique unless duplicates already exist
+     */
+    void ensureLookupIndexes();
+
+    DuplicateReportResponse findDuplicates();
+}
@@ -0,0 +1,16 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.request.VariantPatchRequest;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+
+import java.util.List;
+
+public interface ProductPatchService {
+
+    /**
+     * Sets the given prices and stocks on the product's variants in one atomic update. Every SKU must belong to
+     * the product, otherwise nothing is changed. Returns the productId, updatedAt and each variant's sku, price
+     * and stock.
+     */
+    ProductResponse patchVariants(String productId, List<VariantPatchRequest> patches);
+}
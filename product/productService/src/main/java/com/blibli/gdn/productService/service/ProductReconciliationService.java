@@ -0,0 +1,16 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.ReconciliationReport;
+
+public interface ProductReconciliationService {
+
+    /**
+     * Indexes the products updated since the saved watermark and advances it. Returns the number indexed.
+     */
+    int syncSinceWatermark();
+
+    /**
+     * Compares per-bucket checksums of MongoDB and Elasticsearch and repairs only the buckets that differ.
+     */
+    ReconciliationReport reconcile();
+}
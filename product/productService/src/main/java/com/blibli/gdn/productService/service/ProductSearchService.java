@@ -1,10 +1,20 @@
 package com.blibli.gdn.productService.service;
 
+import com.blibli.gdn.productService.dto.request.ProductSearchRequest;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.ProductSearchResponse;
+import com.blibli.gdn.productService.util.ProductFields;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface ProductSearchService {
     Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, String sort);
+
+    Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, String sort, ProductFields fields);
+
+    /**
+     * Search with price/stock filters and cursor (search_after) paging
+     */
+    ProductSearchResponse search(ProductSearchRequest request);
 }
 
@@ -2,6 +2,8 @@ package com.blibli.gdn.productService.service;
 
 import com.blibli.gdn.productService.dto.request.ProductRequest;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.blibli.gdn.productService.util.ProductFields;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -14,5 +16,18 @@ public interface ProductService {
 
     ProductResponse getProduct(String id);
 
+    /**
+     * Only the requested fields, read with a MongoDB projection unless the full product is already cached
+     */
+    ProductResponse getProduct(String id, ProductFields fields);
+
+    /**
+     * Current version stamp of a product for conditional requests, or null if the product has no updatedAt.
+     * Served from cache or a projection of _id and updatedAt; the document itself is not read.
+     */
+    ProductVersion getProductVersion(String id);
+
     Page<ProductResponse> searchProducts(String name, String category, Pageable pageable);
+
+    Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, ProductFields fields);
 }
@@ -0,0 +1,13 @@
+package com.blibli.gdn.productService.service;
+
+import java.util.List;
+
+/**
+ * Typeahead suggestions for the search box: product names matching a prefix of any of their words, and brands.
+ */
+public interface ProductSuggestService {
+
+    List<String> suggest(String prefix, int limit);
+
+    void rebuild();
+}
@@ -0,0 +1,26 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.StockReservationResponse;
+
+/**
+ * Atomic stock changes of a single variant, without reading or rewriting the product document.
+ * A reservation either takes the full quantity or fails with InsufficientStockException; stock never goes negative.
+ */
+public interface StockReservationService {
+
+    /**
+     * Takes quantity units of the SKU; the response carries the reservation id that releases them
+     */
+    StockReservationResponse reserve(String sku, int quantity);
+
+    /**
+     * Gives back the units of a reservation made by reserve; fails with StockReservationNotFoundException when the
+     * id is unknown or was already released
+     */
+    StockReservationResponse release(String reservationId);
+
+    /**
+     * Returns the units held in this instance's escrow to MongoDB; returns how many were returned
+     */
+    long flushEscrow();
+}
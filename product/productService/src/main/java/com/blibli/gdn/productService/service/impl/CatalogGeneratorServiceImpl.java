@@ -0,0 +1,176 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.dto.response.CatalogGenerationSummary;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.CatalogGeneratorService;
+import com.blibli.gdn.productService.service.DirectIndexingService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.ProductSuggestService;
+import com.blibli.gdn.productService.util.SyntheticCatalog;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Worker threads claim batches of product indexes, generate them with their own {@link SyntheticCatalog},
+ * insert each batch with one unordered bulkWrite and index it with one Elasticsearch bulk request.
+ * Generation, inserts and indexing of different batches overlap; memory is one batch per worker.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogGeneratorServiceImpl implements CatalogGeneratorService {
+
+    private static final long LOG_INTERVAL_MS = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductExistenceService productExistenceService;
+    private final ProductSuggestService productSuggestService;
+    private final DirectIndexingService directIndexingService;
+
+    // 0: one per available processor
+    @Value("${product.generator.threads:0}")
+    private int threads;
+
+    @Value("${product.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public CatalogGenerationSummary generate(SyntheticCatalog.Spec spec, long startIndex, long size) {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int perBatch = Math.max(1, batchSize);
+        long batches = (size + perBatch - 1) / perBatch;
+        log.info("Generating {} products (indexes {}..{}, seed {}) on {} threads",
+                size, startIndex, startIndex + size - 1, spec.seed(), workers);
+
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress(size, start);
+        AtomicLong nextBatch = new AtomicLong();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "catalog-generator-" + threadNumber.incrementAndGet()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(pool.submit(() -> {
+                    SyntheticCatalog catalog = new SyntheticCatalog(spec);
+                    long batch;
+                    while ((batch = nextBatch.getAndIncrement()) < batches) {
+                        long from = startIndex + batch * perBatch;
+                        long to = Math.min(startIndex + size, from + perBatch);
+                        List<Product> products = new ArrayList<>((int) (to - from));
+                        for (long index = from; index < to; index++) {
+                            products.add(catalog.product(index));
+                        }
+                        insert(products, progress);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Catalog generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (progress.inserted.get() > 0) {
+            // Sized for the new catalog, rather than the one seen at startup
+            productExistenceService.rebuild();
+            productSuggestService.rebuild();
+        }
+        long durationMs = Math.max(1, System.currentTimeMillis() - start);
+        CatalogGenerationSummary summary = CatalogGenerationSummary.builder()
+                .requested(size)
+                .inserted(progress.inserted.get())
+                .failed(progress.failed.get())
+                .durationMs(durationMs)
+                .productsPerSecond(progress.inserted.get() * 1000 / durationMs)
+                .build();
+        log.info("Catalog generation finished: {} inserted, {} failed in {} ms ({} products/s)",
+                summary.getInserted(), summary.getFailed(), summary.getDurationMs(), summary.getProductsPerSecond());
+        return summary;
+    }
+
+    private void insert(List<Product> products, Progress progress) {
+        // Ids are assigned here because bulk inserts do not report them back
+        products.forEach(product -> product.setId(new ObjectId().toHexString()));
+        Set<Integer> failed = new HashSet<>();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            bulk.insert(products);
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // e.g. a productId left by an earlier run; the rest of the batch is inserted
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+            }
+        } catch (DataAccessException e) {
+            // The whole batch is counted as failed; the other batches go on
+            log.error("Bulk insert of {} generated products failed: {}", products.size(), e.getMessage());
+            progress.add(0, products.size());
+            return;
+        }
+
+        List<Product> created = new ArrayList<>(products.size() - failed.size());
+        for (int i = 0; i < products.size(); i++) {
+            if (!failed.contains(i)) {
+                created.add(products.get(i));
+            }
+        }
+        directIndexingService.afterInsert(created);
+        progress.add(created.size(), failed.size());
+    }
+
+    /**
+     * Logs progress and throughput at most every 10 seconds
+     */
+    private static final class Progress {
+
+        private final long total;
+        private final long startedAt;
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong lastLoggedAt;
+
+        private Progress(long total, long startedAt) {
+            this.total = total;
+            this.startedAt = startedAt;
+            this.lastLoggedAt = new AtomicLong(startedAt);
+        }
+
+        private void add(long insertedProducts, long failedProducts) {
+            long done = inserted.addAndGet(insertedProducts) + failed.addAndGet(failedProducts);
+            long now = System.currentTimeMillis();
+            long last = lastLoggedAt.get();
+            if (now - last >= LOG_INTERVAL_MS && lastLoggedAt.compareAndSet(last, now)) {
+                double seconds = Math.max(1, now - startedAt) / 1000.0;
+                log.info("Catalog generation: {}/{} products ({}%), {} products/s", done, total,
+                        total > 0 ? done * 100 / total : 100, Math.round(inserted.get() / seconds));
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.dto.response.SkuSummaryResponse;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.CatalogSnapshotService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.VariantService;
+import com.blibli.gdn.productService.util.CatalogSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The snapshot file is mapped at startup and rewritten every {@code write-interval-ms}. Changes since it was read
+ * from MongoDB sit in a small on-heap overlay: change-stream events put the new state of each SKU, local writes
+ * put a marker that sends the SKU to MongoDB until their event arrives. A snapshot mapped at startup is first
+ * caught up with the products updated since it was written.
+ *
+ * <p>Nothing is served unless the cache invalidation change stream is running, since remote writes would be
+ * missed. A delete whose SKUs are unknown marks the product's MongoDB id, and snapshot entries of that id are read
+ * from MongoDB until the next write.
+ * SKUs deleted or moved while the instance was down are served from a mapped snapshot until its next write,
+ * unless the existence filter already rules them out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotServiceImpl implements CatalogSnapshotService {
+
+    // updatedAt comes from the clock of whichever instance wrote the product
+    private static final long CLOCK_SKEW_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final VariantService variantService;
+    private final ProductExistenceService productExistenceService;
+    private final ProductCacheExpiry productCacheExpiry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.snapshot.enabled:true}")
+    private boolean enabled;
+
+    // One file per instance; several instances on a host need different paths
+    @Value("${product.snapshot.path:data/catalog.snapshot}")
+    private String path;
+
+    @Value("${product.snapshot.write-interval-ms:300000}")
+    private long writeIntervalMs;
+
+    private volatile CatalogSnapshot snapshot;
+
+    // SKUs changed since the snapshot was read; a null entry means "read it from MongoDB"
+    private final Map<String, Change> overlay = new ConcurrentHashMap<>();
+
+    // MongoDB ids deleted since the snapshot was read whose SKUs were unknown, with when the delete was received
+    private final Map<String, Long> deletedIds = new ConcurrentHashMap<>();
+
+    // Bumped when changes may have been missed; a snapshot is only served in the generation it was written in
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long snapshotGeneration;
+
+    private volatile boolean caughtUp;
+
+    private Counter snapshotHits;
+    private Counter overlayHits;
+    private Counter databaseReads;
+
+    private record Change(CatalogSnapshot.Entry entry, long receivedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        snapshotHits = lookupCounter("snapshot");
+        overlayHits = lookupCounter("overlay");
+        databaseReads = lookupCounter("database");
+        Gauge.builder("product.snapshot.age.seconds", this,
+                        service -> service.snapshot != null
+                                ? (System.currentTimeMillis() - service.snapshot.createdAt().toEpochMilli()) / 1000.0
+                                : Double.NaN)
+                .description("Seconds since the mapped catalog snapshot was read from MongoDB")
+                .register(meterRegistry);
+        Gauge.builder("product.snapshot.overlay.size", overlay, Map::size)
+                .description("SKUs changed since the mapped catalog snapshot was written")
+                .register(meterRegistry);
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Override
+    public SkuSummaryResponse getSkuSummary(String sku) {
+        CatalogSnapshot.Entry entry = isServing() ? lookup(sku) : null;
+        if (entry != null) {
+            return toResponse(entry);
+        }
+        databaseReads.increment();
+        Product product = variantService.findProductBySku(sku);
+        Variant variant = product.getVariants().stream()
+                .filter(candidate -> sku.equals(candidate.getSku()))
+                .findFirst()
+                .orElseThrow(() -> new ProductNotFoundException("SKU not found in product variants: " + sku));
+        return toResponse(entry(product, variant));
+    }
+
+    @Override
+    public void apply(Product before, Product after) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<String> current = new HashSet<>();
+        if (after != null && after.getVariants() != null) {
+            for (Variant variant : after.getVariants()) {
+                if (variant.getSku() != null) {
+                    current.add(variant.getSku());
+                    overlay.put(variant.getSku(), new Change(entry(after, variant), now));
+                }
+            }
+        }
+        // SKUs the product no longer has, or all of a deleted product's
+        if (before != null && before.getVariants() != null) {
+            for (Variant variant : before.getVariants()) {
+                if (variant.getSku() != null && !current.contains(variant.getSku())) {
+                    overlay.put(variant.getSku(), new Change(null, now));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        if (enabled) {
+            deletedIds.put(id, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void invalidate(Collection<String> skus) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        skus.forEach(sku -> overlay.put(sku, new Change(null, now)));
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.snapshot.check-interval-ms:5000}",
+            initialDelayString = "${product.snapshot.check-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (!productCacheExpiry.isCoordinated()) {
+            // Remote writes are not arriving; served again once the change stream is back and caught up
+            caughtUp = false;
+            return;
+        }
+        CatalogSnapshot current = snapshot;
+        boolean valid = current != null && snapshotGeneration == invalidations.get();
+        if (valid && !caughtUp) {
+            catchUp(current);
+        } else if (!valid || System.currentTimeMillis() - current.createdAt().toEpochMilli() >= writeIntervalMs) {
+            write();
+        }
+    }
+
+    @Override
+    public synchronized void write() {
+        long start = System.currentTimeMillis();
+        long generation = invalidations.get();
+        Path file = Path.of(path);
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(file);
+             Stream<Product> products = mongoTemplate.stream(projection(new Query()), Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                if (product.getVariants() == null) {
+                    continue;
+                }
+                for (Variant variant : product.getVariants()) {
+                    if (variant.getSku() != null) {
+                        writer.add(entry(product, variant));
+                    }
+                }
+            }
+            CatalogSnapshot written = writer.commit(Instant.ofEpochMilli(start));
+            snapshotGeneration = generation;
+            snapshot = written;
+            // Changes received before the read started are in the new snapshot
+            overlay.values().removeIf(change -> change.receivedAt() < start);
+            deletedIds.values().removeIf(receivedAt -> receivedAt < start);
+            caughtUp = true;
+            log.info("Wrote catalog snapshot {} in {}ms: {} SKUs, {} KB", file.toAbsolutePath(),
+                    System.currentTimeMillis() - start, written.size(), written.sizeBytes() / 1024);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write catalog snapshot {}, keeping the previous one: {}", file, e.getMessage());
+        }
+    }
+
+    private void load() {
+        Path file = Path.of(path);
+        if (!Files.exists(file)) {
+            log.info("No catalog snapshot at {}; one is written once the change stream is running",
+                    file.toAbsolutePath());
+            return;
+        }
+        try {
+            snapshot = CatalogSnapshot.open(file);
+            log.info("Mapped catalog snapshot {}: {} SKUs read from MongoDB at {}", file.toAbsolutePath(),
+                    snapshot.size(), snapshot.createdAt());
+        } catch (IOException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", file.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Puts the products updated since the snapshot was read into the overlay, unless a change event got there first
+     */
+    private void catchUp(CatalogSnapshot current) {
+        long start = System.currentTimeMillis();
+        Instant since = current.createdAt().minusMillis(CLOCK_SKEW_MS);
+        int changed = 0;
+        try (Stream<Product> products = mongoTemplate.stream(
+                projection(Query.query(Criteria.where("updatedAt").gte(since))), Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                if (product.getVariants() == null) {
+                    continue;
+                }
+                for (Variant variant : product.getVariants()) {
+                    if (variant.getSku() != null) {
+                        overlay.putIfAbsent(variant.getSku(), new Change(entry(product, variant), start));
+                        changed++;
+                    }
+                }
+            }
+            caughtUp = true;
+            log.info("Caught up catalog snapshot from {} in {}ms: {} SKUs changed since", current.createdAt(),
+                    System.currentTimeMillis() - start, changed);
+        } catch (RuntimeException e) {
+            log.error("Failed to catch up catalog snapshot, reading SKUs from MongoDB: {}", e.getMessage());
+        }
+    }
+
+    private boolean isServing() {
+        CatalogSnapshot current = snapshot;
+        return enabled && caughtUp && current != null && snapshotGeneration == invalidations.get();
+    }
+
+    private CatalogSnapshot.Entry lookup(String sku) {
+        // Deleted while this instance was down, unless the filter still has it; the database read answers 404
+        if (!productExistenceService.mightExistSku(sku)) {
+            return null;
+        }
+        Change change = overlay.get(sku);
+        if (change != null) {
+            if (change.entry() != null) {
+                overlayHits.increment();
+            }
+            return change.entry();
+        }
+        CatalogSnapshot.Entry entry = snapshot.find(sku);
+        if (entry == null || (entry.id() != null && deletedIds.containsKey(entry.id()))) {
+            return null;
+        }
+        snapshotHits.increment();
+        return entry;
+    }
+
+    private Query projection(Query query) {
+        query.fields()
+                .include("productId")
+                .include("name")
+                .include("updatedAt")
+                .include("variants.sku")
+                .include("variants.price")
+                .include("variants.stock");
+        return query;
+    }
+
+    private CatalogSnapshot.Entry entry(Product product, Variant variant) {
+        return new CatalogSnapshot.Entry(variant.getSku(), product.getId(), product.getProductId(), product.getName(),
+                variant.getPrice(), variant.getStock(), product.getUpdatedAt());
+    }
+
+    private SkuSummaryResponse toResponse(CatalogSnapshot.Entry entry) {
+        return SkuSummaryResponse.builder()
+                .sku(entry.sku())
+                .productId(entry.productId())
+                .name(entry.name())
+                .price(entry.price())
+                .stock(entry.stock())
+                .updatedAt(entry.updatedAt())
+                .build();
+    }
+
+    private Counter lookupCounter(String source) {
+        return Counter.builder("product.snapshot.lookups")
+                .description("SKU summary lookups by where they were answered")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.DirectIndexingService;
+import com.blibli.gdn.productService.service.LocalSearchIndexService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.ProductIndexPipelineService;
+import com.blibli.gdn.productService.service.ProductIndexingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DirectIndexingServiceImpl implements DirectIndexingService {
+
+    private final ProductExistenceService productExistenceService;
+
+    @Autowired(required = false)
+    private ProductIndexingService productIndexingService;
+
+    @Autowired(required = false)
+    private ProductIndexPipelineService productIndexPipelineService;
+
+    // Only present when Elasticsearch is disabled
+    @Autowired(required = false)
+    private LocalSearchIndexService localSearchIndexService;
+
+    @Override
+    public boolean isActive() {
+        return productIndexingService != null
+                && (productIndexPipelineService == null || !productIndexPipelineService.isActive());
+    }
+
+    @Override
+    public void afterInsert(List<Product> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        created.forEach(productExistenceService::register);
+        if (localSearchIndexService != null) {
+            created.forEach(localSearchIndexService::index);
+        }
+        if (isActive()) {
+            try {
+                productIndexingService.indexBatch(created, List.of());
+            } catch (Exception e) {
+                log.warn("Bulk indexing of {} inserted products failed, reconciliation will index them: {}",
+                        created.size(), e.getMessage());
+            }
+        }
+    }
+}
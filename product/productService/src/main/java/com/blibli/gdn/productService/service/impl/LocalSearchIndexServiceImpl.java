@@ -0,0 +1,152 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.LocalSearchIndexService;
+import com.blibli.gdn.productService.util.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.Stream;
+
+/**
+ * Keeps an InvertedIndex of product name (weight 3), brand (2) and description (1), keyed by productId.
+ * Built from MongoDB at startup, kept current by product writes, and rebuilt on a schedule to drop
+ * the tombstones left by updates and deletes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "false", matchIfMissing = true)
+public class LocalSearchIndexServiceImpl implements LocalSearchIndexService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.local-search.enabled:true}")
+    private boolean enabled;
+
+    // null until the first build; searches fall back to MongoDB until then
+    private volatile InvertedIndex index;
+
+    // Index being built; writes during a rebuild go to both so they are not lost on swap
+    private volatile InvertedIndex nextIndex;
+
+    private Timer searchTimer;
+
+    @PostConstruct
+    void init() {
+        searchTimer = Timer.builder("product.local.search.latency")
+                .description("Latency of searches answered by the in-memory inverted index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("product.local.search.documents", this, service -> service.index != null ? service.index.size() : 0)
+                .description("Products in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("product.local.search.terms", this, service -> service.index != null ? service.index.termCount() : 0)
+                .description("Distinct terms in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && index != null;
+    }
+
+    @Override
+    public Page<String> search(String name, String category, Pageable pageable) {
+        InvertedIndex current = index;
+        InvertedIndex.Result result = searchTimer.record(() -> current.search(
+                name,
+                category != null && !category.isEmpty() ? category : null,
+                order(pageable.getSort()),
+                (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE),
+                pageable.getPageSize()));
+        return new PageImpl<>(result.keys(), pageable, result.total());
+    }
+
+    @Override
+    public void index(Product product) {
+        if (!enabled || product.getProductId() == null) {
+            return;
+        }
+        put(product, index);
+        put(product, nextIndex);
+    }
+
+    @Override
+    public void remove(String productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        InvertedIndex current = index;
+        InvertedIndex next = nextIndex;
+        if (current != null) {
+            current.remove(productId);
+        }
+        if (next != null) {
+            next.remove(productId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.local-search.rebuild-interval-ms:1800000}",
+            initialDelayString = "${product.local-search.rebuild-interval-ms:1800000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            InvertedIndex built = newIndex();
+            nextIndex = built;
+
+            Query query = new Query();
+            query.fields().include("productId").include("name").include("brand").include("description").include("category");
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.filter(product -> product.getProductId() != null)
+                        .forEach(product -> put(product, built));
+            }
+
+            index = built;
+            log.info("Rebuilt in-memory search index in {}ms: {} products, {} terms, ~{} KB of postings",
+                    System.currentTimeMillis() - start, built.size(), built.termCount(), built.postingsBytes() / 1024);
+        } catch (Exception e) {
+            log.error("Failed to rebuild in-memory search index, keeping previous one: {}", e.getMessage());
+        } finally {
+            nextIndex = null;
+        }
+    }
+
+    private void put(Product product, InvertedIndex target) {
+        if (target != null) {
+            target.put(product.getProductId(), product.getCategory(), product.getName(),
+                    product.getName(), product.getBrand(), product.getDescription());
+        }
+    }
+
+    private InvertedIndex newIndex() {
+        return new InvertedIndex(3f, 2f, 1f);
+    }
+
+    private InvertedIndex.Order order(Sort sort) {
+        Sort.Order byName = sort.getOrderFor("name");
+        if (byName == null) {
+            return InvertedIndex.Order.RELEVANCE;
+        }
+        return byName.isAscending() ? InvertedIndex.Order.SORT_KEY_ASC : InvertedIndex.Order.SORT_KEY_DESC;
+    }
+}
@@ -0,0 +1,176 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
+import com.blibli.gdn.productService.dto.response.BatchLookupResponse;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
+import com.blibli.gdn.productService.service.ProductBatchLookupService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Uses the same caches as the single-key lookups (products by productId, products by SKU), so a batch warms
+ * them for single lookups and the other way round. Keys ruled out by the existence filters never reach MongoDB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBatchLookupServiceImpl implements ProductBatchLookupService {
+
+    private final ProductProjectionReader productProjectionReader;
+    private final ProductMapper productMapper;
+    private final ProductExistenceService productExistenceService;
+    private final CacheManager cacheManager;
+    private final ProductKeyIndex productKeyIndex;
+
+    @Override
+    public BatchLookupResponse findByProductIds(List<String> productIds) {
+        Set<String> keys = distinct(productIds);
+        log.info("Batch lookup of {} productIds", keys.size());
+        RequestDeadline.checkRemaining("batch-product-lookup");
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Map<String, ProductResponse> found = getAllPresent(cache, keys, ProductResponse.class);
+
+        List<String> misses = keys.stream()
+                .filter(key -> !found.containsKey(key))
+                .filter(productExistenceService::mightExistProductId)
+                .toList();
+        if (!misses.isEmpty()) {
+            for (Product product : productProjectionReader.findByProductIdIn(misses, ProductFields.ALL)) {
+                productKeyIndex.record(product);
+                // Duplicate productIds: keep the first, like findFirstByProductId
+                if (!found.containsKey(product.getProductId())) {
+                    ProductResponse response = productMapper.toProductResponse(product);
+                    found.put(product.getProductId(), response);
+                    if (cache != null) {
+                        cache.put(product.getProductId(), response);
+                    }
+                }
+            }
+            misses.stream().filter(key -> !found.containsKey(key)).forEach(productExistenceService::recordMissingProductId);
+        }
+
+        return toResponse(keys, key -> found.containsKey(key)
+                ? BatchLookupResponse.Item.builder().key(key).found(true).product(found.get(key)).build()
+                : null);
+    }
+
+    @Override
+    public BatchLookupResponse findBySkus(List<String> skus) {
+        Set<String> keys = distinct(skus);
+        log.info("Batch lookup of {} SKUs", keys.size());
+        RequestDeadline.checkRemaining("batch-sku-lookup");
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU);
+        Map<String, Product> found = getAllPresent(cache, keys, Product.class);
+
+        List<String> misses = keys.stream()
+                .filter(key -> !found.containsKey(key))
+                .filter(productExistenceService::mightExistSku)
+                .toList();
+        if (!misses.isEmpty()) {
+            Set<String> wanted = new LinkedHashSet<>(misses);
+            for (Product product : productProjectionReader.findByVariantsSkuIn(misses)) {
+                productKeyIndex.record(product);
+                for (Variant variant : product.getVariants()) {
+                    if (wanted.contains(variant.getSku()) && !found.containsKey(variant.getSku())) {
+                        found.put(variant.getSku(), product);
+                        if (cache != null) {
+                            cache.put(variant.getSku(), product);
+                        }
+                    }
+                }
+            }
+            misses.stream().filter(key -> !found.containsKey(key)).forEach(productExistenceService::recordMissingSku);
+        }
+
+        return toResponse(keys, key -> {
+            Product product = found.get(key);
+            Variant variant = product == null ? null : product.getVariants().stream()
+                    .filter(candidate -> key.equals(candidate.getSku()))
+                    .findFirst()
+                    .orElse(null);
+            return variant == null ? null : BatchLookupResponse.Item.builder()
+                    .key(key)
+                    .found(true)
+                    .product(productMapper.toProductResponse(product))
+                    .variant(productMapper.toVariantResponse(variant))
+                    .build();
+        });
+    }
+
+    /**
+     * Items in request order; the resolver returns null for a key that was not found
+     */
+    private BatchLookupResponse toResponse(Set<String> keys, Function<String, BatchLookupResponse.Item> resolver) {
+        List<BatchLookupResponse.Item> items = new ArrayList<>(keys.size());
+        List<String> notFound = new ArrayList<>();
+        for (String key : keys) {
+            BatchLookupResponse.Item item = resolver.apply(key);
+            if (item == null) {
+                notFound.add(key);
+                item = BatchLookupResponse.Item.builder().key(key).found(false).build();
+            }
+            items.add(item);
+        }
+        return BatchLookupResponse.builder()
+                .items(items)
+                .found(keys.size() - notFound.size())
+                .notFound(notFound)
+                .build();
+    }
+
+    private Set<String> distinct(List<String> keys) {
+        Set<String> distinct = new LinkedHashSet<>();
+        keys.stream().filter(Objects::nonNull).map(String::trim).filter(key -> !key.isEmpty()).forEach(distinct::add);
+        return distinct;
+    }
+
+    /**
+     * One bulk read for Caffeine caches, per-key reads for any other cache
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Map<String, T> getAllPresent(Cache cache, Collection<String> keys, Class<T> type) {
+        Map<String, T> present = new HashMap<>();
+        if (cache == null) {
+            return present;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).getAllPresent(keys)
+                    .forEach((key, value) -> {
+                        if (type.isInstance(value)) {
+                            present.put((String) key, type.cast(value));
+                        }
+                    });
+            return present;
+        }
+        for (String key : keys) {
+            T value = cache.get(key, type);
+            if (value != null) {
+                present.put(key, value);
+            }
+        }
+        return present;
+    }
+}
@@ -0,0 +1,332 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.CatalogSnapshotService;
+import com.blibli.gdn.productService.service.ProductCacheInvalidationService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Local writes evict synchronously. Every write to the products collection, from any instance or from outside
+ * the service, also arrives on a change stream and is evicted again; this closes the window where a concurrent
+ * read re-caches the old value right after the local eviction.
+ * While the change stream is not running (e.g. MongoDB is not a replica set) new entries get the short TTL.
+ * Without pre-images, the keys a changed or deleted document had are taken from the {@link ProductKeyIndex}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidationServiceImpl implements ProductCacheInvalidationService {
+
+    private final CacheManager cacheManager;
+    private final MongoTemplate mongoTemplate;
+    private final ProductCacheExpiry productCacheExpiry;
+    private final ProductExistenceService productExistenceService;
+    private final ProductKeyIndex productKeyIndex;
+    private final MeterRegistry meterRegistry;
+
+    // Kept current by the same local writes and change events as the caches
+    @Autowired(required = false)
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${product.cache.change-stream.enabled:true}")
+    private boolean changeStreamEnabled;
+
+    // Needs changeStreamPreAndPostImages on the collection (MongoDB 6+); covers ids missing from the key index
+    @Value("${product.cache.change-stream.pre-images:false}")
+    private boolean preImages;
+
+    private MessageListenerContainer container;
+    private volatile Subscription subscription;
+    private boolean unavailableLogged;
+
+    private Counter localInvalidations;
+    private Counter changeStreamInvalidations;
+    private Counter fullInvalidations;
+
+    @PostConstruct
+    void init() {
+        localInvalidations = invalidationCounter("local");
+        changeStreamInvalidations = invalidationCounter("change-stream");
+        fullInvalidations = invalidationCounter("all");
+        Gauge.builder("product.cache.coordinated", productCacheExpiry, expiry -> expiry.isCoordinated() ? 1 : 0)
+                .description("1 while cross-instance invalidation is running and the long TTL applies")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void evict(Product product) {
+        if (evictKeys(product)) {
+            localInvalidations.increment();
+        }
+        productKeyIndex.record(product);
+        if (catalogSnapshotService != null && product != null && product.getVariants() != null) {
+            catalogSnapshotService.invalidate(product.getVariants().stream()
+                    .map(Variant::getSku)
+                    .filter(sku -> sku != null)
+                    .toList());
+        }
+    }
+
+    @Override
+    public void evictVariants(Product product, Collection<String> changedSkus) {
+        if (product.getProductId() != null) {
+            evict(CacheConfig.PRODUCTS, product.getProductId());
+            evict(CacheConfig.PRODUCT_VERSIONS, product.getProductId());
+            evict(CacheConfig.PRODUCT_JSON, product.getProductId());
+        }
+        if (product.getVariants() != null) {
+            for (Variant variant : product.getVariants()) {
+                if (variant.getSku() != null) {
+                    evict(CacheConfig.PRODUCTS_BY_SKU, variant.getSku());
+                }
+            }
+        }
+        changedSkus.forEach(sku -> evict(CacheConfig.VARIANTS, sku));
+        localInvalidations.increment();
+        productKeyIndex.record(product);
+        if (catalogSnapshotService != null) {
+            catalogSnapshotService.invalidate(changedSkus);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        clear(CacheConfig.PRODUCTS);
+        clear(CacheConfig.VARIANTS);
+        clear(CacheConfig.PRODUCTS_BY_SKU);
+        clear(CacheConfig.PRODUCT_VERSIONS);
+        clear(CacheConfig.PRODUCT_JSON);
+        fullInvalidations.increment();
+    }
+
+    /**
+     * Starts the change stream, and restarts it after it fails. Entries cached while it was down may have missed
+     * remote writes, so losing it flushes the caches.
+     */
+    @Scheduled(fixedDelayString = "${product.cache.change-stream.retry-interval-ms:30000}", initialDelay = 0)
+    public synchronized void ensureListening() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        Subscription current = subscription;
+        if (current != null && current.isActive()) {
+            return;
+        }
+        markUncoordinated();
+
+        try {
+            if (container == null) {
+                container = new DefaultMessageListenerContainer(mongoTemplate);
+            }
+            if (!container.isRunning()) {
+                container.start();
+            }
+
+            // The builder's setters return its raw type, so they are not chained
+            ChangeStreamRequest.ChangeStreamRequestBuilder<Document> request = ChangeStreamRequest.builder(this::onChange);
+            request.collection(mongoTemplate.getCollectionName(Product.class));
+            request.fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+            if (preImages) {
+                request.fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE);
+            }
+
+            if (current != null) {
+                container.remove(current);
+            }
+            subscription = container.register(request.build(), Document.class, this::onError);
+            if (subscription.await(Duration.ofSeconds(5))) {
+                productCacheExpiry.setCoordinated(true);
+                unavailableLogged = false;
+                log.info("Product cache invalidation change stream started");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logUnavailable(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        if (event == null || event.getOperationType() == null) {
+            return;
+        }
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                String id = documentId(event.getDocumentKey());
+                ProductKeyIndex.Keys known = id != null ? productKeyIndex.remove(id) : null;
+                Product before = toProduct(event.getFullDocumentBeforeChange());
+                if (before == null && known != null) {
+                    before = toProduct(id, known);
+                }
+                Product after = toProduct(event.getFullDocument());
+                productKeyIndex.record(after);
+                boolean evicted = evictKeys(before) | evictKeys(after);
+                if (catalogSnapshotService != null) {
+                    if (before == null && after == null && id != null) {
+                        catalogSnapshotService.delete(id);
+                    } else {
+                        catalogSnapshotService.apply(before, after);
+                    }
+                }
+                if (after != null) {
+                    // A product created on another instance must not stay in this instance's negative cache
+                    productExistenceService.register(after);
+                }
+                if (evicted) {
+                    changeStreamInvalidations.increment();
+                } else if (event.getOperationType() != OperationType.INSERT) {
+                    // Delete (or update of a since-deleted document) of an id not in the key index: keys are unknown
+                    evictAll();
+                }
+            }
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> resync();
+            default -> {
+            }
+        }
+    }
+
+    private void onError(Throwable error) {
+        log.warn("Product cache invalidation change stream failed, falling back to short TTL: {}", error.getMessage());
+        markUncoordinated();
+    }
+
+    private void markUncoordinated() {
+        if (productCacheExpiry.isCoordinated()) {
+            productCacheExpiry.setCoordinated(false);
+            resync();
+        }
+    }
+
+    /**
+     * Changes may have been missed: everything cached is dropped and the catalog snapshot is rewritten
+     */
+    private void resync() {
+        evictAll();
+        if (catalogSnapshotService != null) {
+            catalogSnapshotService.invalidateAll();
+        }
+    }
+
+    private void logUnavailable(Exception e) {
+        if (!unavailableLogged) {
+            log.warn("Product cache invalidation change stream unavailable (requires a replica set), "
+                    + "caching with the short TTL: {}", e.getMessage());
+            unavailableLogged = true;
+        } else {
+            log.debug("Product cache invalidation change stream still unavailable: {}", e.getMessage());
+        }
+    }
+
+    private Product toProduct(Document document) {
+        if (document == null) {
+            return null;
+        }
+        try {
+            return mongoTemplate.getConverter().read(Product.class, document);
+        } catch (Exception e) {
+            log.debug("Could not read product from change event: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Product toProduct(String id, ProductKeyIndex.Keys keys) {
+        return Product.builder()
+                .id(id)
+                .productId(keys.productId())
+                .variants(keys.skus().stream().map(sku -> Variant.builder().sku(sku).build()).toList())
+                .build();
+    }
+
+    private String documentId(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private boolean evictKeys(Product product) {
+        if (product == null) {
+            return false;
+        }
+        if (product.getProductId() != null) {
+            evict(CacheConfig.PRODUCTS, product.getProductId());
+            evict(CacheConfig.PRODUCT_VERSIONS, product.getProductId());
+            evict(CacheConfig.PRODUCT_JSON, product.getProductId());
+        }
+        if (product.getVariants() != null) {
+            for (Variant variant : product.getVariants()) {
+                if (variant.getSku() != null) {
+                    evict(CacheConfig.VARIANTS, variant.getSku());
+                    evict(CacheConfig.PRODUCTS_BY_SKU, variant.getSku());
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private Counter invalidationCounter(String source) {
+        return Counter.builder("product.cache.invalidations")
+                .description("Product cache invalidations by source")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,211 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters of every productId and SKU, plus a short-lived cache of keys recently looked up and not found.
+ * Filters are rebuilt from MongoDB on a schedule; products written through this instance are added immediately.
+ * Products created on other instances only arrive through the cache invalidation change stream, so keys are only
+ * ruled out by filters and negative cache entries made while it has been running without a break.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExistenceServiceImpl implements ProductExistenceService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductCacheExpiry productCacheExpiry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.lookup.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.lookup.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${product.lookup.filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Value("${product.lookup.negative-cache.ttl-seconds:60}")
+    private long negativeCacheTtlSeconds;
+
+    @Value("${product.lookup.negative-cache.max-size:100000}")
+    private long negativeCacheMaxSize;
+
+    // null until the first build; every key "might exist" until then
+    private volatile BloomFilter productIdFilter;
+    private volatile BloomFilter skuFilter;
+
+    // System.nanoTime() when the current filters started reading MongoDB
+    private volatile long filtersBuiltFrom;
+
+    // Filters being built; writes during a rebuild go to both so they are not lost on swap
+    private volatile BloomFilter nextProductIdFilter;
+    private volatile BloomFilter nextSkuFilter;
+
+    // Key -> System.nanoTime() when it was found missing
+    private Cache<String, Long> missingProductIds;
+    private Cache<String, Long> missingSkus;
+
+    private Counter productIdBloomHits;
+    private Counter productIdNegativeCacheHits;
+    private Counter skuBloomHits;
+    private Counter skuNegativeCacheHits;
+
+    @PostConstruct
+    void init() {
+        missingProductIds = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeCacheTtlSeconds))
+                .build();
+        missingSkus = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeCacheTtlSeconds))
+                .build();
+
+        productIdBloomHits = shortCircuitCounter("productId", "bloom-filter");
+        productIdNegativeCacheHits = shortCircuitCounter("productId", "negative-cache");
+        skuBloomHits = shortCircuitCounter("sku", "bloom-filter");
+        skuNegativeCacheHits = shortCircuitCounter("sku", "negative-cache");
+    }
+
+    @Override
+    public boolean mightExistProductId(String productId) {
+        return mightExist(productId, missingProductIds, productIdFilter, productIdNegativeCacheHits, productIdBloomHits);
+    }
+
+    @Override
+    public boolean mightExistSku(String sku) {
+        return mightExist(sku, missingSkus, skuFilter, skuNegativeCacheHits, skuBloomHits);
+    }
+
+    @Override
+    public void recordMissingProductId(String productId) {
+        if (enabled) {
+            missingProductIds.put(productId, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void recordMissingSku(String sku) {
+        if (enabled) {
+            missingSkus.put(sku, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void register(Product product) {
+        if (product.getProductId() != null) {
+            missingProductIds.invalidate(product.getProductId());
+            put(product.getProductId(), productIdFilter, nextProductIdFilter);
+        }
+        if (product.getVariants() != null) {
+            for (Variant variant : product.getVariants()) {
+                if (variant.getSku() != null) {
+                    missingSkus.invalidate(variant.getSku());
+                    put(variant.getSku(), skuFilter, nextSkuFilter);
+                }
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.lookup.filter.rebuild-interval-ms:600000}",
+            initialDelayString = "${product.lookup.filter.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long builtFrom = System.nanoTime();
+        try {
+            long productCount = mongoTemplate.estimatedCount(Product.class);
+            // Sized for growth until the next rebuild; products average 2-3 variants
+            BloomFilter productIds = new BloomFilter(Math.max(minCapacity, productCount * 2), falsePositiveRate);
+            BloomFilter skus = new BloomFilter(Math.max(minCapacity, productCount * 8), falsePositiveRate);
+            nextProductIdFilter = productIds;
+            nextSkuFilter = skus;
+
+            Query query = new Query();
+            query.fields().include("productId").include("variants.sku");
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.forEach(product -> {
+                    if (product.getProductId() != null) {
+                        productIds.put(product.getProductId());
+                    }
+                    if (product.getVariants() != null) {
+                        product.getVariants().stream()
+                                .map(Variant::getSku)
+                                .filter(sku -> sku != null)
+                                .forEach(skus::put);
+                    }
+                });
+            }
+
+            productIdFilter = productIds;
+            skuFilter = skus;
+            filtersBuiltFrom = builtFrom;
+            log.info("Rebuilt product lookup filters in {}ms: {} productIds, {} SKUs, {} KB",
+                    System.currentTimeMillis() - start, productIdFilter.getInsertions(), skuFilter.getInsertions(),
+                    (productIdFilter.getNumBits() + skuFilter.getNumBits()) / 8 / 1024);
+        } catch (Exception e) {
+            log.error("Failed to rebuild product lookup filters, keeping previous ones: {}", e.getMessage());
+        } finally {
+            nextProductIdFilter = null;
+            nextSkuFilter = null;
+        }
+    }
+
+    private boolean mightExist(String key, Cache<String, Long> missing, BloomFilter filter,
+                               Counter negativeCacheHits, Counter bloomHits) {
+        if (!enabled || key == null) {
+            return true;
+        }
+        Long missingSince = missing.getIfPresent(key);
+        if (missingSince != null && productCacheExpiry.isCoordinatedSince(missingSince)) {
+            negativeCacheHits.increment();
+            return false;
+        }
+        if (filter != null && productCacheExpiry.isCoordinatedSince(filtersBuiltFrom) && !filter.mightContain(key)) {
+            bloomHits.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void put(String key, BloomFilter current, BloomFilter next) {
+        if (current != null) {
+            current.put(key);
+        }
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    private Counter shortCircuitCounter(String keyType, String source) {
+        return Counter.builder("product.lookup.short.circuit")
+                .description("Lookups of unknown keys answered without querying MongoDB")
+                .tag("key", keyType)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
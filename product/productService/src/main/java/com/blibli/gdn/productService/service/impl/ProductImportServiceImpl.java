@@ -0,0 +1,232 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.dto.request.ProductRequest;
+import com.blibli.gdn.productService.dto.response.ProductImportResult;
+import com.blibli.gdn.productService.dto.response.ProductImportSummary;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.DirectIndexingService;
+import com.blibli.gdn.productService.service.ProductImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams an NDJSON upload into MongoDB. Lines are parsed and validated one at a time, valid records are inserted
+ * in unordered bulk writes of {@code product.import.batch-size}, and every batch is indexed in Elasticsearch with one
+ * bulk request. Results are written as each batch completes, so memory is bounded by one batch whatever the
+ * upload size. Results of malformed or invalid lines are written immediately and may precede earlier lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DirectIndexingService directIndexingService;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public ProductImportSummary importProducts(InputStream ndjson, OutputStream results) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportCounts counts = new ImportCounts();
+        List<PendingProduct> batch = new ArrayList<>();
+        Set<String> batchProductIds = new HashSet<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            counts.total++;
+
+            ProductRequest request;
+            try {
+                request = objectMapper.readValue(line, ProductRequest.class);
+            } catch (JsonProcessingException e) {
+                write(results, failed(lineNumber, null, List.of("Malformed JSON: " + e.getOriginalMessage())), counts);
+                continue;
+            }
+            List<String> violations = validator.validate(request).stream()
+                    .map(this::describe)
+                    .sorted()
+                    .toList();
+            if (!violations.isEmpty()) {
+                write(results, failed(lineNumber, request.getProductId(), violations), counts);
+                continue;
+            }
+            if (!batchProductIds.add(request.getProductId())) {
+                write(results, failed(lineNumber, request.getProductId(),
+                        List.of("Duplicate productId in the same upload")), counts);
+                continue;
+            }
+
+            batch.add(new PendingProduct(lineNumber, productMapper.toProduct(request)));
+            if (batch.size() >= batchSize) {
+                flush(batch, results, counts);
+                batch.clear();
+                batchProductIds.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, results, counts);
+        }
+
+        ProductImportSummary summary = ProductImportSummary.builder()
+                .summary(true)
+                .total(counts.total)
+                .created(counts.created)
+                .failed(counts.failed)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+        results.write(objectMapper.writeValueAsBytes(summary));
+        results.write(NEWLINE);
+        results.flush();
+        log.info("Bulk import finished: {} records, {} created, {} failed in {} ms",
+                summary.getTotal(), summary.getCreated(), summary.getFailed(), summary.getDurationMs());
+        return summary;
+    }
+
+    /**
+     * Inserts the batch unordered, so one bad record does not stop the rest, then indexes what was inserted
+     */
+    private void flush(List<PendingProduct> batch, OutputStream results, ImportCounts counts) throws IOException {
+        Map<Long, ProductImportResult> outcomes = new HashMap<>();
+
+        // productIds already in MongoDB: one $in query per batch instead of a lookup per record
+        Query existingQuery = Query.query(Criteria.where("productId")
+                .in(batch.stream().map(pending -> pending.product().getProductId()).toList()));
+        existingQuery.fields().include("productId");
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(existingQuery, Document.class, mongoTemplate.getCollectionName(Product.class))
+                .forEach(document -> existing.add(document.getString("productId")));
+
+        List<PendingProduct> inserts = new ArrayList<>();
+        Instant now = Instant.now();
+        for (PendingProduct pending : batch) {
+            Product product = pending.product();
+            if (existing.contains(product.getProductId())) {
+                outcomes.put(pending.line(), failed(pending.line(), product.getProductId(),
+                        List.of("Product already exists with productId: " + product.getProductId())));
+                continue;
+            }
+            // Ids are assigned here because bulk inserts do not report them back
+            product.setId(new ObjectId().toHexString());
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            inserts.add(pending);
+        }
+
+        Map<Integer, String> writeErrors = new HashMap<>();
+        if (!inserts.isEmpty()) {
+            try {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                bulk.insert(inserts.stream().map(PendingProduct::product).toList());
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    writeErrors.put(error.getIndex(), error.getMessage());
+                }
+            } catch (DataAccessException e) {
+                log.error("Bulk insert of {} products failed: {}", inserts.size(), e.getMessage());
+                for (int i = 0; i < inserts.size(); i++) {
+                    writeErrors.put(i, "Write failed: " + e.getMessage());
+                }
+            }
+        }
+
+        List<Product> created = new ArrayList<>();
+        for (int i = 0; i < inserts.size(); i++) {
+            PendingProduct pending = inserts.get(i);
+            Product product = pending.product();
+            String error = writeErrors.get(i);
+            if (error != null) {
+                outcomes.put(pending.line(), failed(pending.line(), product.getProductId(), List.of(error)));
+                continue;
+            }
+            created.add(product);
+            outcomes.put(pending.line(), ProductImportResult.builder()
+                    .line(pending.line())
+                    .productId(product.getProductId())
+                    .id(product.getId())
+                    .status(ProductImportResult.Status.CREATED)
+                    .build());
+        }
+        directIndexingService.afterInsert(created);
+
+        for (PendingProduct pending : batch) {
+            write(results, outcomes.get(pending.line()), counts);
+        }
+        results.flush();
+    }
+
+    private void write(OutputStream results, ProductImportResult result, ImportCounts counts) throws IOException {
+        if (result.getStatus() == ProductImportResult.Status.CREATED) {
+            counts.created++;
+        } else {
+            counts.failed++;
+        }
+        results.write(objectMapper.writeValueAsBytes(result));
+        results.write(NEWLINE);
+    }
+
+    private ProductImportResult failed(long line, String productId, List<String> errors) {
+        return ProductImportResult.builder()
+                .line(line)
+                .productId(productId)
+                .status(ProductImportResult.Status.FAILED)
+                .errors(errors)
+                .build();
+    }
+
+    private String describe(ConstraintViolation<ProductRequest> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private record PendingProduct(long line, Product product) {
+    }
+
+    private static final class ImportCounts {
+        private long total;
+        private long created;
+        private long failed;
+    }
+}
@@ -0,0 +1,411 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.model.IndexCheckpoint;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.ProductIndexPipelineService;
+import com.blibli.gdn.productService.service.ProductIndexingService;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the products change stream to Elasticsearch.
+ * <p>
+ * One instance at a time holds a lease on the shared checkpoint and consumes the stream on a single thread.
+ * Events are coalesced per MongoDB _id (the latest state wins, using the document looked up at read time), so a
+ * product's changes are applied in order, and written as one bulk request per batch. The resume token is saved
+ * only after the batch succeeds; a failed batch is retried with backoff and the stream is not read meanwhile, so
+ * a slow or unavailable Elasticsearch holds at most one batch in memory and the backlog stays in the oplog.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "true", matchIfMissing = false)
+public class ProductIndexPipelineServiceImpl implements ProductIndexPipelineService {
+
+    static final String CHECKPOINT_ID = "products_index";
+
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long INITIAL_BACKOFF_MS = 500;
+    // A full reindex can outlast the regular lease
+    private static final Duration REINDEX_LEASE = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductIndexingService productIndexingService;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${product.index.pipeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.index.pipeline.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.index.pipeline.max-wait-ms:200}")
+    private long maxWaitMs;
+
+    @Value("${product.index.pipeline.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    @Value("${product.index.pipeline.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private volatile boolean running;
+    private volatile boolean active;
+    private volatile long lagMillis;
+    private Thread worker;
+
+    // Only touched by the worker thread
+    private BsonDocument resumeToken;
+    private boolean reindexRequired;
+    private long leaseRenewedAt;
+    private boolean unavailableLogged;
+
+    private Counter upserts;
+    private Counter deletes;
+    private Counter failures;
+    private Timer bulkTimer;
+
+    @PostConstruct
+    void init() {
+        upserts = documentCounter("upsert");
+        deletes = documentCounter("delete");
+        failures = Counter.builder("product.index.pipeline.failures")
+                .description("Failed bulk requests, retried with backoff")
+                .register(meterRegistry);
+        bulkTimer = Timer.builder("product.index.pipeline.bulk")
+                .description("Latency of change-stream bulk writes to Elasticsearch")
+                .register(meterRegistry);
+        Gauge.builder("product.index.pipeline.lag", this, service -> service.lagMillis)
+                .description("Age of the newest change applied to Elasticsearch, 0 when caught up")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("product.index.pipeline.active", this, service -> service.active ? 1 : 0)
+                .description("1 while this instance holds the lease and consumes the change stream")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "product-index-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Let another instance take over without waiting for the lease to expire
+        try {
+            mongoTemplate.updateFirst(ownedCheckpoint(), new Update().set("leaseUntil", Instant.now()), IndexCheckpoint.class);
+        } catch (Exception e) {
+            log.debug("Could not release index pipeline lease: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    private void run() {
+        long backoff = INITIAL_BACKOFF_MS;
+        while (running) {
+            try {
+                if (!acquireLease()) {
+                    sleep(leaseTtlMs / 3);
+                    continue;
+                }
+                consume();
+                backoff = INITIAL_BACKOFF_MS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (MongoException e) {
+                if (e.getCode() == CHANGE_STREAM_HISTORY_LOST || e.getCode() == CHANGE_STREAM_FATAL_ERROR) {
+                    // The checkpoint fell off the oplog: start from now and rebuild what was missed
+                    log.warn("Index pipeline cannot resume ({}), reindexing all products", e.getMessage());
+                    resumeToken = null;
+                    reindexRequired = true;
+                    saveCheckpoint(null);
+                    continue;
+                }
+                backoff = backOff(e, backoff);
+            } catch (Exception e) {
+                backoff = backOff(e, backoff);
+            } finally {
+                active = false;
+            }
+        }
+    }
+
+    private void consume() throws InterruptedException {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor()) {
+            active = true;
+            unavailableLogged = false;
+            log.info("Index pipeline consuming the products change stream (resuming: {})", resumeToken != null);
+
+            if (reindexRequired) {
+                // The stream is already open, so writes made during the reindex are replayed afterwards
+                renewLease(REINDEX_LEASE);
+                productIndexingService.reindexAllProducts();
+                reindexRequired = false;
+            }
+
+            Map<String, ChangeStreamDocument<Document>> pending = new LinkedHashMap<>();
+            BsonDocument pendingToken = null;
+            long batchStartedAt = 0;
+
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null && event.getOperationType() == OperationType.INVALIDATE) {
+                    // Collection dropped or renamed: the stream ends here
+                    if (!pending.isEmpty() && !flush(pending, pendingToken)) {
+                        return;
+                    }
+                    reindexRequired = true;
+                    saveCheckpoint(event.getResumeToken());
+                    return;
+                }
+                if (event != null && event.getDocumentKey() != null && isDocumentChange(event.getOperationType())) {
+                    if (pending.isEmpty()) {
+                        batchStartedAt = System.currentTimeMillis();
+                    }
+                    String id = documentId(event.getDocumentKey().get("_id"));
+                    pending.remove(id);
+                    pending.put(id, event);
+                    pendingToken = event.getResumeToken();
+                }
+
+                boolean full = pending.size() >= batchSize;
+                boolean due = !pending.isEmpty() && System.currentTimeMillis() - batchStartedAt >= maxWaitMs;
+                if (full || due) {
+                    if (!flush(pending, pendingToken)) {
+                        return;
+                    }
+                } else if (pending.isEmpty()) {
+                    lagMillis = 0;
+                    // Idle: keep the lease, and keep the checkpoint recent so it stays within the oplog window
+                    if (System.currentTimeMillis() - leaseRenewedAt >= leaseTtlMs / 3
+                            && !saveCheckpoint(cursor.getResumeToken())) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the batch, retrying until it succeeds, then saves its resume token.
+     * Returns false if the lease was lost; the new owner replays the batch from the saved checkpoint.
+     */
+    private boolean flush(Map<String, ChangeStreamDocument<Document>> pending, BsonDocument token) throws InterruptedException {
+        List<Product> products = new ArrayList<>();
+        List<String> deletedMongoIds = new ArrayList<>();
+        long oldestChange = Long.MAX_VALUE;
+        for (Map.Entry<String, ChangeStreamDocument<Document>> entry : pending.entrySet()) {
+            ChangeStreamDocument<Document> event = entry.getValue();
+            if (event.getClusterTime() != null) {
+                oldestChange = Math.min(oldestChange, event.getClusterTime().getTime() * 1000L);
+            }
+            // Updates of a document deleted before the lookup come without a full document
+            Document document = event.getOperationType() == OperationType.DELETE ? null : event.getFullDocument();
+            if (document == null) {
+                deletedMongoIds.add(entry.getKey());
+                continue;
+            }
+            try {
+                products.add(mongoTemplate.getConverter().read(Product.class, document));
+            } catch (Exception e) {
+                log.error("Skipping unreadable product {} in change stream: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        long backoff = INITIAL_BACKOFF_MS;
+        while (true) {
+            try {
+                bulkTimer.record(() -> productIndexingService.indexBatch(products, deletedMongoIds));
+                break;
+            } catch (Exception e) {
+                failures.increment();
+                log.warn("Index pipeline bulk write of {} changes failed, retrying in {} ms: {}",
+                        pending.size(), backoff, e.getMessage());
+                if (!running || !renewLease(Duration.ofMillis(leaseTtlMs))) {
+                    return false;
+                }
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+
+        upserts.increment(products.size());
+        deletes.increment(deletedMongoIds.size());
+        lagMillis = oldestChange == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldestChange);
+        pending.clear();
+        return saveCheckpoint(token);
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .batchSize(batchSize)
+                .maxAwaitTime(maxWaitMs, TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            // startAfter, unlike resumeAfter, also resumes after an invalidate event
+            stream = stream.startAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    /**
+     * Takes over the lease if it is free or expired, and loads the checkpoint saved by the previous owner
+     */
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_ID).orOperator(
+                Criteria.where("owner").is(instanceId),
+                Criteria.where("owner").is(null),
+                Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("leaseUntil", now.plusMillis(leaseTtlMs));
+        IndexCheckpoint checkpoint;
+        try {
+            checkpoint = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), IndexCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            // Held by another instance
+            return false;
+        }
+        if (checkpoint == null) {
+            return false;
+        }
+        leaseRenewedAt = System.currentTimeMillis();
+        resumeToken = checkpoint.getResumeToken() != null ? BsonDocument.parse(checkpoint.getResumeToken()) : null;
+        return true;
+    }
+
+    private boolean saveCheckpoint(BsonDocument token) {
+        return checkpoint(token, true, Duration.ofMillis(leaseTtlMs));
+    }
+
+    private boolean renewLease(Duration lease) {
+        return checkpoint(null, false, lease);
+    }
+
+    /**
+     * Renews the lease and, when saveToken is set, saves the token (null clears it). Returns false if another
+     * instance owns the lease.
+     */
+    private boolean checkpoint(BsonDocument token, boolean saveToken, Duration lease) {
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("leaseUntil", now.plus(lease))
+                .set("updatedAt", now);
+        if (saveToken) {
+            update.set("resumeToken", token != null ? token.toJson() : null);
+            resumeToken = token;
+        }
+        boolean owned = mongoTemplate.updateFirst(ownedCheckpoint(), update, IndexCheckpoint.class).getMatchedCount() > 0;
+        leaseRenewedAt = System.currentTimeMillis();
+        if (!owned) {
+            log.info("Index pipeline lease taken over by another instance");
+        }
+        return owned;
+    }
+
+    private Query ownedCheckpoint() {
+        return Query.query(Criteria.where("_id").is(CHECKPOINT_ID).and("owner").is(instanceId));
+    }
+
+    private long backOff(Exception e, long backoff) {
+        if (!unavailableLogged) {
+            log.warn("Index pipeline stopped, products are indexed directly until it resumes "
+                    + "(change streams need a replica set): {}", e.getMessage());
+            unavailableLogged = true;
+        } else {
+            log.debug("Index pipeline still unavailable: {}", e.getMessage());
+        }
+        try {
+            sleep(backoff);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoff * 2, maxBackoffMs);
+    }
+
+    private static boolean isDocumentChange(OperationType operationType) {
+        return operationType == OperationType.INSERT
+                || operationType == OperationType.UPDATE
+                || operationType == OperationType.REPLACE
+                || operationType == OperationType.DELETE;
+    }
+
+    private static String documentId(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(millis);
+    }
+
+    private Counter documentCounter(String operation) {
+        return Counter.builder("product.index.pipeline.documents")
+                .description("Product changes applied to Elasticsearch by the change-stream pipeline")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
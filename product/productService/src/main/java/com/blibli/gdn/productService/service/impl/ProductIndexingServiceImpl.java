@@ -1,36 +1,125 @@
 package com.blibli.gdn.productService.service.impl;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
 import com.blibli.gdn.productService.model.Product;
 import com.blibli.gdn.productService.model.ProductDocument;
 import com.blibli.gdn.productService.model.Variant;
 import com.blibli.gdn.productService.model.VariantDocument;
 import com.blibli.gdn.productService.repository.ProductDocumentRepository;
+import com.blibli.gdn.productService.repository.ProductKeysetReader;
 import com.blibli.gdn.productService.repository.ProductRepository;
 import com.blibli.gdn.productService.service.ProductIndexingService;
+import com.blibli.gdn.productService.util.PrefixTrie;
+import com.blibli.gdn.productService.util.SyncChecksum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+/**
+ * Writes products to Elasticsearch through the {@value #INDEX_ALIAS} alias.
+ * A full reindex builds a new physical index ({@value #INDEX_ALIAS}_v&lt;timestamp&gt;) while the alias keeps
+ * serving the old one, then swaps the alias atomically. Writes made during the build go to both indexes.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "true", matchIfMissing = false)
 public class ProductIndexingServiceImpl implements ProductIndexingService {
 
+    public static final String INDEX_ALIAS = "products_index";
+
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
     private final ProductDocumentRepository productDocumentRepository;
     private final ProductRepository productRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ProductKeysetReader productKeysetReader;
+
+    @Value("${product.reindex.replicas:1}")
+    private int replicas;
+
+    @Value("${product.reindex.refresh-interval:1s}")
+    private String refreshInterval;
+
+    // Previous physical indexes kept (not aliased) for rollback
+    @Value("${product.reindex.retained-indices:1}")
+    private int retainedIndices;
+
+    // Parallel _id-range readers and bulk writers for a full reindex
+    @Value("${product.reindex.readers:4}")
+    private int readers;
+
+    @Value("${product.reindex.bulk-writers:4}")
+    private int bulkWriters;
+
+    @Value("${product.reindex.batch-size:1000}")
+    private int batchSize;
+
+    // Allowed difference between the MongoDB and the new index counts, as a fraction, before the swap
+    @Value("${product.reindex.max-count-drift:0.01}")
+    private double maxCountDrift;
+
+    // Sets price and stock of the SKUs in params.variants in place; the rest of the document is not sent
+    private static final String UPDATE_VARIANTS_SCRIPT = """
+            for (variant in ctx._source.variants) {
+              def change = params.variants.get(variant.sku);
+              if (change != null) {
+                variant.price = change.price;
+                variant.stock = change.stock;
+              }
+            }
+            ctx._source.updatedAt = params.updatedAt;
+            ctx._source.syncHash = params.syncHash;
+            """;
+
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+
+    // Physical index being built, null otherwise
+    private volatile String buildingIndex;
+
+    // Written during the build; replayed from MongoDB before the swap in case the bulk load overwrote them
+    private final Set<String> changedMongoIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> deletedProductIds = ConcurrentHashMap.newKeySet();
 
     @Override
     @Async
@@ -40,6 +129,11 @@ public class ProductIndexingServiceImpl implements ProductIndexingService {
             log.info("Indexing product: {}", product.getProductId());
             ProductDocument document = toProductDocument(product);
             productDocumentRepository.save(document);
+            String building = buildingIndex;
+            if (building != null) {
+                elasticsearchOperations.save(document, IndexCoordinates.of(building));
+                changedMongoIds.add(product.getId());
+            }
             log.info("Successfully indexed product: {}", product.getProductId());
         } catch (Exception e) {
             log.error("Error indexing product: {}", product.getProductId(), e);
@@ -53,7 +147,7 @@ public class ProductIndexingServiceImpl implements ProductIndexingService {
         try {
             log.info("Deleting product from index by productId: {}", productId);
             // Since productId is now the document ID, we can delete directly
-            productDocumentRepository.deleteById(productId);
+            deleteDocument(productId);
             log.info("Successfully deleted product from index: {}", productId);
         } catch (Exception e) {
             log.error("Error deleting product from index: {}", productId, e);
@@ -67,7 +161,7 @@ public class ProductIndexingServiceImpl implements ProductIndexingService {
             log.info("Deleting product from index by MongoDB id: {}", mongoId);
             // Find the product by MongoDB _id, then delete by productId
             productRepository.findById(mongoId).ifPresent(product -> {
-                productDocumentRepository.deleteById(product.getProductId());
+                deleteDocument(product.getProductId());
                 log.info("Successfully deleted product from index: {} (productId: {})", mongoId, product.getProductId());
             });
         } catch (Exception e) {
@@ -83,59 +177,306 @@ public class ProductIndexingServiceImpl implements ProductIndexingService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public void reindexAllProducts() {
-        log.info("Starting full reindex of all products");
-        
-        // Delete and recreate the index to ensure clean reindex with new document ID structure
-        // This is necessary when changing document ID structure (from MongoDB _id to productId)
+    @Async
+    public void updateVariants(Product product, Collection<String> changedSkus) {
         try {
-            log.info("Deleting and recreating Elasticsearch index to ensure clean reindex...");
-            IndexOperations indexOps = elasticsearchOperations.indexOps(ProductDocument.class);
-            
-            if (indexOps.exists()) {
-                log.info("Deleting existing index...");
-                indexOps.delete();
-                log.info("Index deleted. Waiting 2 seconds before recreation...");
-                Thread.sleep(2000); // Wait for index deletion to complete
+            Map<String, Object> variants = new HashMap<>();
+            for (Variant variant : product.getVariants()) {
+                if (changedSkus.contains(variant.getSku())) {
+                    Map<String, Object> change = new HashMap<>();
+                    change.put("price", variant.getPrice());
+                    change.put("stock", variant.getStock());
+                    variants.put(variant.getSku(), change);
+                }
+            }
+            Map<String, Object> params = new HashMap<>();
+            params.put("variants", variants);
+            // Same representation as the epoch_millis mapping writes
+            params.put("updatedAt", String.valueOf(product.getUpdatedAt().toEpochMilli()));
+            params.put("syncHash", SyncChecksum.hash(product.getProductId(), product.getUpdatedAt(), product.getId()));
+
+            UpdateQuery update = UpdateQuery.builder(product.getProductId())
+                    .withScriptType(ScriptType.INLINE)
+                    .withScript(UPDATE_VARIANTS_SCRIPT)
+                    .withLang("painless")
+                    .withParams(params)
+                    .withRetryOnConflict(3)
+                    .build();
+            elasticsearchOperations.update(update, IndexCoordinates.of(INDEX_ALIAS));
+            if (buildingIndex != null) {
+                // The new index may not hold the product yet; it is reloaded from MongoDB before the swap
+                changedMongoIds.add(product.getId());
             }
-            
-            log.info("Creating new index with updated mapping...");
-            indexOps.create();
-            indexOps.putMapping(indexOps.createMapping(ProductDocument.class));
-            log.info("Index recreated successfully. Starting fresh index...");
+            log.debug("Updated {} variants of product {} in the index", variants.size(), product.getProductId());
         } catch (Exception e) {
-            log.warn("Error deleting/recreating index (will try to delete all documents instead): {}", e.getMessage());
-            // Fallback: try to delete all documents
+            // e.g. the product was never indexed
+            log.warn("Partial index update of product {} failed, indexing the full document: {}",
+                    product.getProductId(), e.getMessage());
+            productRepository.findById(product.getId()).ifPresent(this::indexProduct);
+        }
+    }
+
+    @Override
+    public void reindexAllProducts() {
+        if (!reindexing.compareAndSet(false, true)) {
+            log.warn("A full reindex is already running, skipping");
+            return;
+        }
+        String newIndex = INDEX_ALIAS + "_v" + VERSION_FORMAT.format(Instant.now());
+        IndexCoordinates target = IndexCoordinates.of(newIndex);
+        long start = System.currentTimeMillis();
+        try {
+            log.info("Starting full reindex into {}; {} keeps serving until the swap", newIndex, INDEX_ALIAS);
+            IndexOperations indexOps = elasticsearchOperations.indexOps(target);
+            // No refresh and no replicas while bulk loading; both are restored before the index takes traffic
+            indexOps.create(Map.of("index.number_of_replicas", 0, "index.refresh_interval", "-1"),
+                    indexOps.createMapping(ProductDocument.class));
+            changedMongoIds.clear();
+            deletedProductIds.clear();
+            buildingIndex = newIndex;
+
+            long loaded = loadAllProducts(target);
+            replayChangesDuringBuild(target);
+
+            elasticsearchClient.indices().putSettings(request -> request
+                    .index(newIndex)
+                    .settings(settings -> settings
+                            .numberOfReplicas(String.valueOf(replicas))
+                            .refreshInterval(interval -> interval.time(refreshInterval))));
+            indexOps.refresh();
+            verifyCount(target);
+
+            swapAlias(newIndex);
+            buildingIndex = null;
+            deleteOldIndices(newIndex);
+            log.info("Full reindex completed: {} products in {}, now behind {} ({} ms)",
+                    loaded, newIndex, INDEX_ALIAS, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Full reindex into {} failed, {} keeps serving the previous index: {}",
+                    newIndex, INDEX_ALIAS, e.getMessage(), e);
+            buildingIndex = null;
             try {
-                log.info("Attempting to delete all existing documents...");
-                productDocumentRepository.deleteAll();
-                log.info("All existing documents deleted.");
-            } catch (Exception e2) {
-                log.error("Error deleting documents: {}", e2.getMessage());
-                // Continue anyway - saveAll will handle duplicates
+                elasticsearchOperations.indexOps(target).delete();
+            } catch (Exception deleteError) {
+                log.warn("Could not delete abandoned index {}: {}", newIndex, deleteError.getMessage());
             }
+        } finally {
+            buildingIndex = null;
+            reindexing.set(false);
+        }
+    }
+
+    @Override
+    public void indexBatch(List<Product> products, Collection<String> deletedMongoIds) {
+        writeBatch(products, deletedMongoIds, IndexCoordinates.of(INDEX_ALIAS));
+        String building = buildingIndex;
+        if (building != null) {
+            writeBatch(products, deletedMongoIds, IndexCoordinates.of(building));
+            products.forEach(product -> changedMongoIds.add(product.getId()));
+            changedMongoIds.addAll(deletedMongoIds);
+        }
+    }
+
+    private void writeBatch(List<Product> products, Collection<String> deletedMongoIds, IndexCoordinates index) {
+        if (!products.isEmpty()) {
+            elasticsearchOperations.bulkIndex(toIndexQueries(products), index);
         }
-        
-        int pageSize = 1000;
-        int page = 0;
-        Pageable pageable = PageRequest.of(page, pageSize);
-        Page<Product> productPage;
 
-        do {
-            productPage = productRepository.findAll(pageable);
-            List<ProductDocument> documents = productPage.getContent().stream()
-                    .map(this::toProductDocument)
-                    .collect(Collectors.toList());
-            
-            productDocumentRepository.saveAll(documents);
-            log.info("Indexed page {} of products ({} total)", page, productPage.getTotalElements());
-            
-            page++;
-            pageable = PageRequest.of(page, pageSize);
-        } while (productPage.hasNext());
+        // Deleted products, and documents left under an old productId by an update (same mongoId, other _id)
+        List<FieldValue> deleted = deletedMongoIds.stream().map(FieldValue::of).toList();
+        List<FieldValue> upserted = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .map(FieldValue::of)
+                .toList();
+        List<String> currentIds = products.stream().map(Product::getProductId).toList();
+        if (deleted.isEmpty() && upserted.isEmpty()) {
+            return;
+        }
+        NativeQuery staleDocuments = NativeQuery.builder()
+                .withQuery(q -> q.bool(b -> {
+                    if (!deleted.isEmpty()) {
+                        b.should(s -> s.terms(t -> t.field("mongoId").terms(v -> v.value(deleted))));
+                    }
+                    if (!upserted.isEmpty()) {
+                        b.should(s -> s.bool(inner -> inner
+                                .filter(f -> f.terms(t -> t.field("mongoId").terms(v -> v.value(upserted))))
+                                .mustNot(m -> m.ids(i -> i.values(currentIds)))));
+                    }
+                    return b.minimumShouldMatch("1");
+                }))
+                .build();
+        elasticsearchOperations.delete(staleDocuments, ProductDocument.class, index);
+    }
 
-        log.info("Full reindex completed");
+    private void deleteDocument(String productId) {
+        productDocumentRepository.deleteById(productId);
+        String building = buildingIndex;
+        if (building != null) {
+            elasticsearchOperations.delete(productId, IndexCoordinates.of(building));
+            deletedProductIds.add(productId);
+        }
+    }
+
+    /**
+     * Readers page MongoDB by _id ranges in parallel and hand each batch to the bulk writers, which convert and
+     * index it. The writer queue is bounded and a full queue makes the reader write the batch itself, so reading
+     * never runs far ahead of Elasticsearch.
+     */
+    private long loadAllProducts(IndexCoordinates target) throws InterruptedException {
+        int writerThreads = Math.max(1, bulkWriters);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writerThreads * 2),
+                runnable -> new Thread(runnable, "product-reindex-writer-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ReindexProgress progress = new ReindexProgress(target.getIndexName(), productRepository.count());
+        try {
+            productKeysetReader.readAll(Math.max(1, readers), Math.max(1, batchSize), batch -> {
+                if (failure.get() != null) {
+                    throw new IllegalStateException("Bulk indexing failed", failure.get());
+                }
+                writers.execute(() -> {
+                    try {
+                        elasticsearchOperations.bulkIndex(toIndexQueries(batch), target);
+                        progress.add(batch.size());
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+            });
+            writers.shutdown();
+            if (!writers.awaitTermination(1, TimeUnit.HOURS)) {
+                throw new IllegalStateException("Bulk indexing did not finish within an hour");
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException("Bulk indexing failed", failure.get());
+            }
+            progress.log();
+            return progress.indexed.get();
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    /**
+     * A live write can land in the new index before the bulk load writes an older copy of the same product,
+     * so everything written during the build is reloaded from MongoDB once the load is done.
+     */
+    private void replayChangesDuringBuild(IndexCoordinates target) {
+        Set<String> mongoIds = new HashSet<>(changedMongoIds);
+        changedMongoIds.removeAll(mongoIds);
+        if (!mongoIds.isEmpty()) {
+            List<Product> current = productRepository.findAllById(mongoIds);
+            Set<String> found = current.stream().map(Product::getId).collect(Collectors.toSet());
+            writeBatch(current, mongoIds.stream().filter(id -> !found.contains(id)).toList(), target);
+        }
+
+        Set<String> productIds = new HashSet<>(deletedProductIds);
+        deletedProductIds.removeAll(productIds);
+        if (!productIds.isEmpty()) {
+            productRepository.findByProductIdIn(productIds).forEach(product -> productIds.remove(product.getProductId()));
+            productIds.forEach(productId -> elasticsearchOperations.delete(productId, target));
+        }
+        log.info("Replayed {} products written during the reindex", mongoIds.size() + productIds.size());
+    }
+
+    private void verifyCount(IndexCoordinates target) {
+        long mongoCount = productRepository.count();
+        long indexed = elasticsearchOperations.count(Query.findAll(), ProductDocument.class, target);
+        long allowed = Math.max(1, (long) (mongoCount * maxCountDrift));
+        if (Math.abs(mongoCount - indexed) > allowed) {
+            throw new IllegalStateException(String.format(
+                    "%s has %d documents but MongoDB has %d products", target.getIndexName(), indexed, mongoCount));
+        }
+    }
+
+    /**
+     * Points the alias at the new index and away from the previous one in a single _aliases request.
+     * An index created before aliases were used carries the alias's name; it is removed in the same request.
+     */
+    private void swapAlias(String newIndex) throws IOException {
+        ElasticsearchIndicesClient indices = elasticsearchClient.indices();
+        boolean aliasExists = indices.existsAlias(request -> request.name(INDEX_ALIAS)).value();
+        Set<String> previous = aliasExists
+                ? indices.getAlias(request -> request.name(INDEX_ALIAS)).result().keySet()
+                : Set.of();
+        boolean legacyIndex = !aliasExists && indices.exists(request -> request.index(INDEX_ALIAS)).value();
+
+        indices.updateAliases(request -> {
+            request.actions(action -> action.add(add -> add.index(newIndex).alias(INDEX_ALIAS)));
+            for (String index : previous) {
+                request.actions(action -> action.remove(remove -> remove.index(index).alias(INDEX_ALIAS)));
+            }
+            if (legacyIndex) {
+                request.actions(action -> action.removeIndex(remove -> remove.index(INDEX_ALIAS)));
+            }
+            return request;
+        });
+        log.info("Alias {} now points to {} (previously {})", INDEX_ALIAS, newIndex,
+                legacyIndex ? "index " + INDEX_ALIAS : previous);
+    }
+
+    private void deleteOldIndices(String newIndex) {
+        try {
+            List<String> old = elasticsearchClient.indices().get(request -> request.index(INDEX_ALIAS + "_v*"))
+                    .result().keySet().stream()
+                    .filter(index -> !index.equals(newIndex))
+                    .sorted(Comparator.reverseOrder())
+                    .skip(retainedIndices)
+                    .toList();
+            if (!old.isEmpty()) {
+                elasticsearchClient.indices().delete(request -> request.index(old));
+                log.info("Deleted old product indexes: {}", old);
+            }
+        } catch (Exception e) {
+            log.warn("Could not delete old product indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Logs indexed count, percentage and throughput at most every 10 seconds
+     */
+    private static final class ReindexProgress {
+
+        private static final long LOG_INTERVAL_MS = 10_000;
+
+        private final String index;
+        private final long total;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong lastLoggedAt = new AtomicLong(startedAt);
+
+        private ReindexProgress(String index, long total) {
+            this.index = index;
+            this.total = total;
+        }
+
+        private void add(int documents) {
+            indexed.addAndGet(documents);
+            long now = System.currentTimeMillis();
+            long last = lastLoggedAt.get();
+            if (now - last >= LOG_INTERVAL_MS && lastLoggedAt.compareAndSet(last, now)) {
+                log();
+            }
+        }
+
+        private void log() {
+            long done = indexed.get();
+            double seconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+            log.info("Reindex into {}: {}/{} products ({}%), {} products/s", index, done, total,
+                    total > 0 ? done * 100 / total : 100, Math.round(done / seconds));
+        }
+    }
+
+    private List<IndexQuery> toIndexQueries(List<Product> products) {
+        return products.stream()
+                .map(product -> new IndexQueryBuilder()
+                        .withId(product.getProductId())
+                        .withObject(toProductDocument(product))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private ProductDocument toProductDocument(Product product) {
@@ -146,12 +487,18 @@ public class ProductIndexingServiceImpl implements ProductIndexingService {
         return ProductDocument.builder()
                 .id(product.getProductId()) // Use productId as document ID
                 .productId(product.getProductId())
+                .mongoId(product.getId())
                 .name(product.getName())
                 .description(product.getDescription())
+                .suggest(product.getName() != null ? new Completion(PrefixTrie.wordSuffixes(product.getName()).toArray(String[]::new)) : null)
                 .category(product.getCategory())
                 .brand(product.getBrand())
                 .tags(product.getTags())
                 .variants(variantDocuments)
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .syncBucket(SyncChecksum.bucket(product.getProductId()))
+                .syncHash(SyncChecksum.hash(product.getProductId(), product.getUpdatedAt(), product.getId()))
                 .build();
     }
 
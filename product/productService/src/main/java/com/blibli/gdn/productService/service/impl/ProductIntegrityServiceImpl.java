@@ -0,0 +1,122 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.dto.response.DuplicateReportResponse;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.ProductIntegrityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIntegrityServiceImpl implements ProductIntegrityService {
+
+    static final String PRODUCT_ID_INDEX = "productId_idx";
+    static final String SKU_INDEX = "variants_sku_idx";
+
+    private static final int REPORT_LIMIT = 100;
+
+    private static final int BSON_STRING = 2;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void ensureLookupIndexes() {
+        DuplicateReportResponse report = findDuplicates();
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+
+        ensureIndex(indexOps, "productId", PRODUCT_ID_INDEX, false, report.getProductIds());
+        // Products without variants, or variants without a SKU, must not collide on a null key
+        ensureIndex(indexOps, "variants.sku", SKU_INDEX, true, report.getSkus());
+    }
+
+    @Override
+    public DuplicateReportResponse findDuplicates() {
+        AggregationOptions options = AggregationOptions.builder().allowDiskUse(true).build();
+
+        Aggregation productIdDuplicates = Aggregation.newAggregation(
+                Aggregation.group("productId").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)),
+                Aggregation.sort(Sort.Direction.DESC, "count"),
+                Aggregation.limit(REPORT_LIMIT)
+        ).withOptions(options);
+
+        Aggregation skuDuplicates = Aggregation.newAggregation(
+                Aggregation.unwind("variants"),
+                Aggregation.match(Criteria.where("variants.sku").type(BSON_STRING)),
+                Aggregation.group("variants.sku").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)),
+                Aggregation.sort(Sort.Direction.DESC, "count"),
+                Aggregation.limit(REPORT_LIMIT)
+        ).withOptions(options);
+
+        List<IndexInfo> indexes = mongoTemplate.indexOps(Product.class).getIndexInfo();
+
+        return DuplicateReportResponse.builder()
+                .productIds(duplicates(productIdDuplicates))
+                .skus(duplicates(skuDuplicates))
+                .productIdIndexUnique(findIndex(indexes, PRODUCT_ID_INDEX).map(IndexInfo::isUnique).orElse(false))
+                .skuIndexUnique(findIndex(indexes, SKU_INDEX).map(IndexInfo::isUnique).orElse(false))
+                .build();
+    }
+
+    private List<DuplicateReportResponse.DuplicateKey> duplicates(Aggregation aggregation) {
+        return mongoTemplate.aggregate(aggregation, Product.class, Document.class).getMappedResults().stream()
+                .map(document -> DuplicateReportResponse.DuplicateKey.builder()
+                        .key(String.valueOf(document.get("_id")))
+                        .count(((Number) document.get("count")).intValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * A partial index only covers documents where the field is a string
+     */
+    private void ensureIndex(IndexOperations indexOps, String field, String name, boolean partial,
+                             List<DuplicateReportResponse.DuplicateKey> duplicates) {
+        boolean unique = duplicates.isEmpty();
+        if (!unique) {
+            log.warn("Found {} duplicate {} values (e.g. {}), creating non-unique index {} until they are cleaned up",
+                    duplicates.size(), field, duplicates.get(0).getKey(), name);
+        }
+
+        try {
+            // Upgrade a non-unique index once duplicates are gone (or downgrade if new ones appeared)
+            Optional<IndexInfo> existing = findIndex(indexOps.getIndexInfo(), name);
+            if (existing.isPresent() && (existing.get().isUnique() != unique
+                    || (existing.get().getPartialFilterExpression() != null) != partial)) {
+                indexOps.dropIndex(name);
+            }
+
+            Index index = new Index().on(field, Sort.Direction.ASC).named(name);
+            if (unique) {
+                index.unique();
+            }
+            if (partial) {
+                index.partial(PartialIndexFilter.of(Criteria.where(field).type(BSON_STRING)));
+            }
+            indexOps.ensureIndex(index);
+            log.info("Ensured {} index {} on {}", unique ? "unique" : "non-unique", name, field);
+        } catch (Exception e) {
+            log.error("Failed to create index {} on {}: {}", name, field, e.getMessage());
+        }
+    }
+
+    private Optional<IndexInfo> findIndex(List<IndexInfo> indexes, String name) {
+        return indexes.stream().filter(index -> name.equals(index.getName())).findFirst();
+    }
+}
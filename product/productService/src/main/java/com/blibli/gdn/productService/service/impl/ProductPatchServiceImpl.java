@@ -0,0 +1,115 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.dto.request.VariantPatchRequest;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.exception.InvalidPatchException;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.DirectIndexingService;
+import com.blibli.gdn.productService.service.ProductCacheInvalidationService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.ProductIndexingService;
+import com.blibli.gdn.productService.service.ProductPatchService;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Price and stock feeds change a few variants of a product at a time. Instead of replacing the document like
+ * {@code updateProduct}, a patch is one findAndModify with a {@code $set} per changed field
+ * ({@code variants.$[vN].price}, arrayFilters on each SKU), projected to the variants' sku, price and stock.
+ * The index gets a scripted partial update of the same fields, and only the cache entries that can hold the
+ * changed values are evicted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPatchServiceImpl implements ProductPatchService {
+
+    static final ProductFields PATCH_FIELDS = ProductFields.parse("id,updatedAt,variants.sku,variants.price,variants.stock");
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductMapper productMapper;
+    private final ProductExistenceService productExistenceService;
+    private final ProductCacheInvalidationService productCacheInvalidationService;
+    private final DirectIndexingService directIndexingService;
+
+    @Autowired(required = false)
+    private ProductIndexingService productIndexingService;
+
+    @Override
+    public ProductResponse patchVariants(String productId, List<VariantPatchRequest> patches) {
+        log.info("Patching {} variants of product {}", patches.size(), productId);
+        RequestDeadline.checkRemaining("variant-patch");
+        Set<String> skus = validate(patches);
+        if (!productExistenceService.mightExistProductId(productId)) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+
+        Query query = Query.query(Criteria.where("productId").is(productId).and("variants.sku").all(skus));
+        PATCH_FIELDS.mongoFields().forEach(query.fields()::include);
+        Update update = new Update().set("updatedAt", Instant.now());
+        for (int i = 0; i < patches.size(); i++) {
+            VariantPatchRequest patch = patches.get(i);
+            String element = "v" + i;
+            if (patch.getPrice() != null) {
+                update.set("variants.$[" + element + "].price", patch.getPrice());
+            }
+            if (patch.getStock() != null) {
+                update.set("variants.$[" + element + "].stock", patch.getStock());
+            }
+            update.filterArray(Criteria.where(element + ".sku").is(patch.getSku()));
+        }
+
+        Product patched = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+        if (patched == null) {
+            throw notFound(productId, skus);
+        }
+
+        productCacheInvalidationService.evictVariants(patched, skus);
+        // While the change-stream pipeline runs it indexes the update itself
+        if (directIndexingService.isActive()) {
+            productIndexingService.updateVariants(patched, skus);
+        }
+        return productMapper.toProductResponse(patched, PATCH_FIELDS);
+    }
+
+    private Set<String> validate(List<VariantPatchRequest> patches) {
+        Set<String> skus = new LinkedHashSet<>();
+        for (VariantPatchRequest patch : patches) {
+            if (patch.getPrice() == null && patch.getStock() == null) {
+                throw new InvalidPatchException("Nothing to change for SKU " + patch.getSku() + ": set price and/or stock");
+            }
+            if (!skus.add(patch.getSku())) {
+                throw new InvalidPatchException("SKU " + patch.getSku() + " appears more than once");
+            }
+        }
+        return skus;
+    }
+
+    // Only on the failure path: tell a missing product from SKUs that are not part of it
+    private ProductNotFoundException notFound(String productId, Set<String> skus) {
+        if (!mongoTemplate.exists(RequestDeadline.applyTo(Query.query(Criteria.where("productId").is(productId))),
+                Product.class)) {
+            productExistenceService.recordMissingProductId(productId);
+            return new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        return new ProductNotFoundException("Product " + productId + " does not have all of the SKUs " + skus);
+    }
+}
+
@@ -0,0 +1,456 @@
+package com.blibli.gdn.productService.service.impl;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import com.blibli.gdn.productService.dto.response.ReconciliationReport;
+import com.blibli.gdn.productService.model.IndexCheckpoint;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductDocument;
+import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.service.ProductIndexPipelineService;
+import com.blibli.gdn.productService.service.ProductIndexingService;
+import com.blibli.gdn.productService.service.ProductReconciliationService;
+import com.blibli.gdn.productService.util.SyncChecksum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps Elasticsearch consistent with MongoDB without full reindexes.
+ * <p>
+ * The watermark sync re-indexes products whose updatedAt is at or after the last synced watermark (minus an
+ * overlap for late commits and clock skew), reading them by an (updatedAt, _id) keyset. It does nothing but
+ * advance the watermark while this instance applies the change stream.
+ * <p>
+ * The checksum pass catches what the watermark cannot (deletes, lost writes, products without updatedAt): it
+ * compares per-bucket document counts and hash sums, an aggregation in Elasticsearch and a projection scan of
+ * productId/updatedAt in MongoDB, and then reads, reindexes and deletes only the products of the buckets that
+ * differ. Instances share a lease so only one runs either job at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "true", matchIfMissing = false)
+public class ProductReconciliationServiceImpl implements ProductReconciliationService {
+
+    static final String CHECKPOINT_ID = "products_reconciliation";
+
+    private static final String WATERMARK_INDEX = "updatedAt_1__id_1";
+    private static final String BUCKETS_AGGREGATION = "sync_buckets";
+    private static final String CHECKSUM_AGGREGATION = "checksum";
+    // A full reindex can outlast the regular lease
+    private static final Duration REINDEX_LEASE = Duration.ofHours(2);
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductRepository productRepository;
+    private final ProductIndexingService productIndexingService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductIndexPipelineService productIndexPipelineService;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Object lock = new Object();
+
+    @Value("${product.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.reconcile.batch-size:500}")
+    private int batchSize;
+
+    // Re-read before the watermark, for writes that committed after a later one was synced
+    @Value("${product.reconcile.watermark-overlap-ms:30000}")
+    private long overlapMs;
+
+    @Value("${product.reconcile.lease-ttl-ms:1800000}")
+    private long leaseTtlMs;
+
+    // Above this fraction of divergent buckets a full reindex is cheaper than repairing them one by one
+    @Value("${product.reconcile.max-divergent-fraction:0.5}")
+    private double maxDivergentFraction;
+
+    private volatile boolean watermarkIndexEnsured;
+
+    private final AtomicInteger divergentBuckets = new AtomicInteger();
+
+    private Counter watermarkIndexed;
+    private Counter repairedReindexed;
+    private Counter repairedDeleted;
+
+    @PostConstruct
+    void init() {
+        watermarkIndexed = Counter.builder("product.reconcile.watermark.documents")
+                .description("Products indexed by the updatedAt watermark sync")
+                .register(meterRegistry);
+        repairedReindexed = repairCounter("reindex");
+        repairedDeleted = repairCounter("delete");
+        Gauge.builder("product.reconcile.divergent.buckets", divergentBuckets, AtomicInteger::get)
+                .description("Checksum buckets that differed between MongoDB and Elasticsearch in the last pass")
+                .register(meterRegistry);
+    }
+
+    private Counter repairCounter(String action) {
+        return Counter.builder("product.reconcile.repairs")
+                .description("Documents repaired by the checksum reconciliation")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int syncSinceWatermark() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (lock) {
+            IndexCheckpoint checkpoint = acquireLease();
+            if (checkpoint == null) {
+                log.debug("Reconciliation lease held by another instance, skipping watermark sync");
+                return 0;
+            }
+            try {
+                Instant now = Instant.now();
+                if (checkpoint.getWatermark() == null || productIndexPipelineService.isActive()) {
+                    // Nothing to catch up: the change stream applies every write, and before the first run the
+                    // index was loaded by a full reindex. Older gaps are left to the checksum pass.
+                    saveWatermark(now);
+                    return 0;
+                }
+                int indexed = indexUpdatedSince(checkpoint.getWatermark().minusMillis(overlapMs), now);
+                saveWatermark(now);
+                if (indexed > 0) {
+                    log.info("Watermark sync indexed {} products updated since {}", indexed, checkpoint.getWatermark());
+                }
+                return indexed;
+            } finally {
+                releaseLease();
+            }
+        }
+    }
+
+    private int indexUpdatedSince(Instant since, Instant now) {
+        ensureWatermarkIndex();
+        int indexed = 0;
+        Instant lastUpdatedAt = null;
+        String lastId = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Criteria criteria = lastUpdatedAt == null
+                    ? Criteria.where("updatedAt").gte(since)
+                    : new Criteria().orOperator(
+                            Criteria.where("updatedAt").gt(lastUpdatedAt),
+                            Criteria.where("updatedAt").is(lastUpdatedAt).and("_id").gt(lastId));
+            Query query = Query.query(criteria)
+                    .with(Sort.by(Sort.Direction.ASC, "updatedAt", "_id"))
+                    .limit(batchSize);
+            List<Product> batch = mongoTemplate.find(query, Product.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            productIndexingService.indexBatch(batch, List.of());
+            indexed += batch.size();
+            watermarkIndexed.increment(batch.size());
+
+            Product last = batch.get(batch.size() - 1);
+            lastUpdatedAt = last.getUpdatedAt();
+            lastId = last.getId();
+            // Progress survives a crash; never ahead of the start of this run
+            saveWatermark(lastUpdatedAt.isBefore(now) ? lastUpdatedAt : now);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return indexed;
+    }
+
+    @Override
+    public ReconciliationReport reconcile() {
+        long start = System.currentTimeMillis();
+        if (!enabled) {
+            return ReconciliationReport.builder().skipped(true).build();
+        }
+        synchronized (lock) {
+            if (acquireLease() == null) {
+                log.debug("Reconciliation lease held by another instance, skipping checksum pass");
+                return ReconciliationReport.builder().skipped(true).build();
+            }
+            try {
+                BucketChecksums mongo = mongoChecksums();
+                BucketChecksums indexed = elasticsearchChecksums();
+                Set<Integer> divergent = new TreeSet<>();
+                for (int bucket = 0; bucket < SyncChecksum.BUCKETS; bucket++) {
+                    if (mongo.counts[bucket] != indexed.counts[bucket] || mongo.sums[bucket] != indexed.sums[bucket]) {
+                        divergent.add(bucket);
+                    }
+                }
+                divergentBuckets.set(divergent.size());
+
+                ReconciliationReport report = ReconciliationReport.builder()
+                        .bucketsCompared(SyncChecksum.BUCKETS)
+                        .divergentBuckets(divergent.size())
+                        .build();
+                if (divergent.size() > SyncChecksum.BUCKETS * maxDivergentFraction) {
+                    log.warn("{} of {} checksum buckets differ, running a full reindex instead of repairing them",
+                            divergent.size(), SyncChecksum.BUCKETS);
+                    renewLease(REINDEX_LEASE);
+                    productIndexingService.reindexAllProducts();
+                    report.setFullReindex(true);
+                } else if (!divergent.isEmpty()) {
+                    repair(divergent, mongo, report);
+                }
+                report.setDurationMs(System.currentTimeMillis() - start);
+                log.info("Reconciliation: {}/{} buckets differed, {} reindexed, {} deleted{} ({} ms)",
+                        report.getDivergentBuckets(), report.getBucketsCompared(), report.getReindexed(),
+                        report.getDeleted(), report.isFullReindex() ? ", full reindex" : "", report.getDurationMs());
+                return report;
+            } finally {
+                releaseLease();
+            }
+        }
+    }
+
+    /**
+     * Compares the divergent buckets only, using the MongoDB versions kept by the checksum pass, reindexes missing
+     * and stale products and removes documents whose product is gone. A document left under an old productId is
+     * removed by reindexing its product.
+     */
+    private void repair(Set<Integer> divergent, BucketChecksums checksums, ReconciliationReport report) {
+        Map<String, Version> mongo = new HashMap<>();
+        divergent.forEach(bucket -> mongo.putAll(checksums.versions(bucket)));
+        Map<String, Version> indexed = elasticsearchVersions(divergent);
+
+        Set<String> lookup = new LinkedHashSet<>();
+        List<String> unknownDocuments = new ArrayList<>();
+        mongo.forEach((productId, version) -> {
+            Version document = indexed.get(productId);
+            if (document == null || document.hash != version.hash) {
+                lookup.add(version.mongoId);
+            }
+        });
+        indexed.forEach((productId, document) -> {
+            if (!mongo.containsKey(productId)) {
+                if (document.mongoId != null) {
+                    lookup.add(document.mongoId);
+                } else {
+                    unknownDocuments.add(productId);
+                }
+            }
+        });
+
+        int reindexed = 0;
+        int deleted = 0;
+        List<String> mongoIds = new ArrayList<>(lookup);
+        for (int from = 0; from < mongoIds.size(); from += batchSize) {
+            List<String> chunk = mongoIds.subList(from, Math.min(from + batchSize, mongoIds.size()));
+            List<Product> products = productRepository.findAllById(chunk);
+            Set<String> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            List<String> gone = chunk.stream().filter(id -> !found.contains(id)).toList();
+            productIndexingService.indexBatch(products, gone);
+            reindexed += products.size();
+            deleted += gone.size();
+        }
+        for (String documentId : unknownDocuments) {
+            elasticsearchOperations.delete(documentId, IndexCoordinates.of(ProductIndexingServiceImpl.INDEX_ALIAS));
+            deleted++;
+        }
+
+        repairedReindexed.increment(reindexed);
+        repairedDeleted.increment(deleted);
+        report.setReindexed(reindexed);
+        report.setDeleted(deleted);
+    }
+
+    /**
+     * Streams productId, updatedAt and _id of every product once. The version of every product is kept by bucket,
+     * so a repair of the divergent buckets does not read the collection again.
+     */
+    private BucketChecksums mongoChecksums() {
+        BucketChecksums checksums = new BucketChecksums();
+        Query query = new Query().cursorBatchSize(batchSize * 10);
+        query.fields().include("productId").include("updatedAt");
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(Product.class))) {
+            documents.forEach(document -> {
+                String productId = document.getString("productId");
+                String mongoId = String.valueOf(document.get("_id"));
+                Date updatedAt = document.getDate("updatedAt");
+                int bucket = SyncChecksum.bucket(productId);
+                long hash = SyncChecksum.hash(productId, updatedAt != null ? updatedAt.toInstant() : null, mongoId);
+                checksums.add(bucket, productId, new Version(mongoId, hash));
+            });
+        }
+        return checksums;
+    }
+
+    private BucketChecksums elasticsearchChecksums() {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.matchAll(m -> m))
+                .withAggregation(BUCKETS_AGGREGATION, Aggregation.of(a -> a
+                        .terms(t -> t.field("syncBucket").size(SyncChecksum.BUCKETS))
+                        .aggregations(CHECKSUM_AGGREGATION, Aggregation.of(s -> s.sum(sum -> sum.field("syncHash"))))))
+                .withMaxResults(0)
+                .build();
+        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(query, ProductDocument.class);
+
+        BucketChecksums checksums = new BucketChecksums();
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return checksums;
+        }
+        ElasticsearchAggregation buckets = aggregations.aggregationsAsMap().get(BUCKETS_AGGREGATION);
+        Aggregate aggregate = buckets != null ? buckets.aggregation().getAggregate() : null;
+        if (aggregate == null || !aggregate.isLterms()) {
+            return checksums;
+        }
+        for (LongTermsBucket bucket : aggregate.lterms().buckets().array()) {
+            int index = (int) bucket.key();
+            checksums.counts[index] = bucket.docCount();
+            checksums.sums[index] = Math.round(bucket.aggregations().get(CHECKSUM_AGGREGATION).sum().value());
+        }
+        return checksums;
+    }
+
+    private Map<String, Version> elasticsearchVersions(Set<Integer> buckets) {
+        List<FieldValue> values = buckets.stream().map(bucket -> FieldValue.of(bucket.longValue())).toList();
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.terms(t -> t.field("syncBucket").terms(v -> v.value(values))))
+                .withSourceFilter(new FetchSourceFilter(new String[]{"mongoId", "syncHash"}, null))
+                .withPageable(PageRequest.of(0, batchSize))
+                .build();
+        Map<String, Version> versions = new HashMap<>();
+        try (SearchHitsIterator<ProductDocument> hits = elasticsearchOperations.searchForStream(query, ProductDocument.class)) {
+            while (hits.hasNext()) {
+                SearchHit<ProductDocument> hit = hits.next();
+                ProductDocument document = hit.getContent();
+                versions.put(hit.getId(), new Version(document.getMongoId(),
+                        document.getSyncHash() != null ? document.getSyncHash() : -1));
+            }
+        }
+        return versions;
+    }
+
+    private void ensureWatermarkIndex() {
+        if (watermarkIndexEnsured) {
+            return;
+        }
+        try {
+            mongoTemplate.indexOps(Product.class).ensureIndex(new Index()
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named(WATERMARK_INDEX));
+            watermarkIndexEnsured = true;
+        } catch (Exception e) {
+            log.warn("Could not create index {} for the watermark sync: {}", WATERMARK_INDEX, e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the lease if it is free, expired or already ours; returns the checkpoint, or null if another instance
+     * holds it
+     */
+    private IndexCheckpoint acquireLease() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_ID).orOperator(
+                Criteria.where("owner").is(instanceId),
+                Criteria.where("owner").is(null),
+                Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("leaseUntil", now.plusMillis(leaseTtlMs));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), IndexCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private void renewLease(Duration lease) {
+        mongoTemplate.updateFirst(ownedCheckpoint(), new Update().set("leaseUntil", Instant.now().plus(lease)),
+                IndexCheckpoint.class);
+    }
+
+    private void saveWatermark(Instant watermark) {
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(ownedCheckpoint(), new Update()
+                .set("watermark", watermark)
+                .set("updatedAt", now)
+                .set("leaseUntil", now.plusMillis(leaseTtlMs)), IndexCheckpoint.class);
+    }
+
+    private void releaseLease() {
+        try {
+            mongoTemplate.updateFirst(ownedCheckpoint(), new Update().set("leaseUntil", Instant.now()), IndexCheckpoint.class);
+        } catch (Exception e) {
+            log.debug("Could not release reconciliation lease: {}", e.getMessage());
+        }
+    }
+
+    private Query ownedCheckpoint() {
+        return Query.query(Criteria.where("_id").is(CHECKPOINT_ID).and("owner").is(instanceId));
+    }
+
+    private record Version(String mongoId, long hash) {
+    }
+
+    private static final class BucketChecksums {
+        private final long[] counts = new long[SyncChecksum.BUCKETS];
+        private final long[] sums = new long[SyncChecksum.BUCKETS];
+
+        // Only filled from MongoDB; Elasticsearch versions are read per divergent bucket
+        @SuppressWarnings("unchecked")
+        private final Map<String, Version>[] versions = new Map[SyncChecksum.BUCKETS];
+
+        private void add(int bucket, String productId, Version version) {
+            counts[bucket]++;
+            sums[bucket] += version.hash();
+            if (versions[bucket] == null) {
+                versions[bucket] = new HashMap<>();
+            }
+            versions[bucket].put(productId, version);
+        }
+
+        private Map<String, Version> versions(int bucket) {
+            return versions[bucket] != null ? versions[bucket] : Map.of();
+        }
+    }
+}
@@ -1,27 +1,68 @@
 package com.blibli.gdn.productService.service.impl;
 
+import co.elastic.clients.elasticsearch._types.SortMode;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.ChildScoreMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.blibli.gdn.productService.dto.request.ProductSearchRequest;
+import com.blibli.gdn.productService.dto.response.FacetBucket;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.ProductSearchResponse;
+import com.blibli.gdn.productService.exception.DeadlineExceededException;
+import com.blibli.gdn.productService.exception.InvalidSearchCursorException;
+import com.blibli.gdn.productService.exception.SearchUnavailableException;
 import com.blibli.gdn.productService.mapper.ProductMapper;
 import com.blibli.gdn.productService.model.Product;
 import com.blibli.gdn.productService.model.ProductDocument;
-import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
 import com.blibli.gdn.productService.service.ProductSearchService;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
-import org.springframework.data.elasticsearch.core.query.Criteria;
-import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,184 +71,182 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "spring.data.elasticsearch.repositories.enabled", havingValue = "true", matchIfMissing = false)
 public class ProductSearchServiceImpl implements ProductSearchService {
 
+    private static final String INDEX_NAME = "products_index";
+
+    // Keyword / numeric fields that can be sorted on directly; name/description are analyzed text
+    private static final Set<String> SORTABLE_FIELDS = Set.of("category", "brand", "productId");
+
+    private static final List<String> PRODUCT_FACETS = List.of("category", "brand", "tags");
+    private static final List<String> VARIANT_FACETS = List.of("color", "size");
+    private static final String VARIANTS_AGGREGATION = "variants";
+    private static final String PRICE_FACET = "price";
+    private static final String PRODUCT_COUNT = "products";
+
     private final ElasticsearchOperations elasticsearchOperations;
-    private final ProductRepository productRepository;
+    private final ProductProjectionReader productProjectionReader;
     private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.search.hydrate-from-mongo:false}")
+    private boolean hydrateFromMongo;
+
+    @Value("${product.search.point-in-time-keep-alive:1m}")
+    private Duration pointInTimeKeepAlive;
+
+    @Value("${product.search.facets.size:20}")
+    private int facetSize;
+
+    @Value("${product.search.facets.price-interval:100}")
+    private double priceInterval;
+
+    @Value("${product.search.facets.cache-ttl-seconds:60}")
+    private long facetCacheTtlSeconds;
+
+    @Value("${product.search.facets.cache-max-size:10000}")
+    private long facetCacheMaxSize;
+
+    // Facets depend only on the query and filters, not on sort or page, so every page of a popular
+    // query shares one entry. Caffeine's frequency-based admission keeps the popular ones resident.
+    private Cache<FacetKey, Map<String, List<FacetBucket>>> facetCache;
+
+    @PostConstruct
+    void init() {
+        facetCache = Caffeine.newBuilder()
+                .maximumSize(facetCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(facetCacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, facetCache, "product.search.facets");
+    }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, String sort) {
-        log.info("Searching products in Elasticsearch - name: {}, category: {}, page: {}, size: {}", 
-                name, category, pageable.getPageNumber(), pageable.getPageSize());
+        return searchProducts(name, category, pageable, sort, ProductFields.ALL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, String sort,
+                                                ProductFields fields) {
+        ProductSearchResponse response = search(ProductSearchRequest.builder()
+                .name(name)
+                .category(category)
+                .sort(sort)
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .fields(fields)
+                .build());
+        return new PageImpl<>(response.getContent(), pageable, response.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResponse search(ProductSearchRequest request) {
+        log.info("Searching products in Elasticsearch - name: {}, category: {}, price: {}-{}, minStock: {}, page: {}, size: {}, cursor: {}",
+                request.getName(), request.getCategory(), request.getMinPrice(), request.getMaxPrice(),
+                request.getMinStock(), request.getPage(), request.getSize(), request.getCursor() != null);
+        RequestDeadline.checkRemaining("product-search");
 
+        boolean cursorPaging = request.getCursor() != null;
+        SearchCursor cursor = cursorPaging && !ProductSearchRequest.START_CURSOR.equals(request.getCursor())
+                ? decodeCursor(request.getCursor(), request)
+                : null;
+        int size = request.getSize();
+        ProductFields fields = request.getFields() != null ? request.getFields() : ProductFields.ALL;
+
+        // Facets come back in the same round trip as the hits, unless a recent identical query already computed them
+        boolean wantFacets = request.isFacets() && cursor == null;
+        FacetKey facetKey = FacetKey.of(request);
+        Map<String, List<FacetBucket>> facets = wantFacets ? facetCache.getIfPresent(facetKey) : null;
+
+        String pointInTimeId = null;
         try {
-            Criteria criteria = null;
-
-            if (name != null && !name.trim().isEmpty()) {
-                String searchTerm = name.trim();
-                boolean isWildcardSearch = searchTerm.contains("*") || searchTerm.contains("?");
-                
-                if (isWildcardSearch) {
-                    // Use wildcard search for patterns like *phone*, iphone*, *pro, "Aerodynamic * Bag"
-                    log.info("Using wildcard search for term: {}", searchTerm);
-                    
-                    // For wildcard patterns with analyzed text fields, split by * and search for all parts
-                    // "Aerodynamic * Bag" -> search for "Aerodynamic" AND "Bag"
-                    // This works better with tokenized text fields
-                    String[] parts = searchTerm.split("\\*");
-                    List<String> searchParts = new java.util.ArrayList<>();
-                    for (String part : parts) {
-                        String trimmed = part.trim();
-                        if (!trimmed.isEmpty()) {
-                            searchParts.add(trimmed);
-                        }
-                    }
-                    
-                    if (searchParts.size() > 1) {
-                        // Multiple parts - search for all parts (AND condition)
-                        // "Aerodynamic * Bag" -> must contain both "Aerodynamic" AND "Bag"
-                        // Build criteria: (name contains "Aerodynamic" AND name contains "Bag") OR 
-                        //                (description contains "Aerodynamic" AND description contains "Bag")
-                        Criteria nameCriteria = new Criteria("name").contains(searchParts.get(0)).boost(2.0f);
-                        Criteria descCriteria = new Criteria("description").contains(searchParts.get(0));
-                        
-                        for (int i = 1; i < searchParts.size(); i++) {
-                            nameCriteria = nameCriteria.and(new Criteria("name").contains(searchParts.get(i)).boost(2.0f));
-                            descCriteria = descCriteria.and(new Criteria("description").contains(searchParts.get(i)));
-                        }
-                        
-                        // Combine name and description with OR
-                        criteria = nameCriteria.or(descCriteria);
-                    } else if (searchParts.size() == 1) {
-                        // Single part with wildcard at start/end - just search for the part
-                        // "*phone*" or "phone*" or "*phone" -> search for "phone"
-                        Criteria nameCriteria = new Criteria("name").contains(searchParts.get(0)).boost(2.0f);
-                        Criteria descCriteria = new Criteria("description").contains(searchParts.get(0));
-                        criteria = nameCriteria.or(descCriteria);
-                    }
-                } else {
-                    // Handle multi-word queries (e.g., "Small Lamp")
-                    // Split by spaces and search for all words (AND condition)
-                    String[] words = searchTerm.split("\\s+");
-                    
-                    if (words.length > 1) {
-                        // Multiple words - search for all words (AND condition)
-                        // "Small Lamp" -> must contain both "Small" AND "Lamp"
-                        log.info("Multi-word search detected: {} words", words.length);
-                        
-                        // Build criteria for name: must contain all words
-                        Criteria nameCriteria = new Criteria("name").contains(words[0]).boost(2.0f);
-                        for (int i = 1; i < words.length; i++) {
-                            nameCriteria = nameCriteria.and(new Criteria("name").contains(words[i]).boost(2.0f));
-                        }
-                        
-                        // Build criteria for description: must contain all words
-                        Criteria descCriteria = new Criteria("description").contains(words[0]);
-                        for (int i = 1; i < words.length; i++) {
-                            descCriteria = descCriteria.and(new Criteria("description").contains(words[i]));
-                        }
-                        
-                        // Combine name and description with OR
-                        criteria = nameCriteria.or(descCriteria);
-                    } else {
-                        // Single word - simple contains search
-                        Criteria nameCriteria = new Criteria("name").contains(searchTerm).boost(2.0f);
-                        Criteria descCriteria = new Criteria("description").contains(searchTerm);
-                        criteria = nameCriteria.or(descCriteria);
-                    }
+            NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                    .withQuery(buildQuery(request))
+                    .withSort(buildSort(request.getSort()))
+                    .withTrackTotalHits(true);
+
+            // Cursor pages continue from the last hit of the previous page against a point-in-time snapshot,
+            // so cost stays flat however deep the client browses. The first page opens the PIT, so every page
+            // of one cursor sees the same data.
+            if (cursorPaging) {
+                pointInTimeId = cursor != null
+                        ? cursor.pit()
+                        : elasticsearchOperations.openPointInTime(IndexCoordinates.of(INDEX_NAME), pointInTimeKeepAlive, false);
+                queryBuilder.withPointInTime(new org.springframework.data.elasticsearch.core.query.Query.PointInTime(
+                                pointInTimeId, pointInTimeKeepAlive))
+                        .withPageable(PageRequest.of(0, size));
+                if (cursor != null) {
+                    queryBuilder.withSearchAfter(cursor.searchAfter());
                 }
+            } else {
+                queryBuilder.withPageable(PageRequest.of(request.getPage(), size));
             }
 
-            // Filter by category if provided
-            if (category != null && !category.trim().isEmpty()) {
-                Criteria categoryCriteria = new Criteria("category").is(category);
-                if (criteria != null) {
-                    criteria = criteria.and(categoryCriteria);
-                } else {
-                    criteria = categoryCriteria;
-                }
+            if (wantFacets && facets == null) {
+                addFacetAggregations(queryBuilder);
             }
 
-            // If no criteria, return all products (match all)
-            if (criteria == null) {
-                log.info("No search criteria provided, returning all products");
-                criteria = new Criteria(); // Empty criteria matches all
-            }
-
-            CriteriaQuery criteriaQuery = new CriteriaQuery(criteria)
-                    .setPageable(pageable);
-
-            // Handle sorting - be careful with text fields which may not be sortable
-            // Skip sorting for now to avoid query errors, or use keyword fields
-            // Sorting on analyzed text fields requires .keyword subfield
-            try {
-                if (sort != null && !sort.trim().isEmpty()) {
-                    String[] sortParams = sort.split(",");
-                    String sortField = sortParams[0].trim();
-                    String sortDirection = sortParams.length > 1 ? sortParams[1].trim() : "asc";
-                    Sort.Direction direction = sortDirection.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-                    
-                    // Only sort on keyword fields (category, brand, productId) or skip sorting
-                    // Text fields (name, description) are analyzed and not directly sortable
-                    if (sortField.equals("category") || sortField.equals("brand") || sortField.equals("productId")) {
-                        criteriaQuery.addSort(Sort.by(direction, sortField));
-                    } else if (sortField.equals("price")) {
-                        // Variant price sorting - might not work with nested fields in Criteria API
-                        // Skip for now to avoid errors
-                        log.debug("Price sorting on nested field skipped to avoid query errors");
-                    }
-                    // Skip sorting on name/description (text fields) to avoid errors
-                }
-            } catch (Exception e) {
-                log.warn("Error setting sort, skipping sort: {}", e.getMessage());
-                // Skip sorting if there's an error
+            // Elasticsearch only reads and sends the requested parts of each hit's _source
+            if (!fields.isAll()) {
+                queryBuilder.withSourceFilter(new FetchSourceFilter(fields.sourceFields(), null));
+            }
+
+            // Let Elasticsearch give up once the caller's remaining budget is spent
+            if (RequestDeadline.isActive()) {
+                queryBuilder.withTimeout(Duration.ofMillis(Math.max(1, RequestDeadline.remainingMillis())));
             }
 
-            log.debug("Executing Elasticsearch query with criteria: {}", criteria);
-            SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(criteriaQuery, ProductDocument.class);
-            
+            SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(queryBuilder.build(), ProductDocument.class);
             log.info("Elasticsearch search returned {} total hits", searchHits.getTotalHits());
 
-            // Extract productIds from search results
-            // ProductDocument.id is now the productId (business identifier)
-            List<String> productIds = searchHits.getSearchHits().stream()
+            List<SearchHit<ProductDocument>> hits = searchHits.getSearchHits();
+            List<ProductDocument> documents = hits.stream()
                     .map(SearchHit::getContent)
-                    .map(ProductDocument::getId) // This is now productId
-                    .filter(id -> id != null && !id.isEmpty())
+                    .filter(document -> document.getProductId() != null && !document.getProductId().isEmpty())
                     .collect(Collectors.toList());
-            
-            log.info("Extracted {} productIds from search results", productIds.size());
-            if (!productIds.isEmpty()) {
-                log.debug("Sample productIds: {}", productIds.subList(0, Math.min(3, productIds.size())));
-            }
-
-            // Fetch full products from MongoDB using productId
-            List<Product> products = new java.util.ArrayList<>();
-            int foundCount = 0;
-            int notFoundCount = 0;
-            
-            for (String productId : productIds) {
-                java.util.Optional<Product> productOpt = productRepository.findFirstByProductId(productId);
-                if (productOpt.isPresent()) {
-                    products.add(productOpt.get());
-                    foundCount++;
-                } else {
-                    notFoundCount++;
-                    if (notFoundCount <= 3) {
-                        log.warn("Product not found in MongoDB for productId: {}", productId);
-                    }
-                }
+
+            String nextCursor = null;
+            if (cursorPaging && hits.size() == size && size > 0) {
+                String nextPit = searchHits.getPointInTimeId() != null ? searchHits.getPointInTimeId() : pointInTimeId;
+                nextCursor = encodeCursor(new SearchCursor(nextPit, hits.get(hits.size() - 1).getSortValues(),
+                        request.getSort(), facetKey));
+            } else if (pointInTimeId != null) {
+                closePointInTime(pointInTimeId);
             }
-            
-            log.info("Found {} products in MongoDB out of {} productIds ({} not found)", 
-                    foundCount, productIds.size(), notFoundCount);
 
-            List<ProductResponse> productResponses = products.stream()
-                    .map(productMapper::toProductResponse)
-                    .collect(Collectors.toList());
+            if (wantFacets && facets == null) {
+                facets = parseFacets(searchHits);
+                facetCache.put(facetKey, facets);
+            }
 
-            return new PageImpl<>(productResponses, pageable, searchHits.getTotalHits());
+            long total = searchHits.getTotalHits();
+            return ProductSearchResponse.builder()
+                    .content(toProductResponses(documents, fields))
+                    .totalElements(total)
+                    .totalPages(size > 0 ? (int) Math.ceil((double) total / size) : 0)
+                    .number(cursorPaging ? -1 : request.getPage())
+                    .size(size)
+                    .nextCursor(nextCursor)
+                    .facets(facets)
+                    .build();
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
+            // No cursor is returned, so a PIT this page opened would only be released by its keep-alive
+            if (cursor == null && pointInTimeId != null) {
+                closePointInTime(pointInTimeId);
+            }
+            // An empty page would read as the end of the results to a client following cursors
+            if (cursor != null && isMissingPointInTime(e)) {
+                log.info("Search cursor point in time {} has expired", cursor.pit());
+                throw new InvalidSearchCursorException("Search cursor has expired; restart the search");
+            }
+            if (cursorPaging) {
+                throw new SearchUnavailableException("Search is temporarily unavailable", e);
+            }
             log.error("Error searching products in Elasticsearch: {}", e.getMessage(), e);
             // Log the full exception stack trace for debugging
             if (e.getCause() != null) {
@@ -215,8 +254,320 @@ public class ProductSearchServiceImpl implements ProductSearchService {
             }
             // Return empty page on error - but log the actual error
             log.error("Returning empty results due to error. Check Elasticsearch connection and query syntax.");
-            return new PageImpl<>(List.of(), pageable, 0);
+            return ProductSearchResponse.builder()
+                    .content(List.of())
+                    .number(request.getPage())
+                    .size(size)
+                    .build();
         }
     }
-}
 
+    /**
+     * Text terms must all appear in the name (boosted) or all in the description.
+     * Wildcards are treated as term separators: "*phone*" searches "phone", "Aerodynamic * Bag" needs both words.
+     * Category and variant price/stock ranges are non-scoring filters.
+     */
+    private Query buildQuery(ProductSearchRequest request) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        List<String> terms = searchTerms(request.getName());
+        if (!terms.isEmpty()) {
+            log.debug("Searching for terms: {}", terms);
+            bool.must(Query.of(q -> q.bool(b -> b
+                    .should(allTermsIn("name", 2.0f, terms))
+                    .should(allTermsIn("description", 1.0f, terms))
+                    .minimumShouldMatch("1"))));
+        }
+
+        if (request.getCategory() != null && !request.getCategory().trim().isEmpty()) {
+            String category = request.getCategory();
+            bool.filter(Query.of(q -> q.term(t -> t.field("category").value(category))));
+        }
+
+        // Price and stock conditions must hold for the same variant
+        List<Query> variantConditions = new ArrayList<>();
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            Double minPrice = request.getMinPrice();
+            Double maxPrice = request.getMaxPrice();
+            variantConditions.add(Query.of(q -> q.range(r -> {
+                r.field("variants.price");
+                if (minPrice != null) {
+                    r.gte(JsonData.of(minPrice));
+                }
+                if (maxPrice != null) {
+                    r.lte(JsonData.of(maxPrice));
+                }
+                return r;
+            })));
+        }
+        if (request.getMinStock() != null) {
+            Integer minStock = request.getMinStock();
+            variantConditions.add(Query.of(q -> q.range(r -> r.field("variants.stock").gte(JsonData.of(minStock)))));
+        }
+        if (!variantConditions.isEmpty()) {
+            bool.filter(Query.of(q -> q.nested(n -> n
+                    .path("variants")
+                    .scoreMode(ChildScoreMode.None)
+                    .query(inner -> inner.bool(b -> b.filter(variantConditions))))));
+        }
+
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    private Query allTermsIn(String field, float boost, List<String> terms) {
+        List<Query> clauses = terms.stream()
+                .map(term -> Query.of(q -> q.queryString(qs -> qs
+                        .fields(field)
+                        .query("*" + escapeQueryString(term) + "*")
+                        .analyzeWildcard(true)
+                        .boost(boost))))
+                .collect(Collectors.toList());
+        return Query.of(q -> q.bool(b -> b.must(clauses)));
+    }
+
+    private List<String> searchTerms(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(name.trim().split("[*\\s]+"))
+                .map(String::trim)
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    // '?' is left as a single-character wildcard
+    private String escapeQueryString(String term) {
+        StringBuilder escaped = new StringBuilder(term.length());
+        for (char c : term.toCharArray()) {
+            if ("\\+-=&|><!(){}[]^\"~*:/".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * "price" sorts on the nested variant prices: by cheapest variant ascending, by most expensive descending,
+     * or explicitly with a third part ("price,asc,max"). productId is always the last sort key so cursors are stable.
+     */
+    private List<SortOptions> buildSort(String sort) {
+        List<SortOptions> sorts = new ArrayList<>();
+
+        if (sort != null && !sort.trim().isEmpty()) {
+            String[] sortParams = sort.split(",");
+            String sortField = sortParams[0].trim();
+            SortOrder order = sortParams.length > 1 && sortParams[1].trim().equalsIgnoreCase("desc")
+                    ? SortOrder.Desc : SortOrder.Asc;
+
+            if (sortField.equals("price")) {
+                SortMode mode;
+                if (sortParams.length > 2) {
+                    mode = sortParams[2].trim().equalsIgnoreCase("max") ? SortMode.Max : SortMode.Min;
+                } else {
+                    mode = order == SortOrder.Desc ? SortMode.Max : SortMode.Min;
+                }
+                sorts.add(SortOptions.of(s -> s.field(f -> f
+                        .field("variants.price")
+                        .order(order)
+                        .mode(mode)
+                        .nested(n -> n.path("variants")))));
+            } else if (SORTABLE_FIELDS.contains(sortField)) {
+                sorts.add(SortOptions.of(s -> s.field(f -> f.field(sortField).order(order))));
+            } else {
+                // name/description are analyzed text fields; fall back to relevance
+                log.debug("Sorting on field {} not supported, sorting by relevance", sortField);
+            }
+        }
+
+        if (sorts.isEmpty()) {
+            sorts.add(SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))));
+        }
+        sorts.add(SortOptions.of(s -> s.field(f -> f.field("productId").order(SortOrder.Asc))));
+        return sorts;
+    }
+
+    /**
+     * Terms facets on the product keyword fields, and on variant colour/size and a variant price histogram
+     * inside a single nested aggregation. Variant buckets count products via reverse_nested, so a product
+     * with three black variants counts once under "Black".
+     */
+    private void addFacetAggregations(NativeQueryBuilder queryBuilder) {
+        for (String field : PRODUCT_FACETS) {
+            queryBuilder.withAggregation(field, Aggregation.of(a -> a.terms(t -> t.field(field).size(facetSize))));
+        }
+
+        Aggregation productCount = Aggregation.of(a -> a.reverseNested(r -> r));
+        queryBuilder.withAggregation(VARIANTS_AGGREGATION, Aggregation.of(a -> {
+            var nested = a.nested(n -> n.path("variants"));
+            for (String field : VARIANT_FACETS) {
+                nested.aggregations(field, Aggregation.of(v -> v
+                        .terms(t -> t.field("variants." + field).size(facetSize))
+                        .aggregations(PRODUCT_COUNT, productCount)));
+            }
+            return nested.aggregations(PRICE_FACET, Aggregation.of(v -> v
+                    .histogram(h -> h.field("variants.price").interval(priceInterval).minDocCount(1))
+                    .aggregations(PRODUCT_COUNT, productCount)));
+        }));
+    }
+
+    private Map<String, List<FacetBucket>> parseFacets(SearchHits<ProductDocument> searchHits) {
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return facets;
+        }
+        Map<String, ElasticsearchAggregation> byName = aggregations.aggregationsAsMap();
+
+        for (String field : PRODUCT_FACETS) {
+            ElasticsearchAggregation aggregation = byName.get(field);
+            if (aggregation != null) {
+                facets.put(field, termBuckets(aggregation.aggregation().getAggregate()));
+            }
+        }
+
+        ElasticsearchAggregation variants = byName.get(VARIANTS_AGGREGATION);
+        if (variants != null) {
+            Map<String, Aggregate> variantAggregations = variants.aggregation().getAggregate().nested().aggregations();
+            for (String field : VARIANT_FACETS) {
+                if (variantAggregations.containsKey(field)) {
+                    facets.put(field, termBuckets(variantAggregations.get(field)));
+                }
+            }
+            if (variantAggregations.containsKey(PRICE_FACET)) {
+                facets.put(PRICE_FACET, priceBuckets(variantAggregations.get(PRICE_FACET)));
+            }
+        }
+        return facets;
+    }
+
+    private List<FacetBucket> termBuckets(Aggregate aggregate) {
+        if (!aggregate.isSterms()) {
+            return List.of();
+        }
+        return aggregate.sterms().buckets().array().stream()
+                .map((StringTermsBucket bucket) -> FacetBucket.builder()
+                        .key(bucket.key().stringValue())
+                        .count(productCount(bucket.docCount(), bucket.aggregations()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<FacetBucket> priceBuckets(Aggregate aggregate) {
+        return aggregate.histogram().buckets().array().stream()
+                .map((HistogramBucket bucket) -> FacetBucket.builder()
+                        .key(String.format(Locale.ROOT, "%.0f-%.0f", bucket.key(), bucket.key() + priceInterval))
+                        .from(bucket.key())
+                        .to(bucket.key() + priceInterval)
+                        .count(productCount(bucket.docCount(), bucket.aggregations()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private long productCount(long docCount, Map<String, Aggregate> subAggregations) {
+        Aggregate products = subAggregations.get(PRODUCT_COUNT);
+        return products != null ? products.reverseNested().docCount() : docCount;
+    }
+
+    /**
+     * Builds listing results from the indexed _source. Hits indexed before the MongoDB id was stored,
+     * or every hit when hydrate-from-mongo is on, are loaded from MongoDB in a single $in query.
+     */
+    private List<ProductResponse> toProductResponses(List<ProductDocument> documents, ProductFields fields) {
+        List<String> idsToHydrate = documents.stream()
+                .filter(this::needsHydration)
+                .map(ProductDocument::getProductId)
+                .collect(Collectors.toList());
+
+        Map<String, Product> hydrated = Map.of();
+        if (!idsToHydrate.isEmpty()) {
+            RequestDeadline.checkRemaining("search-hydration");
+            List<Product> products = productProjectionReader.findByProductIdIn(idsToHydrate, fields);
+            hydrated = products.stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity(), (first, duplicate) -> first));
+            log.debug("Hydrated {} of {} search hits from MongoDB", hydrated.size(), idsToHydrate.size());
+        }
+
+        List<ProductResponse> responses = new ArrayList<>(documents.size());
+        int notFoundCount = 0;
+        for (ProductDocument document : documents) {
+            if (!needsHydration(document)) {
+                responses.add(productMapper.toProductResponse(document, fields));
+                continue;
+            }
+            Product product = hydrated.get(document.getProductId());
+            if (product != null) {
+                responses.add(productMapper.toProductResponse(product, fields));
+            } else if (++notFoundCount <= 3) {
+                log.warn("Product not found in MongoDB for productId: {}", document.getProductId());
+            }
+        }
+        return responses;
+    }
+
+    private boolean needsHydration(ProductDocument document) {
+        return hydrateFromMongo || document.getMongoId() == null;
+    }
+
+    private String encodeCursor(SearchCursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (Exception e) {
+            log.warn("Could not encode search cursor: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private SearchCursor decodeCursor(String token, ProductSearchRequest request) {
+        SearchCursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(token), SearchCursor.class);
+        } catch (Exception e) {
+            throw new InvalidSearchCursorException("Malformed search cursor");
+        }
+        if (cursor.pit() == null || cursor.searchAfter() == null || cursor.searchAfter().isEmpty()) {
+            throw new InvalidSearchCursorException("Malformed search cursor");
+        }
+        if (!Objects.equals(cursor.sort(), request.getSort())) {
+            throw new InvalidSearchCursorException("Search cursor was issued for a different sort order");
+        }
+        // search_after values are positions in one result set; applied to another they skip or repeat hits
+        if (!Objects.equals(cursor.query(), FacetKey.of(request))) {
+            throw new InvalidSearchCursorException("Search cursor was issued for a different query");
+        }
+        return cursor;
+    }
+
+    /**
+     * Elasticsearch answers a search against a closed or expired point in time with search_context_missing_exception
+     */
+    private boolean isMissingPointInTime(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && (message.contains("search_context_missing_exception")
+                    || message.contains("No search context found"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closePointInTime(String pointInTimeId) {
+        try {
+            elasticsearchOperations.closePointInTime(pointInTimeId);
+        } catch (Exception e) {
+            // It expires after the keep-alive anyway
+            log.debug("Could not close point in time: {}", e.getMessage());
+        }
+    }
+
+    record SearchCursor(String pit, List<Object> searchAfter, String sort, FacetKey query) {
+    }
+
+    record FacetKey(String name, String category, Double minPrice, Double maxPrice, Integer minStock) {
+
+        static FacetKey of(ProductSearchRequest request) {
+            String name = request.getName() != null ? request.getName().trim().toLowerCase(Locale.ROOT) : "";
+            return new FacetKey(name, request.getCategory(), request.getMinPrice(), request.getMaxPrice(), request.getMinStock());
+        }
+    }
+}
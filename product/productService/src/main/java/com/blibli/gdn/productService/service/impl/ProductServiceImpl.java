@@ -1,43 +1,79 @@
 package com.blibli.gdn.productService.service.impl;
 
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
 import com.blibli.gdn.productService.dto.request.ProductRequest;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
 import com.blibli.gdn.productService.exception.ProductNotFoundException;
 import com.blibli.gdn.productService.mapper.ProductMapper;
 import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
 import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.service.DirectIndexingService;
+import com.blibli.gdn.productService.service.LocalSearchIndexService;
+import com.blibli.gdn.productService.service.ProductCacheInvalidationService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
 import com.blibli.gdn.productService.service.ProductIndexingService;
 import com.blibli.gdn.productService.service.ProductService;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @lombok.extern.slf4j.Slf4j
 public class ProductServiceImpl implements ProductService {
 
+    private static final ProductFields VERSION_FIELDS = ProductFields.parse("id,updatedAt");
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductExistenceService productExistenceService;
+    private final ProductCacheInvalidationService productCacheInvalidationService;
+    private final ProductProjectionReader productProjectionReader;
+    private final CacheManager cacheManager;
+    private final ProductKeyIndex productKeyIndex;
+    private final DirectIndexingService directIndexingService;
     
     @Autowired(required = false)
     private ProductIndexingService productIndexingService;
 
+    // Only present when Elasticsearch is disabled
+    @Autowired(required = false)
+    private LocalSearchIndexService localSearchIndexService;
+
     @Override
     @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
         log.info("Creating product: {}", productRequest.getName());
         Product product = productMapper.toProduct(productRequest);
         Product savedProduct = productRepository.save(product);
+        productExistenceService.register(savedProduct);
         
         // Index product in Elasticsearch asynchronously (if Elasticsearch is available)
-        if (productIndexingService != null) {
+        if (directIndexingService.isActive()) {
             productIndexingService.indexProduct(savedProduct);
         }
+        if (localSearchIndexService != null) {
+            localSearchIndexService.index(savedProduct);
+        }
         
         return productMapper.toProductResponse(savedProduct);
     }
@@ -57,11 +93,20 @@ public class ProductServiceImpl implements ProductService {
         updatedProduct.setUpdatedAt(java.time.Instant.now()); // Update timestamp
         
         Product savedProduct = productRepository.save(updatedProduct);
+        productExistenceService.register(savedProduct);
+        // Old keys too: the productId or SKUs may have changed
+        productCacheInvalidationService.evict(existingProduct);
+        productCacheInvalidationService.evict(savedProduct);
         
         // Update product in Elasticsearch asynchronously
-        if (productIndexingService != null) {
+        if (directIndexingService.isActive()) {
             productIndexingService.updateProduct(savedProduct);
         }
+        if (localSearchIndexService != null) {
+            // productId may have changed; drop the old entry
+            localSearchIndexService.remove(existingProduct.getProductId());
+            localSearchIndexService.index(savedProduct);
+        }
         
         return productMapper.toProductResponse(savedProduct);
     }
@@ -79,38 +124,130 @@ public class ProductServiceImpl implements ProductService {
         
         // Delete from MongoDB
         productRepository.deleteById(id);
+        productCacheInvalidationService.evict(product);
         
         // Delete from Elasticsearch asynchronously using productId
-        if (productIndexingService != null) {
+        if (directIndexingService.isActive()) {
             productIndexingService.deleteProduct(productId);
         }
+        if (localSearchIndexService != null) {
+            localSearchIndexService.remove(productId);
+        }
         
         log.info("Successfully deleted product: {} (productId: {})", id, productId);
     }
 
     @Override
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = CacheConfig.PRODUCTS, key = "#id")
     @Transactional(readOnly = true)
     public ProductResponse getProduct(String id) {
         log.info("Fetching product with productId: {}", id);
-        
-        // Use findFirstByProductId to handle duplicates gracefully
-        Product product = productRepository.findFirstByProductId(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with productId: " + id));
+        RequestDeadline.checkRemaining("product-lookup");
+
+        // Unknown IDs (stale links, bogus cart SKUs) are answered from memory
+        if (!productExistenceService.mightExistProductId(id)) {
+            throw new ProductNotFoundException("Product not found with productId: " + id);
+        }
+
+        Product product = productProjectionReader.findFirstByProductId(id, ProductFields.ALL)
+                .orElseThrow(() -> {
+                    productExistenceService.recordMissingProductId(id);
+                    return new ProductNotFoundException("Product not found with productId: " + id);
+                });
+        productKeyIndex.record(product);
         
         return productMapper.toProductResponse(product);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ProductResponse getProduct(String id, ProductFields fields) {
+        log.info("Fetching fields [{}] of product with productId: {}", fields, id);
+        RequestDeadline.checkRemaining("product-lookup");
+
+        // Sparse responses are not cached, but a cached full response is narrowed instead of reading MongoDB
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        ProductResponse cached = cache != null ? cache.get(id, ProductResponse.class) : null;
+        if (cached != null) {
+            return productMapper.select(cached, fields);
+        }
+
+        if (!productExistenceService.mightExistProductId(id)) {
+            throw new ProductNotFoundException("Product not found with productId: " + id);
+        }
+
+        Product product = productProjectionReader.findFirstByProductId(id, fields)
+                .orElseThrow(() -> {
+                    productExistenceService.recordMissingProductId(id);
+                    return new ProductNotFoundException("Product not found with productId: " + id);
+                });
+
+        return productMapper.toProductResponse(product, fields);
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.PRODUCT_VERSIONS, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public ProductVersion getProductVersion(String id) {
+        RequestDeadline.checkRemaining("product-version");
+
+        // A cached product already carries its version
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        ProductResponse cached = cache != null ? cache.get(id, ProductResponse.class) : null;
+        if (cached != null) {
+            return toVersion(cached.getId(), cached.getUpdatedAt());
+        }
+
+        if (!productExistenceService.mightExistProductId(id)) {
+            throw new ProductNotFoundException("Product not found with productId: " + id);
+        }
+
+        Product product = productProjectionReader.findFirstByProductId(id, VERSION_FIELDS)
+                .orElseThrow(() -> {
+                    productExistenceService.recordMissingProductId(id);
+                    return new ProductNotFoundException("Product not found with productId: " + id);
+                });
+        productKeyIndex.record(product.getId(), id);
+        return toVersion(product.getId(), product.getUpdatedAt());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ProductResponse> searchProducts(String name, String category, Pageable pageable) {
-        log.info("Searching products with name: {}, category: {}", name, category);
-        Page<Product> products;
-        if (category != null && !category.isEmpty()) {
-            products = productRepository.findByNameContainingIgnoreCaseAndCategory(name, category, pageable);
-        } else {
-            products = productRepository.findByNameContainingIgnoreCase(name, pageable);
+        return searchProducts(name, category, pageable, ProductFields.ALL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponse> searchProducts(String name, String category, Pageable pageable, ProductFields fields) {
+        log.info("Searching products with name: {}, category: {}, fields: {}", name, category, fields);
+        RequestDeadline.checkRemaining("product-search");
+
+        if (localSearchIndexService != null && localSearchIndexService.isReady()) {
+            Page<String> productIds = localSearchIndexService.search(name, category, pageable);
+            return new PageImpl<>(loadInOrder(productIds.getContent(), fields), pageable, productIds.getTotalElements());
+        }
+
+        return productProjectionReader.findByName(name, category, pageable, fields)
+                .map(product -> productMapper.toProductResponse(product, fields));
+    }
+
+    private ProductVersion toVersion(String mongoId, Instant updatedAt) {
+        return updatedAt == null ? null : ProductVersion.builder().id(mongoId).updatedAt(updatedAt).build();
+    }
+
+    // One $in query for the page, returned in the index's ranking order
+    private List<ProductResponse> loadInOrder(List<String> productIds, ProductFields fields) {
+        if (productIds.isEmpty()) {
+            return List.of();
         }
-        return products.map(productMapper::toProductResponse);
+        List<Product> loaded = productProjectionReader.findByProductIdIn(productIds, fields);
+        Map<String, Product> products = loaded.stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity(), (first, duplicate) -> first));
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> productMapper.toProductResponse(product, fields))
+                .collect(Collectors.toList());
     }
 }
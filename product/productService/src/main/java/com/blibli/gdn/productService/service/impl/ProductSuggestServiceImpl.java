@@ -0,0 +1,202 @@
+package com.blibli.gdn.productService.service.impl;
+
+import co.elastic.clients.elasticsearch.core.search.FieldSuggester;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import com.blibli.gdn.productService.exception.DeadlineExceededException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductDocument;
+import com.blibli.gdn.productService.service.ProductSuggestService;
+import com.blibli.gdn.productService.util.PrefixTrie;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Serves typeahead from the Elasticsearch completion suggester on ProductDocument.suggest. An in-memory
+ * prefix trie of product names and brands, rebuilt from MongoDB on a schedule, answers when Elasticsearch
+ * is disabled or failing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestServiceImpl implements ProductSuggestService {
+
+    private static final String SUGGESTION_NAME = "product-suggest";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Value("${spring.data.elasticsearch.repositories.enabled:false}")
+    private boolean elasticsearchEnabled;
+
+    @Value("${product.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${product.suggest.cache.ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    @Value("${product.suggest.cache.max-size:20000}")
+    private long cacheMaxSize;
+
+    @Value("${product.suggest.trie.enabled:true}")
+    private boolean trieEnabled;
+
+    @Value("${product.suggest.trie.collect-threshold:64}")
+    private int trieCollectThreshold;
+
+    // null until the first build
+    private volatile PrefixTrie trie;
+
+    // Short prefixes are shared by most users and are the most expensive for the suggester; cache them briefly
+    private Cache<String, List<String>> elasticsearchResults;
+
+    private Timer elasticsearchTimer;
+    private Timer trieTimer;
+
+    @PostConstruct
+    void init() {
+        elasticsearchResults = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+        elasticsearchTimer = suggestTimer("elasticsearch");
+        trieTimer = suggestTimer("trie");
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String normalized = PrefixTrie.normalize(prefix);
+        int size = Math.max(1, Math.min(limit, maxResults));
+
+        if (elasticsearchEnabled && elasticsearchOperations != null) {
+            try {
+                return elasticsearchResults.get(size + ":" + normalized,
+                        key -> elasticsearchTimer.record(() -> suggestFromElasticsearch(normalized, size)));
+            } catch (DeadlineExceededException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Elasticsearch suggest failed for prefix '{}', falling back to the in-memory trie: {}",
+                        normalized, e.getMessage());
+            }
+        }
+
+        PrefixTrie current = trie;
+        if (current == null) {
+            return List.of();
+        }
+        return trieTimer.record(() -> current.suggest(normalized, size));
+    }
+
+    private List<String> suggestFromElasticsearch(String prefix, int size) {
+        RequestDeadline.checkRemaining("product-suggest");
+
+        // Ask for extra options: several suffixes of the same product can match the prefix
+        NativeQuery query = NativeQuery.builder()
+                .withSuggester(Suggester.of(s -> s.suggesters(SUGGESTION_NAME, FieldSuggester.of(f -> f
+                        .prefix(prefix)
+                        .completion(c -> c.field("suggest").size(size * 2).skipDuplicates(true))))))
+                .withSourceFilter(new FetchSourceFilter(new String[]{"name"}, null))
+                .withMaxResults(0)
+                .build();
+
+        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(query, ProductDocument.class);
+        Suggest suggest = searchHits.getSuggest();
+        if (suggest == null || suggest.getSuggestion(SUGGESTION_NAME) == null) {
+            return List.of();
+        }
+
+        List<String> names = new ArrayList<>(size);
+        for (Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option> entry
+                : suggest.getSuggestion(SUGGESTION_NAME).getEntries()) {
+            for (Suggest.Suggestion.Entry.Option option : entry.getOptions()) {
+                String name = optionName(option);
+                if (names.size() < size && name != null && !names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    // The matched input may be a suffix of the name; show the full name from _source
+    private String optionName(Suggest.Suggestion.Entry.Option option) {
+        if (option instanceof CompletionSuggestion.Entry.Option<?> completion) {
+            SearchHit<?> hit = completion.getSearchHit();
+            if (hit != null && hit.getContent() instanceof ProductDocument document && document.getName() != null) {
+                return document.getName();
+            }
+        }
+        return option.getText();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.suggest.trie.rebuild-interval-ms:300000}",
+            initialDelayString = "${product.suggest.trie.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        if (!trieEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            PrefixTrie.Builder builder = PrefixTrie.builder(maxResults, trieCollectThreshold);
+
+            Query query = new Query();
+            query.fields().include("name").include("brand");
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.forEach(product -> {
+                    if (product.getName() != null) {
+                        for (String suffix : PrefixTrie.wordSuffixes(product.getName())) {
+                            builder.add(suffix, product.getName(), 1);
+                        }
+                    }
+                    // A brand's weight is its product count, so popular brands rank first
+                    if (product.getBrand() != null) {
+                        builder.add(product.getBrand(), product.getBrand(), 1);
+                    }
+                });
+            }
+
+            trie = builder.build();
+            log.info("Rebuilt product suggest trie in {}ms: {} keys", System.currentTimeMillis() - start, trie.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild product suggest trie, keeping previous one: {}", e.getMessage());
+        }
+    }
+
+    private Timer suggestTimer(String source) {
+        return Timer.builder("product.suggest.latency")
+                .description("Typeahead suggestion latency")
+                .tag("source", source)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
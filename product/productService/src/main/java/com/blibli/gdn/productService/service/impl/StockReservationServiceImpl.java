@@ -0,0 +1,287 @@
+package com.blibli.gdn.productService.service.impl;
+
+import com.blibli.gdn.productService.dto.response.StockReservationResponse;
+import com.blibli.gdn.productService.exception.InsufficientStockException;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.exception.StockReservationNotFoundException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.StockReservation;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.ProductCacheInvalidationService;
+import com.blibli.gdn.productService.service.ProductExistenceService;
+import com.blibli.gdn.productService.service.StockReservationService;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.blibli.gdn.productService.util.StockEscrow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Every stock change is one findAndModify with a conditional $inc on the matching array element
+ * ({@code variants.$[v].stock}, arrayFilters on the SKU). The stock check and the decrement are a single atomic
+ * document update, so concurrent buyers can never oversell, and only the variant's stock and updatedAt change.
+ *
+ * <p>All buyers of one hot SKU still queue on the same document. With {@code product.stock.escrow.enabled} an
+ * instance instead leases {@code lease-size} units with one conditional $inc and serves reservations from striped
+ * in-memory counters; unused units are returned every {@code flush-interval-ms}. MongoDB then sees one write per
+ * lease instead of one per buyer. Units held in escrow are invisible to other instances until the next flush,
+ * and are lost (undersold, never oversold) if the instance dies before returning them.
+ *
+ * <p>Each reservation is recorded under a generated id in its own document, so recording never queues on the
+ * product. Stock only comes back by releasing such an id, for exactly the quantity it took and only once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final String DIRECT = "direct";
+    private static final String ESCROW = "escrow";
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductExistenceService productExistenceService;
+    private final ProductCacheInvalidationService productCacheInvalidationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.stock.escrow.enabled:false}")
+    private boolean escrowEnabled;
+
+    @Value("${product.stock.escrow.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${product.stock.escrow.stripes:8}")
+    private int stripes;
+
+    private final Map<String, StockEscrow> escrows = new ConcurrentHashMap<>();
+
+    private Counter leases;
+    private Counter returns;
+
+    @PostConstruct
+    void init() {
+        leases = Counter.builder("product.stock.escrow.leases")
+                .description("Units leased from MongoDB into the escrow, one write per lease")
+                .register(meterRegistry);
+        returns = Counter.builder("product.stock.escrow.returned")
+                .description("Unused escrow units returned to MongoDB")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.escrow.held", escrows,
+                        held -> held.values().stream().mapToLong(StockEscrow::held).sum())
+                .description("Units currently held in this instance's escrow")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StockReservationResponse reserve(String sku, int quantity) {
+        RequestDeadline.checkRemaining("stock-reserve");
+        if (!productExistenceService.mightExistSku(sku)) {
+            throw new ProductNotFoundException("Product not found for SKU: " + sku);
+        }
+        StockReservationResponse response = escrowEnabled
+                ? reserveFromEscrow(sku, quantity)
+                : reserveDirect(sku, quantity, DIRECT);
+
+        StockReservation reservation = StockReservation.builder()
+                .reservationId(UUID.randomUUID().toString())
+                .sku(sku)
+                .quantity(quantity)
+                .createdAt(Instant.now())
+                .build();
+        try {
+            mongoTemplate.insert(reservation);
+        } catch (RuntimeException e) {
+            // Without the record the units could never be released
+            giveBack(sku, quantity);
+            throw e;
+        }
+        response.setReservationId(reservation.getReservationId());
+        return response;
+    }
+
+    @Override
+    public StockReservationResponse release(String reservationId) {
+        RequestDeadline.checkRemaining("stock-release");
+        // Removing the record first makes a second release of the same reservation a miss
+        StockReservation reservation = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(reservationId)), StockReservation.class);
+        if (reservation == null) {
+            throw new StockReservationNotFoundException("Stock reservation not found or already released: " + reservationId);
+        }
+        StockReservationResponse response = giveBack(reservation.getSku(), reservation.getQuantity());
+        response.setReservationId(reservationId);
+        return response;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.stock.escrow.flush-interval-ms:1000}",
+            initialDelayString = "${product.stock.escrow.flush-interval-ms:1000}")
+    public long flushEscrow() {
+        long returned = 0;
+        for (Map.Entry<String, StockEscrow> entry : escrows.entrySet()) {
+            StockEscrow escrow = entry.getValue();
+            // Escrows that did not lease since the last flush are dropped; closing first stops new units arriving
+            if (!escrow.refilledSinceLastCheck()) {
+                escrow.close();
+                escrows.remove(entry.getKey(), escrow);
+            }
+            returned += returnUnits(entry.getKey(), escrow.drain());
+        }
+        if (returned > 0) {
+            log.debug("Returned {} escrowed stock units to MongoDB", returned);
+        }
+        return returned;
+    }
+
+    @PreDestroy
+    public void stop() {
+        escrows.values().forEach(StockEscrow::close);
+        long returned = flushEscrow();
+        if (returned > 0) {
+            log.info("Returned {} escrowed stock units to MongoDB on shutdown", returned);
+        }
+    }
+
+    private StockReservationResponse giveBack(String sku, int quantity) {
+        if (escrowEnabled) {
+            // Back into the escrow, where the next buyer can take it; returned to MongoDB on the next flush
+            StockEscrow escrow = escrows.get(sku);
+            if (escrow != null && escrow.add(quantity)) {
+                count(ESCROW, "released");
+                return StockReservationResponse.builder().sku(sku).quantity(quantity).build();
+            }
+        }
+        Product product = increment(sku, quantity);
+        if (product == null) {
+            throw new ProductNotFoundException("Product not found for SKU: " + sku);
+        }
+        count(DIRECT, "released");
+        return response(sku, quantity, product);
+    }
+
+    private StockReservationResponse reserveFromEscrow(String sku, int quantity) {
+        StockEscrow escrow = escrows.computeIfAbsent(sku, key -> new StockEscrow(stripes));
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        if (escrow.tryTake(quantity, stripe)) {
+            count(ESCROW, "reserved");
+            return StockReservationResponse.builder().sku(sku).quantity(quantity).build();
+        }
+
+        // One lease per SKU at a time; the others wait for it and then take from the refilled stripes
+        synchronized (escrow) {
+            // No single stripe may hold the quantity while all of them together do
+            if (escrow.tryTake(quantity, stripe) || escrow.tryTakePooled(quantity)) {
+                count(ESCROW, "reserved");
+                return StockReservationResponse.builder().sku(sku).quantity(quantity).build();
+            }
+            if (!escrow.isClosed()) {
+                int lease = Math.max(leaseSize, quantity);
+                if (decrement(sku, lease) != null) {
+                    leases.increment(lease);
+                    if (!escrow.add(lease - quantity)) {
+                        returnUnits(sku, lease - quantity);
+                    }
+                    count(ESCROW, "reserved");
+                    return StockReservationResponse.builder().sku(sku).quantity(quantity).build();
+                }
+            }
+            // Less than a lease left in MongoDB: what the escrow holds plus exactly the rest
+            long held = escrow.drain();
+            if (held > 0) {
+                if (decrement(sku, quantity - (int) held) != null) {
+                    count(ESCROW, "reserved");
+                    return StockReservationResponse.builder().sku(sku).quantity(quantity).build();
+                }
+                if (!escrow.add(held)) {
+                    returnUnits(sku, held);
+                }
+            }
+        }
+        return reserveDirect(sku, quantity, ESCROW);
+    }
+
+    private StockReservationResponse reserveDirect(String sku, int quantity, String path) {
+        Product product = decrement(sku, quantity);
+        if (product == null) {
+            if (!mongoTemplate.exists(Query.query(Criteria.where("variants.sku").is(sku)), Product.class)) {
+                productExistenceService.recordMissingSku(sku);
+                throw new ProductNotFoundException("Product not found for SKU: " + sku);
+            }
+            count(path, "insufficient");
+            throw new InsufficientStockException("Insufficient stock for SKU: " + sku + " (requested " + quantity + ")");
+        }
+        count(path, "reserved");
+        return response(sku, quantity, product);
+    }
+
+    private long returnUnits(String sku, long units) {
+        if (units <= 0) {
+            return 0;
+        }
+        // Stock is an int32 field; an int64 $inc would change its BSON type
+        if (increment(sku, Math.toIntExact(units)) == null) {
+            log.warn("Could not return {} escrowed units of SKU {}: the SKU no longer exists", units, sku);
+            return 0;
+        }
+        returns.increment(units);
+        return units;
+    }
+
+    /**
+     * Takes quantity from the variant only if it has at least that much; null when it has not (or does not exist)
+     */
+    private Product decrement(String sku, int quantity) {
+        Query query = Query.query(Criteria.where("variants")
+                .elemMatch(Criteria.where("sku").is(sku).and("stock").gte(quantity)));
+        return modifyStock(query, sku, -quantity);
+    }
+
+    private Product increment(String sku, int quantity) {
+        return modifyStock(Query.query(Criteria.where("variants.sku").is(sku)), sku, quantity);
+    }
+
+    private Product modifyStock(Query query, String sku, int delta) {
+        query.fields().include("productId").include("variants.sku").include("variants.stock");
+        Update update = new Update()
+                .inc("variants.$[v].stock", delta)
+                .set("updatedAt", Instant.now())
+                .filterArray(Criteria.where("v.sku").is(sku));
+        Product product = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+        if (product != null) {
+            // Cached products and variants carry the stock
+            productCacheInvalidationService.evict(product);
+        }
+        return product;
+    }
+
+    private StockReservationResponse response(String sku, int quantity, Product product) {
+        Integer remaining = product.getVariants().stream()
+                .filter(variant -> sku.equals(variant.getSku()))
+                .map(Variant::getStock)
+                .findFirst()
+                .orElse(null);
+        return StockReservationResponse.builder().sku(sku).quantity(quantity).remainingStock(remaining).build();
+    }
+
+    private void count(String path, String result) {
+        meterRegistry.counter("product.stock.reservations", "path", path, "result", result).increment();
+    }
+}
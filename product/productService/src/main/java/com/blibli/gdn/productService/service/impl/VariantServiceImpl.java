@@ -1,10 +1,14 @@
 package com.blibli.gdn.productService.service.impl;
 
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
 import com.blibli.gdn.productService.exception.ProductNotFoundException;
 import com.blibli.gdn.productService.model.Product;
 import com.blibli.gdn.productService.model.Variant;
-import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
+import com.blibli.gdn.productService.service.ProductExistenceService;
 import com.blibli.gdn.productService.service.VariantService;
+import com.blibli.gdn.productService.util.RequestDeadline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -17,13 +21,16 @@ import java.util.Optional;
 @Slf4j
 public class VariantServiceImpl implements VariantService {
 
-    private final ProductRepository productRepository;
+    private final ProductProjectionReader productProjectionReader;
+    private final ProductExistenceService productExistenceService;
+    private final ProductKeyIndex productKeyIndex;
 
     @Override
-    @Cacheable(value = "variants", key = "#sku")
+    @Cacheable(value = CacheConfig.VARIANTS, key = "#sku")
     public Variant findBySku(String sku) {
         log.info("Looking up variant with SKU: {}", sku);
-        Optional<Product> productOpt = productRepository.findByVariantsSku(sku);
+        RequestDeadline.checkRemaining("variant-lookup");
+        Optional<Product> productOpt = findBySkuIfKnown(sku);
 
         if (productOpt.isPresent()) {
             log.info("Product found for SKU: {}. Product ID: {}", sku, productOpt.get().getProductId());
@@ -41,10 +48,23 @@ public class VariantServiceImpl implements VariantService {
     }
 
     @Override
-    @Cacheable(value = "productsBySku", key = "#sku")
+    @Cacheable(value = CacheConfig.PRODUCTS_BY_SKU, key = "#sku")
     public Product findProductBySku(String sku) {
         log.info("Looking up product with variant SKU: {}", sku);
-        return productRepository.findByVariantsSku(sku)
+        RequestDeadline.checkRemaining("sku-lookup");
+        return findBySkuIfKnown(sku)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found for SKU: " + sku));
     }
+
+    private Optional<Product> findBySkuIfKnown(String sku) {
+        if (!productExistenceService.mightExistSku(sku)) {
+            return Optional.empty();
+        }
+        Optional<Product> productOpt = productProjectionReader.findFirstByVariantsSku(sku);
+        if (productOpt.isEmpty()) {
+            productExistenceService.recordMissingSku(sku);
+        }
+        productOpt.ifPresent(productKeyIndex::record);
+        return productOpt;
+    }
 }
@@ -0,0 +1,296 @@
+package com.blibli.gdn.productService.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Read-only catalog of SKUs (MongoDB id, productId, name, price, stock and updatedAt per SKU) in one memory-mapped file,
+ * with an open-addressing hash index in the same file. Lookups read the mapping directly: opening a snapshot
+ * parses nothing, none of it lives on the Java heap, and the OS pages it in on first access. Safe for concurrent
+ * lookups.
+ *
+ * <p>Layout, big-endian: a header, the records, then the index of {@code slots} 8-byte slots (SKU hash, file
+ * offset of the record; 0 is empty). A record is updatedAt millis, price (NaN when absent), stock
+ * ({@code Integer.MIN_VALUE} when absent), then sku, id, productId and name as an int length (-1 for null) and
+ * UTF-8 bytes.
+ * Snapshots are written to a temporary file and moved into place, so a reader never maps a partial one.
+ * A mapping is limited to 2 GB.
+ */
+public final class CatalogSnapshot {
+
+    public static final int FORMAT_VERSION = 2;
+
+    // "SKUS"
+    private static final int MAGIC = 0x534B5553;
+
+    // magic, format version, createdAt, entries, slots, index offset
+    private static final int HEADER_SIZE = 32;
+
+    private static final int SLOT_SIZE = 8;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int NO_STOCK = Integer.MIN_VALUE;
+
+    public record Entry(String sku, String id, String productId, String name, Double price, Integer stock,
+                        Instant updatedAt) {
+    }
+
+    private final MappedByteBuffer buffer;
+    private final Instant createdAt;
+    private final int entries;
+    private final int slots;
+    private final int indexOffset;
+
+    private CatalogSnapshot(MappedByteBuffer buffer, Instant createdAt, int entries, int slots, int indexOffset) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.entries = entries;
+        this.slots = slots;
+        this.indexOffset = indexOffset;
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            int formatVersion = buffer.getInt(4);
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported catalog snapshot format " + formatVersion + ": " + path);
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong(8));
+            int entries = buffer.getInt(16);
+            int slots = buffer.getInt(20);
+            long indexOffset = buffer.getLong(24);
+            if (Integer.bitCount(slots) != 1 || slots <= entries || indexOffset + (long) slots * SLOT_SIZE != size) {
+                throw new IOException("Truncated or corrupt catalog snapshot: " + path);
+            }
+            return new CatalogSnapshot(buffer, createdAt, entries, slots, (int) indexOffset);
+        }
+    }
+
+    /**
+     * When the catalog was read from MongoDB; later changes are not in the snapshot
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * The entry for the SKU, or null. Should a SKU have been in several products, the latest updated wins.
+     */
+    public Entry find(String sku) {
+        byte[] key = sku.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(sku);
+        int mask = slots - 1;
+        Entry found = null;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int position = indexOffset + slot * SLOT_SIZE;
+            int offset = buffer.getInt(position + 4);
+            if (offset == 0) {
+                return found;
+            }
+            if (buffer.getInt(position) == hash && skuEquals(offset, key)) {
+                Entry entry = read(offset);
+                if (found == null || isNewer(entry, found)) {
+                    found = entry;
+                }
+            }
+        }
+    }
+
+    private boolean skuEquals(int offset, byte[] key) {
+        int position = offset + 8 + 8 + 4;
+        if (buffer.getInt(position) != key.length) {
+            return false;
+        }
+        position += 4;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(position + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry read(int offset) {
+        long updatedAt = buffer.getLong(offset);
+        double price = buffer.getDouble(offset + 8);
+        int stock = buffer.getInt(offset + 16);
+        int position = offset + 20;
+        String sku = readString(position);
+        position += 4 + Math.max(0, buffer.getInt(position));
+        String id = readString(position);
+        position += 4 + Math.max(0, buffer.getInt(position));
+        String productId = readString(position);
+        position += 4 + Math.max(0, buffer.getInt(position));
+        String name = readString(position);
+        return new Entry(sku, id, productId, name,
+                Double.isNaN(price) ? null : price,
+                stock == NO_STOCK ? null : stock,
+                updatedAt == NO_TIMESTAMP ? null : Instant.ofEpochMilli(updatedAt));
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNewer(Entry entry, Entry than) {
+        return than.updatedAt() == null || (entry.updatedAt() != null && entry.updatedAt().isAfter(than.updatedAt()));
+    }
+
+    // String.hashCode is specified, so a snapshot can be read by any JVM
+    private static int hash(String sku) {
+        int h = sku.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Streams records to disk as they are added; only a hash and an offset per SKU are kept until
+     * {@link #commit} writes the index. Closing without committing discards the file.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final DataOutputStream out;
+
+        private long position = HEADER_SIZE;
+        private int count;
+        private int[] hashes = new int[1024];
+        private int[] offsets = new int[1024];
+        private boolean committed;
+
+        public Writer(Path target) throws IOException {
+            this.target = target.toAbsolutePath();
+            Files.createDirectories(this.target.getParent());
+            this.temp = Files.createTempFile(this.target.getParent(), this.target.getFileName().toString(), ".tmp");
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            channel.position(HEADER_SIZE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        }
+
+        public void add(Entry entry) throws IOException {
+            byte[] sku = entry.sku().getBytes(StandardCharsets.UTF_8);
+            byte[] id = entry.id() != null ? entry.id().getBytes(StandardCharsets.UTF_8) : null;
+            byte[] productId = entry.productId() != null ? entry.productId().getBytes(StandardCharsets.UTF_8) : null;
+            byte[] name = entry.name() != null ? entry.name().getBytes(StandardCharsets.UTF_8) : null;
+            long size = 8 + 8 + 4 + 16L + sku.length + length(id) + length(productId) + length(name);
+            if (position + size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot exceeds 2 GB");
+            }
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            hashes[count] = hash(entry.sku());
+            offsets[count] = (int) position;
+            count++;
+
+            out.writeLong(entry.updatedAt() != null ? entry.updatedAt().toEpochMilli() : NO_TIMESTAMP);
+            out.writeDouble(entry.price() != null ? entry.price() : Double.NaN);
+            out.writeInt(entry.stock() != null ? entry.stock() : NO_STOCK);
+            writeBytes(sku);
+            writeBytes(id);
+            writeBytes(productId);
+            writeBytes(name);
+            position += size;
+        }
+
+        /**
+         * Writes the index and header and moves the file into place
+         */
+        public CatalogSnapshot commit(Instant createdAt) throws IOException {
+            // At most half full, so probe sequences stay short and always end at an empty slot
+            int slots = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+            if (position + (long) slots * SLOT_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot exceeds 2 GB");
+            }
+            int[] index = new int[slots * 2];
+            int mask = slots - 1;
+            for (int i = 0; i < count; i++) {
+                int slot = hashes[i] & mask;
+                while (index[slot * 2 + 1] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot * 2] = hashes[i];
+                index[slot * 2 + 1] = offsets[i];
+            }
+            for (int value : index) {
+                out.writeInt(value);
+            }
+            out.flush();
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(FORMAT_VERSION)
+                        .putLong(createdAt.toEpochMilli())
+                        .putInt(count)
+                        .putInt(slots)
+                        .putLong(position)
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            out.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            return open(target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            if (bytes == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static int length(byte[] bytes) {
+            return bytes != null ? bytes.length : 0;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.blibli.gdn.productService.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index for ranked text search without Elasticsearch.
+ * <p>
+ * Documents get dense int ordinals; every term maps to a postings list of ordinals (int[]) with a parallel
+ * byte[] of the fields the term occurs in. Updates append a new ordinal and tombstone the old one, so
+ * postings stay sorted without rewriting; tombstones are dropped when the index is rebuilt.
+ * <p>
+ * Query semantics follow the Elasticsearch search: the query is split on whitespace and {@code *}, every
+ * term must occur in the document, and a term matches any indexed word containing it ({@code ?} matches one
+ * character). Exact words score higher than prefixes, prefixes higher than infixes, and rarer words higher.
+ * Reads are concurrent; writes take a short exclusive lock.
+ */
+public final class InvertedIndex {
+
+    public enum Order { RELEVANCE, SORT_KEY_ASC, SORT_KEY_DESC }
+
+    public record Result(List<String> keys, long total) {
+    }
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern QUERY_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}?]+");
+
+    private static final float EXACT_BOOST = 1.0f;
+    private static final float PREFIX_BOOST = 0.7f;
+    private static final float INFIX_BOOST = 0.4f;
+
+    private final float[] fieldWeights;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<String, Integer> ordinalsByKey = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private String[] keys = new String[1024];
+    private String[] filterValues = new String[1024];
+    private String[] sortKeys = new String[1024];
+    private int nextOrdinal;
+
+    /**
+     * @param fieldWeights score weight of each indexed field, in the order texts are passed to {@link #put}
+     */
+    public InvertedIndex(float... fieldWeights) {
+        if (fieldWeights.length == 0 || fieldWeights.length > 8) {
+            throw new IllegalArgumentException("Between 1 and 8 fields are supported");
+        }
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    /**
+     * Indexes or replaces a document.
+     *
+     * @param filterValue exact-match filter value (e.g. category), may be null
+     * @param sortKey     value for {@link Order#SORT_KEY_ASC}/{@link Order#SORT_KEY_DESC}, may be null
+     * @param fieldTexts  one text per field, may contain nulls
+     */
+    public void put(String key, String filterValue, String sortKey, String... fieldTexts) {
+        Map<String, Integer> fieldMasks = new LinkedHashMap<>();
+        for (int field = 0; field < fieldTexts.length && field < fieldWeights.length; field++) {
+            for (String token : tokenize(fieldTexts[field])) {
+                fieldMasks.merge(token, 1 << field, (a, b) -> a | b);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int ordinal = nextOrdinal++;
+            if (ordinal == keys.length) {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                filterValues = Arrays.copyOf(filterValues, capacity);
+                sortKeys = Arrays.copyOf(sortKeys, capacity);
+            }
+            keys[ordinal] = key;
+            filterValues[ordinal] = filterValue;
+            sortKeys[ordinal] = sortKey != null ? sortKey.toLowerCase(Locale.ROOT) : null;
+            ordinalsByKey.put(key, ordinal);
+            fieldMasks.forEach((term, mask) -> terms.computeIfAbsent(term, t -> new Postings()).add(ordinal, mask));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by postings and per-document arrays, excluding term and key strings.
+     */
+    public long postingsBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) keys.length * 3 * Integer.BYTES;
+            for (Postings postings : terms.values()) {
+                bytes += postings.ordinals.length * (long) (Integer.BYTES + 1);
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(String query, String filterValue, Order order, int offset, int limit) {
+        List<String> queryTerms = queryTerms(query);
+
+        lock.readLock().lock();
+        try {
+            int documents = nextOrdinal;
+            BitSet matches = new BitSet(documents);
+            matches.set(0, documents);
+            matches.andNot(deleted);
+            float[] scores = new float[documents];
+
+            for (String queryTerm : queryTerms) {
+                BitSet termMatches = new BitSet(documents);
+                float[] termScores = new float[documents];
+                scoreTerm(queryTerm, termMatches, termScores);
+                matches.and(termMatches);
+                for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                    scores[ordinal] += termScores[ordinal];
+                }
+                if (matches.isEmpty()) {
+                    return new Result(List.of(), 0);
+                }
+            }
+            if (filterValue != null) {
+                for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                    if (!filterValue.equals(filterValues[ordinal])) {
+                        matches.clear(ordinal);
+                    }
+                }
+            }
+
+            Integer[] ranked = matches.stream().boxed().toArray(Integer[]::new);
+            Arrays.sort(ranked, comparator(order, scores));
+
+            int from = Math.min(Math.max(offset, 0), ranked.length);
+            int to = Math.min(from + Math.max(limit, 0), ranked.length);
+            List<String> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(keys[ranked[i]]);
+            }
+            return new Result(page, ranked.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> queryTerms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        List<String> queryTerms = new ArrayList<>();
+        for (String term : QUERY_SEPARATOR.split(query.toLowerCase(Locale.ROOT))) {
+            // A bare "?" would match every word
+            if (!term.isEmpty() && !term.chars().allMatch(c -> c == '?')) {
+                queryTerms.add(term);
+            }
+        }
+        return queryTerms;
+    }
+
+    /**
+     * Scans the term dictionary for words containing the query term; the dictionary is far smaller than the
+     * postings, and this keeps the "contains" semantics users already rely on.
+     */
+    private void scoreTerm(String queryTerm, BitSet termMatches, float[] termScores) {
+        Pattern wildcard = queryTerm.indexOf('?') >= 0
+                ? Pattern.compile(Pattern.quote(queryTerm).replace("?", "\\E.\\Q"))
+                : null;
+        int liveDocuments = Math.max(1, ordinalsByKey.size());
+
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            float boost;
+            if (wildcard != null) {
+                var matcher = wildcard.matcher(term);
+                if (!matcher.find()) {
+                    continue;
+                }
+                boost = matcher.start() == 0 ? (matcher.end() == term.length() ? EXACT_BOOST : PREFIX_BOOST) : INFIX_BOOST;
+            } else if (term.equals(queryTerm)) {
+                boost = EXACT_BOOST;
+            } else if (term.startsWith(queryTerm)) {
+                boost = PREFIX_BOOST;
+            } else if (term.contains(queryTerm)) {
+                boost = INFIX_BOOST;
+            } else {
+                continue;
+            }
+
+            Postings postings = entry.getValue();
+            float idf = (float) Math.log(1 + (double) liveDocuments / postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int ordinal = postings.ordinals[i];
+                // A document matching the term through several words keeps its best match
+                termScores[ordinal] = Math.max(termScores[ordinal], boost * idf * fieldWeight(postings.fieldMasks[i]));
+                termMatches.set(ordinal);
+            }
+        }
+    }
+
+    private float fieldWeight(byte mask) {
+        float best = 0;
+        for (int field = 0; field < fieldWeights.length; field++) {
+            if ((mask & (1 << field)) != 0) {
+                best = Math.max(best, fieldWeights[field]);
+            }
+        }
+        return best;
+    }
+
+    private Comparator<Integer> comparator(Order order, float[] scores) {
+        Comparator<Integer> bySortKey = Comparator.comparing(ordinal -> sortKeys[ordinal],
+                Comparator.nullsLast(Comparator.<String>naturalOrder()));
+        Comparator<Integer> byKey = Comparator.comparing(ordinal -> keys[ordinal]);
+        return switch (order) {
+            case SORT_KEY_ASC -> bySortKey.thenComparing(byKey);
+            case SORT_KEY_DESC -> bySortKey.reversed().thenComparing(byKey);
+            case RELEVANCE -> Comparator.<Integer>comparingDouble(ordinal -> scores[ordinal]).reversed()
+                    .thenComparing(byKey);
+        };
+    }
+
+    private boolean removeLocked(String key) {
+        Integer ordinal = ordinalsByKey.remove(key);
+        if (ordinal == null) {
+            return false;
+        }
+        deleted.set(ordinal);
+        return true;
+    }
+
+    private static final class Postings {
+
+        private int[] ordinals = new int[2];
+        private byte[] fieldMasks = new byte[2];
+        private int size;
+
+        // Ordinals are assigned in increasing order, so appending keeps the list sorted
+        private void add(int ordinal, int fieldMask) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                fieldMasks = Arrays.copyOf(fieldMasks, size * 2);
+            }
+            ordinals[size] = ordinal;
+            fieldMasks[size] = (byte) fieldMask;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.blibli.gdn.productService.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable prefix trie mapping normalized keys to display suggestions, for typeahead.
+ * <p>
+ * Nodes keep their children in sorted parallel arrays. Every node whose subtree holds more than
+ * {@code collectThreshold} suggestions also keeps its best {@code maxSuggestions}, so short prefixes are
+ * answered without walking their (large) subtree and no lookup ever collects more than the threshold.
+ * Build with {@link #builder(int, int)}; concurrent reads are safe.
+ */
+public final class PrefixTrie {
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingInt(Suggestion::weight).reversed()
+            .thenComparingInt(suggestion -> suggestion.text().length())
+            .thenComparing(Suggestion::text);
+
+    private final Node root;
+    private final int size;
+
+    private PrefixTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static Builder builder(int maxSuggestions, int collectThreshold) {
+        return new Builder(maxSuggestions, collectThreshold);
+    }
+
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The text and each suffix of it starting at a word, so typing any word of a name finds it:
+     * "Apple iPhone 15" -> ["Apple iPhone 15", "iPhone 15", "15"].
+     */
+    public static List<String> wordSuffixes(String text) {
+        String[] words = text.trim().split("\\s+");
+        List<String> suffixes = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                suffixes.add(String.join(" ", Arrays.asList(words).subList(i, words.length)));
+            }
+        }
+        return suffixes;
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        List<Suggestion> ranked;
+        if (node.top != null) {
+            ranked = Arrays.asList(node.top);
+        } else {
+            ranked = new ArrayList<>();
+            collect(node, ranked);
+            ranked.sort(RANKING);
+        }
+
+        List<String> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Suggestion suggestion : ranked) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (!result.contains(suggestion.text())) {
+                result.add(suggestion.text());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static void collect(Node node, List<Suggestion> out) {
+        if (node.values != null) {
+            out.addAll(Arrays.asList(node.values));
+        }
+        for (Node child : node.children) {
+            collect(child, out);
+        }
+    }
+
+    private record Suggestion(String text, int weight) {
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion[] values;
+        private Suggestion[] top;
+
+        // Only used while building
+        private Map<String, Integer> pending;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    public static final class Builder {
+
+        private final int maxSuggestions;
+        private final int collectThreshold;
+        private final Node root = new Node();
+        private int size;
+        private boolean built;
+
+        private Builder(int maxSuggestions, int collectThreshold) {
+            this.maxSuggestions = maxSuggestions;
+            this.collectThreshold = Math.max(collectThreshold, maxSuggestions);
+        }
+
+        /**
+         * Adds a suggestion reachable by prefixes of {@code key}. Adding the same suggestion under the same
+         * key again increases its weight, e.g. a brand shared by several products.
+         */
+        public Builder add(String key, String suggestion, int weight) {
+            if (built) {
+                throw new IllegalStateException("PrefixTrie already built");
+            }
+            if (key == null || suggestion == null) {
+                return this;
+            }
+            String normalized = normalize(key);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            Node node = root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.childOrCreate(normalized.charAt(i));
+            }
+            if (node.pending == null) {
+                node.pending = new HashMap<>(2);
+                size++;
+            }
+            node.pending.merge(suggestion.trim(), weight, Integer::sum);
+            return this;
+        }
+
+        public PrefixTrie build() {
+            built = true;
+            finish(root);
+            return new PrefixTrie(root, size);
+        }
+
+        /**
+         * Bottom-up: converts pending values and gives every node whose subtree holds more than
+         * collectThreshold suggestions a precomputed top list. Returns the subtree's suggestion count.
+         */
+        private int finish(Node node) {
+            int count = 0;
+            if (node.pending != null) {
+                node.values = node.pending.entrySet().stream()
+                        .map(entry -> new Suggestion(entry.getKey(), entry.getValue()))
+                        .toArray(Suggestion[]::new);
+                node.pending = null;
+                count += node.values.length;
+            }
+            for (Node child : node.children) {
+                count += finish(child);
+            }
+            if (count > collectThreshold) {
+                node.top = topOf(node);
+            }
+            return count;
+        }
+
+        private Suggestion[] topOf(Node node) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (node.values != null) {
+                candidates.addAll(Arrays.asList(node.values));
+            }
+            for (Node child : node.children) {
+                if (child.top != null) {
+                    candidates.addAll(Arrays.asList(child.top));
+                } else {
+                    collect(child, candidates);
+                }
+            }
+            candidates.sort(RANKING);
+
+            // Distinct texts only: a name reachable through several keys takes one slot
+            List<Suggestion> top = new ArrayList<>(maxSuggestions);
+            List<String> seen = new ArrayList<>(maxSuggestions);
+            for (Suggestion candidate : candidates) {
+                if (seen.size() == maxSuggestions) {
+                    break;
+                }
+                if (!seen.contains(candidate.text())) {
+                    seen.add(candidate.text());
+                    top.add(candidate);
+                }
+            }
+            return top.toArray(Suggestion[]::new);
+        }
+    }
+}
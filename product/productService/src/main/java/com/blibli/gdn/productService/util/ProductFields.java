@@ -0,0 +1,110 @@
+package com.blibli.gdn.productService.util;
+
+import com.blibli.gdn.productService.exception.InvalidFieldsException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A sparse fieldset from a {@code fields=} parameter, e.g. {@code name,variants.sku,variants.price}.
+ * "variants" selects every variant field. productId is always included, since callers key results by it.
+ * The same set drives the MongoDB projection, the Elasticsearch _source filter and the response mapping.
+ */
+public final class ProductFields {
+
+    public static final ProductFields ALL = new ProductFields(null);
+
+    private static final String VARIANTS = "variants";
+    private static final String VARIANT_PREFIX = VARIANTS + ".";
+
+    private static final List<String> PRODUCT_FIELDS = List.of(
+            "id", "productId", "name", "description", "category", "brand", "tags", VARIANTS, "createdAt", "updatedAt");
+    private static final List<String> VARIANT_FIELDS = List.of("sku", "size", "color", "price", "stock");
+
+    // Product fields, plus "variants.x" for selected variant fields; null selects everything
+    private final Set<String> fields;
+
+    private ProductFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Blank selects all fields; an unknown field name is rejected
+     */
+    public static ProductFields parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return ALL;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("productId");
+        for (String part : spec.split(",")) {
+            String field = part.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (field.equals(VARIANTS)) {
+                VARIANT_FIELDS.forEach(variantField -> fields.add(VARIANT_PREFIX + variantField));
+            } else if (field.startsWith(VARIANT_PREFIX) && VARIANT_FIELDS.contains(field.substring(VARIANT_PREFIX.length()))) {
+                fields.add(field);
+            } else if (PRODUCT_FIELDS.contains(field)) {
+                fields.add(field);
+            } else {
+                throw new InvalidFieldsException("Unknown field: " + field + ". Allowed: " + allowed());
+            }
+        }
+        return new ProductFields(fields);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        if (fields == null) {
+            return true;
+        }
+        if (field.equals(VARIANTS)) {
+            return fields.stream().anyMatch(selected -> selected.startsWith(VARIANT_PREFIX));
+        }
+        return fields.contains(field);
+    }
+
+    public boolean includesVariant(String field) {
+        return fields == null || fields.contains(VARIANT_PREFIX + field);
+    }
+
+    /**
+     * Paths for a MongoDB projection; _id is returned by MongoDB unless excluded
+     */
+    public List<String> mongoFields() {
+        return fields.stream()
+                .filter(field -> !field.equals("id"))
+                .toList();
+    }
+
+    /**
+     * Paths for an Elasticsearch _source filter. mongoId is always fetched, since a hit without it is
+     * hydrated from MongoDB.
+     */
+    public String[] sourceFields() {
+        Set<String> source = new LinkedHashSet<>();
+        source.add("mongoId");
+        fields.stream()
+                .filter(field -> !field.equals("id"))
+                .forEach(source::add);
+        return source.toArray(String[]::new);
+    }
+
+    private static String allowed() {
+        List<String> allowed = new ArrayList<>(PRODUCT_FIELDS);
+        VARIANT_FIELDS.forEach(field -> allowed.add(VARIANT_PREFIX + field));
+        return String.join(", ", allowed);
+    }
+
+    @Override
+    public String toString() {
+        return fields == null ? "*" : String.join(",", fields);
+    }
+}
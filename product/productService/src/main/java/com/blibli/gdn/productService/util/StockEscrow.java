@@ -0,0 +1,119 @@
+package com.blibli.gdn.productService.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Units of one SKU already taken out of MongoDB and held by this instance, split over striped counters so
+ * concurrent reservations rarely CAS the same slot. {@link #tryTake} is lock-free and never goes below zero;
+ * {@link #tryTakePooled} covers quantities no single stripe holds.
+ * Units are only added while holding the escrow's monitor and only before {@link #close()}, so a closed and
+ * drained escrow can never receive units that would then be lost.
+ */
+public class StockEscrow {
+
+    // Stripes 64 bytes apart so they do not share a cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray counts;
+
+    private final int stripes;
+
+    private boolean closed;
+
+    private boolean refilled;
+
+    public StockEscrow(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        this.stripes = stripes;
+        this.counts = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * Takes quantity units from a single stripe, starting at startStripe and moving on when a stripe has too few
+     */
+    public boolean tryTake(int quantity, int startStripe) {
+        for (int i = 0; i < stripes; i++) {
+            int index = Math.floorMod(startStripe + i, stripes) * PADDING;
+            long available = counts.get(index);
+            while (available >= quantity) {
+                if (counts.compareAndSet(index, available, available - quantity)) {
+                    return true;
+                }
+                available = counts.get(index);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes quantity units out of all stripes together and spreads the rest over them again; when they hold fewer
+     * than quantity, takes nothing. Units taken by a concurrent {@link #tryTake} are not counted, so none are lost.
+     */
+    public synchronized boolean tryTakePooled(int quantity) {
+        long pooled = drain();
+        boolean taken = pooled >= quantity;
+        spread(taken ? pooled - quantity : pooled);
+        return taken;
+    }
+
+    /**
+     * Spreads units over all stripes. Returns false without adding anything once closed; the caller must
+     * then return the units to MongoDB itself.
+     */
+    public synchronized boolean add(long units) {
+        if (closed) {
+            return false;
+        }
+        spread(units);
+        refilled = true;
+        return true;
+    }
+
+    /**
+     * Empties every stripe and returns how many units were held
+     */
+    public long drain() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += counts.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    private void spread(long units) {
+        long share = units / stripes;
+        for (int i = 0; i < stripes; i++) {
+            long stripeUnits = share + (i < units % stripes ? 1 : 0);
+            if (stripeUnits > 0) {
+                counts.addAndGet(i * PADDING, stripeUnits);
+            }
+        }
+    }
+
+    public long held() {
+        long held = 0;
+        for (int i = 0; i < stripes; i++) {
+            held += counts.get(i * PADDING);
+        }
+        return held;
+    }
+
+    /**
+     * Whether units were added since the previous call
+     */
+    public synchronized boolean refilledSinceLastCheck() {
+        boolean result = refilled;
+        refilled = false;
+        return result;
+    }
+
+    public synchronized void close() {
+        closed = true;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+}
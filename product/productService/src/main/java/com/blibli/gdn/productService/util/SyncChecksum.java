@@ -0,0 +1,45 @@
+package com.blibli.gdn.productService.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Checksums that MongoDB and Elasticsearch can be compared by without reading whole documents.
+ * Every product falls into one of {@link #BUCKETS} buckets by its productId, and the checksum of a bucket is the
+ * sum of the version hashes of its products, so it is order independent and changes when any product in the bucket
+ * is added, removed or modified.
+ */
+public final class SyncChecksum {
+
+    // Stored in every indexed document; changing it needs a full reindex
+    public static final int BUCKETS = 1024;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SyncChecksum() {
+    }
+
+    public static int bucket(String productId) {
+        return (int) Math.floorMod(fnv1a(productId), (long) BUCKETS);
+    }
+
+    /**
+     * Non-negative 31-bit hash of one product version. Summed per bucket in a long (and as a double by
+     * Elasticsearch, exact below 2^53), so a bucket may hold up to 2^22 products.
+     */
+    public static long hash(String productId, Instant updatedAt, String mongoId) {
+        long millis = updatedAt != null ? updatedAt.toEpochMilli() : 0;
+        long hash = fnv1a(productId + '|' + millis + '|' + mongoId);
+        return (hash ^ (hash >>> 32)) & 0x7fffffffL;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : String.valueOf(value).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
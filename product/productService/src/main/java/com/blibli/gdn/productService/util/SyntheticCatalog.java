@@ -0,0 +1,113 @@
+package com.blibli.gdn.productService.util;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.github.javafaker.Faker;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic products. Product i depends only on the seed and i: the random source is reseeded per
+ * product, so a catalog comes out the same whatever the number of threads or how the range is split between them.
+ * Not thread-safe (Faker is not); use one instance per thread.
+ */
+public class SyntheticCatalog {
+
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+
+    private final Spec spec;
+    private final Random random = new Random();
+    private final Faker faker = new Faker(random);
+
+    // Cumulative category probabilities, Zipf-distributed by spec.categorySkew
+    private final double[] categoryCdf;
+
+    /**
+     * @param categorySkew Zipf exponent over the categories in order: 0 is uniform, 1 gives the first category
+     *                     about as many products as the next few together
+     */
+    public record Spec(long seed, String idPrefix, int minVariants, int maxVariants, double categorySkew,
+                       List<String> categories) {
+
+        public Spec {
+            if (minVariants < 1 || maxVariants < minVariants) {
+                throw new IllegalArgumentException("Need 1 <= minVariants <= maxVariants");
+            }
+            if (categorySkew < 0) {
+                throw new IllegalArgumentException("categorySkew must not be negative");
+            }
+            if (categories == null || categories.isEmpty()) {
+                throw new IllegalArgumentException("At least one category is required");
+            }
+            categories = List.copyOf(categories);
+        }
+    }
+
+    public SyntheticCatalog(Spec spec) {
+        this.spec = spec;
+        this.categoryCdf = zipfCdf(spec.categories().size(), spec.categorySkew());
+    }
+
+    public Product product(long index) {
+        random.setSeed(mix(spec.seed(), index));
+        String productId = spec.idPrefix() + String.format("%07d", index);
+
+        int variantCount = spec.minVariants() + random.nextInt(spec.maxVariants() - spec.minVariants() + 1);
+        double basePrice = 1 + random.nextDouble() * 999;
+        List<Variant> variants = new ArrayList<>(variantCount);
+        for (int v = 0; v < variantCount; v++) {
+            variants.add(Variant.builder()
+                    .sku(productId + "-" + String.format("%05d", v))
+                    .size(SIZES[random.nextInt(SIZES.length)])
+                    .color(faker.color().name())
+                    .price(Math.round(basePrice * (0.9 + random.nextDouble() * 0.2) * 100) / 100.0)
+                    .stock(random.nextInt(100) + 1)
+                    .build());
+        }
+
+        Instant now = Instant.now();
+        return Product.builder()
+                .productId(productId)
+                .name(faker.commerce().productName())
+                .description(faker.lorem().sentence())
+                .category(spec.categories().get(category(random.nextDouble())))
+                .brand(faker.company().name())
+                .tags(Collections.singletonList(faker.commerce().material()))
+                .variants(variants)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private int category(double uniform) {
+        int index = Arrays.binarySearch(categoryCdf, uniform);
+        int category = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(category, categoryCdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int categories, double skew) {
+        double[] cdf = new double[categories];
+        double total = 0;
+        for (int k = 0; k < categories; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < categories; k++) {
+            cdf[k] /= total;
+        }
+        return cdf;
+    }
+
+    // SplitMix64 finalizer, so neighbouring indexes get unrelated seeds
+    private static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,32 +1,56 @@
 package com.blibli.gdn.productService.controller;
 
+import com.blibli.gdn.productService.dto.GdnResponseData;
 import com.blibli.gdn.productService.dto.request.ProductRequest;
+import com.blibli.gdn.productService.dto.request.ProductSearchRequest;
+import com.blibli.gdn.productService.dto.request.ProductVariantsPatchRequest;
+import com.blibli.gdn.productService.dto.request.VariantPatchRequest;
 import com.blibli.gdn.productService.dto.request.VariantRequest;
+import com.blibli.gdn.productService.dto.response.ProductImportSummary;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.ProductSearchResponse;
 import com.blibli.gdn.productService.dto.response.VariantResponse;
+import com.blibli.gdn.productService.mapper.ProductJsonWriter;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.blibli.gdn.productService.service.ProductImportService;
+import com.blibli.gdn.productService.service.ProductPatchService;
 import com.blibli.gdn.productService.service.ProductSearchService;
 import com.blibli.gdn.productService.service.ProductService;
+import com.blibli.gdn.productService.service.ProductSuggestService;
+import com.blibli.gdn.productService.util.ProductFields;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ProductController.class)
+@Import(ProductJsonWriter.class)
 @TestPropertySource(properties = {
     "spring.data.elasticsearch.repositories.enabled=false"
 })
@@ -41,9 +65,20 @@ class ProductControllerTest {
     @MockBean
     private ProductSearchService productSearchService;
 
+    @MockBean
+    private ProductSuggestService productSuggestService;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ProductPatchService productPatchService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final Instant UPDATED_AT = Instant.parse("2025-03-01T10:15:30.250Z");
+
     private ProductResponse productResponse;
     private ProductRequest productRequest;
 
@@ -131,6 +166,100 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(true));
     }
 
+    @Test
+    void getProduct_BodyIsTheSerializedEnvelope() throws Exception {
+        when(productService.getProduct("P001")).thenReturn(productResponse);
+        String expected = objectMapper.writeValueAsString(GdnResponseData.<ProductResponse>builder()
+                .data(productResponse)
+                .message("Product retrieved successfully")
+                .status(200)
+                .success(true)
+                .build());
+
+        mockMvc.perform(get("/api/v1/products/P001"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    void getProduct_ReturnsETagAndLastModified() throws Exception {
+        ProductVersion version = ProductVersion.builder().id("mongo-id-1").updatedAt(UPDATED_AT).build();
+        when(productService.getProductVersion("P001")).thenReturn(version);
+        when(productService.getProduct("P001")).thenReturn(productResponse);
+
+        mockMvc.perform(get("/api/v1/products/P001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", version.eTag(ProductFields.ALL)))
+                .andExpect(header().dateValue("Last-Modified", UPDATED_AT.toEpochMilli()))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$.data.productId").value("P001"));
+    }
+
+    @Test
+    void getProduct_IfNoneMatchCurrent_NotModifiedWithoutLoadingProduct() throws Exception {
+        ProductVersion version = ProductVersion.builder().id("mongo-id-1").updatedAt(UPDATED_AT).build();
+        when(productService.getProductVersion("P001")).thenReturn(version);
+
+        mockMvc.perform(get("/api/v1/products/P001").header("If-None-Match", version.eTag(ProductFields.ALL)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", version.eTag(ProductFields.ALL)))
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProduct(anyString());
+    }
+
+    @Test
+    void getProduct_IfNoneMatchStaleOrOtherFieldset_ReturnsBody() throws Exception {
+        ProductVersion version = ProductVersion.builder().id("mongo-id-1").updatedAt(UPDATED_AT).build();
+        when(productService.getProductVersion("P001")).thenReturn(version);
+        when(productService.getProduct("P001")).thenReturn(productResponse);
+        String sparseTag = version.eTag(ProductFields.parse("name"));
+
+        mockMvc.perform(get("/api/v1/products/P001").header("If-None-Match", sparseTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.name").value("Test Product"));
+    }
+
+    @Test
+    void getProduct_IfModifiedSinceNotOlder_NotModified() throws Exception {
+        when(productService.getProductVersion("P001"))
+                .thenReturn(ProductVersion.builder().id("mongo-id-1").updatedAt(UPDATED_AT).build());
+
+        mockMvc.perform(get("/api/v1/products/P001")
+                        .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                                UPDATED_AT.plusSeconds(60).atZone(ZoneOffset.UTC))))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getProduct(anyString());
+    }
+
+    @Test
+    void getProduct_WithFields_ReturnsSparseResponse() throws Exception {
+        ProductResponse sparse = ProductResponse.builder()
+                .productId("P001")
+                .name("Test Product")
+                .variants(List.of(VariantResponse.builder().sku("P001-BLACK-001").price(100.0).build()))
+                .build();
+        when(productService.getProduct(eq("P001"), any(ProductFields.class))).thenReturn(sparse);
+
+        mockMvc.perform(get("/api/v1/products/P001").param("fields", "name,variants.sku,variants.price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.name").value("Test Product"))
+                .andExpect(jsonPath("$.data.variants[0].price").value(100.0))
+                .andExpect(jsonPath("$.data.description").doesNotExist())
+                .andExpect(jsonPath("$.data.variants[0].stock").doesNotExist());
+    }
+
+    @Test
+    void getProduct_WithUnknownField_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products/P001").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Unknown field: secret")));
+
+        verifyNoInteractions(productService);
+    }
+
     @Test
     void updateProduct_WithAdminRole_Success() throws Exception {
         ProductResponse updatedResponse = ProductResponse.builder()
@@ -192,6 +321,56 @@ class ProductControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void patchVariants_WithAdminRole_ReturnsChangedVariants() throws Exception {
+        ProductResponse patched = ProductResponse.builder()
+                .id("mongo-id-1")
+                .productId("P001")
+                .updatedAt(UPDATED_AT)
+                .variants(List.of(VariantResponse.builder().sku("P001-BLACK-001").price(89.0).stock(4).build()))
+                .build();
+        when(productPatchService.patchVariants(eq("P001"), anyList())).thenReturn(patched);
+        ProductVariantsPatchRequest patchRequest = ProductVariantsPatchRequest.builder()
+                .variants(List.of(VariantPatchRequest.builder().sku("P001-BLACK-001").price(89.0).build()))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/products/P001/variants")
+                .header("X-User-Role", "ROLE_ADMIN")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.variants[0].price").value(89.0))
+                .andExpect(jsonPath("$.data.name").doesNotExist());
+    }
+
+    @Test
+    void patchVariants_NegativeStock_BadRequest() throws Exception {
+        ProductVariantsPatchRequest patchRequest = ProductVariantsPatchRequest.builder()
+                .variants(List.of(VariantPatchRequest.builder().sku("P001-BLACK-001").stock(-1).build()))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/products/P001/variants")
+                .header("X-User-Role", "ROLE_ADMIN")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchRequest)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productPatchService);
+    }
+
+    @Test
+    void patchVariants_WithoutAdminRole_Forbidden() throws Exception {
+        ProductVariantsPatchRequest patchRequest = ProductVariantsPatchRequest.builder()
+                .variants(List.of(VariantPatchRequest.builder().sku("P001-BLACK-001").stock(3).build()))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/products/P001/variants")
+                .header("X-User-Role", "ROLE_USER")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchRequest)))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(productPatchService);
+    }
+
     @Test
     void deleteProduct_WithAdminRole_Success() throws Exception {
         mockMvc.perform(delete("/api/v1/products/mongo-id-1")
@@ -210,8 +389,8 @@ class ProductControllerTest {
 
     @Test
     void searchProducts_WithElasticsearch() throws Exception {
-        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse));
-        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString()))
+        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse), PageRequest.of(0, 20), 1);
+        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString(), any(ProductFields.class)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/api/v1/products")
@@ -227,8 +406,8 @@ class ProductControllerTest {
 
     @Test
     void searchProducts_WithWildcard() throws Exception {
-        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse));
-        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString()))
+        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse), PageRequest.of(0, 20), 1);
+        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString(), any(ProductFields.class)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/api/v1/products")
@@ -241,15 +420,21 @@ class ProductControllerTest {
 
     @Test
     void searchProductsPost_WithElasticsearch_Success() throws Exception {
-        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse));
-        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString()))
-                .thenReturn(page);
+        ProductSearchResponse searchResponse = ProductSearchResponse.builder()
+                .content(Collections.singletonList(productResponse))
+                .totalElements(1)
+                .totalPages(1)
+                .size(20)
+                .build();
+        when(productSearchService.search(any(ProductSearchRequest.class))).thenReturn(searchResponse);
 
         mockMvc.perform(post("/api/v1/products/search")
                 .param("name", "Test")
                 .param("page", "0")
                 .param("size", "20")
-                .param("sort", "price,asc"))
+                .param("sort", "price,asc")
+                .param("minPrice", "50")
+                .param("maxPrice", "150"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.content[0].name").value("Test Product"))
                 .andExpect(jsonPath("$.message").value("Products retrieved successfully"))
@@ -261,14 +446,58 @@ class ProductControllerTest {
         // When Elasticsearch is not available, productSearchService would be null
         // and the controller returns 503. Since we're using @MockBean, it's always available
         // in tests, so we test the normal flow
-        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse));
-        when(productSearchService.searchProducts(anyString(), any(), any(Pageable.class), anyString()))
-                .thenReturn(page);
+        ProductSearchResponse searchResponse = ProductSearchResponse.builder()
+                .content(Collections.singletonList(productResponse))
+                .totalElements(1)
+                .totalPages(1)
+                .size(20)
+                .build();
+        when(productSearchService.search(any(ProductSearchRequest.class))).thenReturn(searchResponse);
 
         mockMvc.perform(post("/api/v1/products/search")
                 .param("name", "Test"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.content[0].name").value("Test Product"));
     }
-}
 
+    @Test
+    void suggestProducts_Success() throws Exception {
+        when(productSuggestService.suggest("tes", 5)).thenReturn(List.of("Test Product", "Test Brand"));
+
+        mockMvc.perform(get("/api/v1/products/suggest")
+                .param("prefix", "tes")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0]").value("Test Product"))
+                .andExpect(jsonPath("$.data[1]").value("Test Brand"))
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void importProducts_WithAdminRole_StreamsNdjsonResults() throws Exception {
+        when(productImportService.importProducts(any(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class)
+                    .write("{\"line\":1,\"productId\":\"P001\",\"status\":\"CREATED\"}\n".getBytes());
+            return ProductImportSummary.builder().summary(true).total(1).created(1).build();
+        });
+
+        mockMvc.perform(post("/api/v1/products/import")
+                .header("X-User-Role", "ROLE_ADMIN")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(productRequest) + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"status\":\"CREATED\"")));
+    }
+
+    @Test
+    void importProducts_WithoutAdminRole_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/v1/products/import")
+                .header("X-User-Role", "ROLE_USER")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(productRequest)))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(productImportService);
+    }
+}
@@ -0,0 +1,122 @@
+package com.blibli.gdn.productService.integration;
+
+import com.blibli.gdn.productService.exception.InsufficientStockException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many buyers reserving one hot SKU against a real MongoDB, with and without the escrow.
+ * Opt-in: ./mvnw test -Dtest=StockReservationContentionBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class StockReservationContentionBenchmark {
+
+    private static final String SKU = "BENCH-HOT-001";
+    private static final int INITIAL_STOCK = 20_000;
+    private static final int BUYERS = 64;
+    private static final int RESERVATIONS_PER_BUYER = 500;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().getCollection("products").drop();
+        mongoTemplate.save(Product.builder()
+                .productId("BENCH-HOT")
+                .name("Flash Sale Item")
+                .category("Benchmark")
+                .variants(List.of(Variant.builder().sku(SKU).size("M").color("Black").price(10.0)
+                        .stock(INITIAL_STOCK).build()))
+                .build());
+    }
+
+    @Test
+    void direct() throws Exception {
+        run("direct", false);
+    }
+
+    @Test
+    void escrow() throws Exception {
+        run("escrow", true);
+    }
+
+    private void run(String mode, boolean escrowEnabled) throws Exception {
+        Object target = AopTestUtils.getTargetObject(stockReservationService);
+        ReflectionTestUtils.setField(target, "escrowEnabled", escrowEnabled);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        long elapsedNanos;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < BUYERS; t++) {
+                futures.add(buyers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < RESERVATIONS_PER_BUYER; i++) {
+                        try {
+                            stockReservationService.reserve(SKU, 1);
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            elapsedNanos = System.nanoTime() - started;
+        } finally {
+            buyers.shutdownNow();
+            ReflectionTestUtils.setField(target, "escrowEnabled", false);
+        }
+        // Twice: the first returns what is held, the second drops the now idle escrow
+        stockReservationService.flushEscrow();
+        stockReservationService.flushEscrow();
+
+        Product product = mongoTemplate.findOne(Query.query(Criteria.where("variants.sku").is(SKU)), Product.class);
+        int remaining = product.getVariants().get(0).getStock();
+        double perSecond = reserved.get() / (elapsedNanos / 1_000_000_000.0);
+        log.info("{}: {} reserved, {} rejected, {} reservations/s, {} left in MongoDB",
+                mode, reserved.get(), rejected.get(), Math.round(perSecond), remaining);
+
+        assertEquals(BUYERS * RESERVATIONS_PER_BUYER, reserved.get() + rejected.get());
+        assertTrue(reserved.get() <= INITIAL_STOCK);
+        assertEquals(INITIAL_STOCK - reserved.get(), remaining);
+    }
+}
@@ -0,0 +1,125 @@
+package com.blibli.gdn.productService.mapper;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.dto.GdnResponseData;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.dto.response.VariantResponse;
+import com.blibli.gdn.productService.model.ProductVersion;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonWriterTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2025-03-01T10:15:30.250Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ConcurrentMapCacheManager cacheManager;
+    private ProductJsonWriter productJsonWriter;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCT_JSON);
+        productJsonWriter = new ProductJsonWriter(objectMapper);
+        ReflectionTestUtils.setField(productJsonWriter, "cacheManager", cacheManager);
+    }
+
+    private ProductResponse product(Instant updatedAt, String name) {
+        return ProductResponse.builder()
+                .id("mongo-id-1")
+                .productId("P001")
+                .name(name)
+                .updatedAt(updatedAt)
+                .variants(List.of(VariantResponse.builder().sku("P001-BLACK-001").price(100.0).stock(10).build()))
+                .build();
+    }
+
+    private ProductVersion version(Instant updatedAt) {
+        return ProductVersion.builder().id("mongo-id-1").updatedAt(updatedAt).build();
+    }
+
+    @Test
+    void product_SameVersion_ServedFromCacheWithoutLoading() {
+        AtomicInteger loads = new AtomicInteger();
+
+        SerializedString first = productJsonWriter.product("P001", version(UPDATED_AT), () -> {
+            loads.incrementAndGet();
+            return product(UPDATED_AT, "Test Product");
+        });
+        SerializedString second = productJsonWriter.product("P001", version(UPDATED_AT), () -> {
+            loads.incrementAndGet();
+            return product(UPDATED_AT, "Test Product");
+        });
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+    }
+
+    @Test
+    void product_NewerVersion_Reloaded() {
+        productJsonWriter.product("P001", version(UPDATED_AT), () -> product(UPDATED_AT, "Old Name"));
+        Instant later = UPDATED_AT.plusSeconds(1);
+
+        SerializedString json = productJsonWriter.product("P001", version(later), () -> product(later, "New Name"));
+
+        assertTrue(json.getValue().contains("New Name"));
+    }
+
+    @Test
+    void product_LoadedOlderThanVersion_NotCached() {
+        Instant later = UPDATED_AT.plusSeconds(1);
+        productJsonWriter.product("P001", version(later), () -> product(UPDATED_AT, "Old Name"));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_JSON).get("P001"));
+    }
+
+    @Test
+    void fragment_OlderSearchHit_DoesNotReplaceNewerEntry() {
+        Instant later = UPDATED_AT.plusSeconds(1);
+        productJsonWriter.product("P001", version(later), () -> product(later, "New Name"));
+
+        Object stale = productJsonWriter.fragment(product(UPDATED_AT, "Old Name"));
+        SerializedString cached = productJsonWriter.product("P001", version(later), () -> fail("should be cached"));
+
+        assertInstanceOf(RawValue.class, stale);
+        assertTrue(((RawValue) stale).rawValue().toString().contains("Old Name"));
+        assertTrue(cached.getValue().contains("New Name"));
+    }
+
+    @Test
+    void fragment_WithoutVersion_ReturnedAsIs() {
+        ProductResponse product = product(null, "Test Product");
+
+        assertSame(product, productJsonWriter.fragment(product));
+    }
+
+    @Test
+    void envelope_SameBytesAsSerializedResponse() throws Exception {
+        ProductResponse product = product(UPDATED_AT, "Café \"Special\"");
+        String expected = objectMapper.writeValueAsString(GdnResponseData.<ProductResponse>builder()
+                .data(product)
+                .message("Product retrieved successfully")
+                .status(200)
+                .success(true)
+                .build());
+
+        byte[] body = productJsonWriter.envelope(productJsonWriter.serialize(product), "Product retrieved successfully");
+
+        assertEquals(expected, new String(body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package com.blibli.gdn.productService.repository;
+
+import com.blibli.gdn.productService.model.Product;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductKeysetReaderTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductKeysetReader productKeysetReader;
+
+    private Product product(String id) {
+        return Product.builder().id(id).productId("P-" + id).build();
+    }
+
+    @Test
+    void readAll_SmallCollection_PagesOneRangeByLastId() throws Exception {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(3L);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(List.of(product("a"), product("b")))
+                .thenReturn(List.of(product("c")));
+        List<List<Product>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        long read = productKeysetReader.readAll(4, 2, batches::add);
+
+        assertEquals(3, read);
+        assertEquals(2, batches.size());
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Product.class));
+        assertTrue(queries.getAllValues().get(0).getQueryObject().isEmpty());
+        assertEquals(new Document("$gt", "b"), queries.getAllValues().get(1).getQueryObject().get("_id"));
+        assertEquals(2, queries.getAllValues().get(1).getLimit());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Product.class), eq(Document.class));
+    }
+
+    @Test
+    void splitPoints_LargeCollection_UsesSampledQuantiles() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(1_000_000L);
+        List<Document> sampled = IntStream.range(0, 80)
+                .mapToObj(i -> new Document("_id", new ObjectId(String.format("%024x", i))))
+                .toList();
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(sampled, new Document()));
+
+        List<String> boundaries = productKeysetReader.splitPoints(4, 1000);
+
+        assertEquals(List.of(String.format("%024x", 20), String.format("%024x", 40), String.format("%024x", 60)),
+                boundaries);
+    }
+
+    @Test
+    void readRange_BoundedRange_QueriesFromInclusiveToExclusive() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+
+        long read = productKeysetReader.readRange("a", "m", 100, batch -> fail("no batches expected"));
+
+        assertEquals(0, read);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        assertEquals(new Document("$gte", "a").append("$lt", "m"), query.getValue().getQueryObject().get("_id"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.blibli.gdn.productService.repository;
+
+import com.blibli.gdn.productService.exception.DeadlineExceededException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.blibli.gdn.productService.util.RequestDeadline;
+import com.mongodb.MongoExecutionTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductProjectionReaderTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductProjectionReader productProjectionReader;
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void findByVariantsSkuIn_WithDeadline_LimitsQueryToRemainingBudget() {
+        RequestDeadline.start(500);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+
+        productProjectionReader.findByVariantsSkuIn(List.of("P001-M"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        Long maxTime = query.getValue().getMeta().getMaxTimeMsec();
+        assertNotNull(maxTime);
+        assertTrue(maxTime > 0 && maxTime <= 500);
+    }
+
+    @Test
+    void findFirstByProductId_WithoutDeadline_NoMaxTime() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenReturn(null);
+
+        assertTrue(productProjectionReader.findFirstByProductId("P001", ProductFields.ALL).isEmpty());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Product.class));
+        assertNull(query.getValue().getMeta().getMaxTimeMsec());
+    }
+
+    @Test
+    void findFirstByVariantsSku_ServerTimesOut_DeadlineExceeded() {
+        RequestDeadline.start(50);
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenThrow(new UncategorizedMongoDbException(
+                "operation exceeded time limit", mock(MongoExecutionTimeoutException.class)));
+
+        assertThrows(DeadlineExceededException.class, () -> productProjectionReader.findFirstByVariantsSku("P001-M"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.CatalogGenerationSummary;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.impl.CatalogGeneratorServiceImpl;
+import com.blibli.gdn.productService.service.impl.DirectIndexingServiceImpl;
+import com.blibli.gdn.productService.util.SyntheticCatalog;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogGeneratorServiceTest {
+
+    private static final SyntheticCatalog.Spec SPEC = new SyntheticCatalog.Spec(
+            7, "GEN-", 1, 4, 1.2, List.of("Electronics", "Fashion", "Home", "Books"));
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @Mock
+    private ProductSuggestService productSuggestService;
+
+    @Mock
+    private ProductIndexingService productIndexingService;
+
+    private CatalogGeneratorServiceImpl catalogGeneratorService;
+
+    // Every product handed to an unordered bulk insert, from any worker thread
+    private final List<Product> inserted = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        DirectIndexingServiceImpl directIndexingService = new DirectIndexingServiceImpl(productExistenceService);
+        ReflectionTestUtils.setField(directIndexingService, "productIndexingService", productIndexingService);
+        catalogGeneratorService = new CatalogGeneratorServiceImpl(mongoTemplate, productExistenceService,
+                productSuggestService, directIndexingService);
+        ReflectionTestUtils.setField(catalogGeneratorService, "threads", 4);
+        ReflectionTestUtils.setField(catalogGeneratorService, "batchSize", 100);
+        lenient().when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class)))
+                .thenAnswer(invocation -> bulk(Set.of()));
+    }
+
+    // A bulk that records the products of each insert, or reports a duplicate key for the given productIds
+    @SuppressWarnings("unchecked")
+    private BulkOperations bulk(Set<String> duplicates) {
+        List<Product> batch = new ArrayList<>();
+        return mock(BulkOperations.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "insert" -> {
+                batch.addAll((List<Product>) invocation.getArgument(0));
+                yield invocation.getMock();
+            }
+            case "execute" -> {
+                List<BulkWriteError> errors = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (duplicates.contains(batch.get(i).getProductId())) {
+                        errors.add(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), i));
+                    } else {
+                        inserted.add(batch.get(i));
+                    }
+                }
+                if (!errors.isEmpty()) {
+                    throw new BulkOperationException("Bulk write failed", new MongoBulkWriteException(
+                            BulkWriteResult.unacknowledged(), errors, null, new ServerAddress(), Set.of()));
+                }
+                yield BulkWriteResult.unacknowledged();
+            }
+            default -> null;
+        });
+    }
+
+    @Test
+    void generate_InsertsAndIndexesEveryBatch() {
+        CatalogGenerationSummary summary = catalogGeneratorService.generate(SPEC, 0, 1050);
+
+        assertEquals(1050, summary.getInserted());
+        assertEquals(0, summary.getFailed());
+        assertEquals(1050, inserted.stream().map(Product::getProductId).distinct().count());
+        assertTrue(inserted.stream().allMatch(product -> product.getId() != null));
+        assertTrue(inserted.stream().allMatch(product ->
+                product.getVariants().size() >= 1 && product.getVariants().size() <= 4));
+        verify(mongoTemplate, times(11)).bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        verify(productIndexingService, times(11)).indexBatch(anyList(), eq(List.of()));
+        verify(productExistenceService).rebuild();
+        verify(productSuggestService).rebuild();
+    }
+
+    @Test
+    void generate_SameSeed_SameCatalogWhateverTheThreadCount() {
+        catalogGeneratorService.generate(SPEC, 0, 300);
+        Map<String, Product> first = byProductId();
+        inserted.clear();
+        ReflectionTestUtils.setField(catalogGeneratorService, "threads", 1);
+        ReflectionTestUtils.setField(catalogGeneratorService, "batchSize", 7);
+
+        catalogGeneratorService.generate(SPEC, 0, 300);
+
+        Map<String, Product> second = byProductId();
+        assertEquals(first.keySet(), second.keySet());
+        first.forEach((productId, product) -> {
+            Product other = second.get(productId);
+            assertEquals(product.getName(), other.getName());
+            assertEquals(product.getCategory(), other.getCategory());
+            assertEquals(product.getVariants(), other.getVariants());
+        });
+    }
+
+    @Test
+    void generate_CategorySkew_FirstCategoryMostCommon() {
+        catalogGeneratorService.generate(SPEC, 0, 2000);
+
+        Map<String, Long> perCategory = inserted.stream()
+                .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting()));
+        String mostCommon = perCategory.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElseThrow();
+        assertEquals("Electronics", mostCommon);
+        assertTrue(perCategory.get("Electronics") > 2 * perCategory.get("Books"));
+    }
+
+    @Test
+    void generate_ExistingProductIds_CountedAsFailed_RestOfBatchInserted() {
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class)))
+                .thenAnswer(invocation -> bulk(Set.of("GEN-0000003", "GEN-0000150")));
+
+        CatalogGenerationSummary summary = catalogGeneratorService.generate(SPEC, 0, 200);
+
+        assertEquals(198, summary.getInserted());
+        assertEquals(2, summary.getFailed());
+        assertTrue(inserted.stream().noneMatch(product -> product.getProductId().equals("GEN-0000003")));
+        verify(productExistenceService, times(198)).register(any(Product.class));
+    }
+
+    @Test
+    void generate_FailedBulkWrite_BatchCountedAsFailed_RunContinues() {
+        ReflectionTestUtils.setField(catalogGeneratorService, "threads", 1);
+        AtomicInteger bulks = new AtomicInteger();
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class)))
+                .thenAnswer(invocation -> {
+                    if (bulks.getAndIncrement() > 0) {
+                        return bulk(Set.of());
+                    }
+                    BulkOperations failing = mock(BulkOperations.class);
+                    when(failing.execute()).thenThrow(new DataAccessResourceFailureException("connection reset"));
+                    return failing;
+                });
+
+        CatalogGenerationSummary summary = catalogGeneratorService.generate(SPEC, 0, 300);
+
+        assertEquals(200, summary.getInserted());
+        assertEquals(100, summary.getFailed());
+        verify(productExistenceService, times(200)).register(any(Product.class));
+        verify(productIndexingService, times(2)).indexBatch(anyList(), eq(List.of()));
+    }
+
+    @Test
+    void generate_StartIndex_ContinuesTheCatalog() {
+        catalogGeneratorService.generate(SPEC, 500, 10);
+
+        List<String> productIds = inserted.stream()
+                .map(Product::getProductId)
+                .sorted(Comparator.naturalOrder())
+                .toList();
+        assertEquals("GEN-0000500", productIds.get(0));
+        assertEquals("GEN-0000509", productIds.get(9));
+    }
+
+    private Map<String, Product> byProductId() {
+        return inserted.stream().collect(Collectors.toMap(Product::getProductId, Function.identity()));
+    }
+}
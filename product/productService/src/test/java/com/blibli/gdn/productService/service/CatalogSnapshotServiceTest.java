@@ -0,0 +1,256 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.dto.response.SkuSummaryResponse;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.impl.CatalogSnapshotServiceImpl;
+import com.blibli.gdn.productService.util.CatalogSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2025-03-01T10:15:30.250Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private VariantService variantService;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @TempDir
+    private Path tempDir;
+
+    private Path file;
+    private ProductCacheExpiry productCacheExpiry;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("catalog.snapshot");
+        productCacheExpiry = new ProductCacheExpiry(Duration.ofMinutes(30), Duration.ofSeconds(5));
+        productCacheExpiry.setCoordinated(true);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(productExistenceService.mightExistSku(anyString())).thenReturn(true);
+    }
+
+    private CatalogSnapshotServiceImpl service() {
+        CatalogSnapshotServiceImpl service = new CatalogSnapshotServiceImpl(mongoTemplate, variantService,
+                productExistenceService, productCacheExpiry, meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "path", file.toString());
+        ReflectionTestUtils.setField(service, "writeIntervalMs", 300_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private Product product(String productId, String name, Variant... variants) {
+        return Product.builder()
+                .id("mongo-" + productId)
+                .productId(productId)
+                .name(name)
+                .updatedAt(UPDATED_AT)
+                .variants(List.of(variants))
+                .build();
+    }
+
+    private Variant variant(String sku, double price, int stock) {
+        return Variant.builder().sku(sku).price(price).stock(stock).build();
+    }
+
+    private CatalogSnapshotServiceImpl writtenService(Product... products) {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(products));
+        CatalogSnapshotServiceImpl service = service();
+        service.refresh();
+        return service;
+    }
+
+    @Test
+    void refresh_NoSnapshot_WritesAndServesWithoutMongo() {
+        CatalogSnapshotServiceImpl service = writtenService(
+                product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10), variant("P001-WHITE-001", 90.0, 0)),
+                product("P002", "Other Product", variant("P002-RED-001", 5.5, 3)));
+
+        SkuSummaryResponse summary = service.getSkuSummary("P001-WHITE-001");
+
+        assertTrue(Files.exists(file));
+        assertEquals("P001", summary.getProductId());
+        assertEquals("Test Product", summary.getName());
+        assertEquals(90.0, summary.getPrice());
+        assertEquals(0, summary.getStock());
+        assertEquals(UPDATED_AT, summary.getUpdatedAt());
+        verifyNoInteractions(variantService);
+        assertEquals(1.0, meterRegistry.get("product.snapshot.lookups").tag("source", "snapshot").counter().count());
+    }
+
+    @Test
+    void getSkuSummary_NotInSnapshot_ReadFromMongo() {
+        CatalogSnapshotServiceImpl service = writtenService(product("P001", "Test Product",
+                variant("P001-BLACK-001", 100.0, 10)));
+        when(variantService.findProductBySku("P003-NEW-001"))
+                .thenReturn(product("P003", "New Product", variant("P003-NEW-001", 1.0, 1)));
+
+        assertEquals("P003", service.getSkuSummary("P003-NEW-001").getProductId());
+    }
+
+    @Test
+    void getSkuSummary_UnknownSku_NotFound() {
+        CatalogSnapshotServiceImpl service = writtenService();
+        when(variantService.findProductBySku("NOPE")).thenThrow(new ProductNotFoundException("Product not found"));
+
+        assertThrows(ProductNotFoundException.class, () -> service.getSkuSummary("NOPE"));
+    }
+
+    @Test
+    void startup_MapsSnapshot_ServesOnlyAfterCatchUp() {
+        writtenService(product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10)));
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(
+                product("P001", "Renamed", variant("P001-BLACK-001", 80.0, 10))));
+        when(variantService.findProductBySku("P001-BLACK-001"))
+                .thenReturn(product("P001", "From Mongo", variant("P001-BLACK-001", 100.0, 10)));
+
+        CatalogSnapshotServiceImpl restarted = service();
+        assertEquals("From Mongo", restarted.getSkuSummary("P001-BLACK-001").getName());
+
+        restarted.refresh();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).stream(query.capture(), eq(Product.class));
+        assertTrue(query.getValue().getQueryObject().containsKey("updatedAt"));
+        SkuSummaryResponse summary = restarted.getSkuSummary("P001-BLACK-001");
+        assertEquals("Renamed", summary.getName());
+        assertEquals(80.0, summary.getPrice());
+    }
+
+    @Test
+    void apply_ChangeEvent_ServedFromOverlay_RemovedSkuReadFromMongo() {
+        CatalogSnapshotServiceImpl service = writtenService(product("P001", "Test Product",
+                variant("P001-BLACK-001", 100.0, 10), variant("P001-WHITE-001", 90.0, 5)));
+        when(variantService.findProductBySku("P001-WHITE-001")).thenThrow(new ProductNotFoundException("gone"));
+
+        service.apply(
+                product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10), variant("P001-WHITE-001", 90.0, 5)),
+                product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 7)));
+
+        assertEquals(7, service.getSkuSummary("P001-BLACK-001").getStock());
+        assertThrows(ProductNotFoundException.class, () -> service.getSkuSummary("P001-WHITE-001"));
+    }
+
+    @Test
+    void invalidate_LocalWrite_ReadFromMongoUntilChangeEvent() {
+        CatalogSnapshotServiceImpl service = writtenService(product("P001", "Test Product",
+                variant("P001-BLACK-001", 100.0, 10)));
+        when(variantService.findProductBySku("P001-BLACK-001"))
+                .thenReturn(product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 9)));
+
+        service.invalidate(List.of("P001-BLACK-001"));
+        assertEquals(9, service.getSkuSummary("P001-BLACK-001").getStock());
+
+        service.apply(null, product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 9)));
+        service.getSkuSummary("P001-BLACK-001");
+        verify(variantService, times(1)).findProductBySku("P001-BLACK-001");
+    }
+
+    @Test
+    void invalidateAll_StopsServingUntilRewritten() {
+        CatalogSnapshotServiceImpl service = writtenService(product("P001", "Test Product",
+                variant("P001-BLACK-001", 100.0, 10)));
+        when(variantService.findProductBySku("P001-BLACK-001"))
+                .thenReturn(product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10)));
+
+        service.invalidateAll();
+        service.getSkuSummary("P001-BLACK-001");
+        verify(variantService).findProductBySku("P001-BLACK-001");
+
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(
+                product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10))));
+        service.refresh();
+        service.getSkuSummary("P001-BLACK-001");
+        verifyNoMoreInteractions(variantService);
+    }
+
+    @Test
+    void delete_UnknownSkus_OnlyThatProductReadFromMongoUntilRewritten() {
+        CatalogSnapshotServiceImpl service = writtenService(
+                product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10)),
+                product("P002", "Other Product", variant("P002-RED-001", 5.5, 3)));
+        when(variantService.findProductBySku("P001-BLACK-001")).thenThrow(new ProductNotFoundException("gone"));
+
+        service.delete("mongo-P001");
+        service.refresh();
+
+        assertThrows(ProductNotFoundException.class, () -> service.getSkuSummary("P001-BLACK-001"));
+        assertEquals("P002", service.getSkuSummary("P002-RED-001").getProductId());
+        verify(variantService, never()).findProductBySku("P002-RED-001");
+        // Not due for a rewrite: the first write is the only read of the whole catalog
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void uncoordinated_NothingServedOrWritten() {
+        productCacheExpiry.setCoordinated(false);
+        CatalogSnapshotServiceImpl service = service();
+        when(variantService.findProductBySku("P001-BLACK-001"))
+                .thenReturn(product("P001", "Test Product", variant("P001-BLACK-001", 100.0, 10)));
+
+        service.refresh();
+        service.getSkuSummary("P001-BLACK-001");
+
+        assertFalse(Files.exists(file));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void snapshot_ManySkus_AllFoundThroughTheIndex() throws Exception {
+        List<CatalogSnapshot.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(new CatalogSnapshot.Entry("SKU-" + i, i % 13 == 0 ? null : "mongo-" + (i / 3), "P" + (i / 3),
+                    i % 7 == 0 ? null : "Product " + i,
+                    i % 5 == 0 ? null : i * 1.5, i, i % 11 == 0 ? null : UPDATED_AT.plusSeconds(i)));
+        }
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(file)) {
+            for (CatalogSnapshot.Entry entry : entries) {
+                writer.add(entry);
+            }
+            writer.commit(UPDATED_AT);
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertEquals(5000, snapshot.size());
+        assertEquals(UPDATED_AT, snapshot.createdAt());
+        for (CatalogSnapshot.Entry entry : entries) {
+            assertEquals(entry, snapshot.find(entry.sku()));
+        }
+        assertNull(snapshot.find("SKU-5000"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.impl.LocalSearchIndexServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalSearchIndexServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private LocalSearchIndexServiceImpl localSearchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        localSearchIndexService = new LocalSearchIndexServiceImpl(mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(localSearchIndexService, "enabled", true);
+        ReflectionTestUtils.invokeMethod(localSearchIndexService, "init");
+    }
+
+    private Product product(String productId, String name, String brand, String description, String category) {
+        return Product.builder()
+                .productId(productId)
+                .name(name)
+                .brand(brand)
+                .description(description)
+                .category(category)
+                .build();
+    }
+
+    private void rebuildWith(Product... products) {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(products));
+        localSearchIndexService.rebuild();
+    }
+
+    @Test
+    void isReady_BeforeFirstBuild_False() {
+        assertFalse(localSearchIndexService.isReady());
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveDescriptionMatches() {
+        rebuildWith(
+                product("P001", "Bedside Table", "Ikea", "Goes well with a lamp", "Home"),
+                product("P002", "Small Lamp", "Ikea", "Warm light", "Home"),
+                product("P003", "Desk Lamp Pro", "Acme", "Adjustable", "Office"));
+
+        var result = localSearchIndexService.search("lamp", null, PageRequest.of(0, 10));
+
+        assertTrue(localSearchIndexService.isReady());
+        assertEquals(3, result.getTotalElements());
+        assertEquals("P001", result.getContent().get(2));
+    }
+
+    @Test
+    void search_MultiWordWildcardAndCategory() {
+        rebuildWith(
+                product("P001", "Aerodynamic Leather Bag", "Acme", null, "Bags"),
+                product("P002", "Aerodynamic Steel Bottle", "Acme", null, "Kitchen"),
+                product("P003", "Apple iPhone 15", "Apple", "Smartphone", "Electronics"));
+
+        assertEquals(List.of("P001"), localSearchIndexService.search("Aerodynamic * Bag", null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of("P003"), localSearchIndexService.search("*phone*", null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of("P002"), localSearchIndexService.search("aerodynamic", "Kitchen", PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of("P002", "P001"), localSearchIndexService
+                .search("aero", null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "name"))).getContent());
+    }
+
+    @Test
+    void indexAndRemove_VisibleWithoutRebuild() {
+        rebuildWith(product("P001", "Small Lamp", "Ikea", null, "Home"));
+
+        localSearchIndexService.index(product("P002", "Floor Lamp", "Ikea", null, "Home"));
+        localSearchIndexService.index(product("P001", "Small Table", "Ikea", null, "Home"));
+        localSearchIndexService.remove("P002");
+
+        assertEquals(0, localSearchIndexService.search("lamp", null, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(List.of("P001"), localSearchIndexService.search("table", null, PageRequest.of(0, 10)).getContent());
+    }
+}
@@ -0,0 +1,125 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
+import com.blibli.gdn.productService.dto.response.BatchLookupResponse;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
+import com.blibli.gdn.productService.service.impl.ProductBatchLookupServiceImpl;
+import com.blibli.gdn.productService.util.ProductFields;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchLookupServiceTest {
+
+    @Mock
+    private ProductProjectionReader productProjectionReader;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    private CaffeineCacheManager cacheManager;
+
+    private ProductBatchLookupServiceImpl productBatchLookupService;
+
+    private Product shirt;
+    private Product lamp;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCTS_BY_SKU);
+        productBatchLookupService = new ProductBatchLookupServiceImpl(productProjectionReader, new ProductMapper(),
+                productExistenceService, cacheManager, new ProductKeyIndex(100));
+        lenient().when(productExistenceService.mightExistProductId(anyString())).thenReturn(true);
+        lenient().when(productExistenceService.mightExistSku(anyString())).thenReturn(true);
+
+        shirt = Product.builder().id("m1").productId("P001").name("Shirt")
+                .variants(List.of(
+                        Variant.builder().sku("P001-S").size("S").price(10.0).stock(3).build(),
+                        Variant.builder().sku("P001-M").size("M").price(11.0).stock(0).build()))
+                .build();
+        lamp = Product.builder().id("m2").productId("P002").name("Lamp")
+                .variants(List.of(Variant.builder().sku("P002-1").price(25.0).stock(7).build()))
+                .build();
+    }
+
+    @Test
+    void findByProductIds_OneInQueryForMisses_InRequestOrder_WithNotFoundMarkers() {
+        when(productProjectionReader.findByProductIdIn(List.of("P002", "P404", "P001"), ProductFields.ALL)).thenReturn(List.of(shirt, lamp));
+
+        BatchLookupResponse response = productBatchLookupService.findByProductIds(List.of("P002", "P404", "P001", "P002"));
+
+        assertEquals(3, response.getItems().size());
+        assertEquals("P002", response.getItems().get(0).getKey());
+        assertEquals("Lamp", response.getItems().get(0).getProduct().getName());
+        assertFalse(response.getItems().get(1).isFound());
+        assertNull(response.getItems().get(1).getProduct());
+        assertEquals("Shirt", response.getItems().get(2).getProduct().getName());
+        assertEquals(2, response.getFound());
+        assertEquals(List.of("P404"), response.getNotFound());
+        verify(productProjectionReader, times(1)).findByProductIdIn(anyCollection(), any());
+        verify(productExistenceService).recordMissingProductId("P404");
+    }
+
+    @Test
+    void findByProductIds_CacheHitsSkipMongo_AndKnownMissingKeysAreNotQueried() {
+        when(productProjectionReader.findByProductIdIn(List.of("P001", "P002"), ProductFields.ALL)).thenReturn(List.of(shirt, lamp));
+        productBatchLookupService.findByProductIds(List.of("P001", "P002"));
+        when(productExistenceService.mightExistProductId("UNKNOWN")).thenReturn(false);
+
+        BatchLookupResponse response = productBatchLookupService.findByProductIds(List.of("P001", "UNKNOWN", "P002"));
+
+        assertEquals(2, response.getFound());
+        assertEquals(List.of("UNKNOWN"), response.getNotFound());
+        verify(productProjectionReader, times(1)).findByProductIdIn(anyCollection(), any());
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+    }
+
+    @Test
+    void findBySkus_ReturnsProductAndMatchingVariant_AndCachesBySku() {
+        when(productProjectionReader.findByVariantsSkuIn(List.of("P001-M", "P002-1", "NOPE"))).thenReturn(List.of(shirt, lamp));
+
+        BatchLookupResponse response = productBatchLookupService.findBySkus(List.of("P001-M", "P002-1", "NOPE"));
+
+        assertEquals("P001", response.getItems().get(0).getProduct().getProductId());
+        assertEquals("M", response.getItems().get(0).getVariant().getSize());
+        assertEquals(25.0, response.getItems().get(1).getVariant().getPrice());
+        assertFalse(response.getItems().get(2).isFound());
+        assertEquals(List.of("NOPE"), response.getNotFound());
+        verify(productExistenceService).recordMissingSku("NOPE");
+        // Only the requested SKU of a product is cached
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-M"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-S"));
+
+        productBatchLookupService.findBySkus(List.of("P002-1", "P001-M"));
+        verify(productProjectionReader, times(1)).findByVariantsSkuIn(anyCollection());
+    }
+
+    @Test
+    void findBySkus_WithoutCache_QueriesMongo() {
+        productBatchLookupService = new ProductBatchLookupServiceImpl(productProjectionReader, new ProductMapper(),
+                productExistenceService, new NoOpCacheManager(), new ProductKeyIndex(100));
+        when(productProjectionReader.findByVariantsSkuIn(List.of("P002-1"))).thenReturn(List.of(lamp));
+
+        BatchLookupResponse response = productBatchLookupService.findBySkus(List.of("P002-1"));
+
+        assertEquals(1, response.getFound());
+        assertTrue(response.getNotFound().isEmpty());
+    }
+}
@@ -0,0 +1,253 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.impl.ProductCacheInvalidationServiceImpl;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheInvalidationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    private CaffeineCacheManager cacheManager;
+    private ProductCacheExpiry productCacheExpiry;
+    private ProductKeyIndex productKeyIndex;
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductCacheInvalidationServiceImpl productCacheInvalidationService;
+
+    @BeforeEach
+    void setUp() {
+        productCacheExpiry = new ProductCacheExpiry(Duration.ofMinutes(30), Duration.ofSeconds(5));
+        cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder().expireAfter(productCacheExpiry));
+        cacheManager.setCacheNames(List.of(CacheConfig.PRODUCTS, CacheConfig.VARIANTS, CacheConfig.PRODUCTS_BY_SKU,
+                CacheConfig.PRODUCT_VERSIONS, CacheConfig.PRODUCT_JSON));
+        productKeyIndex = new ProductKeyIndex(100);
+        meterRegistry = new SimpleMeterRegistry();
+        productCacheInvalidationService = new ProductCacheInvalidationServiceImpl(
+                cacheManager, mongoTemplate, productCacheExpiry, productExistenceService, productKeyIndex, meterRegistry);
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "init");
+
+        cacheManager.getCache(CacheConfig.PRODUCTS).put("P001", "product");
+        cacheManager.getCache(CacheConfig.PRODUCTS).put("P002", "other product");
+        cacheManager.getCache(CacheConfig.VARIANTS).put("P001-BLACK-001", "variant");
+        cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).put("P001-BLACK-001", "product");
+        cacheManager.getCache(CacheConfig.PRODUCT_VERSIONS).put("P001", "version");
+        cacheManager.getCache(CacheConfig.PRODUCT_JSON).put("P001", "json");
+    }
+
+    private Product product() {
+        return Product.builder()
+                .id("mongo-id-1")
+                .productId("P001")
+                .variants(Collections.singletonList(Variant.builder().sku("P001-BLACK-001").build()))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<ChangeStreamDocument<Document>, Document> message(OperationType operationType,
+                                                                     Document fullDocument, Document beforeChange) {
+        ChangeStreamDocument<Document> event = mock(ChangeStreamDocument.class);
+        when(event.getOperationType()).thenReturn(operationType);
+        lenient().when(event.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString("mongo-id-1")));
+        lenient().when(event.getFullDocument()).thenReturn(fullDocument);
+        lenient().when(event.getFullDocumentBeforeChange()).thenReturn(beforeChange);
+        Message<ChangeStreamDocument<Document>, Document> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(event);
+        return message;
+    }
+
+    @Test
+    void evict_RemovesProductIdAndSkuKeysOnly() {
+        productCacheInvalidationService.evict(product());
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.VARIANTS).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_VERSIONS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_JSON).get("P001"));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P002"));
+        assertEquals(1.0, meterRegistry.get("product.cache.invalidations").tag("source", "local").counter().count());
+    }
+
+    @Test
+    void evictVariants_KeepsCachedVariantsOfUnchangedSkus() {
+        cacheManager.getCache(CacheConfig.VARIANTS).put("P001-WHITE-001", "other variant");
+        cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).put("P001-WHITE-001", "product");
+        Product product = Product.builder()
+                .productId("P001")
+                .variants(List.of(Variant.builder().sku("P001-BLACK-001").build(),
+                        Variant.builder().sku("P001-WHITE-001").build()))
+                .build();
+
+        productCacheInvalidationService.evictVariants(product, List.of("P001-BLACK-001"));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_VERSIONS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_JSON).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.VARIANTS).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-WHITE-001"));
+        assertNotNull(cacheManager.getCache(CacheConfig.VARIANTS).get("P001-WHITE-001"));
+    }
+
+    @Test
+    void onChange_RemoteUpdate_EvictsAndRegistersProduct() {
+        Document document = new Document("_id", "mongo-id-1");
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(Product.class, document)).thenReturn(product());
+
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.UPDATE, document, null));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P002"));
+        verify(productExistenceService).register(any(Product.class));
+        assertEquals(1.0, meterRegistry.get("product.cache.invalidations")
+                .tag("source", "change-stream").counter().count());
+    }
+
+    @Test
+    void onChange_DeleteWithoutPreImage_EvictsLastKnownKeys() {
+        productKeyIndex.record(product());
+
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.DELETE, null, null));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.VARIANTS).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU).get("P001-BLACK-001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_JSON).get("P001"));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P002"));
+        assertEquals(0.0, meterRegistry.get("product.cache.invalidations").tag("source", "all").counter().count());
+    }
+
+    @Test
+    void onChange_UpdateWithoutPreImage_EvictsOldProductId() {
+        productKeyIndex.record(product());
+        Product renamed = Product.builder()
+                .id("mongo-id-1")
+                .productId("P009")
+                .variants(Collections.singletonList(Variant.builder().sku("P001-BLACK-001").build()))
+                .build();
+        Document document = new Document("_id", "mongo-id-1");
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(Product.class, document)).thenReturn(renamed);
+
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.UPDATE, document, null));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P001"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_VERSIONS).get("P001"));
+    }
+
+    @Test
+    void onChange_DeleteOfUnknownIdWithoutPreImage_ClearsAllCaches() {
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.DELETE, null, null));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P002"));
+        assertNull(cacheManager.getCache(CacheConfig.VARIANTS).get("P001-BLACK-001"));
+        verifyNoInteractions(productExistenceService);
+    }
+
+    @Test
+    void catalogSnapshot_KeptCurrentByLocalWritesAndChangeEvents() {
+        CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+        ReflectionTestUtils.setField(productCacheInvalidationService, "catalogSnapshotService", catalogSnapshotService);
+        Document document = new Document("_id", "mongo-id-1");
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(Product.class, document)).thenReturn(product());
+
+        productCacheInvalidationService.evict(product());
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.UPDATE, document, null));
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.DELETE, null, null));
+
+        verify(catalogSnapshotService).invalidate(List.of("P001-BLACK-001"));
+        verify(catalogSnapshotService).apply(product(), product());
+        verify(catalogSnapshotService).apply(product(), null);
+        verify(catalogSnapshotService, never()).invalidateAll();
+    }
+
+    @Test
+    void catalogSnapshot_DeleteOfUnknownId_MarksIdWithoutRewrite() {
+        CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+        ReflectionTestUtils.setField(productCacheInvalidationService, "catalogSnapshotService", catalogSnapshotService);
+
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onChange",
+                message(OperationType.DELETE, null, null));
+
+        verify(catalogSnapshotService).delete("mongo-id-1");
+        verify(catalogSnapshotService, never()).invalidateAll();
+    }
+
+    @Test
+    void catalogSnapshot_ChangeStreamLost_RewrittenWithCaches() {
+        CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+        ReflectionTestUtils.setField(productCacheInvalidationService, "catalogSnapshotService", catalogSnapshotService);
+        productCacheExpiry.setCoordinated(true);
+
+        ReflectionTestUtils.invokeMethod(productCacheInvalidationService, "onError", new RuntimeException("lost"));
+
+        assertFalse(productCacheExpiry.isCoordinated());
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("P002"));
+        verify(catalogSnapshotService).invalidateAll();
+    }
+
+    @Test
+    void expiry_ShortTtlUntilCoordinated() {
+        assertEquals(Duration.ofSeconds(5).toNanos(), productCacheExpiry.expireAfterCreate("P001", "product", 0));
+
+        productCacheExpiry.setCoordinated(true);
+
+        assertEquals(Duration.ofMinutes(30).toNanos(), productCacheExpiry.expireAfterCreate("P001", "product", 0));
+        assertEquals(42L, productCacheExpiry.expireAfterRead("P001", "product", 0, 42L));
+    }
+
+    @Test
+    void ensureListening_Disabled_StaysUncoordinated() {
+        ReflectionTestUtils.setField(productCacheInvalidationService, "changeStreamEnabled", false);
+
+        productCacheInvalidationService.ensureListening();
+
+        assertFalse(productCacheExpiry.isCoordinated());
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,138 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.config.ProductCacheExpiry;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.impl.ProductExistenceServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExistenceServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCacheExpiry productCacheExpiry;
+
+    private ProductExistenceServiceImpl productExistenceService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCacheExpiry = new ProductCacheExpiry(Duration.ofMinutes(30), Duration.ofSeconds(5));
+        productCacheExpiry.setCoordinated(true);
+        productExistenceService = new ProductExistenceServiceImpl(mongoTemplate, productCacheExpiry, meterRegistry);
+        ReflectionTestUtils.setField(productExistenceService, "enabled", true);
+        ReflectionTestUtils.setField(productExistenceService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(productExistenceService, "minCapacity", 1000L);
+        ReflectionTestUtils.setField(productExistenceService, "negativeCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(productExistenceService, "negativeCacheMaxSize", 1000L);
+        ReflectionTestUtils.invokeMethod(productExistenceService, "init");
+    }
+
+    private Product product(String productId, String sku) {
+        return Product.builder()
+                .productId(productId)
+                .variants(Collections.singletonList(Variant.builder().sku(sku).build()))
+                .build();
+    }
+
+    @Test
+    void mightExist_BeforeFirstBuild_AlwaysTrue() {
+        assertTrue(productExistenceService.mightExistProductId("P001"));
+        assertTrue(productExistenceService.mightExistSku("P001-BLACK-001"));
+    }
+
+    @Test
+    void rebuild_UnknownKeysAreRejected() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(1L);
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(product("P001", "P001-BLACK-001")));
+
+        productExistenceService.rebuild();
+
+        assertTrue(productExistenceService.mightExistProductId("P001"));
+        assertTrue(productExistenceService.mightExistSku("P001-BLACK-001"));
+        assertFalse(productExistenceService.mightExistProductId("P999"));
+        assertFalse(productExistenceService.mightExistSku("P999-RED-001"));
+        assertEquals(1.0, meterRegistry.get("product.lookup.short.circuit")
+                .tags("key", "productId", "source", "bloom-filter").counter().count());
+    }
+
+    @Test
+    void recordMissing_ThenRegister_ClearsNegativeCache() {
+        productExistenceService.recordMissingProductId("P002");
+        productExistenceService.recordMissingSku("P002-RED-001");
+        assertFalse(productExistenceService.mightExistProductId("P002"));
+        assertFalse(productExistenceService.mightExistSku("P002-RED-001"));
+
+        productExistenceService.register(product("P002", "P002-RED-001"));
+
+        assertTrue(productExistenceService.mightExistProductId("P002"));
+        assertTrue(productExistenceService.mightExistSku("P002-RED-001"));
+    }
+
+    @Test
+    void register_AfterRebuild_AddsToFilter() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.empty());
+        productExistenceService.rebuild();
+        assertFalse(productExistenceService.mightExistProductId("P003"));
+
+        productExistenceService.register(product("P003", "P003-BLUE-001"));
+
+        assertTrue(productExistenceService.mightExistProductId("P003"));
+        assertTrue(productExistenceService.mightExistSku("P003-BLUE-001"));
+    }
+
+    @Test
+    void uncoordinated_FallsThroughToMongo() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.empty());
+        productExistenceService.rebuild();
+        productExistenceService.recordMissingSku("P004-RED-001");
+
+        productCacheExpiry.setCoordinated(false);
+
+        assertTrue(productExistenceService.mightExistProductId("P004"));
+        assertTrue(productExistenceService.mightExistSku("P004-RED-001"));
+    }
+
+    @Test
+    void coordinationRestarted_FiltersAndMissesFromBeforeAreNotTrusted() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.empty());
+        productExistenceService.rebuild();
+        productExistenceService.recordMissingSku("P005-RED-001");
+
+        // Products created elsewhere while the change stream was down are not in the filter
+        productCacheExpiry.setCoordinated(false);
+        productCacheExpiry.setCoordinated(true);
+
+        assertTrue(productExistenceService.mightExistProductId("P005"));
+        assertTrue(productExistenceService.mightExistSku("P005-RED-001"));
+
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.empty());
+        productExistenceService.rebuild();
+
+        assertFalse(productExistenceService.mightExistProductId("P005"));
+    }
+}
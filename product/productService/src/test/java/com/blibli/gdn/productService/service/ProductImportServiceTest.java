@@ -0,0 +1,155 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.ProductImportSummary;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.impl.DirectIndexingServiceImpl;
+import com.blibli.gdn.productService.service.impl.ProductImportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @Mock
+    private ProductIndexingService productIndexingService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ProductImportServiceImpl productImportService;
+
+    @BeforeEach
+    void setUp() {
+        DirectIndexingServiceImpl directIndexingService = new DirectIndexingServiceImpl(productExistenceService);
+        ReflectionTestUtils.setField(directIndexingService, "productIndexingService", productIndexingService);
+        productImportService = new ProductImportServiceImpl(mongoTemplate, new ProductMapper(), objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), directIndexingService);
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        lenient().when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+    }
+
+    private String line(String productId) {
+        return "{\"productId\":\"" + productId + "\",\"name\":\"Name " + productId + "\",\"category\":\"Electronics\","
+                + "\"variants\":[{\"sku\":\"" + productId + "-1\",\"price\":10.0,\"stock\":1}]}";
+    }
+
+    private List<JsonNode> run(String... lines) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productImportService.importProducts(
+                new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String result : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(result));
+        }
+        return results;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importProducts_InsertsUnorderedBatches_IndexesEachBatch_AndReportsEveryLine() throws Exception {
+        List<JsonNode> results = run(line("P001"), line("P002"), "", line("P003"));
+
+        verify(mongoTemplate, times(2)).bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(inserted.capture());
+        assertEquals(2, inserted.getAllValues().get(0).size());
+        assertNotNull(inserted.getAllValues().get(0).get(0).getId());
+        assertNotNull(inserted.getAllValues().get(0).get(0).getCreatedAt());
+        verify(productIndexingService, times(2)).indexBatch(anyList(), eq(List.of()));
+        verify(productExistenceService, times(3)).register(any(Product.class));
+
+        assertEquals(4, results.size());
+        assertEquals(1, results.get(0).get("line").asLong());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals(4, results.get(2).get("line").asLong());
+        assertEquals("P003", results.get(2).get("productId").asText());
+        JsonNode summary = results.get(3);
+        assertTrue(summary.get("summary").asBoolean());
+        assertEquals(3, summary.get("total").asLong());
+        assertEquals(3, summary.get("created").asLong());
+        assertEquals(0, summary.get("failed").asLong());
+    }
+
+    @Test
+    void importProducts_ReportsMalformedInvalidDuplicateAndExistingRecords() throws Exception {
+        ReflectionTestUtils.setField(productImportService, "batchSize", 10);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenReturn(List.of(new Document("productId", "P002")));
+
+        List<JsonNode> results = run(
+                "{not json",
+                "{\"productId\":\"P009\",\"category\":\"Electronics\",\"variants\":[]}",
+                line("P001"),
+                line("P001"),
+                line("P002"));
+
+        assertEquals("FAILED", results.get(0).get("status").asText());
+        assertTrue(results.get(0).get("errors").get(0).asText().startsWith("Malformed JSON"));
+        assertEquals(2, results.get(1).get("line").asLong());
+        assertEquals(2, results.get(1).get("errors").size());
+        assertEquals(4, results.get(2).get("line").asLong());
+        assertEquals("Duplicate productId in the same upload", results.get(2).get("errors").get(0).asText());
+        // Batch results follow input order
+        assertEquals("CREATED", results.get(3).get("status").asText());
+        assertEquals(5, results.get(4).get("line").asLong());
+        assertTrue(results.get(4).get("errors").get(0).asText().contains("already exists"));
+
+        ProductImportSummary summary = objectMapper.treeToValue(results.get(5), ProductImportSummary.class);
+        assertEquals(5, summary.getTotal());
+        assertEquals(1, summary.getCreated());
+        assertEquals(4, summary.getFailed());
+    }
+
+    @Test
+    void importProducts_BulkWriteErrorFailsOnlyThatRecord() throws Exception {
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+        when(bulkOperations.execute()).thenThrow(exception);
+
+        List<JsonNode> results = run(line("P001"), line("P002"));
+
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals("FAILED", results.get(1).get("status").asText());
+        assertEquals("E11000 duplicate key error", results.get(1).get("errors").get(0).asText());
+        verify(productIndexingService).indexBatch(argThat(products -> products.size() == 1
+                && "P001".equals(products.get(0).getProductId())), eq(List.of()));
+    }
+}
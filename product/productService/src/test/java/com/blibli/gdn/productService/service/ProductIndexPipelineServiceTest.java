@@ -0,0 +1,138 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.IndexCheckpoint;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.service.impl.ProductIndexPipelineServiceImpl;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexPipelineServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductIndexingService productIndexingService;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductIndexPipelineServiceImpl productIndexPipelineService;
+
+    private final BsonDocument token = new BsonDocument("_data", new BsonString("8263A1"));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productIndexPipelineService = new ProductIndexPipelineServiceImpl(mongoTemplate, productIndexingService, meterRegistry);
+        ReflectionTestUtils.setField(productIndexPipelineService, "batchSize", 500);
+        ReflectionTestUtils.setField(productIndexPipelineService, "leaseTtlMs", 30000L);
+        ReflectionTestUtils.setField(productIndexPipelineService, "maxBackoffMs", 1000L);
+        ReflectionTestUtils.setField(productIndexPipelineService, "running", true);
+        ReflectionTestUtils.invokeMethod(productIndexPipelineService, "init");
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IndexCheckpoint.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamDocument<Document> event(OperationType operationType, Document fullDocument) {
+        ChangeStreamDocument<Document> event = mock(ChangeStreamDocument.class);
+        lenient().when(event.getOperationType()).thenReturn(operationType);
+        lenient().when(event.getFullDocument()).thenReturn(fullDocument);
+        return event;
+    }
+
+    private Boolean flush(Map<String, ChangeStreamDocument<Document>> pending) {
+        return ReflectionTestUtils.invokeMethod(productIndexPipelineService, "flush", pending, token);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_UpsertsAndDeletesInOneBatch_ThenSavesResumeToken() {
+        Document document = new Document("_id", "mongo-id-1");
+        Product product = Product.builder().id("mongo-id-1").productId("P001").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.read(Product.class, document)).thenReturn(product);
+        Map<String, ChangeStreamDocument<Document>> pending = new LinkedHashMap<>();
+        pending.put("mongo-id-1", event(OperationType.UPDATE, document));
+        pending.put("mongo-id-2", event(OperationType.DELETE, null));
+        // Updated, then deleted before the update lookup
+        pending.put("mongo-id-3", event(OperationType.UPDATE, null));
+
+        assertTrue(flush(pending));
+
+        verify(productIndexingService).indexBatch(List.of(product), List.of("mongo-id-2", "mongo-id-3"));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(IndexCheckpoint.class));
+        assertEquals(token.toJson(), update.getValue().getUpdateObject().get("$set", Document.class).get("resumeToken"));
+        assertTrue(pending.isEmpty());
+        assertEquals(1.0, meterRegistry.get("product.index.pipeline.documents").tag("operation", "upsert").counter().count());
+        assertEquals(2.0, meterRegistry.get("product.index.pipeline.documents").tag("operation", "delete").counter().count());
+    }
+
+    @Test
+    void flush_BulkFailure_RetriesBeforeCheckpoint() {
+        Map<String, ChangeStreamDocument<Document>> pending = new LinkedHashMap<>();
+        pending.put("mongo-id-2", event(OperationType.DELETE, null));
+        doThrow(new RuntimeException("es unavailable")).doNothing()
+                .when(productIndexingService).indexBatch(anyList(), anyList());
+
+        assertTrue(flush(pending));
+
+        verify(productIndexingService, times(2)).indexBatch(anyList(), anyList());
+        assertEquals(1.0, meterRegistry.get("product.index.pipeline.failures").counter().count());
+    }
+
+    @Test
+    void flush_LeaseLostWhileRetrying_GivesUpBatch() {
+        Map<String, ChangeStreamDocument<Document>> pending = new LinkedHashMap<>();
+        pending.put("mongo-id-2", event(OperationType.DELETE, null));
+        doThrow(new RuntimeException("es unavailable")).when(productIndexingService).indexBatch(anyList(), anyList());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IndexCheckpoint.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(flush(pending));
+
+        verify(productIndexingService, times(1)).indexBatch(anyList(), anyList());
+    }
+
+    @Test
+    void start_Disabled_DoesNotConsume() {
+        ReflectionTestUtils.setField(productIndexPipelineService, "running", false);
+        ReflectionTestUtils.setField(productIndexPipelineService, "enabled", false);
+
+        productIndexPipelineService.start();
+
+        assertFalse(productIndexPipelineService.isActive());
+        verifyNoInteractions(mongoTemplate);
+    }
+}
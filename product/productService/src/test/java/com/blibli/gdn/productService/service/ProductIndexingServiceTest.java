@@ -1,30 +1,58 @@
 package com.blibli.gdn.productService.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.DeleteIndexRequest;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.ExistsAliasRequest;
+import co.elastic.clients.elasticsearch.indices.GetAliasRequest;
+import co.elastic.clients.elasticsearch.indices.GetAliasResponse;
+import co.elastic.clients.elasticsearch.indices.GetIndexRequest;
+import co.elastic.clients.elasticsearch.indices.GetIndexResponse;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.get_alias.IndexAliases;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
 import com.blibli.gdn.productService.model.Product;
 import com.blibli.gdn.productService.model.ProductDocument;
 import com.blibli.gdn.productService.model.Variant;
 import com.blibli.gdn.productService.model.VariantDocument;
 import com.blibli.gdn.productService.repository.ProductDocumentRepository;
+import com.blibli.gdn.productService.repository.ProductKeysetReader;
 import com.blibli.gdn.productService.repository.ProductRepository;
 import com.blibli.gdn.productService.service.impl.ProductIndexingServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +70,15 @@ class ProductIndexingServiceTest {
     @Mock
     private IndexOperations indexOperations;
 
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ProductKeysetReader productKeysetReader;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
     @InjectMocks
     private ProductIndexingServiceImpl productIndexingService;
 
@@ -99,6 +136,40 @@ class ProductIndexingServiceTest {
         verify(productDocumentRepository, times(1)).save(any(ProductDocument.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateVariants_ScriptedPartialUpdateOfChangedSkusOnly() {
+        product.setVariants(List.of(
+                Variant.builder().sku("P001-BLACK-001").price(89.0).stock(10).build(),
+                Variant.builder().sku("P001-WHITE-001").price(100.0).stock(3).build()));
+
+        productIndexingService.updateVariants(product, List.of("P001-BLACK-001"));
+
+        ArgumentCaptor<UpdateQuery> update = ArgumentCaptor.forClass(UpdateQuery.class);
+        ArgumentCaptor<IndexCoordinates> index = ArgumentCaptor.forClass(IndexCoordinates.class);
+        verify(elasticsearchOperations).update(update.capture(), index.capture());
+        assertEquals(ProductIndexingServiceImpl.INDEX_ALIAS, index.getValue().getIndexName());
+        assertEquals("P001", update.getValue().getId());
+        assertEquals("painless", update.getValue().getLang());
+        assertEquals(ScriptType.INLINE, update.getValue().getScriptType());
+        Map<String, Object> variants = (Map<String, Object>) update.getValue().getParams().get("variants");
+        assertEquals(Map.of("price", 89.0, "stock", 10), variants.get("P001-BLACK-001"));
+        assertFalse(variants.containsKey("P001-WHITE-001"));
+        assertEquals(String.valueOf(product.getUpdatedAt().toEpochMilli()), update.getValue().getParams().get("updatedAt"));
+        verify(productDocumentRepository, never()).save(any(ProductDocument.class));
+    }
+
+    @Test
+    void updateVariants_NotIndexedYet_FallsBackToFullDocument() {
+        when(elasticsearchOperations.update(any(UpdateQuery.class), any(IndexCoordinates.class)))
+                .thenThrow(new RuntimeException("document_missing_exception"));
+        when(productRepository.findById("mongo-id-1")).thenReturn(Optional.of(product));
+
+        productIndexingService.updateVariants(product, List.of("P001-BLACK-001"));
+
+        verify(productDocumentRepository).save(any(ProductDocument.class));
+    }
+
     @Test
     void indexProduct_ErrorHandled() {
         when(productDocumentRepository.save(any(ProductDocument.class)))
@@ -164,38 +235,109 @@ class ProductIndexingServiceTest {
         verify(productDocumentRepository, never()).deleteById(anyString());
     }
 
+    @SuppressWarnings("unchecked")
+    private void stubReindex(long mongoCount, long indexedCount) throws Exception {
+        when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenReturn(indexOperations);
+        when(indexOperations.createMapping(ProductDocument.class)).thenReturn(Document.create());
+        when(productKeysetReader.readAll(anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            Consumer<List<Product>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(product));
+            return 1L;
+        });
+        when(productRepository.count()).thenReturn(mongoCount);
+        lenient().when(elasticsearchOperations.count(any(Query.class), eq(ProductDocument.class), any(IndexCoordinates.class)))
+                .thenReturn(indexedCount);
+        lenient().when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        lenient().when(indicesClient.putSettings(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.existsAlias(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.getAlias(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.updateAliases(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.get(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.delete(any(Function.class))).thenCallRealMethod();
+        lenient().when(indicesClient.existsAlias(any(ExistsAliasRequest.class))).thenReturn(new BooleanResponse(true));
+        lenient().when(indicesClient.getAlias(any(GetAliasRequest.class))).thenReturn(GetAliasResponse.of(r -> r
+                .result(Map.of("products_index_v20260101000000", IndexAliases.of(a -> a.aliases(Map.of()))))));
+        lenient().when(indicesClient.get(any(GetIndexRequest.class))).thenReturn(GetIndexResponse.of(r -> r
+                .result(Map.of(
+                        "products_index_v20250101000000", IndexState.of(i -> i),
+                        "products_index_v20260101000000", IndexState.of(i -> i)))));
+    }
+
     @Test
-    void reindexAllProducts_Success() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findAll(any(org.springframework.data.domain.Pageable.class)))
-                .thenReturn(productPage);
-        when(productDocumentRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
-        when(elasticsearchOperations.indexOps(ProductDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(true);
-        when(indexOperations.delete()).thenReturn(true);
-        when(indexOperations.create()).thenReturn(true);
+    void reindexAllProducts_BuildsNewIndexThenSwapsAlias() throws Exception {
+        stubReindex(1, 1);
+        ReflectionTestUtils.setField(productIndexingService, "refreshInterval", "1s");
+        ReflectionTestUtils.setField(productIndexingService, "retainedIndices", 1);
 
         productIndexingService.reindexAllProducts();
 
-        verify(productRepository, atLeastOnce()).findAll(any(org.springframework.data.domain.Pageable.class));
-        verify(productDocumentRepository, atLeastOnce()).saveAll(anyList());
+        verify(indexOperations).create(anyMap(), any(Document.class));
+        verify(elasticsearchOperations).bulkIndex(anyList(), any(IndexCoordinates.class));
+        ArgumentCaptor<UpdateAliasesRequest> aliases = ArgumentCaptor.forClass(UpdateAliasesRequest.class);
+        verify(indicesClient).updateAliases(aliases.capture());
+        List<Action> actions = aliases.getValue().actions();
+        assertEquals(2, actions.size());
+        assertTrue(actions.get(0).add().index().startsWith("products_index_v"));
+        assertEquals("products_index", actions.get(0).add().alias());
+        assertEquals("products_index_v20260101000000", actions.get(1).remove().index());
+        // The index it replaced is kept for rollback, older ones are deleted
+        ArgumentCaptor<DeleteIndexRequest> deleted = ArgumentCaptor.forClass(DeleteIndexRequest.class);
+        verify(indicesClient).delete(deleted.capture());
+        assertEquals(List.of("products_index_v20250101000000"), deleted.getValue().index());
+        verify(indexOperations, never()).delete();
+        verify(productDocumentRepository, never()).deleteAll();
     }
 
     @Test
-    void reindexAllProducts_IndexDoesNotExist() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findAll(any(org.springframework.data.domain.Pageable.class)))
-                .thenReturn(productPage);
-        when(productDocumentRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
-        when(elasticsearchOperations.indexOps(ProductDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(false);
-        when(indexOperations.create()).thenReturn(true);
+    void reindexAllProducts_BulkFailure_KeepsAlias() throws Exception {
+        stubReindex(1, 1);
+        when(elasticsearchOperations.bulkIndex(anyList(), any(IndexCoordinates.class)))
+                .thenThrow(new RuntimeException("Elasticsearch error"));
 
         productIndexingService.reindexAllProducts();
 
-        verify(indexOperations, never()).delete();
-        verify(indexOperations, times(1)).create();
-        verify(productRepository, atLeastOnce()).findAll(any(org.springframework.data.domain.Pageable.class));
+        verify(indicesClient, never()).updateAliases(any(UpdateAliasesRequest.class));
+        verify(indexOperations).delete();
     }
-}
 
+    @Test
+    void reindexAllProducts_CountMismatch_KeepsAliasAndDropsNewIndex() throws Exception {
+        stubReindex(100, 1);
+        ReflectionTestUtils.setField(productIndexingService, "refreshInterval", "1s");
+
+        productIndexingService.reindexAllProducts();
+
+        verify(indexOperations).refresh();
+        verify(indicesClient, never()).updateAliases(any(UpdateAliasesRequest.class));
+        verify(indexOperations).delete();
+    }
+
+    @Test
+    void indexBatch_DuringReindex_AlsoWritesNewIndex() {
+        ReflectionTestUtils.setField(productIndexingService, "buildingIndex", "products_index_v20260101000000");
+
+        productIndexingService.indexBatch(List.of(product), List.of());
+
+        verify(elasticsearchOperations, times(2)).bulkIndex(anyList(), any(IndexCoordinates.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexBatch_BulkIndexesByProductIdAndDeletesByMongoId() {
+        productIndexingService.indexBatch(List.of(product), List.of("mongo-id-2"));
+
+        ArgumentCaptor<List<IndexQuery>> queries = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkIndex(queries.capture(), any(IndexCoordinates.class));
+        assertEquals(1, queries.getValue().size());
+        assertEquals("P001", queries.getValue().get(0).getId());
+        assertEquals("mongo-id-1", ((ProductDocument) queries.getValue().get(0).getObject()).getMongoId());
+        verify(elasticsearchOperations).delete(any(NativeQuery.class), eq(ProductDocument.class), any(IndexCoordinates.class));
+    }
+
+    @Test
+    void indexBatch_Empty_NoRequests() {
+        productIndexingService.indexBatch(List.of(), List.of());
+
+        verifyNoInteractions(elasticsearchOperations);
+    }
+}
@@ -0,0 +1,152 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.request.VariantPatchRequest;
+import com.blibli.gdn.productService.dto.response.ProductResponse;
+import com.blibli.gdn.productService.exception.InvalidPatchException;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.mapper.ProductMapper;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.impl.DirectIndexingServiceImpl;
+import com.blibli.gdn.productService.service.impl.ProductPatchServiceImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPatchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @Mock
+    private ProductCacheInvalidationService productCacheInvalidationService;
+
+    @Mock
+    private ProductIndexingService productIndexingService;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    private ProductPatchServiceImpl productPatchService;
+
+    private Product patched;
+
+    @BeforeEach
+    void setUp() {
+        DirectIndexingServiceImpl directIndexingService = new DirectIndexingServiceImpl(productExistenceService);
+        ReflectionTestUtils.setField(directIndexingService, "productIndexingService", productIndexingService);
+        productPatchService = new ProductPatchServiceImpl(mongoTemplate, productMapper, productExistenceService,
+                productCacheInvalidationService, directIndexingService);
+        ReflectionTestUtils.setField(productPatchService, "productIndexingService", productIndexingService);
+        lenient().when(productExistenceService.mightExistProductId(anyString())).thenReturn(true);
+
+        // What the projected findAndModify returns: sku, price and stock of every variant
+        patched = Product.builder()
+                .id("mongo-id-1")
+                .productId("P001")
+                .updatedAt(Instant.now())
+                .variants(List.of(
+                        Variant.builder().sku("P001-BLACK-001").price(89.0).stock(10).build(),
+                        Variant.builder().sku("P001-WHITE-001").price(100.0).stock(0).build()))
+                .build();
+    }
+
+    @Test
+    void patchVariants_SetsOnlyGivenFieldsOfMatchingVariants() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(patched);
+
+        ProductResponse response = productPatchService.patchVariants("P001", List.of(
+                VariantPatchRequest.builder().sku("P001-BLACK-001").price(89.0).build(),
+                VariantPatchRequest.builder().sku("P001-WHITE-001").stock(0).build()));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Product.class));
+        assertEquals("P001", query.getValue().getQueryObject().get("productId"));
+        Document allSkus = query.getValue().getQueryObject().get("variants.sku", Document.class);
+        assertEquals(List.of("P001-BLACK-001", "P001-WHITE-001"), List.copyOf((Collection<?>) allSkus.get("$all")));
+        assertFalse(query.getValue().getFieldsObject().containsKey("name"));
+
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("updatedAt", "variants.$[v0].price", "variants.$[v1].stock"), set.keySet());
+        assertEquals(89.0, set.get("variants.$[v0].price"));
+        assertEquals(2, update.getValue().getArrayFilters().size());
+
+        verify(productCacheInvalidationService).evictVariants(patched, Set.of("P001-BLACK-001", "P001-WHITE-001"));
+        verify(productCacheInvalidationService, never()).evict(any(Product.class));
+        verify(productIndexingService).updateVariants(patched, Set.of("P001-BLACK-001", "P001-WHITE-001"));
+        verify(productIndexingService, never()).updateProduct(any(Product.class));
+
+        assertEquals("P001", response.getProductId());
+        assertNull(response.getName());
+        assertEquals(2, response.getVariants().size());
+    }
+
+    @Test
+    void patchVariants_NothingToChange_BadRequest() {
+        assertThrows(InvalidPatchException.class, () -> productPatchService.patchVariants("P001",
+                List.of(VariantPatchRequest.builder().sku("P001-BLACK-001").build())));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void patchVariants_DuplicateSku_BadRequest() {
+        assertThrows(InvalidPatchException.class, () -> productPatchService.patchVariants("P001", List.of(
+                VariantPatchRequest.builder().sku("P001-BLACK-001").price(1.0).build(),
+                VariantPatchRequest.builder().sku("P001-BLACK-001").stock(1).build())));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void patchVariants_SkuNotInProduct_NotFound_AndNothingEvicted() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+
+        ProductNotFoundException error = assertThrows(ProductNotFoundException.class, () -> productPatchService
+                .patchVariants("P001", List.of(VariantPatchRequest.builder().sku("OTHER-SKU").stock(1).build())));
+
+        assertTrue(error.getMessage().contains("OTHER-SKU"));
+        verify(productExistenceService, never()).recordMissingProductId(anyString());
+        verifyNoInteractions(productCacheInvalidationService, productIndexingService);
+    }
+
+    @Test
+    void patchVariants_UnknownProduct_NotFound() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productPatchService
+                .patchVariants("NOPE", List.of(VariantPatchRequest.builder().sku("NOPE-1").stock(1).build())));
+
+        verify(productExistenceService).recordMissingProductId("NOPE");
+    }
+}
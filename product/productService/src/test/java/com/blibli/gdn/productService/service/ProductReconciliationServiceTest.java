@@ -0,0 +1,241 @@
+package com.blibli.gdn.productService.service;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import com.blibli.gdn.productService.dto.response.ReconciliationReport;
+import com.blibli.gdn.productService.model.IndexCheckpoint;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductDocument;
+import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.service.impl.ProductReconciliationServiceImpl;
+import com.blibli.gdn.productService.util.SyncChecksum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.elasticsearch.client.elc.Aggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductReconciliationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductIndexingService productIndexingService;
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ProductIndexPipelineService productIndexPipelineService;
+
+    @Mock
+    private SearchHits<ProductDocument> searchHits;
+
+    @Mock
+    private SearchHitsIterator<ProductDocument> searchHitsIterator;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductReconciliationServiceImpl productReconciliationService;
+
+    private final Instant updatedAt = Instant.parse("2024-05-01T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productReconciliationService = new ProductReconciliationServiceImpl(mongoTemplate, productRepository,
+                productIndexingService, elasticsearchOperations, productIndexPipelineService, meterRegistry);
+        ReflectionTestUtils.setField(productReconciliationService, "enabled", true);
+        ReflectionTestUtils.setField(productReconciliationService, "batchSize", 2);
+        ReflectionTestUtils.setField(productReconciliationService, "overlapMs", 30000L);
+        ReflectionTestUtils.setField(productReconciliationService, "leaseTtlMs", 60000L);
+        ReflectionTestUtils.setField(productReconciliationService, "maxDivergentFraction", 0.5);
+        ReflectionTestUtils.invokeMethod(productReconciliationService, "init");
+    }
+
+    private void leaseWithWatermark(Instant watermark) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(IndexCheckpoint.class)))
+                .thenReturn(IndexCheckpoint.builder().id("products_reconciliation").watermark(watermark).build());
+    }
+
+    private Product product(String id, String productId, Instant updated) {
+        return Product.builder().id(id).productId(productId).name(productId).updatedAt(updated).variants(List.of()).build();
+    }
+
+    private Document projection(String mongoId, String productId) {
+        return new Document("_id", new ObjectId(mongoId)).append("productId", productId).append("updatedAt", Date.from(updatedAt));
+    }
+
+    private void stubElasticsearchBuckets(Map<String, String> indexed) {
+        List<LongTermsBucket> buckets = new ArrayList<>();
+        indexed.forEach((productId, mongoId) -> buckets.add(LongTermsBucket.of(bucket -> bucket
+                .key(SyncChecksum.bucket(productId))
+                .docCount(1)
+                .aggregations("checksum", Aggregate.of(a -> a.sum(s -> s
+                        .value(SyncChecksum.hash(productId, updatedAt, mongoId))))))));
+        Aggregate aggregate = Aggregate.of(a -> a.lterms(t -> t.buckets(b -> b.array(buckets))));
+        ElasticsearchAggregations aggregations = mock(ElasticsearchAggregations.class);
+        when(aggregations.aggregationsAsMap()).thenReturn(Map.of(
+                "sync_buckets", new ElasticsearchAggregation(new Aggregation("sync_buckets", aggregate))));
+        doReturn(aggregations).when(searchHits).getAggregations();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class))).thenReturn(searchHits);
+    }
+
+    @Test
+    void syncSinceWatermark_IndexesUpdatedProductsInKeysetPages_AndAdvancesWatermark() {
+        Instant watermark = Instant.now().minusSeconds(300);
+        leaseWithWatermark(watermark);
+        when(mongoTemplate.indexOps(Product.class)).thenReturn(mock(IndexOperations.class));
+        Product first = product("a1", "P001", watermark.plusSeconds(1));
+        Product second = product("a2", "P002", watermark.plusSeconds(2));
+        Product third = product("a3", "P003", watermark.plusSeconds(3));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        int indexed = productReconciliationService.syncSinceWatermark();
+
+        assertEquals(3, indexed);
+        verify(productIndexingService).indexBatch(List.of(first, second), List.of());
+        verify(productIndexingService).indexBatch(List.of(third), List.of());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Product.class));
+        assertEquals(watermark.minusSeconds(30),
+                ((Document) queries.getAllValues().get(0).getQueryObject().get("updatedAt")).get("$gte"));
+        assertTrue(queries.getAllValues().get(1).getQueryObject().containsKey("$or"));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeast(3)).updateFirst(any(Query.class), updates.capture(), eq(IndexCheckpoint.class));
+        assertTrue(updates.getAllValues().stream()
+                .anyMatch(update -> third.getUpdatedAt().equals(update.getUpdateObject().get("$set", Document.class).get("watermark"))));
+        assertEquals(3, meterRegistry.counter("product.reconcile.watermark.documents").count());
+    }
+
+    @Test
+    void syncSinceWatermark_PipelineActive_OnlyAdvancesWatermark() {
+        leaseWithWatermark(Instant.now().minusSeconds(300));
+        when(productIndexPipelineService.isActive()).thenReturn(true);
+
+        assertEquals(0, productReconciliationService.syncSinceWatermark());
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Product.class));
+        verifyNoInteractions(productIndexingService);
+    }
+
+    @Test
+    void syncSinceWatermark_LeaseHeldByAnotherInstance_Skips() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(IndexCheckpoint.class))).thenThrow(new DuplicateKeyException("held"));
+
+        assertEquals(0, productReconciliationService.syncSinceWatermark());
+
+        verifyNoInteractions(productIndexingService);
+    }
+
+    @Test
+    void reconcile_InSync_RepairsNothing() {
+        leaseWithWatermark(null);
+        String a1 = "65f000000000000000000001";
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any()))
+                .thenAnswer(invocation -> List.of(projection(a1, "P001")).stream());
+        stubElasticsearchBuckets(Map.of("P001", a1));
+
+        ReconciliationReport report = productReconciliationService.reconcile();
+
+        assertEquals(0, report.getDivergentBuckets());
+        assertEquals(SyncChecksum.BUCKETS, report.getBucketsCompared());
+        verify(elasticsearchOperations, never()).searchForStream(any(NativeQuery.class), eq(ProductDocument.class));
+        verifyNoInteractions(productIndexingService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_RepairsOnlyDivergentBuckets() {
+        leaseWithWatermark(null);
+        String a1 = "65f000000000000000000001";
+        String a2 = "65f000000000000000000002";
+        String gone = "65f000000000000000000009";
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any()))
+                .thenAnswer(invocation -> List.of(projection(a1, "P001"), projection(a2, "P002")).stream());
+        // P001 is indexed; P002 is missing and P999 belongs to a deleted product
+        stubElasticsearchBuckets(Map.of("P001", a1));
+        SearchHit<ProductDocument> orphan = mock(SearchHit.class);
+        when(orphan.getId()).thenReturn("P999");
+        when(orphan.getContent()).thenReturn(ProductDocument.builder().id("P999").mongoId(gone).syncHash(7L).build());
+        when(searchHitsIterator.hasNext()).thenReturn(true, false);
+        when(searchHitsIterator.next()).thenReturn(orphan);
+        when(elasticsearchOperations.searchForStream(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHitsIterator);
+        Product missing = product(a2, "P002", updatedAt);
+        when(productRepository.findAllById(List.of(a2, gone))).thenReturn(List.of(missing));
+
+        ReconciliationReport report = productReconciliationService.reconcile();
+
+        assertEquals(1, report.getDivergentBuckets());
+        assertEquals(1, report.getReindexed());
+        assertEquals(1, report.getDeleted());
+        assertFalse(report.isFullReindex());
+        verify(productIndexingService).indexBatch(List.of(missing), List.of(gone));
+        verify(productIndexingService, never()).reindexAllProducts();
+        // The repair reuses the versions of the checksum pass instead of reading the collection again
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Document.class), any());
+        verify(searchHitsIterator).close();
+        assertEquals(1, meterRegistry.get("product.reconcile.repairs").tag("action", "delete").counter().count());
+    }
+
+    @Test
+    void reconcile_MostBucketsDivergent_RunsFullReindex() {
+        leaseWithWatermark(null);
+        List<Document> projections = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            projections.add(projection(String.format("65f0000000000000%08x", i), "P" + i));
+        }
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any()))
+                .thenAnswer(invocation -> projections.stream());
+        stubElasticsearchBuckets(Map.of());
+
+        ReconciliationReport report = productReconciliationService.reconcile();
+
+        assertTrue(report.isFullReindex());
+        verify(productIndexingService).reindexAllProducts();
+        verify(productIndexingService, never()).indexBatch(anyList(), anyList());
+    }
+}
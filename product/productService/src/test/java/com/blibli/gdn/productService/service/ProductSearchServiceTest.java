@@ -1,30 +1,52 @@
 package com.blibli.gdn.productService.service;
 
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.blibli.gdn.productService.dto.request.ProductSearchRequest;
+import com.blibli.gdn.productService.dto.response.ProductSearchResponse;
+import com.blibli.gdn.productService.exception.InvalidSearchCursorException;
+import com.blibli.gdn.productService.exception.SearchUnavailableException;
 import com.blibli.gdn.productService.mapper.ProductMapper;
 import com.blibli.gdn.productService.model.Product;
 import com.blibli.gdn.productService.model.ProductDocument;
 import com.blibli.gdn.productService.model.Variant;
 import com.blibli.gdn.productService.model.VariantDocument;
-import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
 import com.blibli.gdn.productService.service.impl.ProductSearchServiceImpl;
+import com.blibli.gdn.productService.util.ProductFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.Aggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
-import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -35,11 +57,17 @@ class ProductSearchServiceTest {
     private ElasticsearchOperations elasticsearchOperations;
 
     @Mock
-    private ProductRepository productRepository;
+    private ProductProjectionReader productProjectionReader;
 
     @Spy
     private ProductMapper productMapper = new ProductMapper();
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ProductSearchServiceImpl productSearchService;
 
@@ -101,64 +129,70 @@ class ProductSearchServiceTest {
                 .build();
 
         // searchHits will be set up in individual tests that need it
+        ReflectionTestUtils.setField(productSearchService, "pointInTimeKeepAlive", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(productSearchService, "facetSize", 20);
+        ReflectionTestUtils.setField(productSearchService, "priceInterval", 100.0);
+        ReflectionTestUtils.setField(productSearchService, "facetCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(productSearchService, "facetCacheMaxSize", 100L);
+        ReflectionTestUtils.invokeMethod(productSearchService, "init");
     }
 
     @Test
     void searchProducts_ByName_Success() {
         setupSearchHits(); // Ensure searchHits is set up for this test
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
 
         var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals("Test Product", result.getContent().get(0).getName());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
-        verify(productRepository, times(1)).findFirstByProductId("P001");
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
+        verify(productProjectionReader, times(1)).findByProductIdIn(List.of("P001"), ProductFields.ALL);
     }
 
     @Test
     void searchProducts_ByCategory_Success() {
         setupSearchHits();
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
 
         var result = productSearchService.searchProducts("", "Electronics", PageRequest.of(0, 20), "category,asc");
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
     }
 
     @Test
     void searchProducts_WithWildcard_Success() {
         setupSearchHits();
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
 
         var result = productSearchService.searchProducts("*Test*", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
     }
 
     @Test
     void searchProducts_MultiWord_Success() {
         setupSearchHits();
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
 
         var result = productSearchService.searchProducts("Test Product", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
     }
 
     @Test
@@ -168,54 +202,331 @@ class ProductSearchServiceTest {
         when(emptyHits.getSearchHits()).thenReturn(Collections.emptyList());
         when(emptyHits.getTotalHits()).thenReturn(0L);
         
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(emptyHits);
 
         var result = productSearchService.searchProducts("", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
     }
 
     @Test
     void searchProducts_ProductNotFoundInMongoDB() {
         setupSearchHits();
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.empty());
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of());
 
         var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(0, result.getContent().size()); // Product not found in MongoDB
-        verify(productRepository, times(1)).findFirstByProductId("P001");
+        verify(productProjectionReader, times(1)).findByProductIdIn(List.of("P001"), ProductFields.ALL);
     }
 
     @Test
     void searchProducts_ElasticsearchError_ReturnsEmpty() {
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenThrow(new RuntimeException("Elasticsearch connection error"));
 
         var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc");
 
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
     }
 
     @Test
     void searchProducts_WithSorting() {
         setupSearchHits();
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(ProductDocument.class)))
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
                 .thenReturn(searchHits);
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
 
         var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "category,desc");
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(elasticsearchOperations, times(1)).search(any(CriteriaQuery.class), eq(ProductDocument.class));
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(ProductDocument.class));
+    }
+
+    @Test
+    void searchProducts_IndexedSource_NoMongoRoundTrip() {
+        productDocument.setMongoId("mongo-id-1");
+        productDocument.setCreatedAt(Instant.parse("2025-01-01T00:00:00Z"));
+        setupSearchHits();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+
+        var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc");
+
+        assertEquals(1, result.getContent().size());
+        assertEquals("mongo-id-1", result.getContent().get(0).getId());
+        assertEquals(100.0, result.getContent().get(0).getVariants().get(0).getPrice());
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z"), result.getContent().get(0).getCreatedAt());
+        verifyNoInteractions(productProjectionReader);
+    }
+
+    @Test
+    void searchProducts_WithFields_FiltersSource_AndMapsOnlyRequestedFields() {
+        productDocument.setMongoId("mongo-id-1");
+        setupSearchHits();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+
+        var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc",
+                ProductFields.parse("name,variants.price"));
+
+        ArgumentCaptor<NativeQuery> query = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(query.capture(), eq(ProductDocument.class));
+        assertArrayEquals(new String[]{"mongoId", "productId", "name", "variants.price"},
+                query.getValue().getSourceFilter().getIncludes());
+        assertEquals("Test Product", result.getContent().get(0).getName());
+        assertNull(result.getContent().get(0).getDescription());
+        assertNull(result.getContent().get(0).getId());
+        assertEquals(100.0, result.getContent().get(0).getVariants().get(0).getPrice());
+        assertNull(result.getContent().get(0).getVariants().get(0).getSku());
+        verifyNoInteractions(productProjectionReader);
+    }
+
+    @Test
+    void searchProducts_WithFields_HydratesWithProjection() {
+        setupSearchHits();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        ProductFields fields = ProductFields.parse("name");
+        when(productProjectionReader.findByProductIdIn(List.of("P001"), fields)).thenReturn(List.of(product));
+
+        var result = productSearchService.searchProducts("Test", null, PageRequest.of(0, 20), "name,asc", fields);
+
+        assertEquals("Test Product", result.getContent().get(0).getName());
+        assertNull(result.getContent().get(0).getVariants());
+    }
+
+    @Test
+    void search_PriceSort_SortsOnNestedVariantPrice() {
+        setupSearchHits();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
+
+        ProductSearchResponse result = productSearchService.search(ProductSearchRequest.builder()
+                .name("Test")
+                .minPrice(50.0)
+                .maxPrice(150.0)
+                .minStock(1)
+                .sort("price,desc")
+                .build());
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(ProductDocument.class));
+        NativeQuery query = captor.getValue();
+        var priceSort = query.getSortOptions().get(0).field();
+        assertEquals("variants.price", priceSort.field());
+        assertEquals("variants", priceSort.nested().path());
+        assertEquals(co.elastic.clients.elasticsearch._types.SortMode.Max, priceSort.mode());
+        assertEquals("productId", query.getSortOptions().get(1).field().field());
+        assertTrue(query.getQuery().bool().filter().stream().anyMatch(filter -> filter.isNested()));
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void search_FullPageWithoutCursor_NoCursorOrPointInTime() {
+        setupSearchHits();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
+
+        ProductSearchResponse result = productSearchService.search(ProductSearchRequest.builder()
+                .sort("price,asc")
+                .size(1)
+                .build());
+
+        assertNull(result.getNextCursor());
+        verify(elasticsearchOperations, never()).openPointInTime(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void search_StartCursor_OpensPointInTimeOnFirstPageAndContinuesWithSearchAfter() {
+        setupSearchHits();
+        SearchHit<ProductDocument> hit = searchHits.getSearchHits().get(0);
+        when(hit.getSortValues()).thenReturn(List.of(100.0, "P001"));
+        when(elasticsearchOperations.openPointInTime(any(IndexCoordinates.class), any(Duration.class), eq(false)))
+                .thenReturn("pit-1");
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
+
+        ProductSearchResponse first = productSearchService.search(ProductSearchRequest.builder()
+                .name("Phone")
+                .sort("price,asc")
+                .size(1)
+                .cursor(ProductSearchRequest.START_CURSOR)
+                .build());
+        assertNotNull(first.getNextCursor());
+
+        ProductSearchResponse second = productSearchService.search(ProductSearchRequest.builder()
+                .name("phone ")
+                .sort("price,asc")
+                .size(1)
+                .cursor(first.getNextCursor())
+                .build());
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations, times(2)).search(captor.capture(), eq(ProductDocument.class));
+        NativeQuery start = captor.getAllValues().get(0);
+        assertEquals("pit-1", start.getPointInTime().id());
+        assertNull(start.getSearchAfter());
+        NativeQuery continuation = captor.getAllValues().get(1);
+        assertEquals(List.of(100.0, "P001"), continuation.getSearchAfter());
+        assertEquals("pit-1", continuation.getPointInTime().id());
+        assertNotNull(second.getNextCursor());
+        verify(elasticsearchOperations, times(1)).openPointInTime(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void search_StartCursorSinglePage_ClosesPointInTime() {
+        setupSearchHits();
+        when(elasticsearchOperations.openPointInTime(any(IndexCoordinates.class), any(Duration.class), eq(false)))
+                .thenReturn("pit-1");
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
+
+        ProductSearchResponse result = productSearchService.search(ProductSearchRequest.builder()
+                .sort("price,asc")
+                .size(20)
+                .cursor(ProductSearchRequest.START_CURSOR)
+                .build());
+
+        assertNull(result.getNextCursor());
+        verify(elasticsearchOperations).closePointInTime("pit-1");
+    }
+
+    @Test
+    void search_LastCursorPage_ClosesPointInTime() throws Exception {
+        @SuppressWarnings("unchecked")
+        SearchHits<ProductDocument> emptyHits = mock(SearchHits.class);
+        when(emptyHits.getSearchHits()).thenReturn(Collections.emptyList());
+        when(emptyHits.getTotalHits()).thenReturn(1L);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(emptyHits);
+        String cursor = cursor("{\"pit\":\"pit-1\",\"searchAfter\":[100.0,\"P001\"],\"sort\":\"price,asc\","
+                + "\"query\":{\"name\":\"\"}}");
+
+        ProductSearchResponse result = productSearchService.search(ProductSearchRequest.builder()
+                .sort("price,asc")
+                .cursor(cursor)
+                .build());
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+        verify(elasticsearchOperations).closePointInTime("pit-1");
+        verify(elasticsearchOperations, never()).openPointInTime(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void search_CursorForDifferentSortOrQuery_Rejected() {
+        String cursor = cursor("{\"pit\":\"pit-1\",\"searchAfter\":[100.0,\"P001\"],\"sort\":\"price,asc\","
+                + "\"query\":{\"name\":\"phone\",\"category\":\"Electronics\"}}");
+
+        assertThrows(InvalidSearchCursorException.class, () -> productSearchService.search(ProductSearchRequest.builder()
+                .name("phone")
+                .category("Electronics")
+                .sort("price,desc")
+                .cursor(cursor)
+                .build()));
+        assertThrows(InvalidSearchCursorException.class, () -> productSearchService.search(ProductSearchRequest.builder()
+                .name("phone")
+                .category("Books")
+                .sort("price,asc")
+                .cursor(cursor)
+                .build()));
+        assertThrows(InvalidSearchCursorException.class, () -> productSearchService.search(ProductSearchRequest.builder()
+                .name("phone")
+                .category("Electronics")
+                .minPrice(10.0)
+                .sort("price,asc")
+                .cursor(cursor)
+                .build()));
+        assertThrows(InvalidSearchCursorException.class, () -> productSearchService.search(ProductSearchRequest.builder()
+                .sort("price,asc")
+                .cursor("not-a-cursor")
+                .build()));
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void search_CursorPointInTimeExpired_RestartSearch() {
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenThrow(new RuntimeException("[es/search] failed: [search_context_missing_exception] No search context found for id [42]"));
+        String cursor = cursor("{\"pit\":\"pit-1\",\"searchAfter\":[100.0,\"P001\"],\"sort\":\"price,asc\","
+                + "\"query\":{\"name\":\"\"}}");
+
+        InvalidSearchCursorException exception = assertThrows(InvalidSearchCursorException.class,
+                () -> productSearchService.search(ProductSearchRequest.builder()
+                        .sort("price,asc")
+                        .cursor(cursor)
+                        .build()));
+        assertTrue(exception.getMessage().contains("restart the search"));
+    }
+
+    @Test
+    void search_CursorPageFails_Unavailable_AndClosesPointInTimeItOpened() {
+        when(elasticsearchOperations.openPointInTime(any(IndexCoordinates.class), any(Duration.class), anyBoolean()))
+                .thenReturn("pit-1");
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenThrow(new RuntimeException("Elasticsearch connection error"));
+
+        assertThrows(SearchUnavailableException.class, () -> productSearchService.search(ProductSearchRequest.builder()
+                .sort("price,asc")
+                .cursor(ProductSearchRequest.START_CURSOR)
+                .build()));
+        verify(elasticsearchOperations).closePointInTime("pit-1");
     }
-}
 
+    private String cursor(String json) {
+        return java.util.Base64.getUrlEncoder().encodeToString(json.getBytes());
+    }
+
+    @Test
+    void search_WithFacets_AggregatesInSameQueryAndCachesResult() {
+        setupSearchHits();
+        Aggregate categories = Aggregate.of(a -> a.sterms(t -> t
+                .buckets(b -> b.array(List.of(StringTermsBucket.of(bucket -> bucket
+                        .key(FieldValue.of("Electronics"))
+                        .docCount(1)))))));
+        Aggregate products = Aggregate.of(a -> a.reverseNested(r -> r.docCount(1)));
+        Aggregate colors = Aggregate.of(a -> a.sterms(t -> t
+                .buckets(b -> b.array(List.of(StringTermsBucket.of(bucket -> bucket
+                        .key(FieldValue.of("Black"))
+                        .docCount(3)
+                        .aggregations("products", products)))))));
+        Aggregate variants = Aggregate.of(a -> a.nested(n -> n.docCount(3).aggregations("color", colors)));
+        ElasticsearchAggregations aggregations = mock(ElasticsearchAggregations.class);
+        when(aggregations.aggregationsAsMap()).thenReturn(Map.of(
+                "category", new ElasticsearchAggregation(new Aggregation("category", categories)),
+                "variants", new ElasticsearchAggregation(new Aggregation("variants", variants))));
+        doReturn(aggregations).when(searchHits).getAggregations();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(productProjectionReader.findByProductIdIn(anyCollection(), eq(ProductFields.ALL))).thenReturn(List.of(product));
+
+        ProductSearchResponse first = productSearchService.search(ProductSearchRequest.builder()
+                .name("Test").sort("price,asc").facets(true).build());
+        ProductSearchResponse second = productSearchService.search(ProductSearchRequest.builder()
+                .name(" test ").sort("name,asc").page(1).facets(true).build());
+
+        assertEquals("Electronics", first.getFacets().get("category").get(0).getKey());
+        assertEquals(1, first.getFacets().get("color").get(0).getCount());
+        assertEquals(first.getFacets(), second.getFacets());
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations, times(2)).search(captor.capture(), eq(ProductDocument.class));
+        assertTrue(captor.getAllValues().get(0).getAggregations().containsKey("variants"));
+        assertTrue(captor.getAllValues().get(1).getAggregations().isEmpty());
+    }
+}
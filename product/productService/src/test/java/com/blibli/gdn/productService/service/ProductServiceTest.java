@@ -1,32 +1,42 @@
 package com.blibli.gdn.productService.service;
 
+import com.blibli.gdn.productService.config.CacheConfig;
+import com.blibli.gdn.productService.config.ProductKeyIndex;
 import com.blibli.gdn.productService.dto.request.ProductRequest;
 import com.blibli.gdn.productService.dto.request.VariantRequest;
 import com.blibli.gdn.productService.dto.response.ProductResponse;
 import com.blibli.gdn.productService.exception.ProductNotFoundException;
 import com.blibli.gdn.productService.mapper.ProductMapper;
 import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductVersion;
 import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.repository.ProductProjectionReader;
 import com.blibli.gdn.productService.repository.ProductRepository;
+import com.blibli.gdn.productService.service.impl.DirectIndexingServiceImpl;
 import com.blibli.gdn.productService.service.impl.ProductServiceImpl;
+import com.blibli.gdn.productService.util.ProductFields;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +48,22 @@ class ProductServiceTest {
     @Mock
     private ProductIndexingService productIndexingService;
 
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @Mock
+    private ProductCacheInvalidationService productCacheInvalidationService;
+
+    @Mock
+    private ProductProjectionReader productProjectionReader;
+
     @Spy
     private ProductMapper productMapper = new ProductMapper();
 
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS);
+
+    private DirectIndexingServiceImpl directIndexingService;
+
     private ProductServiceImpl productService;
 
     private Product product;
@@ -49,7 +72,11 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         // Create service and inject mocks manually since ProductIndexingService uses @Autowired(required = false)
-        productService = new ProductServiceImpl(productRepository, productMapper);
+        directIndexingService = new DirectIndexingServiceImpl(productExistenceService);
+        ReflectionTestUtils.setField(directIndexingService, "productIndexingService", productIndexingService);
+        productService = new ProductServiceImpl(productRepository, productMapper, productExistenceService,
+                productCacheInvalidationService, productProjectionReader, cacheManager, new ProductKeyIndex(100),
+                directIndexingService);
         // Use reflection to inject the optional ProductIndexingService
         try {
             java.lang.reflect.Field field = ProductServiceImpl.class.getDeclaredField("productIndexingService");
@@ -58,6 +85,7 @@ class ProductServiceTest {
         } catch (Exception e) {
             // If reflection fails, continue without Elasticsearch service
         }
+        lenient().when(productExistenceService.mightExistProductId(anyString())).thenReturn(true);
         
         product = Product.builder()
                 .id("mongo-id-1")
@@ -115,7 +143,9 @@ class ProductServiceTest {
     @Test
     void createProduct_WithoutElasticsearch() {
         // Create service without Elasticsearch
-        ProductServiceImpl serviceWithoutES = new ProductServiceImpl(productRepository, productMapper);
+        ProductServiceImpl serviceWithoutES = new ProductServiceImpl(productRepository, productMapper, productExistenceService,
+                productCacheInvalidationService, productProjectionReader, cacheManager, new ProductKeyIndex(100),
+                new DirectIndexingServiceImpl(productExistenceService));
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
         ProductResponse created = serviceWithoutES.createProduct(productRequest);
@@ -127,7 +157,7 @@ class ProductServiceTest {
 
     @Test
     void getProduct_Success() {
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.of(product));
+        when(productProjectionReader.findFirstByProductId("P001", ProductFields.ALL)).thenReturn(Optional.of(product));
 
         ProductResponse found = productService.getProduct("P001");
 
@@ -139,9 +169,96 @@ class ProductServiceTest {
 
     @Test
     void getProduct_NotFound() {
-        when(productRepository.findFirstByProductId("P001")).thenReturn(Optional.empty());
+        when(productProjectionReader.findFirstByProductId("P001", ProductFields.ALL)).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> productService.getProduct("P001"));
+        verify(productExistenceService).recordMissingProductId("P001");
+    }
+
+    @Test
+    void getProduct_KnownMissing_SkipsRepository() {
+        when(productExistenceService.mightExistProductId("UNKNOWN")).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getProduct("UNKNOWN"));
+        verifyNoInteractions(productProjectionReader);
+    }
+
+    @Test
+    void getProduct_WithFields_ReadsProjection_AndMapsOnlyRequestedFields() {
+        ProductFields fields = ProductFields.parse("name,variants.price,variants.stock");
+        Product projected = Product.builder()
+                .id("mongo-id-1")
+                .productId("P001")
+                .name("Test Product")
+                .variants(List.of(Variant.builder().price(100.0).stock(10).build()))
+                .build();
+        when(productProjectionReader.findFirstByProductId("P001", fields)).thenReturn(Optional.of(projected));
+
+        ProductResponse found = productService.getProduct("P001", fields);
+
+        assertEquals("P001", found.getProductId());
+        assertEquals("Test Product", found.getName());
+        assertNull(found.getId());
+        assertNull(found.getDescription());
+        assertNull(found.getCreatedAt());
+        assertEquals(100.0, found.getVariants().get(0).getPrice());
+        assertNull(found.getVariants().get(0).getSku());
+    }
+
+    @Test
+    void getProduct_WithFields_CachedFullResponse_IsNarrowedWithoutMongo() {
+        cacheManager.getCache(CacheConfig.PRODUCTS).put("P001", productMapper.toProductResponse(product));
+
+        ProductResponse found = productService.getProduct("P001", ProductFields.parse("variants.sku"));
+
+        assertEquals("P001-BLACK-001", found.getVariants().get(0).getSku());
+        assertNull(found.getVariants().get(0).getPrice());
+        assertNull(found.getName());
+        verifyNoInteractions(productProjectionReader);
+    }
+
+    @Test
+    void getProductVersion_FromCachedProduct_WithoutMongo() {
+        cacheManager.getCache(CacheConfig.PRODUCTS).put("P001", productMapper.toProductResponse(product));
+
+        ProductVersion version = productService.getProductVersion("P001");
+
+        assertEquals("mongo-id-1", version.getId());
+        assertEquals(product.getUpdatedAt(), version.getUpdatedAt());
+        verifyNoInteractions(productProjectionReader, productRepository);
+    }
+
+    @Test
+    void getProductVersion_ReadsOnlyIdAndUpdatedAt() {
+        ArgumentCaptor<ProductFields> fields = ArgumentCaptor.forClass(ProductFields.class);
+        when(productProjectionReader.findFirstByProductId(eq("P001"), fields.capture()))
+                .thenReturn(Optional.of(Product.builder().id("mongo-id-1").productId("P001")
+                        .updatedAt(product.getUpdatedAt()).build()));
+
+        ProductVersion version = productService.getProductVersion("P001");
+
+        assertEquals(product.getUpdatedAt(), version.getUpdatedAt());
+        assertEquals(List.of("productId", "updatedAt"), fields.getValue().mongoFields());
+    }
+
+    @Test
+    void getProductVersion_NotFound() {
+        when(productProjectionReader.findFirstByProductId(eq("P404"), any(ProductFields.class))).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductVersion("P404"));
+        verify(productExistenceService).recordMissingProductId("P404");
+    }
+
+    @Test
+    void searchProducts_WithFields_UsesProjection() {
+        ProductFields fields = ProductFields.parse("name");
+        when(productProjectionReader.findByName("Test", null, PageRequest.of(0, 10), fields))
+                .thenReturn(new PageImpl<>(List.of(Product.builder().productId("P001").name("Test Product").build())));
+
+        Page<ProductResponse> result = productService.searchProducts("Test", null, PageRequest.of(0, 10), fields);
+
+        assertEquals("Test Product", result.getContent().get(0).getName());
+        assertNull(result.getContent().get(0).getVariants());
     }
 
     @Test
@@ -196,6 +313,8 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById("mongo-id-1");
         verify(productRepository, times(1)).save(any(Product.class));
         verify(productIndexingService, times(1)).updateProduct(any(Product.class));
+        verify(productCacheInvalidationService).evict(product);
+        verify(productCacheInvalidationService).evict(updatedProduct);
     }
 
     @Test
@@ -216,6 +335,7 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById("mongo-id-1");
         verify(productRepository, times(1)).deleteById("mongo-id-1");
         verify(productIndexingService, times(1)).deleteProduct("P001");
+        verify(productCacheInvalidationService).evict(product);
     }
 
     @Test
@@ -229,7 +349,7 @@ class ProductServiceTest {
     @Test
     void searchProducts_ByName() {
         Page<Product> page = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(page);
+        when(productProjectionReader.findByName("Test", null, PageRequest.of(0, 10), ProductFields.ALL)).thenReturn(page);
 
         Page<ProductResponse> result = productService.searchProducts("Test", null, PageRequest.of(0, 10));
 
@@ -241,14 +361,44 @@ class ProductServiceTest {
     @Test
     void searchProducts_ByNameAndCategory() {
         Page<Product> page = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findByNameContainingIgnoreCaseAndCategory(anyString(), anyString(), any(Pageable.class)))
+        when(productProjectionReader.findByName("Test", "Electronics", PageRequest.of(0, 10), ProductFields.ALL))
                 .thenReturn(page);
 
         Page<ProductResponse> result = productService.searchProducts("Test", "Electronics", PageRequest.of(0, 10));
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository, times(1))
-                .findByNameContainingIgnoreCaseAndCategory("Test", "Electronics", PageRequest.of(0, 10));
+        verify(productProjectionReader, times(1))
+                .findByName("Test", "Electronics", PageRequest.of(0, 10), ProductFields.ALL);
+    }
+
+    @Test
+    void searchProducts_LocalIndexReady_LoadsRankedPageByProductId() {
+        LocalSearchIndexService localSearchIndexService = mock(LocalSearchIndexService.class);
+        ReflectionTestUtils.setField(productService, "localSearchIndexService", localSearchIndexService);
+        Product second = Product.builder().id("mongo-id-2").productId("P002").name("Test Lamp").build();
+        when(localSearchIndexService.isReady()).thenReturn(true);
+        when(localSearchIndexService.search("Test", null, PageRequest.of(0, 10)))
+                .thenReturn(new PageImpl<>(List.of("P002", "P001"), PageRequest.of(0, 10), 2));
+        when(productProjectionReader.findByProductIdIn(List.of("P002", "P001"), ProductFields.ALL)).thenReturn(List.of(product, second));
+
+        Page<ProductResponse> result = productService.searchProducts("Test", null, PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals("P002", result.getContent().get(0).getProductId());
+        assertEquals("P001", result.getContent().get(1).getProductId());
+        verify(productProjectionReader, never()).findByName(any(), any(), any(), any());
+    }
+
+    @Test
+    void createProduct_PipelineActive_SkipsDirectIndexing() {
+        ProductIndexPipelineService productIndexPipelineService = mock(ProductIndexPipelineService.class);
+        ReflectionTestUtils.setField(directIndexingService, "productIndexPipelineService", productIndexPipelineService);
+        when(productIndexPipelineService.isActive()).thenReturn(true);
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        productService.createProduct(productRequest);
+
+        verify(productIndexingService, never()).indexProduct(any(Product.class));
     }
 }
@@ -0,0 +1,73 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.ProductDocument;
+import com.blibli.gdn.productService.service.impl.ProductSuggestServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    private ProductSuggestServiceImpl productSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        productSuggestService = new ProductSuggestServiceImpl(mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(productSuggestService, "maxResults", 10);
+        ReflectionTestUtils.setField(productSuggestService, "cacheTtlSeconds", 30L);
+        ReflectionTestUtils.setField(productSuggestService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(productSuggestService, "trieEnabled", true);
+        ReflectionTestUtils.setField(productSuggestService, "trieCollectThreshold", 64);
+        ReflectionTestUtils.invokeMethod(productSuggestService, "init");
+
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(
+                Product.builder().name("Apple iPhone 15").brand("Apple").build(),
+                Product.builder().name("Apple Watch").brand("Apple").build(),
+                Product.builder().name("Apricot Jam").brand("Farm Fresh").build()));
+        productSuggestService.rebuild();
+    }
+
+    @Test
+    void suggest_ElasticsearchDisabled_ServedFromTrie() {
+        assertEquals(List.of("Apple", "Apple Watch", "Apricot Jam"), productSuggestService.suggest("ap", 3));
+        assertEquals(List.of("Apple iPhone 15"), productSuggestService.suggest("IPHO", 10));
+        assertEquals(List.of("Farm Fresh"), productSuggestService.suggest("farm", 10));
+        assertTrue(productSuggestService.suggest("xyz", 10).isEmpty());
+        assertTrue(productSuggestService.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ElasticsearchFails_FallsBackToTrie() {
+        ReflectionTestUtils.setField(productSuggestService, "elasticsearchEnabled", true);
+        ReflectionTestUtils.setField(productSuggestService, "elasticsearchOperations", elasticsearchOperations);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                .thenThrow(new RuntimeException("Elasticsearch connection error"));
+
+        assertEquals(List.of("Apricot Jam"), productSuggestService.suggest("apr", 10));
+        verify(elasticsearchOperations).search(any(NativeQuery.class), eq(ProductDocument.class));
+    }
+}
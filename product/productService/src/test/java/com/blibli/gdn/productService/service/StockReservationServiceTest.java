@@ -0,0 +1,290 @@
+package com.blibli.gdn.productService.service;
+
+import com.blibli.gdn.productService.dto.response.StockReservationResponse;
+import com.blibli.gdn.productService.exception.InsufficientStockException;
+import com.blibli.gdn.productService.exception.ProductNotFoundException;
+import com.blibli.gdn.productService.exception.StockReservationNotFoundException;
+import com.blibli.gdn.productService.model.Product;
+import com.blibli.gdn.productService.model.StockReservation;
+import com.blibli.gdn.productService.model.Variant;
+import com.blibli.gdn.productService.service.impl.StockReservationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    private static final String SKU = "P001-BLACK-001";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductExistenceService productExistenceService;
+
+    @Mock
+    private ProductCacheInvalidationService productCacheInvalidationService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockReservationServiceImpl stockReservationService;
+
+    // Stock of the one variant in the simulated collection; each findAndModify applies atomically
+    private final AtomicInteger stock = new AtomicInteger();
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockReservationService = new StockReservationServiceImpl(mongoTemplate, productExistenceService,
+                productCacheInvalidationService, meterRegistry);
+        ReflectionTestUtils.setField(stockReservationService, "leaseSize", 10);
+        ReflectionTestUtils.setField(stockReservationService, "stripes", 4);
+        ReflectionTestUtils.invokeMethod(stockReservationService, "init");
+        lenient().when(productExistenceService.mightExistSku(anyString())).thenReturn(true);
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenAnswer(invocation -> apply(invocation.getArgument(1)));
+    }
+
+    private Product apply(Update update) {
+        writes.incrementAndGet();
+        int delta = ((Number) update.getUpdateObject().get("$inc", Document.class).get("variants.$[v].stock")).intValue();
+        int current;
+        do {
+            current = stock.get();
+            if (current + delta < 0) {
+                return null;
+            }
+        } while (!stock.compareAndSet(current, current + delta));
+        return Product.builder()
+                .productId("P001")
+                .variants(List.of(Variant.builder().sku(SKU).stock(current + delta).build()))
+                .build();
+    }
+
+    @Test
+    void reserve_ConditionalIncOnMatchingVariant_ReturnsRemainingStock() {
+        stock.set(5);
+
+        StockReservationResponse response = stockReservationService.reserve(SKU, 2);
+
+        assertEquals(3, response.getRemainingStock());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Product.class));
+        Document elemMatch = query.getValue().getQueryObject().get("variants", Document.class).get("$elemMatch", Document.class);
+        assertEquals(SKU, elemMatch.get("sku"));
+        assertEquals(new Document("$gte", 2), elemMatch.get("stock"));
+        assertEquals(-2, update.getValue().getUpdateObject().get("$inc", Document.class).get("variants.$[v].stock"));
+        assertTrue(update.getValue().getUpdateObject().get("$set", Document.class).containsKey("updatedAt"));
+        assertEquals(1, update.getValue().getArrayFilters().size());
+        verify(productCacheInvalidationService).evict(any(Product.class));
+    }
+
+    @Test
+    void reserve_NotEnoughStock_Conflict_AndNothingTaken() {
+        stock.set(1);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class, () -> stockReservationService.reserve(SKU, 2));
+
+        assertEquals(1, stock.get());
+        verifyNoInteractions(productCacheInvalidationService);
+    }
+
+    @Test
+    void reserve_UnknownSku_NotFound() {
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> stockReservationService.reserve("NOPE", 1));
+        verify(productExistenceService).recordMissingSku("NOPE");
+    }
+
+    @Test
+    void reserve_RecordsReservation_AndReturnsItsId() {
+        stock.set(5);
+
+        StockReservationResponse response = stockReservationService.reserve(SKU, 2);
+
+        ArgumentCaptor<StockReservation> recorded = ArgumentCaptor.forClass(StockReservation.class);
+        verify(mongoTemplate).insert(recorded.capture());
+        assertNotNull(response.getReservationId());
+        assertEquals(response.getReservationId(), recorded.getValue().getReservationId());
+        assertEquals(SKU, recorded.getValue().getSku());
+        assertEquals(2, recorded.getValue().getQuantity());
+    }
+
+    @Test
+    void reserve_RecordFails_UnitsGivenBack() {
+        stock.set(5);
+        when(mongoTemplate.insert(any(StockReservation.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> stockReservationService.reserve(SKU, 2));
+
+        assertEquals(5, stock.get());
+    }
+
+    @Test
+    void release_GivesBackReservedQuantity() {
+        stock.set(0);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockReservation.class)))
+                .thenReturn(StockReservation.builder().reservationId("r-1").sku(SKU).quantity(3).build());
+
+        StockReservationResponse response = stockReservationService.release("r-1");
+
+        assertEquals(3, response.getRemainingStock());
+        assertEquals("r-1", response.getReservationId());
+    }
+
+    @Test
+    void release_UnknownOrAlreadyReleased_NotFound_AndNothingGivenBack() {
+        stock.set(0);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockReservation.class))).thenReturn(null);
+
+        assertThrows(StockReservationNotFoundException.class, () -> stockReservationService.release("r-1"));
+
+        assertEquals(0, stock.get());
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    void escrow_LeasesOncePerLeaseSize_AndFlushReturnsUnusedUnits() {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        stock.set(100);
+
+        for (int i = 0; i < 7; i++) {
+            stockReservationService.reserve(SKU, 1);
+        }
+
+        assertEquals(1, writes.get());
+        assertEquals(90, stock.get());
+        assertEquals(3, stockReservationService.flushEscrow());
+        assertEquals(93, stock.get());
+    }
+
+    @Test
+    void escrow_NearSellOut_TakesExactQuantity_ThenConflict() {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+        stock.set(3);
+
+        stockReservationService.reserve(SKU, 2);
+        stockReservationService.reserve(SKU, 1);
+
+        assertEquals(0, stock.get());
+        assertThrows(InsufficientStockException.class, () -> stockReservationService.reserve(SKU, 1));
+    }
+
+    @Test
+    void escrow_QuantityAboveStripeShare_TakenFromAllStripesWithoutLeasing() {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        stock.set(100);
+        stockReservationService.reserve(SKU, 1);
+
+        // Nine units left over four stripes, at most three in any one of them
+        stockReservationService.reserve(SKU, 5);
+
+        assertEquals(1, writes.get());
+        assertEquals(4, stockReservationService.flushEscrow());
+        assertEquals(94, stock.get());
+    }
+
+    @Test
+    void escrow_LessThanLeaseLeft_EscrowPlusRestFromMongo() {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        stock.set(12);
+        stockReservationService.reserve(SKU, 1);
+
+        stockReservationService.reserve(SKU, 11);
+
+        assertEquals(0, stock.get());
+        assertEquals(0, stockReservationService.flushEscrow());
+    }
+
+    @Test
+    void escrow_ReleaseGoesBackIntoEscrow() {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        stock.set(20);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockReservation.class)))
+                .thenReturn(StockReservation.builder().reservationId("r-1").sku(SKU).quantity(1).build());
+        stockReservationService.reserve(SKU, 1);
+
+        stockReservationService.release("r-1");
+        stockReservationService.reserve(SKU, 1);
+
+        // One lease of 10: one unit was taken, released and taken again, nine are returned
+        assertEquals(1, writes.get());
+        assertEquals(9, stockReservationService.flushEscrow());
+        assertEquals(19, stock.get());
+    }
+
+    @Test
+    void escrow_ConcurrentBuyersOfOneSku_NeverOversell() throws Exception {
+        ReflectionTestUtils.setField(stockReservationService, "escrowEnabled", true);
+        lenient().when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+        stock.set(1000);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(buyers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            stockReservationService.reserve(SKU, 1);
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                        if (i % 25 == 0) {
+                            stockReservationService.flushEscrow();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            buyers.shutdownNow();
+        }
+        stockReservationService.flushEscrow();
+        stockReservationService.flushEscrow();
+
+        assertEquals(1600, reserved.get() + rejected.get());
+        assertTrue(reserved.get() <= 1000);
+        assertEquals(1000 - reserved.get(), stock.get());
+    }
+}